@@ -0,0 +1,101 @@
+package ua.omld.jpc.task01;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The batch operations of <tt>HashSet</tt> against scalar loops over the same keys:
+ * <tt>containsAll(Object[], BitSet)</tt> and a <tt>removeAll</tt>/<tt>addAll</tt> round trip
+ * over arrays. The keys are shuffled, half of them are missing; at 10M elements the
+ * table and the entries are far larger than the L3 cache. Scores are per key.
+ *
+ * @author Oleksii Kostetskyi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class BatchLookupBenchmark {
+
+	private static final int KEYS = 1 << 20;
+
+	@Param({"100000", "10000000"})
+	int size;
+
+	private HashSet<Long> set;
+	private Long[] keys;
+	private Long[] present;
+	private BitSet result;
+
+	@Setup
+	public void setUp() {
+		Long[] all = KeyDistribution.RANDOM.keys(size + KEYS / 2);
+		set = new HashSet<>(size);
+		set.addAll(Arrays.copyOf(all, size));
+		keys = new Long[KEYS];
+		present = new Long[KEYS / 2];
+		for (int i = 0; i < KEYS / 2; i++) {
+			present[i] = all[(int) ((long) i * size / (KEYS / 2))];
+			keys[2 * i] = present[i];
+			keys[2 * i + 1] = all[size + i];
+		}
+		Collections.shuffle(Arrays.asList(keys));
+		Collections.shuffle(Arrays.asList(present));
+		result = new BitSet(KEYS);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(KEYS)
+	public int scalarContains() {
+		int found = 0;
+		for (Long key : keys) {
+			if (set.contains(key)) {
+				found++;
+			}
+		}
+		return found;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(KEYS)
+	public BitSet batchContains() {
+		set.containsAll(keys, result);
+		return result;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(KEYS)
+	public boolean scalarRemoveAdd() {
+		boolean modified = false;
+		for (Long key : present) {
+			modified |= set.remove(key);
+		}
+		for (Long key : present) {
+			modified |= set.add(key);
+		}
+		return modified;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(KEYS)
+	public boolean batchRemoveAdd() {
+		return set.removeAll((Object[]) present) | set.addAll(present);
+	}
+}
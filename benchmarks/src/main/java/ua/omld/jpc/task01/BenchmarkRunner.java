@@ -0,0 +1,31 @@
+package ua.omld.jpc.task01;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so every score comes with its allocation
+ * rate and bytes per operation (<tt>gc.alloc.rate.norm</tt>), and writes the results
+ * to <tt>jmh-result.json</tt>. Accepts the usual JMH command line options, e.g.
+ *
+ * <pre>java -cp benchmarks/target/benchmarks.jar ua.omld.jpc.task01.BenchmarkRunner SetLookup -p size=1000</pre>
+ *
+ * @author Oleksii Kostetskyi
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		new Runner(new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.resultFormat(ResultFormatType.JSON)
+				.result("jmh-result.json")
+				.build())
+				.run();
+	}
+}
@@ -0,0 +1,74 @@
+package ua.omld.jpc.task01;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a set from a loaded list: the copy constructor of <tt>HashSet</tt>, which loads
+ * large inputs in the common fork/join pool, against <tt>add</tt> one by one and against
+ * <tt>java.util.HashSet</tt>. For the scaling run it with different pool sizes, e.g.
+ * <tt>-jvmArgsAppend -Djava.util.concurrent.ForkJoinPool.common.parallelism=4</tt>;
+ * with parallelism 1 the constructor adds sequentially.
+ *
+ * @author Oleksii Kostetskyi
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class BulkBuildBenchmark {
+
+	@Param({"1000000", "10000000"})
+	int size;
+
+	@Param({"RANDOM", "DUPLICATES"})
+	String input;
+
+	private List<Long> elements;
+
+	@Setup
+	public void setUp() {
+		Long[] keys = KeyDistribution.RANDOM.keys(size);
+		if (input.equals("DUPLICATES")) {
+			for (int i = 1; i < keys.length; i += 2) {
+				keys[i] = keys[i - 1];
+			}
+		}
+		elements = Arrays.asList(keys);
+	}
+
+	@Benchmark
+	public Set<Long> copyConstructor() {
+		return new HashSet<>(elements);
+	}
+
+	@Benchmark
+	public Set<Long> addOneByOne() {
+		Set<Long> set = new HashSet<>(size);
+		for (Long e : elements) {
+			set.add(e);
+		}
+		return set;
+	}
+
+	@Benchmark
+	public Set<Long> javaUtil() {
+		return new java.util.HashSet<>(elements);
+	}
+}
@@ -0,0 +1,39 @@
+package ua.omld.jpc.task01;
+
+/**
+ * Prints chain length distributions of the original modulo indexing and of the
+ * mix-and-mask indexing for the benchmark key sets.
+ *
+ * <pre>java -cp benchmarks/target/benchmarks.jar ua.omld.jpc.task01.ChainLengthReport [size]</pre>
+ *
+ * @author Oleksii Kostetskyi
+ */
+public class ChainLengthReport {
+
+	private static final int MAX_LENGTH = 8;
+
+	public static void main(String[] args) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		StringBuilder header = new StringBuilder(String.format("%-10s %-9s %8s %8s %6s", "keys", "indexing", "max", "probes", "empty"));
+		for (int length = 1; length < MAX_LENGTH; length++) {
+			header.append(String.format(" %7s", "len " + length));
+		}
+		header.append(String.format(" %7s", "len " + MAX_LENGTH + "+"));
+		System.out.println(header);
+
+		for (KeyDistribution distribution : KeyDistribution.values()) {
+			Long[] keys = distribution.keys(size);
+			for (Indexing indexing : Indexing.values()) {
+				ChainedTable table = new ChainedTable(keys, indexing);
+				long[] histogram = table.chainLengths(MAX_LENGTH);
+				StringBuilder line = new StringBuilder(String.format("%-10s %-9s %8d %8.2f %5.1f%%",
+						distribution, indexing, table.maxChainLength(), table.averageProbes(),
+						100.0 * histogram[0] / table.capacity()));
+				for (int length = 1; length <= MAX_LENGTH; length++) {
+					line.append(String.format(" %7d", histogram[length]));
+				}
+				System.out.println(line);
+			}
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package ua.omld.jpc.task01;
+
+import java.util.Arrays;
+
+/**
+ * Minimal chained hash table which differs only by {@link Indexing}, so the index
+ * function can be measured in isolation. Keys are expected to be distinct.
+ *
+ * @author Oleksii Kostetskyi
+ */
+final class ChainedTable {
+
+	private final Indexing indexing;
+	private final Object[] keys;
+	private final int[] heads;
+	private final int[] next;
+
+	ChainedTable(Object[] keys, Indexing indexing) {
+		this.indexing = indexing;
+		this.keys = keys;
+		this.heads = new int[Hashing.tableSizeFor((int) (keys.length / 0.75f) + 1, 1 << 30)];
+		this.next = new int[keys.length];
+		Arrays.fill(heads, -1);
+		for (int i = 0; i < keys.length; i++) {
+			int index = indexing.index(keys[i].hashCode(), heads.length);
+			next[i] = heads[index];
+			heads[index] = i;
+		}
+	}
+
+	boolean contains(Object o) {
+		int i = heads[indexing.index(o.hashCode(), heads.length)];
+		while (i >= 0) {
+			if (keys[i].equals(o)) {
+				return true;
+			}
+			i = next[i];
+		}
+		return false;
+	}
+
+	/**
+	 * Returns a histogram of chain lengths: element <tt>i</tt> is the number of buckets
+	 * holding <tt>i</tt> keys, the last element counts all longer chains.
+	 */
+	long[] chainLengths(int maxLength) {
+		long[] histogram = new long[maxLength + 1];
+		for (int head : heads) {
+			int length = 0;
+			for (int i = head; i >= 0; i = next[i]) {
+				length++;
+			}
+			histogram[Math.min(length, maxLength)]++;
+		}
+		return histogram;
+	}
+
+	int maxChainLength() {
+		int max = 0;
+		for (int head : heads) {
+			int length = 0;
+			for (int i = head; i >= 0; i = next[i]) {
+				length++;
+			}
+			max = Math.max(max, length);
+		}
+		return max;
+	}
+
+	/**
+	 * Returns the average number of keys compared by a successful lookup.
+	 */
+	double averageProbes() {
+		long probes = 0;
+		for (int head : heads) {
+			int length = 0;
+			for (int i = head; i >= 0; i = next[i]) {
+				length++;
+			}
+			probes += (long) length * (length + 1) / 2;
+		}
+		return (double) probes / keys.length;
+	}
+
+	int capacity() {
+		return heads.length;
+	}
+}
@@ -0,0 +1,126 @@
+package ua.omld.jpc.task01;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Worst case of hashing: every key of the set has the same hash code. A chained
+ * bucket costs O(n) per operation here, a tree bucket O(log n) if the keys are
+ * comparable. Keys that are not comparable show the linear fallback.
+ *
+ * @author Oleksii Kostetskyi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+
+	private static final int PROBES = 1 << 12;
+
+	@Param({"HASH_SET", "OPEN_HASH_SET", "JAVA_UTIL"})
+	SetFactory implementation;
+
+	@Param({"16", "256", "4096"})
+	int size;
+
+	@Param({"COMPARABLE", "NOT_COMPARABLE"})
+	KeyType keyType;
+
+	private Set<Object> set;
+	private Object[] hits;
+	private Object[] misses;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		set = implementation.create(size, 0.75f);
+		Object[] keys = new Object[size];
+		for (int i = 0; i < size; i++) {
+			keys[i] = keyType.key(i);
+			set.add(keys[i]);
+		}
+		Collections.shuffle(Arrays.asList(keys), new Random(size));
+		hits = new Object[PROBES];
+		misses = new Object[PROBES];
+		for (int i = 0; i < PROBES; i++) {
+			hits[i] = keys[i % size];
+			misses[i] = keyType.key(size + i);
+		}
+	}
+
+	@Benchmark
+	public boolean containsHit() {
+		return set.contains(hits[next++ & (PROBES - 1)]);
+	}
+
+	@Benchmark
+	public boolean containsMiss() {
+		return set.contains(misses[next++ & (PROBES - 1)]);
+	}
+
+	@Benchmark
+	public boolean addRemove() {
+		Object key = misses[next++ & (PROBES - 1)];
+		return set.add(key) & set.remove(key);
+	}
+
+	public enum KeyType {
+		/**
+		 * <tt>Long</tt> keys with equal high and low halves: their hash codes are all 0.
+		 */
+		COMPARABLE {
+			@Override
+			Object key(int i) {
+				return (long) i << 32 | i;
+			}
+		},
+		/**
+		 * Keys with a constant hash code and no natural order.
+		 */
+		NOT_COMPARABLE {
+			@Override
+			Object key(int i) {
+				return new Key(i);
+			}
+		};
+
+		abstract Object key(int i);
+	}
+
+	static final class Key {
+
+		private final int id;
+
+		Key(int id) {
+			this.id = id;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Key && ((Key) o).id == id;
+		}
+
+		@Override
+		public int hashCode() {
+			return 0;
+		}
+	}
+}
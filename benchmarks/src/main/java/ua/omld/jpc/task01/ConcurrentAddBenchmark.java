@@ -0,0 +1,61 @@
+package ua.omld.jpc.task01;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write throughput of {@link ConcurrentHashSet} against a synchronized {@link HashSet}.
+ * Run with different thread counts to see the scaling, e.g.
+ *
+ * <pre>java -jar benchmarks/target/benchmarks.jar ConcurrentAddBenchmark -t 1 ; ... -t 32</pre>
+ *
+ * @author Oleksii Kostetskyi
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentAddBenchmark {
+
+	private static final int KEY_RANGE = 1 << 20;
+
+	@Param({"CONCURRENT", "SYNCHRONIZED"})
+	String implementation;
+
+	private Set<Integer> set;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		set = "CONCURRENT".equals(implementation)
+				? new ConcurrentHashSet<Integer>(KEY_RANGE)
+				: Collections.synchronizedSet(new HashSet<Integer>(KEY_RANGE));
+	}
+
+	@Benchmark
+	public boolean addRemove() {
+		Integer key = ThreadLocalRandom.current().nextInt(KEY_RANGE);
+		return set.add(key) || set.remove(key);
+	}
+
+	@Benchmark
+	public boolean contains() {
+		return set.contains(ThreadLocalRandom.current().nextInt(KEY_RANGE));
+	}
+}
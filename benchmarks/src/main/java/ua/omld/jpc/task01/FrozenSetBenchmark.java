@@ -0,0 +1,82 @@
+package ua.omld.jpc.task01;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups in a {@link FrozenHashSet} against the mutable sets it is frozen from.
+ *
+ * @author Oleksii Kostetskyi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class FrozenSetBenchmark {
+
+	private static final int PROBES = 1 << 16;
+
+	@Param({"HASH_SET", "FROZEN", "JAVA_UTIL"})
+	String implementation;
+
+	@Param({"1000", "100000", "10000000"})
+	int size;
+
+	private Set<Long> set;
+	private Long[] hits;
+	private Long[] misses;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		Long[] keys = KeyDistribution.RANDOM.keys(size);
+		HashSet<Long> source = new HashSet<>();
+		Collections.addAll(source, keys);
+		if (implementation.equals("FROZEN")) {
+			set = source.freeze();
+		} else if (implementation.equals("JAVA_UTIL")) {
+			set = new java.util.HashSet<>(source);
+		} else {
+			set = source;
+		}
+		hits = probes(keys);
+		misses = probes(KeyDistribution.RANDOM.missingKeys(size, Math.min(size, PROBES)));
+	}
+
+	private static Long[] probes(Long[] keys) {
+		Long[] shuffled = keys.clone();
+		Collections.shuffle(Arrays.asList(shuffled), new Random(keys.length));
+		Long[] probes = new Long[PROBES];
+		for (int i = 0; i < PROBES; i++) {
+			probes[i] = shuffled[i % shuffled.length];
+		}
+		return probes;
+	}
+
+	@Benchmark
+	public boolean containsHit() {
+		return set.contains(hits[next++ & (PROBES - 1)]);
+	}
+
+	@Benchmark
+	public boolean containsMiss() {
+		return set.contains(misses[next++ & (PROBES - 1)]);
+	}
+}
@@ -0,0 +1,31 @@
+package ua.omld.jpc.task01;
+
+/**
+ * Ways to turn a hash code into an index of a power-of-two table.
+ *
+ * @author Oleksii Kostetskyi
+ */
+public enum Indexing {
+
+	/**
+	 * The original <tt>HashSet.hashFunction</tt>: absolute value modulo table length.
+	 * Division on every call, low bits of the hash code only.
+	 */
+	MODULO {
+		@Override
+		int index(int hashCode, int length) {
+			return Math.abs(hashCode % length);
+		}
+	},
+	/**
+	 * Current <tt>HashSet</tt> indexing: mixed hash masked by table length - 1.
+	 */
+	MIX_MASK {
+		@Override
+		int index(int hashCode, int length) {
+			return Hashing.mix(hashCode) & (length - 1);
+		}
+	};
+
+	abstract int index(int hashCode, int length);
+}
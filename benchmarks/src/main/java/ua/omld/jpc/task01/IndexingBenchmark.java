@@ -0,0 +1,73 @@
+package ua.omld.jpc.task01;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup throughput of a chained table with the original modulo indexing and with
+ * the mix-and-mask indexing, for key sets with poor hash codes.
+ *
+ * <p>Run {@link ChainLengthReport} to see the chain length distributions behind the numbers.
+ *
+ * @author Oleksii Kostetskyi
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexingBenchmark {
+
+	private static final int LOOKUPS = 1024;
+
+	@Param({"MODULO", "MIX_MASK"})
+	Indexing indexing;
+
+	@Param({"RANDOM", "SEQUENTIAL", "ALIGNED", "HIGH_BITS"})
+	KeyDistribution distribution;
+
+	@Param({"1000", "100000"})
+	int size;
+
+	private ChainedTable table;
+	private Long[] lookups;
+
+	@Setup
+	public void setUp() {
+		Long[] keys = distribution.keys(size);
+		table = new ChainedTable(keys, indexing);
+		lookups = new Long[LOOKUPS];
+		Long[] shuffled = keys.clone();
+		Collections.shuffle(Arrays.asList(shuffled), new java.util.Random(size));
+		for (int i = 0; i < LOOKUPS; i++) {
+			lookups[i] = shuffled[i % shuffled.length];
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LOOKUPS)
+	public int containsHit() {
+		int found = 0;
+		for (Long key : lookups) {
+			if (table.contains(key)) {
+				found++;
+			}
+		}
+		return found;
+	}
+}
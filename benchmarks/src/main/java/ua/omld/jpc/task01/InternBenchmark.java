@@ -0,0 +1,82 @@
+package ua.omld.jpc.task01;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deduplicating parsed strings: <tt>HashSet.intern</tt> against <tt>get</tt> and then
+ * <tt>add</tt> (two lookups) and against <tt>HashMap.putIfAbsent</tt>, the usual canonicalizing
+ * map. The input holds fresh copies of <tt>distinct</tt> values; scores are per string.
+ *
+ * @author Oleksii Kostetskyi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class InternBenchmark {
+
+	private static final int COUNT = 1 << 20;
+
+	@Param({"1000", "100000"})
+	int distinct;
+
+	private String[] input;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		input = new String[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			input[i] = new String("value-" + random.nextInt(distinct));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public HashSet<String> intern() {
+		HashSet<String> canonical = new HashSet<>();
+		for (String s : input) {
+			canonical.intern(s);
+		}
+		return canonical;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public HashSet<String> getThenAdd() {
+		HashSet<String> canonical = new HashSet<>();
+		for (String s : input) {
+			if (canonical.get(s) == null) {
+				canonical.add(s);
+			}
+		}
+		return canonical;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public Map<String, String> putIfAbsent() {
+		Map<String, String> canonical = new java.util.HashMap<>();
+		for (String s : input) {
+			canonical.putIfAbsent(s, s);
+		}
+		return canonical;
+	}
+}
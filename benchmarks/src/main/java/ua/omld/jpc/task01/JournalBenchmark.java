@@ -0,0 +1,81 @@
+package ua.omld.jpc.task01;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of journaling a mutation: <tt>add</tt>/<tt>remove</tt> churn on a
+ * {@link JournaledHashSet} against a plain {@link HashSet} of the same size.
+ *
+ * @author Oleksii Kostetskyi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalBenchmark {
+
+	private static final int SIZE = 100_000;
+	private static final int PROBES = 1 << 16;
+
+	@Param({"PLAIN", "GROUP_COMMIT", "NEVER"})
+	String journal;
+
+	private Path directory;
+	private HashSet<Long> set;
+	private Long[] misses;
+	private int next;
+
+	@Setup
+	public void setUp() throws IOException {
+		if (journal.equals("PLAIN")) {
+			set = new HashSet<>();
+		} else {
+			directory = Files.createTempDirectory("journal");
+			JournaledHashSet<Long> journaled = new JournaledHashSet<>(directory, ElementCodecs.LONG,
+					FsyncPolicy.valueOf(journal), 10);
+			set = journaled;
+		}
+		for (Long key : KeyDistribution.RANDOM.keys(SIZE)) {
+			set.add(key);
+		}
+		misses = KeyDistribution.RANDOM.missingKeys(SIZE, PROBES);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		if (set instanceof JournaledHashSet) {
+			((JournaledHashSet<Long>) set).close();
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+				for (Path file : files) {
+					Files.delete(file);
+				}
+			}
+			Files.delete(directory);
+		}
+	}
+
+	@Benchmark
+	public boolean addRemove() {
+		Long key = misses[next++ & (PROBES - 1)];
+		return set.add(key) & set.remove(key);
+	}
+}
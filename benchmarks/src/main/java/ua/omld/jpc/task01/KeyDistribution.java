@@ -0,0 +1,111 @@
+package ua.omld.jpc.task01;
+
+import java.util.Random;
+
+/**
+ * Key sets used by the benchmarks.
+ *
+ * @author Oleksii Kostetskyi
+ */
+public enum KeyDistribution {
+
+	/**
+	 * Uniformly distributed random keys.
+	 */
+	RANDOM {
+		@Override
+		long key(int i, Random random) {
+			return random.nextLong();
+		}
+	},
+	/**
+	 * Consecutive keys, like database sequence ids.
+	 */
+	SEQUENTIAL {
+		@Override
+		long key(int i, Random random) {
+			return i;
+		}
+	},
+	/**
+	 * Keys with zero low bits, like ids allocated in blocks of 1024 or aligned addresses.
+	 */
+	ALIGNED {
+		@Override
+		long key(int i, Random random) {
+			return (long) i << 10;
+		}
+	},
+	/**
+	 * Keys differing only in the high half, so {@link Long#hashCode()} keeps just a few low bits.
+	 */
+	HIGH_BITS {
+		@Override
+		long key(int i, Random random) {
+			return (long) i << 40;
+		}
+	},
+	/**
+	 * Keys in groups of {@link #COLLISION_GROUP} with equal {@link Long#hashCode()}:
+	 * <tt>(a &lt;&lt; 32) | (a ^ h)</tt> hashes to <tt>h</tt> for any <tt>a</tt>.
+	 */
+	COLLIDING {
+		@Override
+		long key(int i, Random random) {
+			int h = i / COLLISION_GROUP;
+			return (long) i << 32 | ((i ^ h) & 0xffffffffL);
+		}
+	};
+
+	/**
+	 * Number of keys sharing a hash code in {@link #COLLIDING} distribution.
+	 */
+	public static final int COLLISION_GROUP = 16;
+
+	private static final long SEED = 20201107L;
+
+	abstract long key(int i, Random random);
+
+	/**
+	 * Returns <tt>count</tt> distinct keys of this distribution.
+	 *
+	 * @param count number of keys
+	 * @return keys
+	 */
+	public Long[] keys(int count) {
+		Random random = new Random(SEED);
+		java.util.HashSet<Long> unique = new java.util.HashSet<>(count * 2);
+		Long[] keys = new Long[count];
+		for (int i = 0, n = 0; n < count; i++) {
+			Long key = key(i, random);
+			if (unique.add(key)) {
+				keys[n++] = key;
+			}
+		}
+		return keys;
+	}
+
+	/**
+	 * Returns <tt>count</tt> keys of this distribution which are not among {@link #keys(int) keys(count)}.
+	 *
+	 * @param count number of keys
+	 * @return keys
+	 */
+	public Long[] missingKeys(int count) {
+		return missingKeys(count, count);
+	}
+
+	/**
+	 * Returns <tt>count</tt> keys of this distribution which are not among {@link #keys(int) keys(size)}.
+	 *
+	 * @param size  number of present keys
+	 * @param count number of keys
+	 * @return keys
+	 */
+	public Long[] missingKeys(int size, int count) {
+		Long[] keys = keys(size + count);
+		Long[] missing = new Long[count];
+		System.arraycopy(keys, size, missing, 0, count);
+		return missing;
+	}
+}
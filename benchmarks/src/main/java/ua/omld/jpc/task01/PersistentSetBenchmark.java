@@ -0,0 +1,84 @@
+package ua.omld.jpc.task01;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handing out a consistent view after every update: {@link PersistentHashSet#snapshot()}
+ * against copying a {@link HashSet}, and lookups in both.
+ *
+ * @author Oleksii Kostetskyi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PersistentSetBenchmark {
+
+	@Param({"COPY", "PERSISTENT"})
+	String implementation;
+
+	@Param({"1000", "100000"})
+	int size;
+
+	private HashSet<Long> hashSet;
+	private PersistentHashSet<Long> persistentSet;
+	private Set<Long> set;
+	private Long[] keys;
+	private Long[] missing;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		keys = KeyDistribution.RANDOM.keys(size);
+		missing = KeyDistribution.RANDOM.missingKeys(size);
+		hashSet = new HashSet<>();
+		Collections.addAll(hashSet, keys);
+		persistentSet = new PersistentHashSet<>(hashSet);
+		set = implementation.equals("COPY") ? hashSet : persistentSet;
+	}
+
+	/**
+	 * Replaces one element and takes a view of the result.
+	 */
+	@Benchmark
+	public Set<Long> updateAndSnapshot() {
+		int i = next++ % size;
+		if (implementation.equals("COPY")) {
+			hashSet.remove(keys[i]);
+			hashSet.add(missing[i]);
+			swap(i);
+			return new HashSet<>(hashSet);
+		}
+		persistentSet.remove(keys[i]);
+		persistentSet.add(missing[i]);
+		swap(i);
+		return persistentSet.snapshot();
+	}
+
+	private void swap(int i) {
+		Long key = keys[i];
+		keys[i] = missing[i];
+		missing[i] = key;
+	}
+
+	@Benchmark
+	public boolean containsHit() {
+		return set.contains(keys[next++ % size]);
+	}
+}
@@ -0,0 +1,110 @@
+package ua.omld.jpc.task01;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups of present and absent keys in the primitive sets, <tt>IntHashSet</tt> and
+ * <tt>LongHashSet</tt>, against sets of boxed <tt>Long</tt>: <tt>HashSet</tt> and
+ * <tt>java.util.HashSet</tt>. All sets hold the same values; the boxed probes are
+ * allocated in the setup, so the boxed sets pay only for the pointer chasing.
+ *
+ * @author Oleksii Kostetskyi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class PrimitiveSetBenchmark {
+
+	private static final int PROBES = 1 << 16;
+
+	@Param({"INT_HASH_SET", "LONG_HASH_SET", "HASH_SET", "JAVA_UTIL"})
+	String implementation;
+
+	@Param({"1000", "100000", "10000000"})
+	int size;
+
+	private IntHashSet intSet;
+	private LongHashSet longSet;
+	private Set<Long> set;
+	private int[] hits;
+	private int[] misses;
+	private Long[] boxedHits;
+	private Long[] boxedMisses;
+	private int next;
+
+	/**
+	 * Distinct pseudo-random values: multiplication by an odd constant is a bijection of ints.
+	 */
+	private static int value(int i) {
+		return i * 0x9E3779B1;
+	}
+
+	@Setup
+	public void setUp() {
+		intSet = new IntHashSet();
+		longSet = new LongHashSet();
+		set = implementation.equals("HASH_SET") ? new HashSet<Long>() : new java.util.HashSet<Long>();
+		for (int i = 0; i < size; i++) {
+			if (implementation.equals("INT_HASH_SET")) {
+				intSet.add(value(i));
+			} else if (implementation.equals("LONG_HASH_SET")) {
+				longSet.add(value(i));
+			} else {
+				set.add((long) value(i));
+			}
+		}
+		hits = new int[PROBES];
+		misses = new int[PROBES];
+		boxedHits = new Long[PROBES];
+		boxedMisses = new Long[PROBES];
+		for (int i = 0; i < PROBES; i++) {
+			// a stride coprime with the size visits the present values out of order
+			hits[i] = value((int) ((i * 40503L) % size));
+			misses[i] = value(size + i);
+			boxedHits[i] = (long) hits[i];
+			boxedMisses[i] = (long) misses[i];
+		}
+	}
+
+	@Benchmark
+	public boolean containsHit() {
+		int i = next++ & (PROBES - 1);
+		switch (implementation) {
+			case "INT_HASH_SET":
+				return intSet.contains(hits[i]);
+			case "LONG_HASH_SET":
+				return longSet.contains(hits[i]);
+			default:
+				return set.contains(boxedHits[i]);
+		}
+	}
+
+	@Benchmark
+	public boolean containsMiss() {
+		int i = next++ & (PROBES - 1);
+		switch (implementation) {
+			case "INT_HASH_SET":
+				return intSet.contains(misses[i]);
+			case "LONG_HASH_SET":
+				return longSet.contains(misses[i]);
+			default:
+				return set.contains(boxedMisses[i]);
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package ua.omld.jpc.task01;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-set operations: building a set by <tt>add</tt> from the default capacity,
+ * <tt>addAll</tt>, iteration, <tt>retainAll</tt> and <tt>removeAll</tt>.
+ * Scores are times of one operation over the whole set, divide by <tt>size</tt>
+ * to get the time per element.
+ *
+ * @author Oleksii Kostetskyi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class SetBulkBenchmark {
+
+	@Param({"HASH_SET", "HASH_SET_INCREMENTAL", "OPEN_HASH_SET", "JAVA_UTIL"})
+	SetFactory implementation;
+
+	@Param({"10", "1000", "100000", "10000000"})
+	int size;
+
+	@Param({"RANDOM", "SEQUENTIAL", "COLLIDING"})
+	KeyDistribution distribution;
+
+	@Param({"0.5", "0.75"})
+	float loadFactor;
+
+	private List<Long> keys;
+	private Set<Long> set;
+	/**
+	 * Half of the set elements and as many other keys.
+	 */
+	private Set<Long> other;
+	private Set<Long> target;
+
+	@Setup
+	public void setUp() {
+		Long[] present = distribution.keys(size);
+		keys = Arrays.asList(present);
+		set = implementation.create(size, loadFactor);
+		set.addAll(keys);
+		other = implementation.create(size, loadFactor);
+		other.addAll(keys.subList(0, size / 2));
+		other.addAll(Arrays.asList(distribution.missingKeys(size, size - size / 2)));
+	}
+
+	/**
+	 * <tt>retainAll</tt> and <tt>removeAll</tt> change the set, so they work on a fresh copy.
+	 */
+	@Setup(Level.Invocation)
+	public void copy() {
+		target = implementation.create(size, loadFactor);
+		target.addAll(set);
+	}
+
+	@Benchmark
+	public Set<Long> add() {
+		Set<Long> built = implementation.create(0, loadFactor);
+		for (Long key : keys) {
+			built.add(key);
+		}
+		return built;
+	}
+
+	@Benchmark
+	public Set<Long> addAll() {
+		Set<Long> built = implementation.create(0, loadFactor);
+		built.addAll(set);
+		return built;
+	}
+
+	@Benchmark
+	public void iterate(Blackhole blackhole) {
+		for (Long element : set) {
+			blackhole.consume(element);
+		}
+	}
+
+	@Benchmark
+	public boolean retainAll() {
+		return target.retainAll(other);
+	}
+
+	@Benchmark
+	public boolean removeAll() {
+		return target.removeAll(other);
+	}
+}
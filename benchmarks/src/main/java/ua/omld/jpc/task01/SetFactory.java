@@ -0,0 +1,90 @@
+package ua.omld.jpc.task01;
+
+import java.util.Set;
+
+/**
+ * Set implementations compared by the benchmarks.
+ *
+ * @author Oleksii Kostetskyi
+ */
+public enum SetFactory {
+
+	/**
+	 * {@link HashSet} of this project.
+	 */
+	HASH_SET {
+		@Override
+		<E> Set<E> create(int expectedSize, float loadFactor) {
+			return new HashSet<>(capacity(expectedSize, loadFactor), loadFactor);
+		}
+	},
+	/**
+	 * {@link HashSet} of this project with incremental rehash.
+	 */
+	HASH_SET_INCREMENTAL {
+		@Override
+		<E> Set<E> create(int expectedSize, float loadFactor) {
+			return new HashSet<>(capacity(expectedSize, loadFactor), loadFactor, true);
+		}
+	},
+	/**
+	 * {@link HashSet} of this project reusing removed entries.
+	 */
+	HASH_SET_POOLED {
+		@Override
+		<E> Set<E> create(int expectedSize, float loadFactor) {
+			HashSet<E> set = new HashSet<>(capacity(expectedSize, loadFactor), loadFactor);
+			set.setEntryPoolCapacity(1024);
+			return set;
+		}
+	},
+	/**
+	 * {@link LinkedHashSet} of this project in insertion order.
+	 */
+	LINKED_HASH_SET {
+		@Override
+		<E> Set<E> create(int expectedSize, float loadFactor) {
+			return new LinkedHashSet<>(capacity(expectedSize, loadFactor), loadFactor);
+		}
+	},
+	/**
+	 * {@link BloomFilteredHashSet} of this project.
+	 */
+	BLOOM_FILTERED {
+		@Override
+		<E> Set<E> create(int expectedSize, float loadFactor) {
+			return new BloomFilteredHashSet<>(capacity(expectedSize, loadFactor), loadFactor);
+		}
+	},
+	/**
+	 * {@link OpenHashSet} of this project.
+	 */
+	OPEN_HASH_SET {
+		@Override
+		<E> Set<E> create(int expectedSize, float loadFactor) {
+			return new OpenHashSet<>(capacity(expectedSize, loadFactor), Math.min(loadFactor, 0.9f));
+		}
+	},
+	/**
+	 * The baseline: {@link java.util.HashSet}.
+	 */
+	JAVA_UTIL {
+		@Override
+		<E> Set<E> create(int expectedSize, float loadFactor) {
+			return new java.util.HashSet<>(capacity(expectedSize, loadFactor), loadFactor);
+		}
+	};
+
+	/**
+	 * Creates an empty set.
+	 *
+	 * @param expectedSize number of elements to size the table for, 0 for the default capacity
+	 * @param loadFactor   load factor of the table
+	 * @return new set
+	 */
+	abstract <E> Set<E> create(int expectedSize, float loadFactor);
+
+	private static int capacity(int expectedSize, float loadFactor) {
+		return expectedSize == 0 ? 16 : (int) Math.min(1 << 30, (long) (expectedSize / loadFactor) + 1);
+	}
+}
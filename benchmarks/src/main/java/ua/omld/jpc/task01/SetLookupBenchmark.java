@@ -0,0 +1,97 @@
+package ua.omld.jpc.task01;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-element operations on a set of a fixed size: lookups of present and
+ * absent keys, and add/remove churn which keeps the size constant.
+ *
+ * <p>Keys are taken from a shuffled array in turn, so the CPU cannot predict them
+ * and large sets pay for their cache misses.
+ *
+ * @author Oleksii Kostetskyi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class SetLookupBenchmark {
+
+	private static final int PROBES = 1 << 16;
+
+	@Param({"HASH_SET", "OPEN_HASH_SET", "JAVA_UTIL"})
+	SetFactory implementation;
+
+	@Param({"10", "1000", "100000", "10000000"})
+	int size;
+
+	@Param({"RANDOM", "SEQUENTIAL", "COLLIDING"})
+	KeyDistribution distribution;
+
+	@Param({"0.75"})
+	float loadFactor;
+
+	private Set<Long> set;
+	private Long[] hits;
+	private Long[] misses;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		Long[] keys = distribution.keys(size);
+		set = implementation.create(0, loadFactor);
+		Collections.addAll(set, keys);
+		hits = probes(keys);
+		misses = probes(distribution.missingKeys(size, Math.min(size, PROBES)));
+	}
+
+	private static Long[] probes(Long[] keys) {
+		Long[] shuffled = keys.clone();
+		Collections.shuffle(Arrays.asList(shuffled), new Random(keys.length));
+		Long[] probes = new Long[PROBES];
+		for (int i = 0; i < PROBES; i++) {
+			probes[i] = shuffled[i % shuffled.length];
+		}
+		return probes;
+	}
+
+	@Benchmark
+	public boolean containsHit() {
+		return set.contains(hits[next++ & (PROBES - 1)]);
+	}
+
+	@Benchmark
+	public boolean containsMiss() {
+		return set.contains(misses[next++ & (PROBES - 1)]);
+	}
+
+	@Benchmark
+	public boolean addRemove() {
+		Long key = misses[next++ & (PROBES - 1)];
+		return set.add(key) & set.remove(key);
+	}
+
+	@Benchmark
+	public boolean removeAdd() {
+		Long key = hits[next++ & (PROBES - 1)];
+		return set.remove(key) & set.add(key);
+	}
+}
@@ -0,0 +1,71 @@
+package ua.omld.jpc.task01;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Restoring a set: reading a {@link HashSetSnapshot} from a mapped file against
+ * adding the same elements one by one to a set of the default capacity.
+ *
+ * @author Oleksii Kostetskyi
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class SnapshotBenchmark {
+
+	@Param({"1000000", "10000000"})
+	int size;
+
+	private Long[] keys;
+	private Path file;
+
+	@Setup
+	public void setUp() throws IOException {
+		keys = KeyDistribution.RANDOM.keys(size);
+		HashSet<Long> set = new HashSet<>();
+		for (Long key : keys) {
+			set.add(key);
+		}
+		file = Files.createTempFile("set", ".snapshot");
+		HashSetSnapshot.write(set, ElementCodecs.LONG, file);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.delete(file);
+	}
+
+	@Benchmark
+	public Set<Long> readSnapshot() throws IOException {
+		return HashSetSnapshot.read(file, ElementCodecs.LONG);
+	}
+
+	@Benchmark
+	public Set<Long> addOneByOne() {
+		HashSet<Long> set = new HashSet<>();
+		for (Long key : keys) {
+			set.add(key);
+		}
+		return set;
+	}
+}
@@ -0,0 +1,56 @@
+package ua.omld.jpc.task01;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequential and parallel <tt>filter/map/count</tt> over a set: how the spliterator
+ * of the set splits the work among the cores of the common pool.
+ *
+ * @author Oleksii Kostetskyi
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class StreamBenchmark {
+
+	@Param({"HASH_SET", "JAVA_UTIL"})
+	SetFactory implementation;
+
+	@Param({"1000000", "50000000"})
+	int size;
+
+	private Set<Long> set;
+
+	@Setup
+	public void setUp() {
+		set = implementation.create(size, 0.75f);
+		Collections.addAll(set, KeyDistribution.RANDOM.keys(size));
+	}
+
+	@Benchmark
+	public long sequential() {
+		return set.stream().filter(x -> (x & 1) == 0).map(x -> x * 3).count();
+	}
+
+	@Benchmark
+	public long parallel() {
+		return set.parallelStream().filter(x -> (x & 1) == 0).map(x -> x * 3).count();
+	}
+}
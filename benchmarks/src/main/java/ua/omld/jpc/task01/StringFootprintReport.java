@@ -0,0 +1,55 @@
+package ua.omld.jpc.task01;
+
+import java.util.Set;
+
+/**
+ * Prints the heap taken by a set of strings per element: <tt>java.util.HashSet</tt>,
+ * <tt>HashSet</tt> and <tt>CompactStringSet</tt> holding the same strings. The heap
+ * is measured after a full collection, so run it with a heap that fits the sets.
+ *
+ * <pre>java -Xmx4g -cp benchmarks/target/benchmarks.jar ua.omld.jpc.task01.StringFootprintReport [size]</pre>
+ *
+ * @author Oleksii Kostetskyi
+ */
+public class StringFootprintReport {
+
+	public static void main(String[] args) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		System.out.println(String.format("%-18s %10s %14s", "set", "strings", "bytes/string"));
+
+		long before = usedHeap();
+		Set<String> jdk = new java.util.HashSet<>();
+		for (int i = 0; i < size; i++) {
+			jdk.add(StringSetBenchmark.word(i));
+		}
+		print("java.util.HashSet", jdk.size(), usedHeap() - before);
+		jdk = null;
+
+		before = usedHeap();
+		HashSet<String> hashSet = new HashSet<>();
+		for (int i = 0; i < size; i++) {
+			hashSet.add(StringSetBenchmark.word(i));
+		}
+		print("HashSet", hashSet.size(), usedHeap() - before);
+		hashSet = null;
+
+		before = usedHeap();
+		CompactStringSet compact = new CompactStringSet();
+		for (int i = 0; i < size; i++) {
+			compact.add(StringSetBenchmark.word(i));
+		}
+		print("CompactStringSet", compact.size(), usedHeap() - before);
+	}
+
+	private static void print(String name, int size, long bytes) {
+		System.out.println(String.format("%-18s %10d %14.1f", name, size, (double) bytes / size));
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
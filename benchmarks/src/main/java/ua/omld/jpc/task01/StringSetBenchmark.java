@@ -0,0 +1,140 @@
+package ua.omld.jpc.task01;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looking up tokens of a UTF-8 buffer, half of them present: <tt>CompactStringSet</tt> by
+ * the byte range and by a <tt>String</tt>, against <tt>java.util.HashSet</tt> and <tt>HashSet</tt>
+ * of strings, which need a <tt>String</tt> decoded from the bytes. Scores are per token.
+ *
+ * @author Oleksii Kostetskyi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StringSetBenchmark {
+
+	private static final int TOKENS = 1 << 16;
+
+	@Param({"1000", "1000000"})
+	int size;
+
+	private CompactStringSet compact;
+	private Set<String> jdk;
+	private HashSet<String> hashSet;
+	private byte[] buffer;
+	private int[] offsets;
+	private String[] tokens;
+
+	static String word(int i) {
+		return "user." + Integer.toString(i * 0x9E3779B1 >>> 1, 36) + (i % 4 == 0 ? "-прізвище" : "");
+	}
+
+	@Setup
+	public void setUp() {
+		compact = new CompactStringSet(size);
+		jdk = new java.util.HashSet<>(size * 2);
+		hashSet = new HashSet<>(size);
+		for (int i = 0; i < size; i++) {
+			String word = word(i);
+			compact.add(word);
+			jdk.add(word);
+			hashSet.add(word);
+		}
+		Random random = new Random(42);
+		StringBuilder text = new StringBuilder();
+		tokens = new String[TOKENS];
+		for (int i = 0; i < TOKENS; i++) {
+			// every other token is missing
+			tokens[i] = word(random.nextInt(size) + (i % 2 == 0 ? 0 : size));
+			text.append(tokens[i]).append('\n');
+		}
+		buffer = text.toString().getBytes(StandardCharsets.UTF_8);
+		offsets = new int[TOKENS + 1];
+		for (int i = 0, at = 0; i < TOKENS; i++) {
+			at += tokens[i].getBytes(StandardCharsets.UTF_8).length + 1;
+			offsets[i + 1] = at;
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TOKENS)
+	public int compactBytes() {
+		int found = 0;
+		for (int i = 0; i < TOKENS; i++) {
+			if (compact.contains(buffer, offsets[i], offsets[i + 1] - offsets[i] - 1)) {
+				found++;
+			}
+		}
+		return found;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TOKENS)
+	public int compactString() {
+		int found = 0;
+		for (String token : tokens) {
+			if (compact.contains(token)) {
+				found++;
+			}
+		}
+		return found;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TOKENS)
+	public int jdkDecoded() {
+		int found = 0;
+		for (int i = 0; i < TOKENS; i++) {
+			String token = new String(buffer, offsets[i], offsets[i + 1] - offsets[i] - 1, StandardCharsets.UTF_8);
+			if (jdk.contains(token)) {
+				found++;
+			}
+		}
+		return found;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TOKENS)
+	public int hashSetDecoded() {
+		int found = 0;
+		for (int i = 0; i < TOKENS; i++) {
+			String token = new String(buffer, offsets[i], offsets[i + 1] - offsets[i] - 1, StandardCharsets.UTF_8);
+			if (hashSet.contains(token)) {
+				found++;
+			}
+		}
+		return found;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TOKENS)
+	public int jdkString() {
+		int found = 0;
+		for (String token : tokens) {
+			if (jdk.contains(token)) {
+				found++;
+			}
+		}
+		return found;
+	}
+}
@@ -0,0 +1,62 @@
+package ua.omld.jpc.task01;
+
+import java.util.Arrays;
+
+/**
+ * A register-blocked Bloom filter: all the bits of a key are in one 64-bit word,
+ * so a test reads one word, and so one cache line, instead of bits scattered
+ * over the whole filter.
+ *
+ * <p>The word is chosen by the high half of a 64-bit hash, the {@value #BITS_PER_KEY}
+ * bits by the low half multiplied by odd constants (as in the split block Bloom filter
+ * of Apache Parquet).
+ *
+ * @author Oleksii Kostetskyi
+ */
+final class BlockedBloomFilter {
+
+	static final int BITS_PER_KEY = 4;
+
+	private static final int SALT0 = 0x47b6137b;
+	private static final int SALT1 = 0x44974d91;
+	private static final int SALT2 = 0x8824ad5b;
+	private static final int SALT3 = 0xa2b7289d;
+
+	private final long[] words;
+
+	/**
+	 * @param bits number of bits, rounded up to whole words
+	 */
+	BlockedBloomFilter(long bits) {
+		words = new long[(int) Math.max(1, Math.min((bits + Long.SIZE - 1) / Long.SIZE, Integer.MAX_VALUE - 8))];
+	}
+
+	void put(long hash) {
+		words[word(hash)] |= mask((int) hash);
+	}
+
+	/**
+	 * Returns <tt>false</tt> if the key was never put, <tt>true</tt> if it probably was.
+	 */
+	boolean mightContain(long hash) {
+		long mask = mask((int) hash);
+		return (words[word(hash)] & mask) == mask;
+	}
+
+	void clear() {
+		Arrays.fill(words, 0);
+	}
+
+	long bitSize() {
+		return (long) words.length * Long.SIZE;
+	}
+
+	private int word(long hash) {
+		return (int) (((hash >>> 32) * words.length) >>> 32);
+	}
+
+	private static long mask(int key) {
+		return 1L << (key * SALT0 >>> 26) | 1L << (key * SALT1 >>> 26)
+				| 1L << (key * SALT2 >>> 26) | 1L << (key * SALT3 >>> 26);
+	}
+}
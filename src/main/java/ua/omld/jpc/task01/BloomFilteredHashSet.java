@@ -0,0 +1,224 @@
+package ua.omld.jpc.task01;
+
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * A {@link HashSet} with a blocked Bloom filter in front of <tt>contains</tt>.
+ * An absent element is usually rejected by the filter after reading one word,
+ * without loading its bucket and calling <tt>equals</tt>; the rest of misses
+ * (false positives) and the hits go to the hashtable.
+ *
+ * <p>The filter has {@value #BITS_PER_SLOT} bits per slot of the hashtable,
+ * 11 to 21 bits per element depending on the load, which gives about 0.3% to 1.5%
+ * false positives. It is updated by <tt>add</tt> and rebuilt when the hashtable
+ * grows and when it is cleared. Bloom filters cannot forget, so removed elements
+ * stay in the filter and raise the false positive rate until it is rebuilt; it is
+ * also rebuilt when the removed elements outnumber the present ones.
+ *
+ * <p>Filtering is opt-in: it pays off when most lookups miss. The set counts the
+ * misses rejected by the filter and the ones it let through, see
+ * {@link #getFalsePositiveRate()}.
+ *
+ * <p><strong>This implementation is not tread-safe.</strong>
+ *
+ * @author Oleksii Kostetskyi
+ */
+public class BloomFilteredHashSet<E> extends HashSet<E> {
+
+	static final int BITS_PER_SLOT = 8;
+
+	private BlockedBloomFilter filter;
+	/**
+	 * Elements put into the filter since it was built, removed ones included.
+	 */
+	private int filtered;
+	private long rejected;
+	private long falsePositives;
+
+	/**
+	 * Constructs a new, empty set with default initial capacity (16) and load factor (0.75).
+	 */
+	public BloomFilteredHashSet() {
+		this(16);
+	}
+
+	/**
+	 * Constructs a new, empty set with given initial capacity and default load factor (0.75).
+	 *
+	 * @param initialCapacity the initial capacity of the hashtable
+	 * @throws IllegalArgumentException if the initial capacity is less then 1 and greater then 2^30.
+	 */
+	public BloomFilteredHashSet(int initialCapacity) {
+		this(initialCapacity, 0.75f);
+	}
+
+	/**
+	 * Constructs a new, empty set with given initial capacity and load factor.
+	 *
+	 * @param initialCapacity the initial capacity of the hashtable
+	 * @param loadFactor      the load factor of the hashtable
+	 * @throws IllegalArgumentException if the initial capacity is less then 1 and greater then 2^30,
+	 *                                  or if the load factor is not positive.
+	 */
+	public BloomFilteredHashSet(int initialCapacity, float loadFactor) {
+		this(initialCapacity, loadFactor, false);
+	}
+
+	/**
+	 * Constructs a new, empty set with given initial capacity, load factor and rehash mode.
+	 *
+	 * @param initialCapacity   the initial capacity of the hashtable
+	 * @param loadFactor        the load factor of the hashtable
+	 * @param incrementalRehash <tt>true</tt> to move elements to the grown table
+	 *                          a few buckets per operation, <tt>false</tt> to move them at once
+	 * @throws IllegalArgumentException if the initial capacity is less then 1 and greater then 2^30,
+	 *                                  or if the load factor is not positive.
+	 */
+	public BloomFilteredHashSet(int initialCapacity, float loadFactor, boolean incrementalRehash) {
+		super(initialCapacity, loadFactor, incrementalRehash);
+		filter = new BlockedBloomFilter((long) capacity() * BITS_PER_SLOT);
+	}
+
+	/**
+	 * Constructs a new set containing the elements in the specified collection.
+	 *
+	 * @param c the collection whose elements are to be placed into this set
+	 */
+	public BloomFilteredHashSet(Collection<E> c) {
+		this(capacityFor(c.size(), 0.75f));
+		addAll(c);
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		if (!filter.mightContain(hash(o))) {
+			rejected++;
+			return false;
+		}
+		if (super.contains(o)) {
+			return true;
+		}
+		falsePositives++;
+		return false;
+	}
+
+	@Override
+	public E get(Object o) {
+		if (!filter.mightContain(hash(o))) {
+			rejected++;
+			return null;
+		}
+		Entry<E> entry = getEntry(o);
+		if (entry == null) {
+			falsePositives++;
+			return null;
+		}
+		return entry.value;
+	}
+
+	@Override
+	public boolean add(E e) {
+		if (!super.add(e)) {
+			return false;
+		}
+		filterAdded(e);
+		return true;
+	}
+
+	@Override
+	public E intern(E e) {
+		int oldSize = size();
+		E canonical = super.intern(e);
+		if (size() > oldSize) {
+			filterAdded(e);
+		}
+		return canonical;
+	}
+
+	@Override
+	boolean load(E e) {
+		if (!super.load(e)) {
+			return false;
+		}
+		filterAdded(e);
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		filter.clear();
+		filtered = 0;
+	}
+
+	/**
+	 * Returns the share of absent elements the filter did not reject: the false
+	 * positives among the misses of <tt>contains</tt> since the counters were reset.
+	 *
+	 * @return observed false positive rate, 0 if there were no misses
+	 */
+	public double getFalsePositiveRate() {
+		long misses = rejected + falsePositives;
+		return misses == 0 ? 0 : (double) falsePositives / misses;
+	}
+
+	/**
+	 * Returns the number of <tt>contains</tt> calls answered by the filter alone.
+	 *
+	 * @return rejected lookups since the counters were reset
+	 */
+	public long getRejectedCount() {
+		return rejected;
+	}
+
+	/**
+	 * Returns the number of <tt>contains</tt> calls the filter let through for absent elements.
+	 *
+	 * @return false positives since the counters were reset
+	 */
+	public long getFalsePositiveCount() {
+		return falsePositives;
+	}
+
+	/**
+	 * Sets the rejected and false positive counters to zero.
+	 */
+	public void resetCounters() {
+		rejected = 0;
+		falsePositives = 0;
+	}
+
+	@Override
+	void afterResize() {
+		rebuildFilter();
+	}
+
+	@Override
+	void presize(int expectedSize) {
+		super.presize(expectedSize);
+		if (filter.bitSize() < (long) capacity() * BITS_PER_SLOT) {
+			rebuildFilter();
+		}
+	}
+
+	private void filterAdded(E e) {
+		filter.put(hash(e));
+		if (++filtered > 2 * size() + Long.SIZE) {
+			// the removed elements outnumber the present ones
+			rebuildFilter();
+		}
+	}
+
+	private void rebuildFilter() {
+		filter = new BlockedBloomFilter((long) capacity() * BITS_PER_SLOT);
+		for (E e : this) {
+			filter.put(hash(e));
+		}
+		filtered = size();
+	}
+
+	private static long hash(Object o) {
+		return Hashing.mix64(Objects.hashCode(o));
+	}
+}
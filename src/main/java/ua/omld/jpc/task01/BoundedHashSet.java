@@ -0,0 +1,547 @@
+package ua.omld.jpc.task01;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A {@link HashSet} with a maximum size and an optional time-to-live of the elements,
+ * for "seen recently" sets that must not grow without bound.
+ *
+ * <p>When an <tt>add</tt> brings the set over its maximum size, an element is evicted
+ * by the CLOCK policy: the entries form a ring in insertion order, and a present
+ * element that is looked up or added again gets a reference bit. The eviction hand
+ * moves from the eldest entry, clearing the bits and giving the referenced entries
+ * a second chance, and evicts the first entry without the bit. A lookup only sets
+ * the bit, so it costs the same as in <tt>HashSet</tt>.
+ *
+ * <p>With a time-to-live an element expires that long after it was last added.
+ * Lookups check the expiry time of the element itself. Expired elements are
+ * removed by a timing wheel: {@value #WHEEL_SLOTS} slots, one per tick of 1/64 of
+ * the time-to-live, each listing the entries expiring within its tick. Every mutating
+ * operation and <tt>contains</tt> turn the wheel to the current tick and remove the
+ * entries of the slots passed, so there is no background thread and no scan of
+ * the hashtable, and the work is proportional to the number of expired elements.
+ * Elements expired within the current tick are counted by <tt>size</tt> and returned
+ * by the iterator until the wheel passes them.
+ *
+ * <p>Once the set is full, the hashtable no longer grows, so its memory stays fixed.
+ *
+ * <p><strong>This implementation is not tread-safe.</strong> Lookups change the state of
+ * the set (reference bits and expiry), so even concurrent readers need a lock.
+ *
+ * <p>The iterators returned by this class's <tt>iterator</tt> method are
+ * <i>not fail-fast</i>; the set must not be looked up during iteration.
+ *
+ * @author Oleksii Kostetskyi
+ */
+public class BoundedHashSet<E> extends HashSet<E> {
+
+	/**
+	 * Number of slots of the timing wheel; a time-to-live spans 64 of them.
+	 */
+	static final int WHEEL_SLOTS = 128;
+	private static final int TICKS_PER_TTL = 64;
+
+	private final int maximumSize;
+	private final long timeToLive;
+	private final long tickNanos;
+	private final Ticker ticker;
+	private final long origin;
+	/**
+	 * Heads of the timing wheel slots, <tt>null</tt> without time-to-live.
+	 */
+	private final BoundedEntry<E>[] wheel;
+	/**
+	 * The tick the wheel has been turned to: slots of the earlier ticks are empty.
+	 */
+	private long wheelTick;
+	/**
+	 * Current time of the operation, nanoseconds since the set was created.
+	 */
+	private long now;
+	/**
+	 * The eldest entry of the ring, where the eviction hand is.
+	 */
+	private BoundedEntry<E> head;
+	private BoundedEntry<E> tail;
+	private long evictionCount;
+	private long expirationCount;
+
+	/**
+	 * Source of time in nanoseconds, like <tt>System.nanoTime()</tt>. Tests replace it to move time by hand.
+	 */
+	public interface Ticker {
+
+		/**
+		 * The ticker of <tt>System.nanoTime()</tt>.
+		 */
+		Ticker SYSTEM = new Ticker() {
+			@Override
+			public long read() {
+				return System.nanoTime();
+			}
+		};
+
+		/**
+		 * Returns the current time in nanoseconds, from an arbitrary origin.
+		 *
+		 * @return time in nanoseconds
+		 */
+		long read();
+	}
+
+	/**
+	 * Constructs a new, empty set holding at most the given number of elements, without expiry.
+	 *
+	 * @param maximumSize maximum number of elements
+	 * @throws IllegalArgumentException if the maximum size is less then 1.
+	 */
+	public BoundedHashSet(int maximumSize) {
+		this(maximumSize, 0, TimeUnit.NANOSECONDS, Ticker.SYSTEM);
+	}
+
+	/**
+	 * Constructs a new, empty set holding at most the given number of elements,
+	 * each for the given time after it was last added.
+	 *
+	 * @param maximumSize maximum number of elements, {@link Integer#MAX_VALUE} for no limit
+	 * @param timeToLive  time an element stays in the set, 0 for no expiry
+	 * @param unit        unit of the time-to-live
+	 * @throws IllegalArgumentException if the maximum size is less then 1 or the time-to-live is negative.
+	 */
+	public BoundedHashSet(int maximumSize, long timeToLive, TimeUnit unit) {
+		this(maximumSize, timeToLive, unit, Ticker.SYSTEM);
+	}
+
+	/**
+	 * Constructs a new, empty set holding at most the given number of elements,
+	 * each for the given time after it was last added, measured by the given ticker.
+	 *
+	 * @param maximumSize maximum number of elements, {@link Integer#MAX_VALUE} for no limit
+	 * @param timeToLive  time an element stays in the set, 0 for no expiry
+	 * @param unit        unit of the time-to-live
+	 * @param ticker      source of time
+	 * @throws IllegalArgumentException if the maximum size is less then 1 or the time-to-live is negative.
+	 */
+	public BoundedHashSet(int maximumSize, long timeToLive, TimeUnit unit, Ticker ticker) {
+		super();
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException("Maximum size is out of bounds: " + maximumSize);
+		}
+		if (timeToLive < 0) {
+			throw new IllegalArgumentException("Illegal time-to-live: " + timeToLive);
+		}
+		this.maximumSize = maximumSize;
+		this.timeToLive = unit.toNanos(timeToLive);
+		this.ticker = ticker;
+		origin = ticker.read();
+		if (this.timeToLive > 0) {
+			// rounded up without the overflow of a saturated time-to-live
+			tickNanos = this.timeToLive / TICKS_PER_TTL + (this.timeToLive % TICKS_PER_TTL == 0 ? 0 : 1);
+			wheel = new BoundedEntry[WHEEL_SLOTS];
+		} else {
+			tickNanos = 0;
+			wheel = null;
+		}
+	}
+
+	/**
+	 * Returns <tt>true</tt> if this set contains the specified element and it has not
+	 * expired. A present element gets the reference bit and is spared by the next
+	 * eviction pass.
+	 *
+	 * @param o element whose presence in this set is to be tested
+	 * @return <tt>true</tt> if this set contains the specified element
+	 */
+	@Override
+	public boolean contains(Object o) {
+		return liveEntry(o) != null;
+	}
+
+	/**
+	 * Returns the element of this set equal to the specified object if it has not expired,
+	 * <tt>null</tt> otherwise. A present element gets the reference bit, like by <tt>contains</tt>.
+	 *
+	 * @param o object to be looked for
+	 * @return the element of this set equal to <tt>o</tt>, or <tt>null</tt>
+	 */
+	@Override
+	public E get(Object o) {
+		BoundedEntry<E> entry = liveEntry(o);
+		return entry == null ? null : entry.value;
+	}
+
+	private BoundedEntry<E> liveEntry(Object o) {
+		advance();
+		BoundedEntry<E> entry = (BoundedEntry<E>) getEntry(o);
+		if (entry == null) {
+			return null;
+		}
+		if (isExpired(entry)) {
+			expire(entry);
+			return null;
+		}
+		entry.referenced = true;
+		return entry;
+	}
+
+	/**
+	 * Adds the specified element to this set if it is not already present, evicting
+	 * an element if the set gets over its maximum size. Adding a present element
+	 * renews its time-to-live.
+	 *
+	 * @param e element to be added to this set
+	 * @return <tt>true</tt> if this set did not already contain the specified element
+	 */
+	@Override
+	public boolean add(E e) {
+		advance();
+		if (renew(e) != null) {
+			return false;
+		}
+		if (!super.add(e)) {
+			return false;
+		}
+		if (super.size() > maximumSize) {
+			evict();
+		}
+		return true;
+	}
+
+	/**
+	 * Interns the specified element like {@link HashSet#intern(Object)}, evicting an element
+	 * if the set gets over its maximum size. Interning a present element renews its time-to-live.
+	 *
+	 * @param e element to be interned
+	 * @return the element of this set equal to <tt>e</tt>, or <tt>e</tt> if it has just been added
+	 */
+	@Override
+	public E intern(E e) {
+		advance();
+		BoundedEntry<E> renewed = renew(e);
+		if (renewed != null) {
+			return renewed.value;
+		}
+		int oldSize = super.size();
+		E canonical = super.intern(e);
+		if (super.size() > oldSize && super.size() > maximumSize) {
+			evict();
+		}
+		return canonical;
+	}
+
+	/**
+	 * With expiry, renews the time-to-live of the present element equal to the specified one
+	 * and returns its entry; an expired element is expired now. Returns <tt>null</tt> if there
+	 * is no live element or no expiry, then the element goes to the table as usual.
+	 */
+	private BoundedEntry<E> renew(E e) {
+		if (wheel == null) {
+			return null;
+		}
+		BoundedEntry<E> entry = (BoundedEntry<E>) getEntry(e);
+		if (entry == null) {
+			return null;
+		}
+		if (isExpired(entry)) {
+			expire(entry);
+			return null;
+		}
+		entry.referenced = true;
+		schedule(entry);
+		return entry;
+	}
+
+	/**
+	 * Removes the specified element from this set if it is present and has not expired.
+	 *
+	 * @param o object to be removed from this set, if present
+	 * @return <tt>true</tt> if this set contained the specified element
+	 */
+	@Override
+	public boolean remove(Object o) {
+		advance();
+		if (wheel != null) {
+			BoundedEntry<E> entry = (BoundedEntry<E>) getEntry(o);
+			if (entry != null && isExpired(entry)) {
+				expire(entry);
+				return false;
+			}
+		}
+		return super.remove(o);
+	}
+
+	/**
+	 * Returns an iterator over the elements in this set from the eldest to the youngest.
+	 *
+	 * @return an iterator over the elements in this set
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		advance();
+		return new RingIterator();
+	}
+
+	@Override
+	public Spliterator<E> spliterator() {
+		advance();
+		return super.spliterator();
+	}
+
+	/**
+	 * Performs the action for each element from the eldest to the youngest.
+	 *
+	 * @param action the action to be performed for each element
+	 * @throws NullPointerException if the specified action is null
+	 */
+	@Override
+	public void forEach(Consumer<? super E> action) {
+		Objects.requireNonNull(action);
+		advance();
+		for (BoundedEntry<E> entry = head; entry != null; entry = entry.after) {
+			action.accept(entry.value);
+		}
+	}
+
+	@Override
+	public boolean removeIf(Predicate<? super E> filter) {
+		advance();
+		return super.removeIf(filter);
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		head = tail = null;
+		if (wheel != null) {
+			Arrays.fill(wheel, null);
+		}
+	}
+
+	/**
+	 * Returns the maximum number of elements of this set.
+	 *
+	 * @return maximum size
+	 */
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Returns the number of elements evicted because the set was full.
+	 *
+	 * @return eviction count
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Returns the number of elements removed because their time-to-live passed.
+	 *
+	 * @return expiration count
+	 */
+	public long getExpirationCount() {
+		return expirationCount;
+	}
+
+	/**
+	 * Sets the eviction and expiration counters to zero.
+	 */
+	public void resetCounters() {
+		evictionCount = 0;
+		expirationCount = 0;
+	}
+
+	@Override
+	Entry<E> createEntry() {
+		return new BoundedEntry<>();
+	}
+
+	@Override
+	void afterEntryInsertion(Entry<E> entry) {
+		BoundedEntry<E> bounded = (BoundedEntry<E>) entry;
+		// like a page loaded by CLOCK, a new element starts referenced
+		bounded.referenced = true;
+		linkLast(bounded);
+		if (wheel != null) {
+			schedule(bounded);
+		}
+	}
+
+	@Override
+	void afterEntryAccess(Entry<E> entry) {
+		((BoundedEntry<E>) entry).referenced = true;
+	}
+
+	@Override
+	void afterEntryRemoval(Entry<E> entry) {
+		BoundedEntry<E> bounded = (BoundedEntry<E>) entry;
+		unlink(bounded);
+		if (wheel != null) {
+			unschedule(bounded);
+		}
+	}
+
+	/**
+	 * Moves the CLOCK hand until an entry without the reference bit, and evicts it.
+	 * Referenced entries lose the bit and go to the end of the ring.
+	 */
+	private void evict() {
+		for (BoundedEntry<E> hand = head; ; hand = head) {
+			if (!hand.referenced) {
+				super.remove(hand.value);
+				evictionCount++;
+				return;
+			}
+			hand.referenced = false;
+			unlink(hand);
+			linkLast(hand);
+		}
+	}
+
+	private boolean isExpired(BoundedEntry<E> entry) {
+		return wheel != null && entry.expiresAt - now <= 0;
+	}
+
+	/**
+	 * Returns the length of a tick of the timing wheel in nanoseconds, or <tt>0</tt> without expiry.
+	 */
+	long tickNanos() {
+		return tickNanos;
+	}
+
+	private void expire(BoundedEntry<E> entry) {
+		super.remove(entry.value);
+		expirationCount++;
+	}
+
+	/**
+	 * Reads the time and turns the wheel to the current tick, removing the expired
+	 * entries of the slots passed. A slot can also hold entries expiring a whole
+	 * turn later, which stay.
+	 */
+	private void advance() {
+		if (wheel == null) {
+			return;
+		}
+		now = ticker.read() - origin;
+		long currentTick = now / tickNanos;
+		if (currentTick - wheelTick > WHEEL_SLOTS) {
+			wheelTick = currentTick - WHEEL_SLOTS;
+		}
+		for (; wheelTick < currentTick; wheelTick++) {
+			BoundedEntry<E> entry = wheel[(int) (wheelTick & (WHEEL_SLOTS - 1))];
+			while (entry != null) {
+				BoundedEntry<E> next = entry.wheelNext;
+				if (entry.expiresAt - now <= 0) {
+					expire(entry);
+				}
+				entry = next;
+			}
+		}
+	}
+
+	/**
+	 * Puts the entry to the slot of its new expiry time.
+	 */
+	private void schedule(BoundedEntry<E> entry) {
+		if (entry.slot >= 0) {
+			unschedule(entry);
+		}
+		entry.expiresAt = now + timeToLive;
+		int slot = (int) ((entry.expiresAt / tickNanos) & (WHEEL_SLOTS - 1));
+		entry.slot = slot;
+		entry.wheelNext = wheel[slot];
+		if (wheel[slot] != null) {
+			wheel[slot].wheelPrevious = entry;
+		}
+		wheel[slot] = entry;
+	}
+
+	private void unschedule(BoundedEntry<E> entry) {
+		if (entry.wheelPrevious == null) {
+			wheel[entry.slot] = entry.wheelNext;
+		} else {
+			entry.wheelPrevious.wheelNext = entry.wheelNext;
+		}
+		if (entry.wheelNext != null) {
+			entry.wheelNext.wheelPrevious = entry.wheelPrevious;
+		}
+		entry.wheelPrevious = entry.wheelNext = null;
+		entry.slot = -1;
+	}
+
+	private void linkLast(BoundedEntry<E> entry) {
+		entry.before = tail;
+		if (tail == null) {
+			head = entry;
+		} else {
+			tail.after = entry;
+		}
+		tail = entry;
+	}
+
+	private void unlink(BoundedEntry<E> entry) {
+		if (entry.before == null) {
+			head = entry.after;
+		} else {
+			entry.before.after = entry.after;
+		}
+		if (entry.after == null) {
+			tail = entry.before;
+		} else {
+			entry.after.before = entry.before;
+		}
+		entry.before = entry.after = null;
+	}
+
+	private static final class BoundedEntry<E> extends Entry<E> {
+		boolean referenced;
+		BoundedEntry<E> before;
+		BoundedEntry<E> after;
+		long expiresAt;
+		/**
+		 * Timing wheel slot of the entry, <tt>-1</tt> if it is not scheduled.
+		 */
+		int slot = -1;
+		BoundedEntry<E> wheelPrevious;
+		BoundedEntry<E> wheelNext;
+	}
+
+	private class RingIterator implements Iterator<E> {
+
+		private BoundedEntry<E> next = head;
+		private BoundedEntry<E> current;
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public E next() {
+			if (next == null) {
+				throw new NoSuchElementException();
+			}
+			current = next;
+			next = next.after;
+			return current.value;
+		}
+
+		@Override
+		public void remove() {
+			if (current == null) {
+				throw new IllegalStateException("First call next().");
+			}
+			BoundedHashSet.super.remove(current.value);
+			current = null;
+		}
+	}
+}
@@ -0,0 +1,761 @@
+package ua.omld.jpc.task01;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of strings that keeps their UTF-8 bytes back to back in large byte arrays (arenas)
+ * instead of <tt>String</tt> objects. Every string is stored as its length in bytes
+ * (a varint) followed by the bytes. The open-addressing table with linear probing holds
+ * one <tt>long</tt> per slot: the mixed hash of the string in the high half and the address
+ * of its bytes in the low half. So a probe reads one slot, compares the hashes and only
+ * then the bytes, and a resize does not hash the strings again.
+ *
+ * <p>An element costs its UTF-8 bytes, a byte or two of length and a table slot of
+ * 8 bytes / load factor, instead of an entry, a <tt>String</tt> and a <tt>byte[]</tt>
+ * (some 60 bytes of headers and references for a short string). The arenas and the table
+ * are the only objects, so the garbage collector has nothing to trace.
+ *
+ * <p>Strings are looked up by any <tt>CharSequence</tt> or by a range of UTF-8 bytes,
+ * without building a <tt>String</tt>. The hash is that of <tt>String.hashCode</tt>, so
+ * both kinds of keys find the same element, and the hash code of the set is that of
+ * a <tt>Set&lt;String&gt;</tt> with these elements. Strings with unpaired surrogates have
+ * no UTF-8 form and are rejected.
+ *
+ * <p>The current arena starts small and doubles up to {@value #ARENA_SIZE} bytes, then new
+ * arenas are added; the set holds up to 2 GB of bytes. The bytes of removed strings are
+ * reclaimed by copying the live strings to new arenas when the removed ones take more
+ * than half of the arenas.
+ *
+ * <p><strong>This implementation is not tread-safe.</strong>
+ *
+ * @author Oleksii Kostetskyi
+ */
+public class CompactStringSet {
+
+	private static final int MAX_CAPACITY = 1 << 30;
+	private static final int DEFAULT_CAPACITY = 1 << 4;
+	private static final float DEFAULT_LOAD_FACTOR = 0.5f;
+	/**
+	 * The low bits of an address are the offset in an arena, the high bits are the arena index.
+	 */
+	private static final int ARENA_BITS = 24;
+	private static final int ARENA_SIZE = 1 << ARENA_BITS;
+	private static final int MAX_ARENAS = 1 << (31 - ARENA_BITS);
+	private static final int FIRST_ARENA_SIZE = 1 << 8;
+	/**
+	 * The longest string in bytes: it must fit in one arena with its length.
+	 */
+	private static final int MAX_LENGTH = ARENA_SIZE - 4;
+	/**
+	 * The least number of removed bytes that makes the arenas compacted.
+	 */
+	private static final int MIN_COMPACTION = 1 << 16;
+
+	private final float loadFactor;
+
+	/**
+	 * Slots of the table: the mixed hash in the high 32 bits and the address plus one
+	 * in the low 32 bits, <tt>0</tt> for an empty slot.
+	 */
+	private long[] slots;
+	private int mask;
+	private int threshold;
+	private int size;
+	/**
+	 * Sum of <tt>String.hashCode</tt> of the elements, that is the hash code of this set.
+	 */
+	private int hashSum;
+
+	private byte[][] arenas = new byte[4][];
+	private int arenaCount;
+	/**
+	 * Offset of the free space in the last arena.
+	 */
+	private int position;
+	private long usedBytes;
+	private long removedBytes;
+
+	/**
+	 * Constructs a new, empty set; the table has default initial capacity (16)
+	 * and default load factor (0.5).
+	 */
+	public CompactStringSet() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a new, empty set; the table has given initial capacity
+	 * (rounded up to a power of two) and default load factor (0.5).
+	 *
+	 * @param initialCapacity the initial capacity of the table
+	 * @throws IllegalArgumentException if the initial capacity is less then 1 and greater then 2^30.
+	 */
+	public CompactStringSet(int initialCapacity) {
+		this(initialCapacity, DEFAULT_LOAD_FACTOR);
+	}
+
+	/**
+	 * Constructs a new, empty set; the table has given initial capacity
+	 * (rounded up to a power of two) and given load factor.
+	 *
+	 * @param initialCapacity the initial capacity of the table
+	 * @param loadFactor      the load factor of the table
+	 * @throws IllegalArgumentException if the initial capacity is less then 1 and greater then 2^30,
+	 *                                  or if the load factor is not between 0 and 1 (exclusive).
+	 */
+	public CompactStringSet(int initialCapacity, float loadFactor) {
+		if (initialCapacity < 1 || initialCapacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("Capacity is out of bounds: " + initialCapacity);
+		}
+		if (!(loadFactor > 0 && loadFactor < 1)) {
+			throw new IllegalArgumentException("Illegal load factor: " + loadFactor);
+		}
+		this.loadFactor = loadFactor;
+		allocate(Math.max(2, Hashing.tableSizeFor(initialCapacity, MAX_CAPACITY)));
+	}
+
+	/**
+	 * Returns the number of strings in this set.
+	 *
+	 * @return the number of strings in this set
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns <tt>true</tt> if this set contains no strings.
+	 *
+	 * @return <tt>true</tt> if this set contains no strings
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns <tt>true</tt> if this set contains the string with the characters of the specified sequence.
+	 *
+	 * @param s characters of the string whose presence in this set is to be tested
+	 * @return <tt>true</tt> if this set contains the string
+	 * @throws NullPointerException if the specified sequence is null
+	 */
+	public boolean contains(CharSequence s) {
+		int length = utf8Length(s);
+		return length >= 0 && indexOf(Hashing.mix(hashOf(s)), s, length) >= 0;
+	}
+
+	/**
+	 * Returns <tt>true</tt> if this set contains the string encoded by the specified UTF-8 bytes.
+	 * Malformed bytes encode no string, so they are not contained.
+	 *
+	 * @param utf8   array holding the bytes
+	 * @param offset index of the first byte
+	 * @param length number of bytes
+	 * @return <tt>true</tt> if this set contains the string
+	 * @throws IndexOutOfBoundsException if the range is out of the array bounds
+	 */
+	public boolean contains(byte[] utf8, int offset, int length) {
+		checkRange(utf8, offset, length);
+		long hash = hashOf(utf8, offset, length);
+		return hash >= 0 && indexOf(Hashing.mix((int) hash), utf8, offset, length) >= 0;
+	}
+
+	/**
+	 * Adds the string with the characters of the specified sequence to this set if it is not already present.
+	 *
+	 * @param s characters of the string to be added to this set
+	 * @return <tt>true</tt> if this set did not already contain the string
+	 * @throws NullPointerException     if the specified sequence is null
+	 * @throws IllegalArgumentException if the sequence has unpaired surrogates or is longer than 16M bytes in UTF-8
+	 */
+	public boolean add(CharSequence s) {
+		int length = utf8Length(s);
+		if (length < 0) {
+			throw new IllegalArgumentException("Unpaired surrogate in: " + s);
+		}
+		checkLength(length);
+		int hash = hashOf(s);
+		if (indexOf(Hashing.mix(hash), s, length) >= 0) {
+			return false;
+		}
+		int address = reserve(length);
+		int start = startOf(address);
+		encode(s, arenas[address >>> ARENA_BITS], start);
+		insert(hash, address);
+		return true;
+	}
+
+	/**
+	 * Adds the string encoded by the specified UTF-8 bytes to this set if it is not already present.
+	 *
+	 * @param utf8   array holding the bytes
+	 * @param offset index of the first byte
+	 * @param length number of bytes
+	 * @return <tt>true</tt> if this set did not already contain the string
+	 * @throws IndexOutOfBoundsException if the range is out of the array bounds
+	 * @throws IllegalArgumentException  if the bytes are not well-formed UTF-8 or there are more than 16M of them
+	 */
+	public boolean add(byte[] utf8, int offset, int length) {
+		checkRange(utf8, offset, length);
+		long hash = hashOf(utf8, offset, length);
+		if (hash < 0) {
+			throw new IllegalArgumentException("Malformed UTF-8 at index " + (offset + (int) ~hash));
+		}
+		checkLength(length);
+		if (indexOf(Hashing.mix((int) hash), utf8, offset, length) >= 0) {
+			return false;
+		}
+		int address = reserve(length);
+		System.arraycopy(utf8, offset, arenas[address >>> ARENA_BITS], startOf(address), length);
+		insert((int) hash, address);
+		return true;
+	}
+
+	/**
+	 * Removes the string with the characters of the specified sequence from this set if it is present.
+	 *
+	 * @param s characters of the string to be removed from this set
+	 * @return <tt>true</tt> if this set contained the string
+	 * @throws NullPointerException if the specified sequence is null
+	 */
+	public boolean remove(CharSequence s) {
+		int length = utf8Length(s);
+		if (length < 0) {
+			return false;
+		}
+		int hash = hashOf(s);
+		int index = indexOf(Hashing.mix(hash), s, length);
+		if (index < 0) {
+			return false;
+		}
+		removedBytes += lengthSize(length) + length;
+		shiftBack(index);
+		size--;
+		hashSum -= hash;
+		if (removedBytes >= MIN_COMPACTION && removedBytes > usedBytes / 2) {
+			compact();
+		}
+		return true;
+	}
+
+	/**
+	 * Removes all of the strings from this set and releases the arenas.
+	 * The set will be empty after this call returns.
+	 */
+	public void clear() {
+		Arrays.fill(slots, 0);
+		size = 0;
+		hashSum = 0;
+		releaseArenas();
+	}
+
+	/**
+	 * Returns an array containing all of the strings in this set.
+	 *
+	 * @return an array containing all the strings in this set
+	 */
+	public String[] toArray() {
+		String[] array = new String[size];
+		Cursor cursor = cursor();
+		for (int i = 0; cursor.advance(); i++) {
+			array[i] = cursor.value();
+		}
+		return array;
+	}
+
+	/**
+	 * Returns a cursor over the strings in this set. The strings are returned
+	 * in no particular order. The set must not be modified while the cursor is in use.
+	 *
+	 * @return a cursor positioned before the first string
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * Compares the specified object with this set for equality. Returns <tt>true</tt>
+	 * if the specified object is also a <tt>CompactStringSet</tt> with the same strings.
+	 *
+	 * @param o object to be compared for equality with this set
+	 * @return <tt>true</tt> if the specified object is equal to this set
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+		if (!(o instanceof CompactStringSet)) {
+			return false;
+		}
+		CompactStringSet other = (CompactStringSet) o;
+		if (other.size != size || other.hashSum != hashSum) {
+			return false;
+		}
+		for (long slot : other.slots) {
+			if (slot != 0) {
+				int address = addressOf(slot);
+				byte[] arena = other.arenas[address >>> ARENA_BITS];
+				int length = lengthAt(arena, address & (ARENA_SIZE - 1));
+				int start = (address & (ARENA_SIZE - 1)) + lengthSize(length);
+				if (indexOf((int) (slot >>> 32), arena, start, length) < 0) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the hash code value for this set: the sum of hash codes of the strings,
+	 * the same as for a <tt>Set&lt;String&gt;</tt> with these strings.
+	 *
+	 * @return the hash code value for this set
+	 */
+	@Override
+	public int hashCode() {
+		return hashSum;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		Cursor cursor = cursor();
+		while (cursor.advance()) {
+			if (sb.length() > 1) {
+				sb.append(", ");
+			}
+			sb.append(cursor.value());
+		}
+		return sb.append(']').toString();
+	}
+
+	/**
+	 * Returns the number of bytes in the arenas, both of the present and of removed strings.
+	 *
+	 * @return the number of bytes in the arenas
+	 */
+	public long arenaBytes() {
+		return usedBytes;
+	}
+
+	private void allocate(int capacity) {
+		slots = new long[capacity];
+		mask = capacity - 1;
+		threshold = capacity == MAX_CAPACITY ? MAX_CAPACITY - 1 : (int) (capacity * loadFactor);
+	}
+
+	/**
+	 * Returns the slot index of the string with the given characters, its mixed hash and
+	 * UTF-8 length, or <tt>-1</tt> if it is absent.
+	 */
+	private int indexOf(int hash, CharSequence s, int length) {
+		int index = hash & mask;
+		long slot;
+		while ((slot = slots[index]) != 0) {
+			if ((int) (slot >>> 32) == hash) {
+				int address = addressOf(slot);
+				byte[] arena = arenas[address >>> ARENA_BITS];
+				int offset = address & (ARENA_SIZE - 1);
+				if (lengthAt(arena, offset) == length && equalsChars(arena, offset + lengthSize(length), length, s)) {
+					return index;
+				}
+			}
+			index = (index + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the slot index of the string with the given bytes and mixed hash, or <tt>-1</tt> if it is absent.
+	 */
+	private int indexOf(int hash, byte[] utf8, int offset, int length) {
+		int index = hash & mask;
+		long slot;
+		while ((slot = slots[index]) != 0) {
+			if ((int) (slot >>> 32) == hash) {
+				int address = addressOf(slot);
+				byte[] arena = arenas[address >>> ARENA_BITS];
+				int at = address & (ARENA_SIZE - 1);
+				int start = at + lengthSize(length);
+				if (lengthAt(arena, at) == length
+						&& Arrays.equals(arena, start, start + length, utf8, offset, offset + length)) {
+					return index;
+				}
+			}
+			index = (index + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Puts the address of a new string with the given <tt>String.hashCode</tt> into the table.
+	 */
+	private void insert(int hashCode, int address) {
+		int hash = Hashing.mix(hashCode);
+		int index = hash & mask;
+		while (slots[index] != 0) {
+			index = (index + 1) & mask;
+		}
+		slots[index] = slotOf(hash, address);
+		hashSum += hashCode;
+		if (++size > threshold) {
+			resize();
+		}
+	}
+
+	/**
+	 * Doubles the table. A table of {@value #MAX_CAPACITY} slots is never filled:
+	 * so many strings take more than the 2 GB of arenas.
+	 */
+	private void resize() {
+		long[] oldSlots = slots;
+		allocate(slots.length << 1);
+		for (long slot : oldSlots) {
+			if (slot != 0) {
+				int index = (int) (slot >>> 32) & mask;
+				while (slots[index] != 0) {
+					index = (index + 1) & mask;
+				}
+				slots[index] = slot;
+			}
+		}
+	}
+
+	/**
+	 * Empties the slot at the given index and moves back the following strings
+	 * of the probe sequence, so every string stays reachable from its home slot.
+	 */
+	private void shiftBack(int gap) {
+		int index = gap;
+		long slot;
+		while ((slot = slots[index = (index + 1) & mask]) != 0) {
+			int home = (int) (slot >>> 32) & mask;
+			// the string may fill the gap only if its home slot is not in (gap, index]
+			if (((index - home) & mask) >= ((index - gap) & mask)) {
+				slots[gap] = slot;
+				gap = index;
+			}
+		}
+		slots[gap] = 0;
+	}
+
+	/**
+	 * Reserves room for a string of the given UTF-8 length and writes the length.
+	 *
+	 * @return the address of the string
+	 */
+	private int reserve(int length) {
+		int need = lengthSize(length) + length;
+		byte[] arena = arenaCount == 0 ? null : arenas[arenaCount - 1];
+		if (arena == null || position + need > arena.length) {
+			if (arena != null && position + need <= ARENA_SIZE) {
+				arenas[arenaCount - 1] = Arrays.copyOf(arena, grownLength(arena.length, position + need));
+			} else {
+				if (arenaCount == MAX_ARENAS) {
+					throw new IllegalStateException("Set is full");
+				}
+				if (arenaCount == arenas.length) {
+					arenas = Arrays.copyOf(arenas, arenas.length * 2);
+				}
+				if (arena != null) {
+					// the tail of the full arena is left unused
+					usedBytes += arena.length - position;
+					removedBytes += arena.length - position;
+				}
+				arenas[arenaCount] = new byte[arenaCount == 0 ? grownLength(FIRST_ARENA_SIZE, need) : ARENA_SIZE];
+				arenaCount++;
+				position = 0;
+			}
+		}
+		int address = (arenaCount - 1) << ARENA_BITS | position;
+		writeLength(arenas[arenaCount - 1], position, length);
+		position += need;
+		usedBytes += need;
+		return address;
+	}
+
+	private static int grownLength(int length, int needed) {
+		while (length < needed) {
+			length <<= 1;
+		}
+		return Math.min(length, ARENA_SIZE);
+	}
+
+	/**
+	 * Copies the present strings to new arenas, dropping the bytes of removed strings.
+	 */
+	private void compact() {
+		byte[][] oldArenas = arenas;
+		releaseArenas();
+		for (int index = 0; index < slots.length; index++) {
+			long slot = slots[index];
+			if (slot != 0) {
+				int address = addressOf(slot);
+				byte[] arena = oldArenas[address >>> ARENA_BITS];
+				int at = address & (ARENA_SIZE - 1);
+				int length = lengthAt(arena, at);
+				int newAddress = reserve(length);
+				System.arraycopy(arena, at + lengthSize(length), arenas[newAddress >>> ARENA_BITS],
+						startOf(newAddress), length);
+				slots[index] = slotOf((int) (slot >>> 32), newAddress);
+			}
+		}
+	}
+
+	private void releaseArenas() {
+		arenas = new byte[4][];
+		arenaCount = 0;
+		position = 0;
+		usedBytes = 0;
+		removedBytes = 0;
+	}
+
+	private int startOf(int address) {
+		int offset = address & (ARENA_SIZE - 1);
+		return offset + lengthSize(lengthAt(arenas[address >>> ARENA_BITS], offset));
+	}
+
+	private static long slotOf(int hash, int address) {
+		return (long) hash << 32 | (address + 1L);
+	}
+
+	private static int addressOf(long slot) {
+		return (int) slot - 1;
+	}
+
+	private static void checkLength(int length) {
+		if (length > MAX_LENGTH) {
+			throw new IllegalArgumentException("String is too long: " + length + " bytes");
+		}
+	}
+
+	private static void checkRange(byte[] utf8, int offset, int length) {
+		if (offset < 0 || length < 0 || offset > utf8.length - length) {
+			throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length
+					+ ") out of bounds for length " + utf8.length);
+		}
+	}
+
+	/**
+	 * Returns the number of bytes of the varint length.
+	 */
+	private static int lengthSize(int length) {
+		return length < 1 << 7 ? 1 : length < 1 << 14 ? 2 : length < 1 << 21 ? 3 : 4;
+	}
+
+	private static void writeLength(byte[] arena, int offset, int length) {
+		while (length >= 0x80) {
+			arena[offset++] = (byte) (length | 0x80);
+			length >>>= 7;
+		}
+		arena[offset] = (byte) length;
+	}
+
+	private static int lengthAt(byte[] arena, int offset) {
+		int length = 0;
+		for (int shift = 0; ; shift += 7) {
+			byte b = arena[offset++];
+			length |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return length;
+			}
+		}
+	}
+
+	/**
+	 * Returns the <tt>String.hashCode</tt> of the characters; a <tt>String</tt> has it cached.
+	 */
+	private static int hashOf(CharSequence s) {
+		if (s instanceof String) {
+			return s.hashCode();
+		}
+		int h = 0;
+		for (int i = 0, n = s.length(); i < n; i++) {
+			h = 31 * h + s.charAt(i);
+		}
+		return h;
+	}
+
+	/**
+	 * Decodes the UTF-8 bytes and returns the <tt>String.hashCode</tt> of the characters
+	 * as a non-negative long, or the complement of the index of the first malformed byte
+	 * relative to the offset. Overlong forms, surrogates and code points over U+10FFFF are malformed,
+	 * so a string has only one form.
+	 */
+	private static long hashOf(byte[] utf8, int offset, int length) {
+		int h = 0;
+		int end = offset + length;
+		for (int i = offset; i < end; ) {
+			int b = utf8[i];
+			if (b >= 0) {
+				h = 31 * h + b;
+				i++;
+			} else if (b >= (byte) 0xC2 && b <= (byte) 0xDF) {
+				if (i + 1 >= end || !isContinuation(utf8[i + 1])) {
+					return ~(long) (i - offset);
+				}
+				h = 31 * h + ((b & 0x1F) << 6 | utf8[i + 1] & 0x3F);
+				i += 2;
+			} else if ((b & 0xF0) == 0xE0) {
+				if (i + 2 >= end || !isContinuation(utf8[i + 1]) || !isContinuation(utf8[i + 2])) {
+					return ~(long) (i - offset);
+				}
+				int c = (b & 0x0F) << 12 | (utf8[i + 1] & 0x3F) << 6 | utf8[i + 2] & 0x3F;
+				if (c < 0x800 || Character.isSurrogate((char) c)) {
+					return ~(long) (i - offset);
+				}
+				h = 31 * h + c;
+				i += 3;
+			} else if (b >= (byte) 0xF0 && b <= (byte) 0xF4) {
+				if (i + 3 >= end || !isContinuation(utf8[i + 1]) || !isContinuation(utf8[i + 2])
+						|| !isContinuation(utf8[i + 3])) {
+					return ~(long) (i - offset);
+				}
+				int c = (b & 0x07) << 18 | (utf8[i + 1] & 0x3F) << 12 | (utf8[i + 2] & 0x3F) << 6 | utf8[i + 3] & 0x3F;
+				if (c < 0x10000 || c > Character.MAX_CODE_POINT) {
+					return ~(long) (i - offset);
+				}
+				h = 31 * (31 * h + Character.highSurrogate(c)) + Character.lowSurrogate(c);
+				i += 4;
+			} else {
+				return ~(long) (i - offset);
+			}
+		}
+		return h & 0xFFFFFFFFL;
+	}
+
+	private static boolean isContinuation(byte b) {
+		return (b & 0xC0) == 0x80;
+	}
+
+	/**
+	 * Returns the number of UTF-8 bytes of the characters, or <tt>-1</tt> if there is an unpaired surrogate.
+	 */
+	private static int utf8Length(CharSequence s) {
+		long length = 0;
+		for (int i = 0, n = s.length(); i < n; i++) {
+			char c = s.charAt(i);
+			if (c < 0x80) {
+				length++;
+			} else if (c < 0x800) {
+				length += 2;
+			} else if (!Character.isSurrogate(c)) {
+				length += 3;
+			} else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+				length += 4;
+				i++;
+			} else {
+				return -1;
+			}
+		}
+		return (int) Math.min(length, Integer.MAX_VALUE);
+	}
+
+	private static void encode(CharSequence s, byte[] arena, int offset) {
+		for (int i = 0, n = s.length(); i < n; i++) {
+			char c = s.charAt(i);
+			if (c < 0x80) {
+				arena[offset++] = (byte) c;
+			} else if (c < 0x800) {
+				arena[offset++] = (byte) (0xC0 | c >> 6);
+				arena[offset++] = (byte) (0x80 | c & 0x3F);
+			} else if (!Character.isSurrogate(c)) {
+				arena[offset++] = (byte) (0xE0 | c >> 12);
+				arena[offset++] = (byte) (0x80 | c >> 6 & 0x3F);
+				arena[offset++] = (byte) (0x80 | c & 0x3F);
+			} else {
+				int codePoint = Character.toCodePoint(c, s.charAt(++i));
+				arena[offset++] = (byte) (0xF0 | codePoint >> 18);
+				arena[offset++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+				arena[offset++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+				arena[offset++] = (byte) (0x80 | codePoint & 0x3F);
+			}
+		}
+	}
+
+	/**
+	 * Compares the stored UTF-8 bytes with the characters; their UTF-8 length is already known to be equal.
+	 */
+	private static boolean equalsChars(byte[] arena, int offset, int length, CharSequence s) {
+		int end = offset + length;
+		int i = 0;
+		while (offset < end) {
+			int b = arena[offset];
+			char c;
+			if (b >= 0) {
+				c = (char) b;
+				offset++;
+			} else if ((b & 0xE0) == 0xC0) {
+				c = (char) ((b & 0x1F) << 6 | arena[offset + 1] & 0x3F);
+				offset += 2;
+			} else if ((b & 0xF0) == 0xE0) {
+				c = (char) ((b & 0x0F) << 12 | (arena[offset + 1] & 0x3F) << 6 | arena[offset + 2] & 0x3F);
+				offset += 3;
+			} else {
+				int codePoint = (b & 0x07) << 18 | (arena[offset + 1] & 0x3F) << 12
+						| (arena[offset + 2] & 0x3F) << 6 | arena[offset + 3] & 0x3F;
+				if (s.charAt(i++) != Character.highSurrogate(codePoint)) {
+					return false;
+				}
+				c = Character.lowSurrogate(codePoint);
+				offset += 4;
+			}
+			if (s.charAt(i++) != c) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Cursor over the strings of the set.
+	 *
+	 * <pre>
+	 * CompactStringSet.Cursor cursor = set.cursor();
+	 * while (cursor.advance()) {
+	 *     consume(cursor.value());
+	 * }
+	 * </pre>
+	 */
+	public final class Cursor {
+
+		private int index = -1;
+
+		private Cursor() {
+		}
+
+		/**
+		 * Moves the cursor to the next string.
+		 *
+		 * @return <tt>true</tt> if there is a next string, <tt>false</tt> if the cursor is exhausted
+		 */
+		public boolean advance() {
+			while (++index < slots.length) {
+				if (slots[index] != 0) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Returns the string the cursor is positioned at; a new <tt>String</tt> is decoded on every call.
+		 *
+		 * @return the current string
+		 * @throws NoSuchElementException if {@link #advance()} has not returned <tt>true</tt>
+		 */
+		public String value() {
+			if (index < 0 || index >= slots.length) {
+				throw new NoSuchElementException();
+			}
+			int address = addressOf(slots[index]);
+			byte[] arena = arenas[address >>> ARENA_BITS];
+			int offset = address & (ARENA_SIZE - 1);
+			int length = lengthAt(arena, offset);
+			return new String(arena, offset + lengthSize(length), length, StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -0,0 +1,556 @@
+package ua.omld.jpc.task01;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe implementation of the <tt>Set</tt> interface with the same bucket
+ * design as {@link HashSet}: a hash table of chained entries. It makes no guarantees
+ * as to the iteration order of the set and permits the <tt>null</tt> element.
+ *
+ * <p>The table is split into segments, each guarded by its own lock (lock striping),
+ * so writers contend only when they touch the same segment. A segment is chosen by
+ * the high bits of the mixed hash, a bucket inside it by the low bits. Segments grow
+ * independently; a grown segment publishes a new table of copied entries, so readers
+ * of the old table are not disturbed.
+ *
+ * <p>Reads (<tt>contains</tt>, iteration) take no locks. Iterators are <i>weakly
+ * consistent</i>: they never throw <tt>ConcurrentModificationException</tt>, return
+ * each element at most once and reflect some of the changes made after their creation.
+ * <tt>size</tt> sums the segment counts, so under concurrent updates it is an estimate,
+ * but it is exact once the updates are complete.
+ *
+ * @author Oleksii Kostetskyi
+ */
+public class ConcurrentHashSet<E> implements Set<E> {
+
+	private static final int MAX_SEGMENTS = 1 << 16;
+	private static final int MAX_SEGMENT_CAPACITY = 1 << 30;
+	private static final int DEFAULT_CAPACITY = 1 << 4;
+	private static final int DEFAULT_CONCURRENCY_LEVEL = 64;
+	private static final int MIN_SEGMENT_CAPACITY = 2;
+	private static final float LOAD_FACTOR = 0.75f;
+	/**
+	 * Stands for the <tt>null</tt> element in the table.
+	 */
+	private static final Object NULL_ELEMENT = new Object();
+
+	private final Segment[] segments;
+	private final int segmentShift;
+
+	/**
+	 * Constructs a new, empty set with default initial capacity (16)
+	 * and default concurrency level (64).
+	 */
+	public ConcurrentHashSet() {
+		this(DEFAULT_CAPACITY, DEFAULT_CONCURRENCY_LEVEL);
+	}
+
+	/**
+	 * Constructs a new, empty set with given initial capacity
+	 * and default concurrency level (64).
+	 *
+	 * @param initialCapacity the initial capacity of the hashtable
+	 * @throws IllegalArgumentException if the initial capacity is less then 1.
+	 */
+	public ConcurrentHashSet(int initialCapacity) {
+		this(initialCapacity, DEFAULT_CONCURRENCY_LEVEL);
+	}
+
+	/**
+	 * Constructs a new, empty set with given initial capacity and concurrency level.
+	 *
+	 * @param initialCapacity  the initial capacity of the hashtable
+	 * @param concurrencyLevel the expected number of concurrently updating threads;
+	 *                         the number of segments is the next power of two
+	 * @throws IllegalArgumentException if the initial capacity or the concurrency level is less then 1.
+	 */
+	public ConcurrentHashSet(int initialCapacity, int concurrencyLevel) {
+		if (initialCapacity < 1) {
+			throw new IllegalArgumentException("Capacity is out of bounds: " + initialCapacity);
+		}
+		if (concurrencyLevel < 1) {
+			throw new IllegalArgumentException("Illegal concurrency level: " + concurrencyLevel);
+		}
+		int segmentCount = Hashing.tableSizeFor(concurrencyLevel, MAX_SEGMENTS);
+		int segmentCapacity = Hashing.tableSizeFor(Math.max(MIN_SEGMENT_CAPACITY,
+				(initialCapacity + segmentCount - 1) / segmentCount), MAX_SEGMENT_CAPACITY);
+		segmentShift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+		segments = new Segment[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			segments[i] = new Segment(segmentCapacity);
+		}
+	}
+
+	/**
+	 * Constructs a new set containing the elements in the specified collection.
+	 *
+	 * @param c the collection whose elements are to be placed into this set
+	 */
+	public ConcurrentHashSet(Collection<E> c) {
+		this(Math.max((int) (c.size() / LOAD_FACTOR) + 1, DEFAULT_CAPACITY), DEFAULT_CONCURRENCY_LEVEL);
+		addAll(c);
+	}
+
+	/**
+	 * Returns the number of elements in this set. Under concurrent updates
+	 * the result is an estimate.
+	 *
+	 * @return the number of elements in this set
+	 */
+	@Override
+	public int size() {
+		long size = 0;
+		for (Segment segment : segments) {
+			size += segment.count;
+		}
+		return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+	}
+
+	/**
+	 * Returns <tt>true</tt> if this set contains no elements.
+	 *
+	 * @return <tt>true</tt> if this set contains no elements
+	 */
+	@Override
+	public boolean isEmpty() {
+		for (Segment segment : segments) {
+			if (segment.count != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns <tt>true</tt> if this set contains the specified element.
+	 * Takes no locks.
+	 *
+	 * @param o element whose presence in this set is to be tested
+	 * @return <tt>true</tt> if this set contains the specified element
+	 */
+	@Override
+	public boolean contains(Object o) {
+		Object key = mask(o);
+		int hash = hash(key);
+		return segmentFor(hash).contains(key, hash);
+	}
+
+	/**
+	 * Returns a weakly consistent iterator over the elements in this set.
+	 * The elements are returned in no particular order.
+	 *
+	 * @return an iterator over the elements in this set
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return new WeaklyConsistentIterator();
+	}
+
+	/**
+	 * Returns an array containing all of the elements in this set.
+	 *
+	 * @return an array containing all the elements in this set
+	 */
+	@Override
+	public Object[] toArray() {
+		return snapshot().toArray();
+	}
+
+	/**
+	 * Returns an array containing all of the elements in this set; the
+	 * runtime type of the returned array is that of the specified array.
+	 *
+	 * @param a the array into which the elements of this set are to be
+	 *          stored, if it is big enough; otherwise, a new array of the same
+	 *          runtime type is allocated for this purpose.
+	 * @return an array containing all the elements in this set
+	 * @throws ArrayStoreException  if the runtime type of the specified array
+	 *                              is not a supertype of the runtime type of every element in this
+	 *                              set
+	 * @throws NullPointerException if the specified array is null
+	 */
+	@Override
+	public <T> T[] toArray(T[] a) {
+		List<E> snapshot = snapshot();
+		T[] r = snapshot.toArray(a);
+		for (int i = snapshot.size(); i < r.length; i++) {
+			r[i] = null;
+		}
+		return r;
+	}
+
+	/**
+	 * Adds the specified element to this set if it is not already present.
+	 *
+	 * @param e element to be added to this set
+	 * @return <tt>true</tt> if this set did not already contain the specified
+	 * element
+	 */
+	@Override
+	public boolean add(E e) {
+		Object key = mask(e);
+		int hash = hash(key);
+		return segmentFor(hash).add(key, hash);
+	}
+
+	/**
+	 * Removes the specified element from this set if it is present.
+	 *
+	 * @param o object to be removed from this set, if present
+	 * @return <tt>true</tt> if this set contained the specified element
+	 */
+	@Override
+	public boolean remove(Object o) {
+		Object key = mask(o);
+		int hash = hash(key);
+		return segmentFor(hash).remove(key, hash);
+	}
+
+	/**
+	 * Returns <tt>true</tt> if this set contains all of the elements of the
+	 * specified collection.
+	 *
+	 * @param c collection to be checked for containment in this set
+	 * @return <tt>true</tt> if this set contains all of the elements of the
+	 * specified collection
+	 * @throws NullPointerException if the specified collection is null
+	 */
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		for (Object o : c) {
+			if (!contains(o)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Adds all of the elements in the specified collection to this set if
+	 * they're not already present.
+	 *
+	 * @param c collection containing elements to be added to this set
+	 * @return <tt>true</tt> if this set changed as a result of the call
+	 * @throws NullPointerException if the specified collection is null
+	 */
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		boolean modified = false;
+		for (E e : c) {
+			modified |= add(e);
+		}
+		return modified;
+	}
+
+	/**
+	 * Retains only the elements in this set that are contained in the
+	 * specified collection.
+	 *
+	 * @param c collection containing elements to be retained in this set
+	 * @return <tt>true</tt> if this set changed as a result of the call
+	 * @throws NullPointerException if the specified collection is null
+	 */
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		boolean modified = false;
+		Iterator<E> it = iterator();
+		while (it.hasNext()) {
+			if (!c.contains(it.next())) {
+				it.remove();
+				modified = true;
+			}
+		}
+		return modified;
+	}
+
+	/**
+	 * Removes from this set all of its elements that are contained in the
+	 * specified collection.
+	 *
+	 * @param c collection containing elements to be removed from this set
+	 * @return <tt>true</tt> if this set changed as a result of the call
+	 * @throws NullPointerException if the specified collection is null
+	 */
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		boolean modified = false;
+		for (Object e : c) {
+			modified |= remove(e);
+		}
+		return modified;
+	}
+
+	/**
+	 * Removes all of the elements from this set. Segments are cleared one by one,
+	 * so elements added concurrently may remain.
+	 */
+	@Override
+	public void clear() {
+		for (Segment segment : segments) {
+			segment.clear();
+		}
+	}
+
+	/**
+	 * Compares the specified object with this set for equality.  Returns
+	 * <tt>true</tt> if the specified object is also a set, the two sets
+	 * have the same size, and every member of the specified set is
+	 * contained in this set.
+	 *
+	 * @param o object to be compared for equality with this set
+	 * @return <tt>true</tt> if the specified object is equal to this set
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+		if (!(o instanceof Set)) {
+			return false;
+		}
+		Collection<?> c = (Collection<?>) o;
+		if (c.size() != size()) {
+			return false;
+		}
+		try {
+			return containsAll(c);
+		} catch (ClassCastException | NullPointerException unused) {
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the hash code value for this set.  The hash code of a set is
+	 * defined to be the sum of the hash codes of the elements in the set.
+	 *
+	 * @return the hash code value for this set
+	 */
+	@Override
+	public int hashCode() {
+		int h = 0;
+		for (E e : this) {
+			h += Objects.hashCode(e);
+		}
+		return h;
+	}
+
+	private static Object mask(Object o) {
+		return o == null ? NULL_ELEMENT : o;
+	}
+
+	private static Object unmask(Object key) {
+		return key == NULL_ELEMENT ? null : key;
+	}
+
+	private static int hash(Object key) {
+		return Hashing.mix(key.hashCode());
+	}
+
+	private Segment segmentFor(int hash) {
+		return segments[segmentShift == 32 ? 0 : hash >>> segmentShift];
+	}
+
+	private List<E> snapshot() {
+		List<E> list = new ArrayList<>(size());
+		for (E e : this) {
+			list.add(e);
+		}
+		return list;
+	}
+
+	private static final class Node {
+		final int hash;
+		final Object key;
+		volatile Node next;
+
+		Node(int hash, Object key, Node next) {
+			this.hash = hash;
+			this.key = key;
+			this.next = next;
+		}
+	}
+
+	/**
+	 * A part of the hash table with its own lock. Writers hold the lock, readers
+	 * go through the volatile table reference and volatile links only.
+	 */
+	private static final class Segment extends ReentrantLock {
+
+		private static final long serialVersionUID = 1L;
+
+		volatile AtomicReferenceArray<Node> table;
+		volatile int count;
+		private int threshold;
+
+		Segment(int capacity) {
+			setTable(new AtomicReferenceArray<Node>(capacity));
+		}
+
+		boolean contains(Object key, int hash) {
+			AtomicReferenceArray<Node> tab = table;
+			Node node = tab.get(hash & (tab.length() - 1));
+			while (node != null) {
+				if (node.hash == hash && (node.key == key || node.key.equals(key))) {
+					return true;
+				}
+				node = node.next;
+			}
+			return false;
+		}
+
+		boolean add(Object key, int hash) {
+			lock();
+			try {
+				AtomicReferenceArray<Node> tab = table;
+				int index = hash & (tab.length() - 1);
+				Node first = tab.get(index);
+				for (Node node = first; node != null; node = node.next) {
+					if (node.hash == hash && (node.key == key || node.key.equals(key))) {
+						return false;
+					}
+				}
+				tab.set(index, new Node(hash, key, first));
+				int c = count + 1;
+				count = c;
+				if (c > threshold) {
+					resize();
+				}
+				return true;
+			} finally {
+				unlock();
+			}
+		}
+
+		boolean remove(Object key, int hash) {
+			lock();
+			try {
+				AtomicReferenceArray<Node> tab = table;
+				int index = hash & (tab.length() - 1);
+				Node previous = null;
+				for (Node node = tab.get(index); node != null; previous = node, node = node.next) {
+					if (node.hash == hash && (node.key == key || node.key.equals(key))) {
+						if (previous == null) {
+							tab.set(index, node.next);
+						} else {
+							previous.next = node.next;
+						}
+						count = count - 1;
+						return true;
+					}
+				}
+				return false;
+			} finally {
+				unlock();
+			}
+		}
+
+		void clear() {
+			lock();
+			try {
+				setTable(new AtomicReferenceArray<Node>(table.length()));
+				count = 0;
+			} finally {
+				unlock();
+			}
+		}
+
+		/**
+		 * Publishes a table of twice the size. Entries are copied, not relinked,
+		 * so readers still walking the old table see its chains unchanged.
+		 */
+		private void resize() {
+			AtomicReferenceArray<Node> oldTable = table;
+			int oldCapacity = oldTable.length();
+			if (oldCapacity == MAX_SEGMENT_CAPACITY) {
+				threshold = Integer.MAX_VALUE;
+				return;
+			}
+			AtomicReferenceArray<Node> newTable = new AtomicReferenceArray<>(oldCapacity << 1);
+			int mask = newTable.length() - 1;
+			for (int i = 0; i < oldCapacity; i++) {
+				for (Node node = oldTable.get(i); node != null; node = node.next) {
+					int index = node.hash & mask;
+					newTable.lazySet(index, new Node(node.hash, node.key, newTable.get(index)));
+				}
+			}
+			setTable(newTable);
+		}
+
+		private void setTable(AtomicReferenceArray<Node> newTable) {
+			threshold = (int) (newTable.length() * LOAD_FACTOR);
+			table = newTable;
+		}
+	}
+
+	/**
+	 * Walks the segments one by one, reading the table each segment has when the
+	 * iterator reaches it. Removal goes through the set, so it takes the segment lock.
+	 */
+	private class WeaklyConsistentIterator implements Iterator<E> {
+
+		private int segmentIndex;
+		private AtomicReferenceArray<Node> table;
+		private int bucketIndex;
+		private Node nextNode;
+		private Node lastReturned;
+
+		WeaklyConsistentIterator() {
+			segmentIndex = -1;
+			bucketIndex = 0;
+			advance();
+		}
+
+		private void advance() {
+			if (nextNode != null && (nextNode = nextNode.next) != null) {
+				return;
+			}
+			while (true) {
+				if (table != null) {
+					while (bucketIndex < table.length()) {
+						if ((nextNode = table.get(bucketIndex++)) != null) {
+							return;
+						}
+					}
+				}
+				if (++segmentIndex >= segments.length) {
+					table = null;
+					return;
+				}
+				table = segments[segmentIndex].table;
+				bucketIndex = 0;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return nextNode != null;
+		}
+
+		@Override
+		public E next() {
+			if (nextNode == null) {
+				throw new NoSuchElementException();
+			}
+			lastReturned = nextNode;
+			advance();
+			return (E) unmask(lastReturned.key);
+		}
+
+		@Override
+		public void remove() {
+			if (lastReturned == null) {
+				throw new IllegalStateException("First call next().");
+			}
+			ConcurrentHashSet.this.remove(unmask(lastReturned.key));
+			lastReturned = null;
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package ua.omld.jpc.task01;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * Releases memory of direct and mapped byte buffers without waiting for GC.
+ *
+ * <p>There is no public API for this, so the JDK internals are used through reflection:
+ * <tt>sun.misc.Unsafe.invokeCleaner</tt> on Java 9 and later, the buffer's
+ * <tt>cleaner().clean()</tt> on older versions. If neither is accessible, the memory
+ * is released when the buffer is garbage collected.
+ *
+ * @author Oleksii Kostetskyi
+ */
+final class DirectBuffers {
+
+	private DirectBuffers() {
+	}
+
+	/**
+	 * Releases memory of the direct buffer. The buffer must not be used afterwards.
+	 *
+	 * @param buffer direct or mapped buffer
+	 */
+	static void free(ByteBuffer buffer) {
+		if (buffer == null || !buffer.isDirect()) {
+			return;
+		}
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			invokeCleaner.invoke(theUnsafe.get(null), buffer);
+			return;
+		} catch (ReflectiveOperationException | RuntimeException unused) {
+			// not Java 9+, try the Java 7/8 way
+		}
+		try {
+			Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+			cleanerMethod.setAccessible(true);
+			Object cleaner = cleanerMethod.invoke(buffer);
+			if (cleaner != null) {
+				Method clean = cleaner.getClass().getMethod("clean");
+				clean.setAccessible(true);
+				clean.invoke(cleaner);
+			}
+		} catch (ReflectiveOperationException | RuntimeException unused) {
+			// left to GC
+		}
+	}
+}
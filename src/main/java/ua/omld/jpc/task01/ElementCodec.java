@@ -0,0 +1,49 @@
+package ua.omld.jpc.task01;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts set elements to bytes and back for {@link HashSetSnapshot}.
+ * Codecs for common types are in {@link ElementCodecs}.
+ *
+ * <p>Elements of a fixed encoded size are stored back to back; elements of
+ * variable size are stored with a length prefix, so a codec never sees a
+ * partial element.
+ *
+ * @param <E> the type of elements
+ * @author Oleksii Kostetskyi
+ */
+public interface ElementCodec<E> {
+
+	/**
+	 * Returns the encoded size of every element, or <tt>-1</tt> if it depends on the element.
+	 *
+	 * @return the fixed encoded size in bytes, or <tt>-1</tt>
+	 */
+	int fixedSize();
+
+	/**
+	 * Returns the encoded size of the element.
+	 *
+	 * @param element non-null element
+	 * @return the number of bytes {@link #encode(Object, ByteBuffer)} writes
+	 */
+	int encodedSize(E element);
+
+	/**
+	 * Writes the element at the buffer position, which has room for {@link #encodedSize(Object)} bytes.
+	 *
+	 * @param element non-null element
+	 * @param buffer  buffer to write to
+	 */
+	void encode(E element, ByteBuffer buffer);
+
+	/**
+	 * Reads an element of the given encoded size at the buffer position.
+	 *
+	 * @param buffer buffer to read from
+	 * @param size   the encoded size of the element
+	 * @return decoded element
+	 */
+	E decode(ByteBuffer buffer, int size);
+}
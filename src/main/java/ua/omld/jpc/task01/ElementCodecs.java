@@ -0,0 +1,123 @@
+package ua.omld.jpc.task01;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Element codecs for common types.
+ *
+ * @author Oleksii Kostetskyi
+ */
+public final class ElementCodecs {
+
+	/**
+	 * <tt>Integer</tt> as 4 bytes.
+	 */
+	public static final ElementCodec<Integer> INTEGER = new ElementCodec<Integer>() {
+		@Override
+		public int fixedSize() {
+			return Integer.SIZE / Byte.SIZE;
+		}
+
+		@Override
+		public int encodedSize(Integer element) {
+			return Integer.SIZE / Byte.SIZE;
+		}
+
+		@Override
+		public void encode(Integer element, ByteBuffer buffer) {
+			buffer.putInt(element);
+		}
+
+		@Override
+		public Integer decode(ByteBuffer buffer, int size) {
+			return buffer.getInt();
+		}
+	};
+
+	/**
+	 * <tt>Long</tt> as 8 bytes.
+	 */
+	public static final ElementCodec<Long> LONG = new ElementCodec<Long>() {
+		@Override
+		public int fixedSize() {
+			return Long.SIZE / Byte.SIZE;
+		}
+
+		@Override
+		public int encodedSize(Long element) {
+			return Long.SIZE / Byte.SIZE;
+		}
+
+		@Override
+		public void encode(Long element, ByteBuffer buffer) {
+			buffer.putLong(element);
+		}
+
+		@Override
+		public Long decode(ByteBuffer buffer, int size) {
+			return buffer.getLong();
+		}
+	};
+
+	/**
+	 * <tt>String</tt> as UTF-8 bytes.
+	 */
+	public static final ElementCodec<String> STRING = new ElementCodec<String>() {
+		@Override
+		public int fixedSize() {
+			return -1;
+		}
+
+		@Override
+		public int encodedSize(String element) {
+			return utf8Length(element);
+		}
+
+		@Override
+		public void encode(String element, ByteBuffer buffer) {
+			buffer.put(element.getBytes(StandardCharsets.UTF_8));
+		}
+
+		@Override
+		public String decode(ByteBuffer buffer, int size) {
+			if (buffer.hasArray()) {
+				int offset = buffer.arrayOffset() + buffer.position();
+				buffer.position(buffer.position() + size);
+				return new String(buffer.array(), offset, size, StandardCharsets.UTF_8);
+			}
+			byte[] bytes = new byte[size];
+			buffer.get(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	};
+
+	private ElementCodecs() {
+	}
+
+	/**
+	 * Returns the length of the string in UTF-8 without encoding it.
+	 */
+	static int utf8Length(CharSequence s) {
+		int length = 0;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c < 0x80) {
+				length++;
+			} else if (c < 0x800) {
+				length += 2;
+			} else if (Character.isSurrogate(c)) {
+				if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+					length += 4;
+					i++;
+				} else {
+					// the encoder replaces an unpaired surrogate with '?'
+					length++;
+				}
+			} else {
+				length += 3;
+			}
+		}
+		return length;
+	}
+}
@@ -0,0 +1,478 @@
+package ua.omld.jpc.task01;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable <tt>Set</tt> for read-mostly data, built once from a collection.
+ * It permits the <tt>null</tt> element. The elements are stored in a flat array,
+ * one slot per distinct hash code, and a minimal perfect hash function maps every
+ * hash code of the set to its own slot. So a lookup computes the slot, compares the
+ * stored hash code and, on a match, calls <tt>equals</tt> once: no probing, no chains
+ * and no entry objects.
+ *
+ * <p>The hash function follows the <i>hash and displace</i> scheme (as CHD does):
+ * hash codes are distributed into buckets, and every bucket of two or more hash
+ * codes gets a displacement seed which sends its hash codes to free slots. Buckets
+ * of one hash code point to their slot directly. The seeds are searched for the
+ * largest buckets first, so the build takes expected linear time. If no seed of
+ * a bucket fits, the build starts again with twice as many (and so smaller) buckets.
+ *
+ * <p>Elements with identical hash codes cannot be told apart by any hash function
+ * of the hash code, so they share a slot holding an array of them, which is
+ * searched linearly.
+ *
+ * <p>All mutating methods throw <tt>UnsupportedOperationException</tt>.
+ *
+ * @author Oleksii Kostetskyi
+ * @see HashSet#freeze()
+ */
+public final class FrozenHashSet<E> implements Set<E> {
+
+	private static final int SEED_MULTIPLIER = 0x9E3779B9;
+	/**
+	 * Seeds tried for a bucket before the hash function is built again with twice as many buckets.
+	 */
+	private static final int MAX_SEED = 1 << 16;
+	private static final int MAX_BUCKETS = 1 << 30;
+
+	/**
+	 * Per bucket: <tt>0</tt> if the bucket is empty, a positive displacement seed, or
+	 * <tt>-slot - 1</tt> for a bucket of one hash code.
+	 */
+	private final int[] displacements;
+	private final int[] hashes;
+	/**
+	 * Elements by slot; elements with the same hash code are kept in an {@link Overflow}.
+	 */
+	private final Object[] elements;
+	private final int size;
+	private final int hashCode;
+
+	/**
+	 * Constructs a frozen set of the distinct elements of the specified collection.
+	 *
+	 * @param c the collection whose elements are to be placed into this set
+	 * @throws NullPointerException if the specified collection is null
+	 */
+	public FrozenHashSet(Collection<? extends E> c) {
+		boolean distinct = c instanceof HashSet && !((HashSet<?>) c).hasHashingStrategy()
+				|| c instanceof java.util.HashSet || c instanceof FrozenHashSet;
+		Object[] source = c.toArray();
+		int count = source.length;
+
+		// sort elements by hash code to find the distinct hash codes and the groups of equal ones
+		long[] order = new long[count];
+		for (int i = 0; i < count; i++) {
+			order[i] = (long) Objects.hashCode(source[i]) << 32 | i;
+		}
+		Arrays.sort(order);
+
+		int[] distinctHashes = new int[count];
+		Object[] groups = new Object[count];
+		int slots = 0;
+		int elementCount = 0;
+		int sum = 0;
+		for (int start = 0; start < count; ) {
+			int hash = (int) (order[start] >> 32);
+			int end = start + 1;
+			while (end < count && (int) (order[end] >> 32) == hash) {
+				end++;
+			}
+			int groupSize = 1;
+			if (end - start == 1) {
+				groups[slots] = source[(int) order[start]];
+			} else {
+				Object[] group = new Object[end - start];
+				groupSize = 0;
+				for (int i = start; i < end; i++) {
+					Object element = source[(int) order[i]];
+					if (distinct || indexOf(group, groupSize, element) < 0) {
+						group[groupSize++] = element;
+					}
+				}
+				groups[slots] = groupSize == 1 ? group[0] : new Overflow(Arrays.copyOf(group, groupSize));
+			}
+			distinctHashes[slots] = hash;
+			slots++;
+			elementCount += groupSize;
+			sum += hash * groupSize;
+			start = end;
+		}
+		size = elementCount;
+		hashCode = sum;
+
+		hashes = new int[slots];
+		elements = new Object[slots];
+		int buckets = Math.max(1, slots);
+		int[] seeds = place(distinctHashes, groups, slots, buckets);
+		while (seeds == null) {
+			if (buckets >= MAX_BUCKETS) {
+				throw new IllegalStateException("Cannot build the hash function of " + slots + " hash codes");
+			}
+			buckets <<= 1;
+			seeds = place(distinctHashes, groups, slots, buckets);
+		}
+		displacements = seeds;
+	}
+
+	/**
+	 * Builds the hash function: finds a seed for every bucket of two or more hash codes,
+	 * from the largest buckets down, then gives the buckets of one hash code the free slots.
+	 *
+	 * @return the displacements of the buckets, or <tt>null</tt> if a bucket has no seed
+	 * up to {@value #MAX_SEED}
+	 */
+	private int[] place(int[] distinctHashes, Object[] groups, int slots, int buckets) {
+		int[] displacements = new int[buckets];
+		// counting sort of the hash codes by bucket
+		int[] bucketStart = new int[buckets + 1];
+		for (int i = 0; i < slots; i++) {
+			bucketStart[bucketOf(distinctHashes[i], buckets) + 1]++;
+		}
+		int maxBucketSize = 0;
+		for (int b = 0; b < buckets; b++) {
+			maxBucketSize = Math.max(maxBucketSize, bucketStart[b + 1]);
+			bucketStart[b + 1] += bucketStart[b];
+		}
+		int[] byBucket = new int[slots];
+		int[] fill = Arrays.copyOf(bucketStart, buckets);
+		for (int i = 0; i < slots; i++) {
+			byBucket[fill[bucketOf(distinctHashes[i], buckets)]++] = i;
+		}
+		// counting sort of the buckets by size, largest first
+		int[] sizeStart = new int[maxBucketSize + 2];
+		for (int b = 0; b < buckets; b++) {
+			sizeStart[maxBucketSize - (bucketStart[b + 1] - bucketStart[b]) + 1]++;
+		}
+		for (int s = 0; s <= maxBucketSize; s++) {
+			sizeStart[s + 1] += sizeStart[s];
+		}
+		int[] bucketsBySize = new int[buckets];
+		for (int b = 0; b < buckets; b++) {
+			bucketsBySize[sizeStart[maxBucketSize - (bucketStart[b + 1] - bucketStart[b])]++] = b;
+		}
+
+		// bitmap of taken slots; it is 8 times smaller than boolean[] and stays in cache longer
+		long[] taken = new long[(slots + 63) >>> 6];
+		int[] candidate = new int[maxBucketSize];
+		int freeSlot = 0;
+		for (int b : bucketsBySize) {
+			int from = bucketStart[b];
+			int bucketSize = bucketStart[b + 1] - from;
+			if (bucketSize == 0) {
+				break;
+			}
+			if (bucketSize == 1) {
+				while ((taken[freeSlot >>> 6] & 1L << freeSlot) != 0) {
+					freeSlot++;
+				}
+				taken[freeSlot >>> 6] |= 1L << freeSlot;
+				displacements[b] = -freeSlot - 1;
+				store(freeSlot, byBucket[from], distinctHashes, groups);
+				continue;
+			}
+			int seed = 0;
+			boolean placed = false;
+			while (!placed) {
+				if (seed == MAX_SEED) {
+					return null;
+				}
+				seed++;
+				placed = true;
+				for (int k = 0; k < bucketSize && placed; k++) {
+					int slot = slotOf(distinctHashes[byBucket[from + k]], seed, slots);
+					if ((taken[slot >>> 6] & 1L << slot) != 0) {
+						placed = false;
+					}
+					for (int j = 0; j < k && placed; j++) {
+						if (candidate[j] == slot) {
+							placed = false;
+						}
+					}
+					candidate[k] = slot;
+				}
+			}
+			displacements[b] = seed;
+			for (int k = 0; k < bucketSize; k++) {
+				taken[candidate[k] >>> 6] |= 1L << candidate[k];
+				store(candidate[k], byBucket[from + k], distinctHashes, groups);
+			}
+		}
+		return displacements;
+	}
+
+	private void store(int slot, int index, int[] distinctHashes, Object[] groups) {
+		hashes[slot] = distinctHashes[index];
+		elements[slot] = groups[index];
+	}
+
+	private static int bucketOf(int hash, int buckets) {
+		return reduce(Hashing.mix(hash), buckets);
+	}
+
+	private static int slotOf(int hash, int seed, int slots) {
+		return reduce(Hashing.mix(hash + seed * SEED_MULTIPLIER), slots);
+	}
+
+	/**
+	 * Maps the 32-bit hash to <tt>[0, n)</tt> by multiplication instead of a division.
+	 */
+	private static int reduce(int hash, int n) {
+		return (int) (((hash & 0xFFFFFFFFL) * n) >>> 32);
+	}
+
+	private static int indexOf(Object[] group, int length, Object o) {
+		for (int i = 0; i < length; i++) {
+			if (Objects.equals(group[i], o)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns <tt>true</tt> if this set contains the specified element.
+	 * Looks at exactly one slot.
+	 *
+	 * @param o element whose presence in this set is to be tested
+	 * @return <tt>true</tt> if this set contains the specified element
+	 */
+	@Override
+	public boolean contains(Object o) {
+		if (elements.length == 0) {
+			return false;
+		}
+		int hash = Objects.hashCode(o);
+		int displacement = displacements[bucketOf(hash, displacements.length)];
+		int slot;
+		if (displacement < 0) {
+			slot = -displacement - 1;
+		} else if (displacement > 0) {
+			slot = slotOf(hash, displacement, elements.length);
+		} else {
+			return false;
+		}
+		if (hashes[slot] != hash) {
+			return false;
+		}
+		Object element = elements[slot];
+		if (element instanceof Overflow) {
+			Object[] group = ((Overflow) element).elements;
+			return indexOf(group, group.length, o) >= 0;
+		}
+		return Objects.equals(element, o);
+	}
+
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		for (Object o : c) {
+			if (!contains(o)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns an iterator over the elements in this set, in no particular order.
+	 * The iterator does not support <tt>remove</tt>.
+	 *
+	 * @return an iterator over the elements in this set
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return new FrozenIterator();
+	}
+
+	@Override
+	public Object[] toArray() {
+		Object[] array = new Object[size];
+		int i = 0;
+		for (E e : this) {
+			array[i++] = e;
+		}
+		return array;
+	}
+
+	@Override
+	public <T> T[] toArray(T[] a) {
+		T[] r = a.length >= size ? a :
+				(T[]) java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), size);
+		int i = 0;
+		for (E e : this) {
+			r[i++] = (T) e;
+		}
+		while (i < r.length) {
+			r[i++] = null;
+		}
+		return r;
+	}
+
+	/**
+	 * Always throws <tt>UnsupportedOperationException</tt>.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public boolean add(E e) {
+		throw new UnsupportedOperationException("Set is frozen");
+	}
+
+	/**
+	 * Always throws <tt>UnsupportedOperationException</tt>.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public boolean remove(Object o) {
+		throw new UnsupportedOperationException("Set is frozen");
+	}
+
+	/**
+	 * Always throws <tt>UnsupportedOperationException</tt>.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		throw new UnsupportedOperationException("Set is frozen");
+	}
+
+	/**
+	 * Always throws <tt>UnsupportedOperationException</tt>.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Set is frozen");
+	}
+
+	/**
+	 * Always throws <tt>UnsupportedOperationException</tt>.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Set is frozen");
+	}
+
+	/**
+	 * Always throws <tt>UnsupportedOperationException</tt>.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void clear() {
+		throw new UnsupportedOperationException("Set is frozen");
+	}
+
+	/**
+	 * Compares the specified object with this set for equality. Returns <tt>true</tt>
+	 * if the specified object is also a set of the same size containing the same elements.
+	 *
+	 * @param o object to be compared for equality with this set
+	 * @return <tt>true</tt> if the specified object is equal to this set
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+		if (!(o instanceof Set)) {
+			return false;
+		}
+		Collection<?> c = (Collection<?>) o;
+		if (c.size() != size) {
+			return false;
+		}
+		boolean setHashCode = o instanceof FrozenHashSet
+				|| o instanceof HashSet && !((HashSet<?>) o).hasHashingStrategy();
+		if (setHashCode && o.hashCode() != hashCode) {
+			return false;
+		}
+		try {
+			return containsAll(c);
+		} catch (ClassCastException | NullPointerException unused) {
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the sum of the hash codes of the elements, computed when the set was built.
+	 *
+	 * @return the hash code value for this set
+	 */
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	/**
+	 * Elements sharing one hash code.
+	 */
+	private static final class Overflow {
+		final Object[] elements;
+
+		Overflow(Object[] elements) {
+			this.elements = elements;
+		}
+	}
+
+	private class FrozenIterator implements Iterator<E> {
+
+		private int slot;
+		private Object[] group;
+		private int groupIndex;
+		private int returned;
+
+		@Override
+		public boolean hasNext() {
+			return returned < size;
+		}
+
+		@Override
+		public E next() {
+			if (returned == size) {
+				throw new NoSuchElementException();
+			}
+			returned++;
+			if (group == null) {
+				Object element = elements[slot];
+				if (!(element instanceof Overflow)) {
+					slot++;
+					return (E) element;
+				}
+				group = ((Overflow) element).elements;
+				groupIndex = 0;
+			}
+			E element = (E) group[groupIndex++];
+			if (groupIndex == group.length) {
+				group = null;
+				slot++;
+			}
+			return element;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException("Set is frozen");
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package ua.omld.jpc.task01;
+
+/**
+ * When a {@link JournaledHashSet} forces its journal to the storage device.
+ *
+ * @author Oleksii Kostetskyi
+ */
+public enum FsyncPolicy {
+
+	/**
+	 * Every mutation is written and forced before the mutating method returns.
+	 * Nothing is lost on a crash, but every mutation waits for the device.
+	 */
+	ALWAYS,
+	/**
+	 * Mutations are collected in memory and written as one batch per commit interval,
+	 * and every batch is forced. A crash loses at most the last interval.
+	 */
+	GROUP_COMMIT,
+	/**
+	 * Batches are written as with {@link #GROUP_COMMIT} but never forced: the
+	 * operating system decides when they reach the device. A process crash loses
+	 * at most the last interval, a power failure may lose more.
+	 */
+	NEVER
+}
@@ -1,17 +1,71 @@
 package ua.omld.jpc.task01;
 
-import java.util.Arrays;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
 
 /**
  * This class is a simple implementation of the <tt>Set</tt> interface,
  * backed by a hash table. It makes no guarantees as to the iteration order
  * of the set. This class permits the <tt>null</tt> element.
  *
+ * <p>The hashtable capacity is always a power of two. Hash codes of elements
+ * are spread by a bit mixing function before the bucket index is taken from
+ * their low bits, so elements with poor hash codes do not cluster into a few buckets.
+ *
+ * <p>The hashtable grows automatically: when the number of elements exceeds
+ * the product of the load factor and the current capacity, the capacity is
+ * doubled. By default all elements are moved to the new table at once. In the
+ * <i>incremental rehash</i> mode the old table is kept alongside the new one and
+ * a few of its buckets are moved on every <tt>add</tt> or <tt>remove</tt>, so no
+ * single operation pays for the whole resize.
+ *
+ * <p>Besides the buckets, the set keeps a bitmap of non-empty buckets. The
+ * iterator finds the next non-empty bucket by scanning the bitmap a word
+ * (64 buckets) at a time, so a full iteration costs O(size + capacity / 64)
+ * even when the table is sparse.
+ *
+ * <p>Elements are hashed and compared by their <tt>hashCode</tt> and <tt>equals</tt>, or by
+ * a {@link HashingStrategy} given to the constructor, e.g. {@link HashingStrategy#IDENTITY}.
+ * Every entry keeps the hash of its element, so a probe calls <tt>equals</tt> only on a
+ * matching hash, and resize does not hash the elements again. The hash code of a set with
+ * a strategy is the sum of the strategy hash codes.
+ *
+ * <p>A bucket whose chain grows to {@value #TREEIFY_THRESHOLD} elements is converted
+ * to a red-black tree ordered by hash and then, if the elements are mutually
+ * comparable, by <tt>compareTo</tt>. So elements with colliding hash codes cost
+ * O(log n) per operation instead of O(n) (elements that are not comparable still
+ * need a linear search among equal hashes). The tree turns back to a chain when it
+ * shrinks to {@value #UNTREEIFY_THRESHOLD} elements. Tables smaller than
+ * {@value #MIN_TREEIFY_CAPACITY} buckets are grown instead of treeifying.
+ *
+ * <p>The spliterator splits the table into halves by bucket ranges, so parallel streams
+ * divide the work evenly; <tt>forEach</tt> and <tt>removeIf</tt> walk the buckets
+ * directly, without the bookkeeping of the iterator.
+ *
+ * <p>A large collection added to an empty set is loaded in parallel: the elements are
+ * hashed and sorted by bucket ranges in fork/join tasks, then each task fills its own
+ * range of the table.
+ *
+ * <p>The batch operations over arrays of keys read the buckets of a block of keys
+ * before resolving them one by one, so the cache misses of a large table overlap,
+ * see {@link #containsAll(Object[], BitSet)}.
+ *
+ * <p>Optionally the set keeps a bounded free list of the chain entries unlinked
+ * by {@link #remove(Object)} and reuses them in <tt>add</tt>, so a steady stream of
+ * <tt>add</tt>/<tt>remove</tt> pairs allocates nothing, see {@link #setEntryPoolCapacity(int)}.
+ *
  * <p><strong>This implementation is not tread-safe.</strong>
  *
  * <p>The iterators returned by this class's <tt>iterator</tt> method are
@@ -23,39 +77,168 @@ public class HashSet<E> implements Set<E> {
 
 	private static final int MAX_CAPACITY = 1 << 30;
 	private static final int DEFAULT_CAPACITY = 1 << 4;
+	private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+	/**
+	 * Number of old table buckets moved to the new table by one mutating operation
+	 * in the incremental rehash mode.
+	 */
+	private static final int REHASH_STEP = 8;
+	/**
+	 * Chain length at which a bucket is converted to a tree.
+	 */
+	private static final int TREEIFY_THRESHOLD = 8;
+	/**
+	 * Tree size at which a bucket is converted back to a chain.
+	 */
+	private static final int UNTREEIFY_THRESHOLD = 6;
+	/**
+	 * The least capacity of the table with tree buckets; smaller tables are grown instead.
+	 */
+	private static final int MIN_TREEIFY_CAPACITY = 64;
+	/**
+	 * The least number of elements that <tt>addAll</tt> of an empty set loads in parallel.
+	 */
+	private static final int PARALLEL_LOAD_THRESHOLD = 1 << 16;
+	/**
+	 * Number of keys whose buckets the batch operations read before resolving the keys.
+	 */
+	private static final int BATCH_SIZE = 32;
+	/**
+	 * The least capacity at which the batch operations read the buckets ahead: smaller
+	 * tables mostly stay in the cache, and the first pass would only cost time.
+	 */
+	private static final int BATCH_MIN_CAPACITY = 1 << 19;
+
+	private final float loadFactor;
+	private final boolean incrementalRehash;
+	/**
+	 * Hash codes and equivalence of the elements, <tt>null</tt> for their own <tt>hashCode</tt> and <tt>equals</tt>.
+	 */
+	private final HashingStrategy<? super E> strategy;
 
-	private final Entry<E>[] buckets;
+	private Entry<E>[] buckets;
+	/**
+	 * Bitmap of non-empty {@link #buckets}: bit <tt>i % 64</tt> of word <tt>i / 64</tt> is set
+	 * if and only if bucket <tt>i</tt> is not empty.
+	 */
+	private long[] occupied;
+	/**
+	 * The table being drained while incremental rehash is in progress, <tt>null</tt> otherwise.
+	 * Its buckets below {@link #rehashIndex} are already moved to {@link #buckets}.
+	 */
+	private Entry<E>[] oldBuckets;
+	private long[] oldOccupied;
+	private int rehashIndex;
+	private int threshold;
 	private int size;
+	/**
+	 * Sum of hash codes of the elements, that is the hash code of this set.
+	 */
+	private int hashSum;
+	/**
+	 * Free list of entries linked by <tt>next</tt>, reused by <tt>add</tt>.
+	 */
+	private Entry<E> pool;
+	private int poolSize;
+	private int poolCapacity;
 
 	/**
-	 * Constructs a new, empty set; the hashtable has default initial capacity (16).
+	 * Constructs a new, empty set; the hashtable has default initial capacity (16)
+	 * and default load factor (0.75).
 	 */
 	public HashSet() {
 		this(DEFAULT_CAPACITY);
 	}
 
 	/**
-	 * Constructs a new, empty set; the hashtable has given initial capacity.
+	 * Constructs a new, empty set; the hashtable has given initial capacity
+	 * (rounded up to a power of two) and default load factor (0.75).
 	 *
 	 * @param initialCapacity the initial capacity of the hashtable
 	 * @throws IllegalArgumentException if the initial capacity is less then 1 and greater then 2^30.
 	 */
 	public HashSet(int initialCapacity) {
+		this(initialCapacity, DEFAULT_LOAD_FACTOR);
+	}
+
+	/**
+	 * Constructs a new, empty set; the hashtable has given initial capacity
+	 * (rounded up to a power of two) and given load factor.
+	 *
+	 * @param initialCapacity the initial capacity of the hashtable
+	 * @param loadFactor      the load factor of the hashtable
+	 * @throws IllegalArgumentException if the initial capacity is less then 1 and greater then 2^30,
+	 *                                  or if the load factor is not positive.
+	 */
+	public HashSet(int initialCapacity, float loadFactor) {
+		this(initialCapacity, loadFactor, false);
+	}
+
+	/**
+	 * Constructs a new, empty set; the hashtable has given initial capacity
+	 * (rounded up to a power of two), given load factor and given rehash mode.
+	 *
+	 * @param initialCapacity   the initial capacity of the hashtable
+	 * @param loadFactor        the load factor of the hashtable
+	 * @param incrementalRehash <tt>true</tt> to move elements to the grown table
+	 *                          a few buckets per operation, <tt>false</tt> to move them at once
+	 * @throws IllegalArgumentException if the initial capacity is less then 1 and greater then 2^30,
+	 *                                  or if the load factor is not positive.
+	 */
+	public HashSet(int initialCapacity, float loadFactor, boolean incrementalRehash) {
+		this(initialCapacity, loadFactor, incrementalRehash, null);
+	}
+
+	/**
+	 * Constructs a new, empty set that hashes and compares its elements by the given
+	 * strategy; the hashtable has default initial capacity (16) and default load factor (0.75).
+	 *
+	 * @param strategy hashing strategy of the elements, e.g. {@link HashingStrategy#IDENTITY}
+	 */
+	public HashSet(HashingStrategy<? super E> strategy) {
+		this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR, false, strategy);
+	}
+
+	/**
+	 * Constructs a new, empty set that hashes and compares its elements by the given
+	 * strategy; the hashtable has given initial capacity (rounded up to a power of two),
+	 * given load factor and given rehash mode.
+	 *
+	 * @param initialCapacity   the initial capacity of the hashtable
+	 * @param loadFactor        the load factor of the hashtable
+	 * @param incrementalRehash <tt>true</tt> to move elements to the grown table
+	 *                          a few buckets per operation, <tt>false</tt> to move them at once
+	 * @param strategy          hashing strategy of the elements, or <tt>null</tt> for their own
+	 *                          <tt>hashCode</tt> and <tt>equals</tt>
+	 * @throws IllegalArgumentException if the initial capacity is less then 1 and greater then 2^30,
+	 *                                  or if the load factor is not positive.
+	 */
+	public HashSet(int initialCapacity, float loadFactor, boolean incrementalRehash, HashingStrategy<? super E> strategy) {
 		if (initialCapacity < 1 || initialCapacity > MAX_CAPACITY) {
 			throw new IllegalArgumentException("Capacity is out of bounds: " + initialCapacity);
 		}
+		if (loadFactor <= 0 || Float.isNaN(loadFactor)) {
+			throw new IllegalArgumentException("Illegal load factor: " + loadFactor);
+		}
+		this.loadFactor = loadFactor;
+		this.incrementalRehash = incrementalRehash;
+		this.strategy = strategy;
 		size = 0;
-		buckets = new Entry[initialCapacity];
+		int capacity = Hashing.tableSizeFor(initialCapacity, MAX_CAPACITY);
+		buckets = new Entry[capacity];
+		occupied = newBitmap(capacity);
+		threshold = thresholdFor(capacity);
 	}
 
 	/**
 	 * Constructs a new set containing the elements in the specified collection.
-	 * Hashtable capacity is of collection size.
+	 * The hashtable has default load factor (0.75) and capacity sufficient
+	 * to hold the elements of the collection.
 	 *
 	 * @param c the collection whose elements are to be placed into this set
 	 */
 	public HashSet(Collection<E> c) {
-		this(c.size());
+		this(capacityFor(c.size(), DEFAULT_LOAD_FACTOR));
 		addAll(c);
 	}
 
@@ -82,23 +265,37 @@ public class HashSet<E> implements Set<E> {
 	/**
 	 * Returns <tt>true</tt> if this set contains the specified element.
 	 * More formally, returns <tt>true</tt> if and only if this set
-	 * contains an element <tt>e</tt> such that <tt>(e.equals(o))</tt>.
+	 * contains an element <tt>e</tt> such that <tt>(e.equals(o))</tt>,
+	 * or that is equivalent to <tt>o</tt> by the hashing strategy of this set.
 	 *
 	 * @param o element whose presence in this set is to be tested
 	 * @return <tt>true</tt> if this set contains the specified element
+	 * @throws ClassCastException if the hashing strategy of this set does not accept the object
 	 */
 	@Override
 	public boolean contains(Object o) {
-		int index = hashFunction(Objects.hashCode(o));
-		Entry<E> current = buckets[index];
+		return getEntry(o) != null;
+	}
+
+	/**
+	 * Returns the entry of the element equal to the given object, or <tt>null</tt> if there is none.
+	 */
+	Entry<E> getEntry(Object o) {
+		int hash = hash(o);
+		Entry<E>[] table = tableFor(hash);
+		Entry<E> current = table[hash & (table.length - 1)];
 
+		if (current instanceof TreeBin) {
+			TreeNode<E> node = ((TreeBin<E>) current).find(hash, o, strategy);
+			return node == null ? null : node.entry;
+		}
 		while (current != null) {
-			if (Objects.equals(current.value, o)) {
-				return true;
+			if (current.hash == hash && equivalent(strategy, current.value, o)) {
+				return current;
 			}
 			current = current.next;
 		}
-		return false;
+		return null;
 	}
 
 	/**
@@ -112,6 +309,81 @@ public class HashSet<E> implements Set<E> {
 		return new SimpleHashSetIterator();
 	}
 
+	/**
+	 * Returns a spliterator over the buckets. It reports {@link Spliterator#SIZED} and
+	 * {@link Spliterator#DISTINCT}; the parts it splits into by halving the bucket
+	 * range estimate their sizes as halves of the whole.
+	 *
+	 * @return a spliterator over the elements in this set
+	 */
+	@Override
+	public Spliterator<E> spliterator() {
+		return new BucketSpliterator(0, positionCount(), size, true);
+	}
+
+	/**
+	 * Performs the action for each element of the set, walking the buckets directly.
+	 *
+	 * @param action the action to be performed for each element
+	 * @throws NullPointerException if the specified action is null
+	 */
+	@Override
+	public void forEach(Consumer<? super E> action) {
+		Objects.requireNonNull(action);
+		for (int position = nextOccupiedPosition(0); position >= 0; position = nextOccupiedPosition(position + 1)) {
+			forEachInBucket(bucketAt(position), action);
+		}
+	}
+
+	/**
+	 * Removes all of the elements of this set that satisfy the given predicate,
+	 * walking the buckets directly and unlinking the entries in place.
+	 *
+	 * @param filter a predicate which returns <tt>true</tt> for elements to be removed
+	 * @return <tt>true</tt> if any elements were removed
+	 * @throws NullPointerException if the specified filter is null
+	 */
+	@Override
+	public boolean removeIf(Predicate<? super E> filter) {
+		Objects.requireNonNull(filter);
+		int removed = 0;
+		for (int position = nextOccupiedPosition(0); position >= 0; position = nextOccupiedPosition(position + 1)) {
+			Entry<E> head = bucketAt(position);
+			boolean tree = head instanceof TreeBin;
+			if (tree) {
+				head = ((TreeBin<E>) head).untreeify();
+				setBucketAt(position, head);
+			}
+			Entry<E> previous = null;
+			int count = 0;
+			for (Entry<E> current = head, next; current != null; current = next) {
+				next = current.next;
+				if (!filter.test(current.value)) {
+					previous = current;
+					count++;
+					continue;
+				}
+				if (previous == null) {
+					head = next;
+					setBucketAt(position, next);
+				} else {
+					previous.next = next;
+				}
+				hashSum -= hashCodeOf(current.value);
+				size--;
+				removed++;
+				afterEntryRemoval(current);
+				if (!tree) {
+					release(current);
+				}
+			}
+			if (tree && count > UNTREEIFY_THRESHOLD) {
+				setBucketAt(position, TreeBin.treeify(head));
+			}
+		}
+		return removed > 0;
+	}
+
 	/**
 	 * Returns an array containing all of the elements in this set.
 	 *
@@ -187,21 +459,109 @@ public class HashSet<E> implements Set<E> {
 	 */
 	@Override
 	public boolean add(E e) {
-		int index = hashFunction(Objects.hashCode(e));
-		Entry<E> current = buckets[index];
+		if (oldBuckets != null) {
+			rehashStep();
+		}
+		return insert(e, true) == null;
+	}
 
-		while (current != null) {
-			if (Objects.equals(current.value, e)) {
-				return false;
+	/**
+	 * Returns the element of this set equal to the specified element, adding the specified
+	 * element first if there is none. So equal elements can be replaced by one canonical
+	 * instance, like <tt>String.intern</tt> does. The bucket is walked once, both to find
+	 * the present element and to add a new one.
+	 *
+	 * @param e element to be interned
+	 * @return the element of this set equal to <tt>e</tt>, or <tt>e</tt> if it has just been added
+	 */
+	public E intern(E e) {
+		if (oldBuckets != null) {
+			rehashStep();
+		}
+		Entry<E> present = insert(e, true);
+		return present == null ? e : present.value;
+	}
+
+	/**
+	 * Returns the element of this set equal to the specified object, or <tt>null</tt>
+	 * if there is none. The lookup counts as an access, like <tt>add</tt> of a present element.
+	 *
+	 * @param o object to be looked for
+	 * @return the element of this set equal to <tt>o</tt>, or <tt>null</tt>
+	 */
+	public E get(Object o) {
+		Entry<E> entry = getEntry(o);
+		if (entry == null) {
+			return null;
+		}
+		afterEntryAccess(entry);
+		return entry.value;
+	}
+
+	/**
+	 * Adds the element the way {@link #add(Object)} does, but without the resize check:
+	 * bulk loaders size the table for all the elements beforehand.
+	 *
+	 * @param e element to be added to this set
+	 * @return <tt>true</tt> if this set did not already contain the specified element
+	 */
+	boolean load(E e) {
+		return insert(e, false) == null;
+	}
+
+	/**
+	 * Adds the element if it is not present.
+	 *
+	 * @return the entry of the present equal element, or <tt>null</tt> if the element has been added
+	 */
+	private Entry<E> insert(E e, boolean checkThreshold) {
+		int hash = hash(e);
+		Entry<E>[] table = tableFor(hash);
+		int index = hash & (table.length - 1);
+		Entry<E> first = table[index];
+		boolean grow = false;
+
+		if (first instanceof TreeBin) {
+			TreeBin<E> bin = (TreeBin<E>) first;
+			TreeNode<E> found = bin.find(hash, e, strategy);
+			if (found != null) {
+				afterEntryAccess(found.entry);
+				return found.entry;
+			}
+			Entry<E> entry = newEntry();
+			entry.value = e;
+			entry.hash = hash;
+			bin.insert(entry);
+			afterEntryInsertion(entry);
+		} else {
+			int chainLength = 0;
+			for (Entry<E> current = first; current != null; current = current.next) {
+				if (current.hash == hash && equivalent(strategy, current.value, e)) {
+					afterEntryAccess(current);
+					return current;
+				}
+				chainLength++;
+			}
+			Entry<E> entry = newEntry();
+			entry.value = e;
+			entry.hash = hash;
+			entry.next = first;
+			table[index] = entry;
+			setOccupied(occupancyOf(table), index);
+			afterEntryInsertion(entry);
+			if (chainLength + 1 >= TREEIFY_THRESHOLD) {
+				if (buckets.length < MIN_TREEIFY_CAPACITY) {
+					grow = true;
+				} else {
+					table[index] = TreeBin.treeify(entry);
+				}
 			}
-			current = current.next;
 		}
-		Entry<E> entry = new Entry<>();
-		entry.value = e;
-		entry.next = buckets[index];
-		buckets[index] = entry;
-		size++;
-		return true;
+		hashSum += hashCodeOf(e);
+		if (++size > threshold && checkThreshold || grow) {
+			resize();
+		}
+		return null;
 	}
 
 	/**
@@ -213,18 +573,45 @@ public class HashSet<E> implements Set<E> {
 	 */
 	@Override
 	public boolean remove(Object o) {
-		int index = hashFunction(Objects.hashCode(o));
-		Entry<E> current = buckets[index];
+		if (oldBuckets != null) {
+			rehashStep();
+		}
+		int hash = hash(o);
+		Entry<E>[] table = tableFor(hash);
+		int index = hash & (table.length - 1);
+		Entry<E> current = table[index];
 		Entry<E> previous = null;
 
+		if (current instanceof TreeBin) {
+			TreeBin<E> bin = (TreeBin<E>) current;
+			TreeNode<E> node = bin.find(hash, o, strategy);
+			if (node == null) {
+				return false;
+			}
+			Entry<E> removed = node.entry;
+			bin.delete(node);
+			if (bin.count <= UNTREEIFY_THRESHOLD) {
+				table[index] = bin.untreeify();
+			}
+			hashSum -= hashCodeOf(removed.value);
+			size--;
+			afterEntryRemoval(removed);
+			return true;
+		}
 		while (current != null) {
-			if (Objects.equals(current.value, o)) {
+			if (current.hash == hash && equivalent(strategy, current.value, o)) {
 				if (previous == null) {
-					buckets[index] = current.next;
+					table[index] = current.next;
+					if (current.next == null) {
+						clearOccupied(occupancyOf(table), index);
+					}
 				} else {
 					previous.next = current.next;
 				}
+				hashSum -= hashCodeOf(current.value);
 				size--;
+				afterEntryRemoval(current);
+				release(current);
 				return true;
 			}
 			previous = current;
@@ -234,6 +621,28 @@ public class HashSet<E> implements Set<E> {
 		return false;
 	}
 
+	/**
+	 * Sets the number of removed entries kept for reuse by <tt>add</tt>. Entries unlinked
+	 * from chains by {@link #remove(Object)} go to the free list until it holds
+	 * <tt>capacity</tt> entries; tree buckets and the iterator do not recycle.
+	 * The pool is off (0) by default. With the pool on, the set must not be modified
+	 * during iteration other than by the iterator's own <tt>remove</tt>: a reused entry
+	 * would lead the iterator into another bucket.
+	 *
+	 * @param capacity maximum number of pooled entries, 0 to turn pooling off
+	 * @throws IllegalArgumentException if the capacity is negative
+	 */
+	public void setEntryPoolCapacity(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Pool capacity is out of bounds: " + capacity);
+		}
+		poolCapacity = capacity;
+		while (poolSize > capacity) {
+			pool = pool.next;
+			poolSize--;
+		}
+	}
+
 	/**
 	 * Returns <tt>true</tt> if this set contains all of the elements of the
 	 * specified collection.  If the specified collection is also a set, this
@@ -263,6 +672,11 @@ public class HashSet<E> implements Set<E> {
 	 * operation is undefined if the specified collection is modified while
 	 * the operation is in progress.
 	 *
+	 * <p>An empty <tt>HashSet</tt> (not a subclass) given at least
+	 * {@value #PARALLEL_LOAD_THRESHOLD} elements is filled in parallel in the common
+	 * fork/join pool, see {@link #parallelLoad(Collection, ForkJoinPool)}. The same goes
+	 * for the {@link #HashSet(Collection)} constructor.
+	 *
 	 * @param c collection containing elements to be added to this set
 	 * @return <tt>true</tt> if this set changed as a result of the call
 	 * @throws NullPointerException if the specified collection is null
@@ -270,6 +684,11 @@ public class HashSet<E> implements Set<E> {
 	 */
 	@Override
 	public boolean addAll(Collection<? extends E> c) {
+		if (size == 0 && getClass() == HashSet.class && c.size() >= PARALLEL_LOAD_THRESHOLD
+				&& ForkJoinPool.getCommonPoolParallelism() > 1) {
+			parallelLoad(c, ForkJoinPool.commonPool());
+			return size > 0;
+		}
 		boolean modified = false;
 		for (E e : c) {
 			modified |= add(e);
@@ -324,14 +743,136 @@ public class HashSet<E> implements Set<E> {
 		return modified;
 	}
 
+	/**
+	 * Checks the keys of the array for containment in this set. The keys go in blocks of
+	 * {@value #BATCH_SIZE}: the buckets and first entries of a whole block are read first,
+	 * then the keys are resolved by {@link #contains(Object)}. The reads of the first pass
+	 * do not depend on each other, so their cache misses overlap instead of stalling one
+	 * after another, and the second pass finds the table lines in the cache. Tables of less
+	 * than {@value #BATCH_MIN_CAPACITY} buckets are checked key by key.
+	 *
+	 * @param keys   keys to be checked for containment in this set
+	 * @param result bit <tt>i</tt> is set if this set contains <tt>keys[i]</tt> and cleared otherwise
+	 * @return <tt>true</tt> if this set contains all of the keys
+	 * @throws NullPointerException if the array or the bit set is null
+	 */
+	public boolean containsAll(Object[] keys, BitSet result) {
+		Object[] block = new Object[BATCH_SIZE];
+		boolean all = true;
+		for (int from = 0; from < keys.length; from += BATCH_SIZE) {
+			int to = Math.min(from + BATCH_SIZE, keys.length);
+			readBuckets(keys, from, to, block);
+			for (int i = from; i < to; i++) {
+				boolean found = contains(keys[i]);
+				result.set(i, found);
+				all &= found;
+			}
+		}
+		return all;
+	}
+
+	/**
+	 * Adds the elements of the array to this set, in blocks the way
+	 * {@link #containsAll(Object[], BitSet)} checks them.
+	 *
+	 * @param elements elements to be added to this set
+	 * @return <tt>true</tt> if this set changed as a result of the call
+	 * @throws NullPointerException if the array is null
+	 * @see #add(Object)
+	 */
+	public boolean addAll(E[] elements) {
+		Object[] block = new Object[BATCH_SIZE];
+		boolean modified = false;
+		for (int from = 0; from < elements.length; from += BATCH_SIZE) {
+			int to = Math.min(from + BATCH_SIZE, elements.length);
+			readBuckets(elements, from, to, block);
+			for (int i = from; i < to; i++) {
+				modified |= add(elements[i]);
+			}
+		}
+		return modified;
+	}
+
+	/**
+	 * Removes the keys of the array from this set, in blocks the way
+	 * {@link #containsAll(Object[], BitSet)} checks them.
+	 *
+	 * @param keys keys to be removed from this set
+	 * @return <tt>true</tt> if this set changed as a result of the call
+	 * @throws NullPointerException if the array is null
+	 * @see #remove(Object)
+	 */
+	public boolean removeAll(Object[] keys) {
+		Object[] block = new Object[BATCH_SIZE];
+		boolean modified = false;
+		for (int from = 0; from < keys.length; from += BATCH_SIZE) {
+			int to = Math.min(from + BATCH_SIZE, keys.length);
+			readBuckets(keys, from, to, block);
+			for (int i = from; i < to; i++) {
+				modified |= remove(keys[i]);
+			}
+		}
+		return modified;
+	}
+
+	/**
+	 * The first pass of the batch operations: reads the buckets of the keys from
+	 * <tt>from</tt> to <tt>to</tt> into the block, then the first entries of the buckets.
+	 * The block keeps the loaded values, so the reads are not optimized away.
+	 */
+	private void readBuckets(Object[] keys, int from, int to, Object[] block) {
+		if (buckets.length < BATCH_MIN_CAPACITY) {
+			return;
+		}
+		int count = to - from;
+		for (int i = 0; i < count; i++) {
+			int hash = hash(keys[from + i]);
+			Entry<E>[] table = tableFor(hash);
+			block[i] = table[hash & (table.length - 1)];
+		}
+		for (int i = 0; i < count; i++) {
+			Entry<E> head = (Entry<E>) block[i];
+			block[i] = head == null ? null : head.value;
+		}
+		for (int i = 0; i < count; i++) {
+			Object value = block[i];
+			block[i] = value == null ? null : value.getClass();
+		}
+	}
+
 	/**
 	 * Removes all of the elements from this set.
 	 * The set will be empty after this call returns.
 	 */
 	@Override
 	public void clear() {
-		Arrays.fill(buckets, null);
+		for (int word = 0; word < occupied.length; word++) {
+			for (long bits = occupied[word]; bits != 0; bits &= bits - 1) {
+				buckets[(word << 6) + Long.numberOfTrailingZeros(bits)] = null;
+			}
+			occupied[word] = 0;
+		}
+		oldBuckets = null;
+		oldOccupied = null;
+		rehashIndex = 0;
 		size = 0;
+		hashSum = 0;
+	}
+
+	/**
+	 * Returns an immutable copy of this set for fast lookups: a {@link FrozenHashSet}
+	 * with a minimal perfect hash function over a flat array of the elements.
+	 * Later changes of this set do not affect the copy.
+	 *
+	 * @return frozen copy of this set
+	 * @throws UnsupportedOperationException if this set has a hashing strategy: the copy
+	 *                                       compares elements by <tt>equals</tt>
+	 */
+	public FrozenHashSet<E> freeze() {
+		if (strategy != null) {
+			throw new UnsupportedOperationException("Frozen set has no hashing strategy");
+		}
+		return new FrozenHashSet<>(this);
 	}
 
 	/**
@@ -340,6 +881,9 @@ public class HashSet<E> implements Set<E> {
 	 * have the same size, and every member of the specified set is
 	 * contained in this set.
 	 *
+	 * <p>Another <tt>HashSet</tt> with a different hash code is rejected
+	 * without looking at the elements.
+	 *
 	 * @param o object to be compared for equality with this set
 	 * @return <tt>true</tt> if the specified object is equal to this set
 	 */
@@ -355,6 +899,9 @@ public class HashSet<E> implements Set<E> {
 		if (c.size() != size()) {
 			return false;
 		}
+		if (o instanceof HashSet && ((HashSet<?>) o).strategy == strategy && ((HashSet<?>) o).hashSum != hashSum) {
+			return false;
+		}
 		try {
 			return containsAll(c);
 		} catch (ClassCastException | NullPointerException unused) {
@@ -365,6 +912,9 @@ public class HashSet<E> implements Set<E> {
 	/**
 	 * Returns the hash code value for this set.  The hash code of a set is
 	 * defined to be the sum of the hash codes of the elements in the set.
+	 * The sum is maintained by the mutating operations, so this method takes
+	 * constant time. As for any hash-based set, elements must not change their
+	 * hash codes while they are in the set.
 	 *
 	 * @return the hash code value for this set
 	 * @see Object#equals(Object)
@@ -372,75 +922,997 @@ public class HashSet<E> implements Set<E> {
 	 */
 	@Override
 	public int hashCode() {
-		int h = 0;
-		Iterator<E> i = iterator();
-		while (i.hasNext()) {
-			E obj = i.next();
-			if (obj != null) {
-				h += obj.hashCode();
-			}
-		}
-		return h;
+		return hashSum;
 	}
 
-	private int hashFunction(int hashCode) {
-		return (hashCode < 0 ? -hashCode : hashCode) % buckets.length;
+	/**
+	 * Returns <tt>true</tt> if this set finds its elements by a hashing strategy: then its elements
+	 * may be equal to each other and its hash code is not that of a <tt>Set</tt> of them.
+	 */
+	boolean hasHashingStrategy() {
+		return strategy != null;
 	}
 
-	private static class Entry<E> {
-		E value;
-		Entry<E> next;
+	private int hash(Object o) {
+		return Hashing.mix(hashCodeOf(o));
 	}
 
-	private class SimpleHashSetIterator implements Iterator<E> {
-
-		private int currentBucket;
-		private int previousBucket;
-		private Entry<E> currentEntry;
-		private Entry<E> previousEntry;
-		private boolean canRemove;
+	/**
+	 * Returns the hash code of the element by the strategy, or its own one.
+	 */
+	private int hashCodeOf(Object o) {
+		return strategy == null || o == null ? Objects.hashCode(o) : ((HashingStrategy<Object>) strategy).hashCode(o);
+	}
 
-		SimpleHashSetIterator() {
-			currentEntry = previousEntry = null;
-			currentBucket = previousBucket = -1;
-			canRemove = false;
+	/**
+	 * Returns <tt>true</tt> if the element of the set is equivalent to the object by the strategy,
+	 * or equal to it if the strategy is <tt>null</tt>.
+	 */
+	private static boolean equivalent(HashingStrategy<?> strategy, Object element, Object o) {
+		if (element == o) {
+			return true;
+		}
+		if (element == null || o == null) {
+			return false;
 		}
+		return strategy == null ? element.equals(o) : ((HashingStrategy<Object>) strategy).equals(element, o);
+	}
 
-		@Override
-		public boolean hasNext() {
-			if (currentEntry != null && currentEntry.next != null) {
-				return true;
-			}
+	/**
+	 * Returns the capacity of the hashtable that holds the given number of elements without resize.
+	 */
+	static int capacityFor(int size, float loadFactor) {
+		float capacity = size / loadFactor + 1;
+		return capacity < MAX_CAPACITY ? Math.max((int) capacity, DEFAULT_CAPACITY) : MAX_CAPACITY;
+	}
 
-			for (int index = currentBucket + 1; index < buckets.length; index++) {
-				if (buckets[index] != null) {
-					return true;
-				}
-			}
-			return false;
+	private int thresholdFor(int capacity) {
+		float threshold = capacity * loadFactor;
+		return capacity < MAX_CAPACITY && threshold < Integer.MAX_VALUE ? (int) threshold : Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Returns the table holding the bucket for the given hash: the old table
+	 * if the bucket is not moved yet by incremental rehash, the current table otherwise.
+	 */
+	private Entry<E>[] tableFor(int hash) {
+		if (oldBuckets != null && (hash & (oldBuckets.length - 1)) >= rehashIndex) {
+			return oldBuckets;
 		}
+		return buckets;
+	}
 
-		@Override
-		public E next() {
-			previousEntry = currentEntry;
-			previousBucket = currentBucket;
-			canRemove = true;
+	private Entry<E> newEntry() {
+		Entry<E> entry = pool;
+		if (entry == null) {
+			return createEntry();
+		}
+		pool = entry.next;
+		poolSize--;
+		entry.next = null;
+		return entry;
+	}
 
-			if (currentEntry == null || currentEntry.next == null) {
-				do {
-					currentBucket++;
-				} while (currentBucket < buckets.length && buckets[currentBucket] == null);
+	/**
+	 * Puts the unlinked entry to the free list unless it is full. The entry
+	 * drops its element, so the pool does not keep removed elements reachable.
+	 */
+	private void release(Entry<E> entry) {
+		if (poolSize < poolCapacity) {
+			entry.value = null;
+			entry.next = pool;
+			pool = entry;
+			poolSize++;
+		}
+	}
 
-				if (currentBucket < buckets.length) {
-					currentEntry = buckets[currentBucket];
-				} else {
-					throw new NoSuchElementException();
-				}
-			} else {
-				currentEntry = currentEntry.next;
-			}
+	/**
+	 * Doubles the capacity of the hashtable. Elements are moved at once or,
+	 * in the incremental rehash mode, by the following mutating operations.
+	 */
+	private void resize() {
+		if (oldBuckets != null) {
+			finishRehash();
+		}
+		int oldCapacity = buckets.length;
+		if (oldCapacity == MAX_CAPACITY) {
+			threshold = Integer.MAX_VALUE;
+			return;
+		}
+		int newCapacity = oldCapacity < MAX_CAPACITY / 2 ? oldCapacity << 1 : MAX_CAPACITY;
+		oldBuckets = buckets;
+		oldOccupied = occupied;
+		rehashIndex = 0;
+		buckets = new Entry[newCapacity];
+		occupied = newBitmap(newCapacity);
+		threshold = thresholdFor(newCapacity);
+		if (!incrementalRehash) {
+			finishRehash();
+		}
+		afterResize();
+	}
 
-			return currentEntry.value;
+	/**
+	 * Moves next {@link #REHASH_STEP} buckets of the old table to the current one.
+	 */
+	private void rehashStep() {
+		int end = Math.min(rehashIndex + REHASH_STEP, oldBuckets.length);
+		for (; rehashIndex < end; rehashIndex++) {
+			moveBucket(rehashIndex);
+		}
+		if (rehashIndex == oldBuckets.length) {
+			oldBuckets = null;
+			oldOccupied = null;
+			rehashIndex = 0;
+		}
+		afterRehashStep();
+	}
+
+	private void finishRehash() {
+		for (; rehashIndex < oldBuckets.length; rehashIndex++) {
+			moveBucket(rehashIndex);
+		}
+		oldBuckets = null;
+		oldOccupied = null;
+		rehashIndex = 0;
+	}
+
+	/**
+	 * Moves the old bucket to the current table. The capacity is doubled, so its
+	 * elements go either to the bucket with the same index or to the one with
+	 * index greater by the old capacity. Both of them are empty yet, so the bucket
+	 * is split in two keeping the order of elements.
+	 */
+	private void moveBucket(int oldIndex) {
+		Entry<E> head = oldBuckets[oldIndex];
+		if (head == null) {
+			return;
+		}
+		oldBuckets[oldIndex] = null;
+		clearOccupied(oldOccupied, oldIndex);
+		if (head instanceof TreeBin) {
+			head = ((TreeBin<E>) head).untreeify();
+		}
+		int oldCapacity = oldBuckets.length;
+		Entry<E> lowHead = null, lowTail = null, highHead = null, highTail = null;
+		int lowCount = 0, highCount = 0;
+		for (Entry<E> current = head; current != null; current = current.next) {
+			if ((current.hash & oldCapacity) == 0) {
+				if (lowTail == null) {
+					lowHead = current;
+				} else {
+					lowTail.next = current;
+				}
+				lowTail = current;
+				lowCount++;
+			} else {
+				if (highTail == null) {
+					highHead = current;
+				} else {
+					highTail.next = current;
+				}
+				highTail = current;
+				highCount++;
+			}
+		}
+		placeBucket(oldIndex, lowHead, lowTail, lowCount);
+		placeBucket(oldIndex + oldCapacity, highHead, highTail, highCount);
+	}
+
+	private void placeBucket(int index, Entry<E> head, Entry<E> tail, int count) {
+		if (head == null) {
+			return;
+		}
+		tail.next = null;
+		buckets[index] = count >= TREEIFY_THRESHOLD ? TreeBin.treeify(head) : head;
+		setOccupied(occupied, index);
+	}
+
+	float loadFactor() {
+		return loadFactor;
+	}
+
+	/**
+	 * Returns the length of the current hashtable.
+	 */
+	int capacity() {
+		return buckets.length;
+	}
+
+	/**
+	 * Sizes the hashtable of the empty set for the expected number of elements,
+	 * so bulk loaders can {@link #load(Object)} them without resizes.
+	 */
+	void presize(int expectedSize) {
+		int capacity = Hashing.tableSizeFor(capacityFor(expectedSize, loadFactor), MAX_CAPACITY);
+		if (size == 0 && capacity > buckets.length) {
+			oldBuckets = null;
+			oldOccupied = null;
+			rehashIndex = 0;
+			buckets = new Entry[capacity];
+			occupied = newBitmap(capacity);
+			threshold = thresholdFor(capacity);
+		}
+	}
+
+	/**
+	 * Fills the empty set with the elements of the collection using the tasks of the pool.
+	 * The table is sized for all the elements and cut into regions of whole bitmap words
+	 * (multiples of 64 buckets). The elements are hashed in chunks and sorted by region,
+	 * counting first and then scattering, and each region is filled by its own task, so
+	 * no two tasks touch the same bucket or bitmap word. Duplicates meet in the same bucket
+	 * and are dropped there, the first occurrence wins. The resize and entry hooks are not
+	 * called, so this is for <tt>HashSet</tt> itself only.
+	 *
+	 * <p>If an element throws, the set is left empty.
+	 *
+	 * @param c    collection containing elements to be added to this set
+	 * @param pool pool running the tasks
+	 */
+	void parallelLoad(Collection<? extends E> c, ForkJoinPool pool) {
+		Object[] elements = c.toArray();
+		int n = elements.length;
+		presize(Math.max(n, (int) (MIN_TREEIFY_CAPACITY * loadFactor)));
+		if (oldBuckets != null) {
+			finishRehash();
+		}
+		Entry<E>[] table = buckets;
+		long[] bitmap = occupied;
+		int mask = table.length - 1;
+		int tasks = Integer.highestOneBit(pool.getParallelism()) * 4;
+		int regions = Math.max(1, Math.min(tasks, table.length >>> 6));
+		int shift = Integer.numberOfTrailingZeros(table.length / regions);
+
+		int[] hashes = new int[n];
+		int[][] offsets = new int[tasks][regions];
+		try {
+			pool.invoke(new ParallelFor(0, tasks, chunk -> {
+				int[] counts = offsets[chunk];
+				for (int i = chunkStart(n, tasks, chunk), end = chunkStart(n, tasks, chunk + 1); i < end; i++) {
+					int hash = hash(elements[i]);
+					hashes[i] = hash;
+					counts[(hash & mask) >>> shift]++;
+				}
+			}));
+			int[] regionStart = new int[regions + 1];
+			int offset = 0;
+			for (int region = 0; region < regions; region++) {
+				regionStart[region] = offset;
+				for (int chunk = 0; chunk < tasks; chunk++) {
+					int count = offsets[chunk][region];
+					offsets[chunk][region] = offset;
+					offset += count;
+				}
+			}
+			regionStart[regions] = n;
+
+			Object[] sorted = new Object[n];
+			int[] sortedHashes = new int[n];
+			pool.invoke(new ParallelFor(0, tasks, chunk -> {
+				int[] next = offsets[chunk];
+				for (int i = chunkStart(n, tasks, chunk), end = chunkStart(n, tasks, chunk + 1); i < end; i++) {
+					int at = next[(hashes[i] & mask) >>> shift]++;
+					sorted[at] = elements[i];
+					sortedHashes[at] = hashes[i];
+				}
+			}));
+
+			int[] added = new int[regions];
+			int[] sums = new int[regions];
+			pool.invoke(new ParallelFor(0, regions, region -> {
+				int count = 0;
+				int sum = 0;
+				for (int i = regionStart[region]; i < regionStart[region + 1]; i++) {
+					E e = (E) sorted[i];
+					if (loadInto(table, bitmap, e, sortedHashes[i])) {
+						count++;
+						sum += hashCodeOf(e);
+					}
+				}
+				added[region] = count;
+				sums[region] = sum;
+			}));
+			for (int region = 0; region < regions; region++) {
+				size += added[region];
+				hashSum += sums[region];
+			}
+		} catch (RuntimeException | Error e) {
+			clear();
+			throw e;
+		}
+	}
+
+	private static int chunkStart(int length, int chunks, int chunk) {
+		return (int) ((long) length * chunk / chunks);
+	}
+
+	/**
+	 * Inserts the element into the table being filled by {@link #parallelLoad(Collection, ForkJoinPool)}.
+	 * Touches only the bucket of the element and its bitmap word.
+	 *
+	 * @return <tt>true</tt> if the table did not already contain the element
+	 */
+	private boolean loadInto(Entry<E>[] table, long[] bitmap, E e, int hash) {
+		int index = hash & (table.length - 1);
+		Entry<E> first = table[index];
+		Entry<E> entry = new Entry<>();
+		entry.value = e;
+		entry.hash = hash;
+		if (first instanceof TreeBin) {
+			TreeBin<E> bin = (TreeBin<E>) first;
+			if (bin.find(hash, e, strategy) != null) {
+				return false;
+			}
+			bin.insert(entry);
+			return true;
+		}
+		int chainLength = 0;
+		for (Entry<E> current = first; current != null; current = current.next) {
+			if (current.hash == hash && equivalent(strategy, current.value, e)) {
+				return false;
+			}
+			chainLength++;
+		}
+		entry.next = first;
+		table[index] = entry;
+		setOccupied(bitmap, index);
+		if (chainLength + 1 >= TREEIFY_THRESHOLD) {
+			table[index] = TreeBin.treeify(entry);
+		}
+		return true;
+	}
+
+	/**
+	 * Called after the hashtable is doubled. Does nothing here; {@link InstrumentedHashSet} counts the calls
+	 * and {@link BloomFilteredHashSet} rebuilds its filter.
+	 */
+	void afterResize() {
+	}
+
+	/**
+	 * Allocates an entry. {@link LinkedHashSet} allocates entries with links to their neighbours.
+	 */
+	Entry<E> createEntry() {
+		return new Entry<>();
+	}
+
+	/**
+	 * Called after a new entry is put into the hashtable.
+	 */
+	void afterEntryInsertion(Entry<E> entry) {
+	}
+
+	/**
+	 * Called when <tt>add</tt> finds the element already present.
+	 */
+	void afterEntryAccess(Entry<E> entry) {
+	}
+
+	/**
+	 * Called after the entry is unlinked from the hashtable, before it goes to the entry pool.
+	 */
+	void afterEntryRemoval(Entry<E> entry) {
+	}
+
+	/**
+	 * Called after a step of incremental rehash. Does nothing here; {@link InstrumentedHashSet} counts the calls.
+	 */
+	void afterRehashStep() {
+	}
+
+	/**
+	 * Counts buckets of the hashtable (and of the old one during incremental rehash)
+	 * by the number of their elements into the statistics.
+	 *
+	 * <p>The MBean calls it from another thread while the set may be resized, so every
+	 * field is read once and a bitmap that does not match its table is cut to the table;
+	 * the counts are then only approximate.
+	 */
+	void countBuckets(HashSetStatistics statistics) {
+		Entry<E>[] table = buckets;
+		long[] bitmap = occupied;
+		Entry<E>[] old = oldBuckets;
+		long[] oldBitmap = oldOccupied;
+		statistics.capacity = table.length;
+		countBuckets(table, bitmap, statistics);
+		if (old != null && oldBitmap != null) {
+			countBuckets(old, oldBitmap, statistics);
+		}
+	}
+
+	private static <E> void countBuckets(Entry<E>[] table, long[] bitmap, HashSetStatistics statistics) {
+		long[] histogram = statistics.bucketSizeHistogram;
+		int last = histogram.length - 1;
+		int nonEmpty = 0;
+		for (int index = nextOccupied(bitmap, 0); index >= 0 && index < table.length;
+				index = nextOccupied(bitmap, index + 1)) {
+			Entry<E> head = table[index];
+			if (head == null) {
+				continue;
+			}
+			int length = 0;
+			if (head instanceof TreeBin) {
+				length = ((TreeBin<E>) head).count;
+				statistics.treeBuckets++;
+			} else {
+				for (Entry<E> entry = head; entry != null; entry = entry.next) {
+					length++;
+				}
+			}
+			histogram[Math.min(length, last)]++;
+			statistics.maxBucketSize = Math.max(statistics.maxBucketSize, length);
+			nonEmpty++;
+		}
+		histogram[0] += table.length - nonEmpty;
+		statistics.buckets += table.length;
+	}
+
+	private static long[] newBitmap(int capacity) {
+		return new long[(capacity + 63) >>> 6];
+	}
+
+	private long[] occupancyOf(Entry<E>[] table) {
+		return table == buckets ? occupied : oldOccupied;
+	}
+
+	private static void setOccupied(long[] bitmap, int index) {
+		bitmap[index >>> 6] |= 1L << index;
+	}
+
+	private static void clearOccupied(long[] bitmap, int index) {
+		bitmap[index >>> 6] &= ~(1L << index);
+	}
+
+	/**
+	 * Returns the index of the first non-empty bucket at or after <tt>from</tt>,
+	 * or <tt>-1</tt> if there is none.
+	 */
+	private static int nextOccupied(long[] bitmap, int from) {
+		int word = from >>> 6;
+		if (word >= bitmap.length) {
+			return -1;
+		}
+		long bits = bitmap[word] & (-1L << from);
+		while (bits == 0) {
+			if (++word == bitmap.length) {
+				return -1;
+			}
+			bits = bitmap[word];
+		}
+		return (word << 6) + Long.numberOfTrailingZeros(bits);
+	}
+
+	/**
+	 * Iterator sees both tables as one sequence of buckets: the old table
+	 * (if any) goes first, the current table follows. Returns the position of
+	 * the first non-empty bucket at or after the given one, or <tt>-1</tt>.
+	 */
+	private int nextOccupiedPosition(int from) {
+		int offset = 0;
+		if (oldBuckets != null) {
+			if (from < oldBuckets.length) {
+				int index = nextOccupied(oldOccupied, from);
+				if (index >= 0) {
+					return index;
+				}
+				from = oldBuckets.length;
+			}
+			offset = oldBuckets.length;
+		}
+		int index = nextOccupied(occupied, from - offset);
+		return index < 0 ? -1 : offset + index;
+	}
+
+	/**
+	 * Returns the number of bucket positions the iterator sees: both tables during incremental rehash.
+	 */
+	private int positionCount() {
+		return oldBuckets == null ? buckets.length : oldBuckets.length + buckets.length;
+	}
+
+	private static <E> void forEachInBucket(Entry<E> head, Consumer<? super E> action) {
+		if (head instanceof TreeBin) {
+			for (TreeNode<E> node = ((TreeBin<E>) head).first(); node != null; node = TreeBin.successor(node)) {
+				action.accept(node.entry.value);
+			}
+		} else {
+			for (Entry<E> entry = head; entry != null; entry = entry.next) {
+				action.accept(entry.value);
+			}
+		}
+	}
+
+	private Entry<E> bucketAt(int position) {
+		if (oldBuckets == null) {
+			return buckets[position];
+		}
+		return position < oldBuckets.length ? oldBuckets[position] : buckets[position - oldBuckets.length];
+	}
+
+	/**
+	 * Replaces the head of the bucket at the given position.
+	 */
+	private void setBucketAt(int position, Entry<E> head) {
+		Entry<E>[] table = buckets;
+		long[] bitmap = occupied;
+		if (oldBuckets != null) {
+			if (position < oldBuckets.length) {
+				table = oldBuckets;
+				bitmap = oldOccupied;
+			} else {
+				position -= oldBuckets.length;
+			}
+		}
+		table[position] = head;
+		if (head == null) {
+			clearOccupied(bitmap, position);
+		}
+	}
+
+	static class Entry<E> {
+		E value;
+		/**
+		 * Spread hash code of the value, compared before <tt>equals</tt> and used by resize.
+		 */
+		int hash;
+		Entry<E> next;
+	}
+
+	/**
+	 * Head of a bucket that keeps its entries in a red-black tree instead of a chain.
+	 * Nodes are ordered by hash, then by <tt>compareTo</tt> if the elements are of the same
+	 * <tt>Comparable</tt> class, then by class name and identity hash code. Lookup
+	 * descends by hash and <tt>compareTo</tt> and searches both subtrees only where
+	 * neither of them tells the way. Nodes refer to the entries, so the entries
+	 * themselves survive conversions between a chain and a tree.
+	 */
+	private static final class TreeBin<E> extends Entry<E> {
+
+		TreeNode<E> root;
+		int count;
+
+		static <E> TreeBin<E> treeify(Entry<E> head) {
+			TreeBin<E> bin = new TreeBin<>();
+			Entry<E> current = head;
+			while (current != null) {
+				Entry<E> next = current.next;
+				current.next = null;
+				bin.insert(current);
+				current = next;
+			}
+			return bin;
+		}
+
+		/**
+		 * Returns the chain of the entries in the tree order.
+		 */
+		Entry<E> untreeify() {
+			Entry<E> head = null;
+			Entry<E> tail = null;
+			for (TreeNode<E> node = first(); node != null; node = successor(node)) {
+				if (tail == null) {
+					head = node.entry;
+				} else {
+					tail.next = node.entry;
+				}
+				tail = node.entry;
+			}
+			if (tail != null) {
+				tail.next = null;
+			}
+			return head;
+		}
+
+		TreeNode<E> first() {
+			TreeNode<E> node = root;
+			if (node != null) {
+				while (node.left != null) {
+					node = node.left;
+				}
+			}
+			return node;
+		}
+
+		/**
+		 * Finds the node of the element equivalent to the object. Elements are ordered by
+		 * <tt>compareTo</tt>, but a strategy may disagree with it, so with a strategy
+		 * equal hashes are searched in both subtrees.
+		 */
+		TreeNode<E> find(int hash, Object o, HashingStrategy<?> strategy) {
+			return find(root, hash, o, strategy == null ? comparableClassFor(o) : null, strategy);
+		}
+
+		private static <E> TreeNode<E> find(TreeNode<E> node, int hash, Object o, Class<?> comparableClass,
+				HashingStrategy<?> strategy) {
+			while (node != null) {
+				int cmp;
+				if (hash != node.hash) {
+					node = hash < node.hash ? node.left : node.right;
+				} else if (equivalent(strategy, node.entry.value, o)) {
+					return node;
+				} else if (comparableClass != null
+						&& (cmp = compareComparables(comparableClass, o, node.entry.value)) != 0) {
+					node = cmp < 0 ? node.left : node.right;
+				} else {
+					TreeNode<E> found = find(node.right, hash, o, comparableClass, strategy);
+					if (found != null) {
+						return found;
+					}
+					node = node.left;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Inserts the entry, which must not be in the tree yet.
+		 */
+		void insert(Entry<E> entry) {
+			int hash = entry.hash;
+			TreeNode<E> node = new TreeNode<>(entry, hash);
+			count++;
+			if (root == null) {
+				root = node;
+				return;
+			}
+			Object value = entry.value;
+			Class<?> comparableClass = comparableClassFor(value);
+			TreeNode<E> parent = root;
+			while (true) {
+				boolean left = compare(hash, value, comparableClass, parent) < 0;
+				TreeNode<E> child = left ? parent.left : parent.right;
+				if (child == null) {
+					node.parent = parent;
+					if (left) {
+						parent.left = node;
+					} else {
+						parent.right = node;
+					}
+					break;
+				}
+				parent = child;
+			}
+			fixAfterInsertion(node);
+		}
+
+		/**
+		 * Deletes the node from the tree. If the node has two children, its successor
+		 * is unlinked instead and the successor's entry is moved to the node.
+		 */
+		void delete(TreeNode<E> node) {
+			count--;
+			if (node.left != null && node.right != null) {
+				TreeNode<E> successor = successor(node);
+				node.entry = successor.entry;
+				node.hash = successor.hash;
+				node = successor;
+			}
+			TreeNode<E> replacement = node.left != null ? node.left : node.right;
+			if (replacement != null) {
+				replacement.parent = node.parent;
+				if (node.parent == null) {
+					root = replacement;
+				} else if (node == node.parent.left) {
+					node.parent.left = replacement;
+				} else {
+					node.parent.right = replacement;
+				}
+				node.left = node.right = node.parent = null;
+				if (!node.red) {
+					fixAfterDeletion(replacement);
+				}
+			} else if (node.parent == null) {
+				root = null;
+			} else {
+				if (!node.red) {
+					fixAfterDeletion(node);
+				}
+				if (node.parent != null) {
+					if (node == node.parent.left) {
+						node.parent.left = null;
+					} else if (node == node.parent.right) {
+						node.parent.right = null;
+					}
+					node.parent = null;
+				}
+			}
+		}
+
+		static <E> TreeNode<E> successor(TreeNode<E> node) {
+			if (node.right != null) {
+				TreeNode<E> next = node.right;
+				while (next.left != null) {
+					next = next.left;
+				}
+				return next;
+			}
+			TreeNode<E> parent = node.parent;
+			while (parent != null && node == parent.right) {
+				node = parent;
+				parent = parent.parent;
+			}
+			return parent;
+		}
+
+		private static int compare(int hash, Object value, Class<?> comparableClass, TreeNode<?> node) {
+			if (hash != node.hash) {
+				return hash < node.hash ? -1 : 1;
+			}
+			Object other = node.entry.value;
+			int cmp;
+			if (comparableClass != null && (cmp = compareComparables(comparableClass, value, other)) != 0) {
+				return cmp;
+			}
+			return tieBreakOrder(value, other);
+		}
+
+		/**
+		 * Returns the class of the object if it is <tt>C implements Comparable&lt;C&gt;</tt>,
+		 * <tt>null</tt> otherwise.
+		 */
+		private static Class<?> comparableClassFor(Object o) {
+			if (!(o instanceof Comparable)) {
+				return null;
+			}
+			Class<?> c = o.getClass();
+			if (c == String.class) {
+				return c;
+			}
+			for (Type type : c.getGenericInterfaces()) {
+				if (type instanceof ParameterizedType) {
+					ParameterizedType parameterized = (ParameterizedType) type;
+					Type[] arguments = parameterized.getActualTypeArguments();
+					if (parameterized.getRawType() == Comparable.class && arguments.length == 1 && arguments[0] == c) {
+						return c;
+					}
+				}
+			}
+			return null;
+		}
+
+		private static int compareComparables(Class<?> comparableClass, Object o, Object other) {
+			return other == null || other.getClass() != comparableClass ? 0 : ((Comparable<Object>) o).compareTo(other);
+		}
+
+		/**
+		 * Orders elements that are not comparable or compare as equal. The <tt>null</tt>
+		 * element goes first, so the order stays consistent with the class name ordering.
+		 */
+		private static int tieBreakOrder(Object o, Object other) {
+			String name = o == null ? "" : o.getClass().getName();
+			String otherName = other == null ? "" : other.getClass().getName();
+			int cmp = name.compareTo(otherName);
+			if (cmp == 0) {
+				cmp = System.identityHashCode(o) <= System.identityHashCode(other) ? -1 : 1;
+			}
+			return cmp;
+		}
+
+		private void fixAfterInsertion(TreeNode<E> node) {
+			node.red = true;
+			while (node != root && node.parent.red) {
+				TreeNode<E> parent = node.parent;
+				TreeNode<E> grandParent = parent.parent;
+				if (parent == grandParent.left) {
+					TreeNode<E> uncle = grandParent.right;
+					if (isRed(uncle)) {
+						parent.red = false;
+						uncle.red = false;
+						grandParent.red = true;
+						node = grandParent;
+					} else {
+						if (node == parent.right) {
+							node = parent;
+							rotateLeft(node);
+						}
+						node.parent.red = false;
+						node.parent.parent.red = true;
+						rotateRight(node.parent.parent);
+					}
+				} else {
+					TreeNode<E> uncle = grandParent.left;
+					if (isRed(uncle)) {
+						parent.red = false;
+						uncle.red = false;
+						grandParent.red = true;
+						node = grandParent;
+					} else {
+						if (node == parent.left) {
+							node = parent;
+							rotateRight(node);
+						}
+						node.parent.red = false;
+						node.parent.parent.red = true;
+						rotateLeft(node.parent.parent);
+					}
+				}
+			}
+			root.red = false;
+		}
+
+		private void fixAfterDeletion(TreeNode<E> node) {
+			while (node != root && !isRed(node)) {
+				if (node == leftOf(parentOf(node))) {
+					TreeNode<E> sibling = rightOf(parentOf(node));
+					if (isRed(sibling)) {
+						setRed(sibling, false);
+						setRed(parentOf(node), true);
+						rotateLeft(parentOf(node));
+						sibling = rightOf(parentOf(node));
+					}
+					if (!isRed(leftOf(sibling)) && !isRed(rightOf(sibling))) {
+						setRed(sibling, true);
+						node = parentOf(node);
+					} else {
+						if (!isRed(rightOf(sibling))) {
+							setRed(leftOf(sibling), false);
+							setRed(sibling, true);
+							rotateRight(sibling);
+							sibling = rightOf(parentOf(node));
+						}
+						setRed(sibling, isRed(parentOf(node)));
+						setRed(parentOf(node), false);
+						setRed(rightOf(sibling), false);
+						rotateLeft(parentOf(node));
+						node = root;
+					}
+				} else {
+					TreeNode<E> sibling = leftOf(parentOf(node));
+					if (isRed(sibling)) {
+						setRed(sibling, false);
+						setRed(parentOf(node), true);
+						rotateRight(parentOf(node));
+						sibling = leftOf(parentOf(node));
+					}
+					if (!isRed(rightOf(sibling)) && !isRed(leftOf(sibling))) {
+						setRed(sibling, true);
+						node = parentOf(node);
+					} else {
+						if (!isRed(leftOf(sibling))) {
+							setRed(rightOf(sibling), false);
+							setRed(sibling, true);
+							rotateLeft(sibling);
+							sibling = leftOf(parentOf(node));
+						}
+						setRed(sibling, isRed(parentOf(node)));
+						setRed(parentOf(node), false);
+						setRed(leftOf(sibling), false);
+						rotateRight(parentOf(node));
+						node = root;
+					}
+				}
+			}
+			setRed(node, false);
+		}
+
+		private void rotateLeft(TreeNode<E> node) {
+			TreeNode<E> right = node.right;
+			node.right = right.left;
+			if (right.left != null) {
+				right.left.parent = node;
+			}
+			right.parent = node.parent;
+			if (node.parent == null) {
+				root = right;
+			} else if (node.parent.left == node) {
+				node.parent.left = right;
+			} else {
+				node.parent.right = right;
+			}
+			right.left = node;
+			node.parent = right;
+		}
+
+		private void rotateRight(TreeNode<E> node) {
+			TreeNode<E> left = node.left;
+			node.left = left.right;
+			if (left.right != null) {
+				left.right.parent = node;
+			}
+			left.parent = node.parent;
+			if (node.parent == null) {
+				root = left;
+			} else if (node.parent.right == node) {
+				node.parent.right = left;
+			} else {
+				node.parent.left = left;
+			}
+			left.right = node;
+			node.parent = left;
+		}
+
+		private static boolean isRed(TreeNode<?> node) {
+			return node != null && node.red;
+		}
+
+		private static void setRed(TreeNode<?> node, boolean red) {
+			if (node != null) {
+				node.red = red;
+			}
+		}
+
+		private static <E> TreeNode<E> parentOf(TreeNode<E> node) {
+			return node == null ? null : node.parent;
+		}
+
+		private static <E> TreeNode<E> leftOf(TreeNode<E> node) {
+			return node == null ? null : node.left;
+		}
+
+		private static <E> TreeNode<E> rightOf(TreeNode<E> node) {
+			return node == null ? null : node.right;
+		}
+	}
+
+	private static final class TreeNode<E> {
+		Entry<E> entry;
+		int hash;
+		TreeNode<E> left;
+		TreeNode<E> right;
+		TreeNode<E> parent;
+		boolean red;
+
+		TreeNode(Entry<E> entry, int hash) {
+			this.entry = entry;
+			this.hash = hash;
+		}
+	}
+
+	/**
+	 * Keeps the next entry ready, so <tt>hasNext</tt> is a field check and <tt>next</tt>
+	 * looks for the following non-empty bucket through the occupancy bitmaps.
+	 * Tree buckets are walked in the tree order.
+	 */
+	private class SimpleHashSetIterator implements Iterator<E> {
+
+		private int nextBucket;
+		private Entry<E> nextEntry;
+		/**
+		 * The tree node of {@link #nextEntry} if its bucket is a tree, <tt>null</tt> otherwise.
+		 */
+		private TreeNode<E> nextNode;
+		private int currentBucket;
+		private Entry<E> currentEntry;
+		private TreeNode<E> currentNode;
+		/**
+		 * The entry preceding {@link #currentEntry} in its chain, <tt>null</tt> for the chain head.
+		 */
+		private Entry<E> previousEntry;
+		private boolean canRemove;
+
+		SimpleHashSetIterator() {
+			currentEntry = previousEntry = null;
+			currentBucket = -1;
+			canRemove = false;
+			enterBucket(nextOccupiedPosition(0));
+		}
+
+		@Override
+		public boolean hasNext() {
+			return nextEntry != null;
+		}
+
+		@Override
+		public E next() {
+			if (nextEntry == null) {
+				throw new NoSuchElementException();
+			}
+			previousEntry = nextBucket == currentBucket ? currentEntry : null;
+			currentEntry = nextEntry;
+			currentNode = nextNode;
+			currentBucket = nextBucket;
+			canRemove = true;
+
+			if (currentNode != null) {
+				nextNode = TreeBin.successor(currentNode);
+				nextEntry = nextNode == null ? null : nextNode.entry;
+			} else {
+				nextEntry = currentEntry.next;
+			}
+			if (nextEntry == null) {
+				enterBucket(nextOccupiedPosition(currentBucket + 1));
+			}
+			return currentEntry.value;
 		}
 
 		@Override
@@ -448,15 +1920,188 @@ public class HashSet<E> implements Set<E> {
 			if (!canRemove) {
 				throw new IllegalStateException("First call next().");
 			}
-			if (previousEntry != null && previousEntry.next != null) {
-				previousEntry.next = currentEntry.next;
+			Entry<E> removed = currentEntry;
+			hashSum -= hashCodeOf(removed.value);
+			if (currentNode != null) {
+				removeFromTree();
 			} else {
-				buckets[currentBucket] = currentEntry.next;
+				if (previousEntry != null) {
+					previousEntry.next = currentEntry.next;
+				} else {
+					setBucketAt(currentBucket, currentEntry.next);
+				}
+				currentEntry = previousEntry;
 			}
-			currentEntry = previousEntry;
-			currentBucket = previousBucket;
 			size--;
 			canRemove = false;
+			afterEntryRemoval(removed);
+		}
+
+		private void enterBucket(int position) {
+			nextBucket = position;
+			Entry<E> head = position < 0 ? null : bucketAt(position);
+			if (head instanceof TreeBin) {
+				nextNode = ((TreeBin<E>) head).first();
+				nextEntry = nextNode.entry;
+			} else {
+				nextNode = null;
+				nextEntry = head;
+			}
+		}
+
+		/**
+		 * Removes the current node from its tree. If the node had two children, it now
+		 * holds the entry of its successor, that is of the next node. If the tree shrinks
+		 * to a chain, the iteration goes on along the chain.
+		 */
+		private void removeFromTree() {
+			TreeBin<E> bin = (TreeBin<E>) bucketAt(currentBucket);
+			boolean twoChildren = currentNode.left != null && currentNode.right != null;
+			bin.delete(currentNode);
+			if (twoChildren) {
+				nextNode = currentNode;
+			}
+			currentNode = null;
+			currentEntry = null;
+			if (bin.count <= UNTREEIFY_THRESHOLD) {
+				Entry<E> head = bin.untreeify();
+				setBucketAt(currentBucket, head);
+				if (nextBucket == currentBucket) {
+					nextNode = null;
+					for (Entry<E> entry = head; entry != nextEntry; entry = entry.next) {
+						currentEntry = entry;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Runs the body for every index of a range, forking halves down to single indices.
+	 */
+	private static final class ParallelFor extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int from;
+		private final int to;
+		private final IntConsumer body;
+
+		ParallelFor(int from, int to, IntConsumer body) {
+			this.from = from;
+			this.to = to;
+			this.body = body;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				body.accept(from);
+			} else if (to > from) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new ParallelFor(from, middle, body), new ParallelFor(middle, to, body));
+			}
+		}
+	}
+
+	/**
+	 * Spliterator over a range of bucket positions, splitting it in halves.
+	 * The top-level spliterator knows the exact size, the parts estimate it.
+	 */
+	private final class BucketSpliterator implements Spliterator<E> {
+
+		private int position;
+		private final int fence;
+		private long estimate;
+		private boolean exact;
+		/**
+		 * The rest of the current bucket: a chain entry or a tree node.
+		 */
+		private Entry<E> entry;
+		private TreeNode<E> node;
+
+		BucketSpliterator(int position, int fence, long estimate, boolean exact) {
+			this.position = position;
+			this.fence = fence;
+			this.estimate = estimate;
+			this.exact = exact;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super E> action) {
+			Objects.requireNonNull(action);
+			while (true) {
+				if (node != null) {
+					E value = node.entry.value;
+					node = TreeBin.successor(node);
+					action.accept(value);
+					return true;
+				}
+				if (entry != null) {
+					E value = entry.value;
+					entry = entry.next;
+					action.accept(value);
+					return true;
+				}
+				if (!enterNextBucket()) {
+					return false;
+				}
+			}
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super E> action) {
+			Objects.requireNonNull(action);
+			for (; node != null; node = TreeBin.successor(node)) {
+				action.accept(node.entry.value);
+			}
+			for (; entry != null; entry = entry.next) {
+				action.accept(entry.value);
+			}
+			int next = position < fence ? nextOccupiedPosition(position) : -1;
+			for (; next >= 0 && next < fence; next = nextOccupiedPosition(next + 1)) {
+				forEachInBucket(bucketAt(next), action);
+			}
+			position = fence;
+		}
+
+		private boolean enterNextBucket() {
+			int next = position < fence ? nextOccupiedPosition(position) : -1;
+			if (next < 0 || next >= fence) {
+				position = fence;
+				return false;
+			}
+			position = next + 1;
+			Entry<E> head = bucketAt(next);
+			if (head instanceof TreeBin) {
+				node = ((TreeBin<E>) head).first();
+			} else {
+				entry = head;
+			}
+			return true;
+		}
+
+		@Override
+		public Spliterator<E> trySplit() {
+			int middle = (position + fence) >>> 1;
+			if (middle <= position || entry != null || node != null) {
+				return null;
+			}
+			int low = position;
+			position = middle;
+			estimate >>>= 1;
+			exact = false;
+			return new BucketSpliterator(low, middle, estimate, false);
+		}
+
+		@Override
+		public long estimateSize() {
+			return estimate;
+		}
+
+		@Override
+		public int characteristics() {
+			return exact ? SIZED | DISTINCT : DISTINCT;
 		}
 	}
 }
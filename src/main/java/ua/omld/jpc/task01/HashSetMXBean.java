@@ -0,0 +1,39 @@
+package ua.omld.jpc.task01;
+
+/**
+ * Management interface of an {@link InstrumentedHashSet}. The size, capacity and
+ * counters are read from the set; the bucket attributes come from a scan of the
+ * hashtable, which costs O(capacity) and is reused for a second.
+ *
+ * @author Oleksii Kostetskyi
+ * @see InstrumentedHashSet#registerMBean(String)
+ */
+public interface HashSetMXBean {
+
+	int getSize();
+
+	int getCapacity();
+
+	long[] getBucketSizeHistogram();
+
+	int getMaxBucketSize();
+
+	int getTreeBuckets();
+
+	double getEmptyBucketRatio();
+
+	long getResizeCount();
+
+	long getRehashStepCount();
+
+	long getContainsHits();
+
+	long getContainsMisses();
+
+	double getContainsHitRatio();
+
+	/**
+	 * Sets the resize, rehash and <tt>contains</tt> counters to zero.
+	 */
+	void resetCounters();
+}
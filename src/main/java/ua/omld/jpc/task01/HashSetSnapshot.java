@@ -0,0 +1,307 @@
+package ua.omld.jpc.task01;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a {@link HashSet} to a compact binary snapshot and reads it back.
+ *
+ * <p>The snapshot is a 24-byte header followed by the elements encoded by an
+ * {@link ElementCodec}:
+ * <pre>
+ * int   magic "JPCS"
+ * short format version (1)
+ * short flags: 1 if the set contains null
+ * int   fixed element size, or -1 if every element is prefixed by its int size
+ * float load factor
+ * long  number of non-null elements
+ * </pre>
+ * Numbers are big-endian. A set is read back into a table sized for all its
+ * elements up front, so loading does no resize checks and no rehashing.
+ * Files are read through memory-mapped regions, streams through a buffer.
+ *
+ * @author Oleksii Kostetskyi
+ */
+public final class HashSetSnapshot {
+
+	private static final int MAGIC = 0x4A504353;
+	private static final short VERSION = 1;
+	private static final short FLAG_NULL = 1;
+	private static final int HEADER_SIZE = 24;
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int REGION_SIZE = 1 << 30;
+
+	private HashSetSnapshot() {
+	}
+
+	/**
+	 * Writes the snapshot of the set to the file, replacing its content.
+	 *
+	 * @param set   set to write; must not be modified while it is written
+	 * @param codec codec of the elements
+	 * @param file  file to write to
+	 * @param <E>   the type of elements
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static <E> void write(HashSet<E> set, ElementCodec<E> codec, Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			write(set, codec, channel);
+		}
+	}
+
+	/**
+	 * Writes the snapshot of the set to the channel.
+	 *
+	 * @param set     set to write; must not be modified while it is written
+	 * @param codec   codec of the elements
+	 * @param channel channel to write to; it is not closed
+	 * @param <E>     the type of elements
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static <E> void write(HashSet<E> set, ElementCodec<E> codec, WritableByteChannel channel) throws IOException {
+		boolean containsNull = set.contains(null);
+		int fixedSize = codec.fixedSize();
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		buffer.putInt(MAGIC)
+				.putShort(VERSION)
+				.putShort(containsNull ? FLAG_NULL : 0)
+				.putInt(fixedSize)
+				.putFloat(set.loadFactor())
+				.putLong(containsNull ? set.size() - 1 : set.size());
+
+		for (E element : set) {
+			if (element == null) {
+				continue;
+			}
+			int size = fixedSize < 0 ? codec.encodedSize(element) : fixedSize;
+			int recordSize = fixedSize < 0 ? size + 4 : size;
+			if (buffer.remaining() < recordSize) {
+				flush(buffer, channel);
+				if (buffer.capacity() < recordSize) {
+					buffer = ByteBuffer.allocate(recordSize);
+				}
+			}
+			if (fixedSize < 0) {
+				buffer.putInt(size);
+			}
+			int start = buffer.position();
+			codec.encode(element, buffer);
+			if (buffer.position() - start != size) {
+				throw new IllegalStateException("Codec wrote " + (buffer.position() - start)
+						+ " bytes instead of " + size + " for " + element);
+			}
+		}
+		flush(buffer, channel);
+	}
+
+	/**
+	 * Reads the set from the snapshot file through memory-mapped regions.
+	 *
+	 * @param file  snapshot file
+	 * @param codec codec of the elements
+	 * @param <E>   the type of elements
+	 * @return new set with the elements of the snapshot
+	 * @throws IOException if the file is not a valid snapshot or an I/O error occurs
+	 */
+	public static <E> HashSet<E> read(Path file, ElementCodec<E> codec) throws IOException {
+		return read(file, codec, REGION_SIZE);
+	}
+
+	static <E> HashSet<E> read(Path file, ElementCodec<E> codec, int regionSize) throws IOException {
+		return read(file, codec, regionSize, null);
+	}
+
+	/**
+	 * Loads the elements of the snapshot file into the given empty set.
+	 */
+	static <E> void readInto(Path file, ElementCodec<E> codec, HashSet<E> set) throws IOException {
+		read(file, codec, REGION_SIZE, set);
+	}
+
+	private static <E> HashSet<E> read(Path file, ElementCodec<E> codec, int regionSize, HashSet<E> target)
+			throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedInput input = new MappedInput(channel, regionSize);
+			try {
+				return read(input, codec, target);
+			} finally {
+				DirectBuffers.free(input.buffer);
+			}
+		}
+	}
+
+	/**
+	 * Reads the set from the snapshot in the channel.
+	 *
+	 * @param channel channel to read from; it is not closed
+	 * @param codec   codec of the elements
+	 * @param <E>     the type of elements
+	 * @return new set with the elements of the snapshot
+	 * @throws IOException if the data is not a valid snapshot or an I/O error occurs
+	 */
+	public static <E> HashSet<E> read(ReadableByteChannel channel, ElementCodec<E> codec) throws IOException {
+		return read(new ChannelInput(channel), codec, null);
+	}
+
+	/**
+	 * Reads the set from the snapshot in the buffer, from its position to its limit.
+	 * The buffer may be a memory-mapped one.
+	 *
+	 * @param buffer buffer to read from
+	 * @param codec  codec of the elements
+	 * @param <E>    the type of elements
+	 * @return new set with the elements of the snapshot
+	 * @throws IOException if the data is not a valid snapshot
+	 */
+	public static <E> HashSet<E> read(ByteBuffer buffer, ElementCodec<E> codec) throws IOException {
+		return read(new Input(buffer.slice()), codec, null);
+	}
+
+	/**
+	 * Reads the snapshot into the target set, or into a new set sized for it if the target is <tt>null</tt>.
+	 */
+	private static <E> HashSet<E> read(Input input, ElementCodec<E> codec, HashSet<E> target) throws IOException {
+		ByteBuffer header = input.require(HEADER_SIZE);
+		if (header.getInt() != MAGIC) {
+			throw new IOException("Not a HashSet snapshot");
+		}
+		short version = header.getShort();
+		if (version != VERSION) {
+			throw new IOException("Unsupported snapshot version: " + version);
+		}
+		boolean containsNull = (header.getShort() & FLAG_NULL) != 0;
+		int fixedSize = header.getInt();
+		if (fixedSize != codec.fixedSize()) {
+			throw new IOException("Snapshot element size " + fixedSize + " does not match the codec: " + codec.fixedSize());
+		}
+		float loadFactor = header.getFloat();
+		long count = header.getLong();
+		if (!(loadFactor > 0) || count < 0 || count + (containsNull ? 1 : 0) > Integer.MAX_VALUE) {
+			throw new IOException("Corrupted snapshot header");
+		}
+
+		int total = (int) count + (containsNull ? 1 : 0);
+		HashSet<E> set = target;
+		if (set == null) {
+			set = new HashSet<>(HashSet.capacityFor(total, loadFactor), loadFactor);
+		} else {
+			set.presize(total);
+		}
+		if (containsNull) {
+			set.load(null);
+		}
+		for (long i = 0; i < count; i++) {
+			int size = fixedSize;
+			if (size < 0) {
+				size = input.require(4).getInt();
+				if (size < 0) {
+					throw new IOException("Corrupted element size: " + size);
+				}
+			}
+			ByteBuffer buffer = input.require(size);
+			int end = buffer.position() + size;
+			if (!set.load(codec.decode(buffer, size))) {
+				throw new IOException("Duplicate element in snapshot");
+			}
+			if (buffer.position() != end) {
+				throw new IOException("Codec read " + (buffer.position() - end + size) + " bytes instead of " + size);
+			}
+		}
+		return set;
+	}
+
+	private static void flush(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Snapshot bytes in a buffer; {@link #require(int)} makes sure the buffer has the next bytes.
+	 */
+	private static class Input {
+
+		ByteBuffer buffer;
+
+		Input(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		/**
+		 * Returns the buffer positioned at the next <tt>size</tt> bytes of the snapshot.
+		 */
+		ByteBuffer require(int size) throws IOException {
+			if (buffer.remaining() < size) {
+				fill(size);
+			}
+			return buffer;
+		}
+
+		void fill(int size) throws IOException {
+			throw new EOFException("Snapshot is truncated");
+		}
+	}
+
+	private static final class ChannelInput extends Input {
+
+		private final ReadableByteChannel channel;
+
+		ChannelInput(ReadableByteChannel channel) {
+			super(ByteBuffer.allocate(BUFFER_SIZE).flip());
+			this.channel = channel;
+		}
+
+		@Override
+		void fill(int size) throws IOException {
+			if (buffer.capacity() < size) {
+				buffer = ByteBuffer.allocate(size).put(buffer);
+			} else {
+				buffer.compact();
+			}
+			while (buffer.position() < size) {
+				if (channel.read(buffer) < 0) {
+					throw new EOFException("Snapshot is truncated");
+				}
+			}
+			buffer.flip();
+		}
+	}
+
+	/**
+	 * Maps the file region by region; a new region starts at the first unread byte,
+	 * so an element never crosses a region boundary.
+	 */
+	private static final class MappedInput extends Input {
+
+		private final FileChannel channel;
+		private final int regionSize;
+		private long regionStart;
+
+		MappedInput(FileChannel channel, int regionSize) {
+			super(ByteBuffer.allocate(0));
+			this.channel = channel;
+			this.regionSize = regionSize;
+		}
+
+		@Override
+		void fill(int size) throws IOException {
+			long position = regionStart + buffer.position();
+			long length = Math.min(channel.size() - position, Math.max(regionSize, size));
+			if (length < size) {
+				throw new EOFException("Snapshot is truncated");
+			}
+			DirectBuffers.free(buffer);
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+			regionStart = position;
+		}
+	}
+}
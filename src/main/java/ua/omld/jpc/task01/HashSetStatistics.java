@@ -0,0 +1,150 @@
+package ua.omld.jpc.task01;
+
+import java.util.Arrays;
+
+/**
+ * A snapshot of the state and the counters of an {@link InstrumentedHashSet}.
+ *
+ * <p>Bucket sizes are the lengths of the chains (or the sizes of the tree buckets):
+ * the number of elements a lookup may have to compare. During incremental rehash
+ * the buckets of both tables are counted.
+ *
+ * @author Oleksii Kostetskyi
+ */
+public final class HashSetStatistics {
+
+	/**
+	 * Number of cells in the bucket size histogram; the last one counts all larger buckets.
+	 */
+	public static final int HISTOGRAM_SIZE = 16;
+
+	final long[] bucketSizeHistogram = new long[HISTOGRAM_SIZE];
+	int size;
+	int capacity;
+	long buckets;
+	int maxBucketSize;
+	int treeBuckets;
+	long resizeCount;
+	long rehashStepCount;
+	long containsHits;
+	long containsMisses;
+
+	HashSetStatistics() {
+	}
+
+	/**
+	 * Returns the number of elements in the set.
+	 *
+	 * @return the number of elements in the set
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the capacity of the hashtable.
+	 *
+	 * @return the capacity of the hashtable
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the histogram of bucket sizes: cell <tt>i</tt> holds the number of buckets
+	 * with <tt>i</tt> elements, the last cell holds the number of all larger buckets too.
+	 *
+	 * @return a copy of the histogram of {@value #HISTOGRAM_SIZE} cells
+	 */
+	public long[] getBucketSizeHistogram() {
+		return bucketSizeHistogram.clone();
+	}
+
+	/**
+	 * Returns the number of elements in the largest bucket.
+	 *
+	 * @return the maximum bucket size
+	 */
+	public int getMaxBucketSize() {
+		return maxBucketSize;
+	}
+
+	/**
+	 * Returns the number of buckets converted to trees because of colliding hash codes.
+	 *
+	 * @return the number of tree buckets
+	 */
+	public int getTreeBuckets() {
+		return treeBuckets;
+	}
+
+	/**
+	 * Returns the share of empty buckets.
+	 *
+	 * @return the number of empty buckets divided by the number of buckets
+	 */
+	public double getEmptyBucketRatio() {
+		return buckets == 0 ? 0 : (double) bucketSizeHistogram[0] / buckets;
+	}
+
+	/**
+	 * Returns the number of times the hashtable was doubled.
+	 *
+	 * @return the resize count
+	 */
+	public long getResizeCount() {
+		return resizeCount;
+	}
+
+	/**
+	 * Returns the number of incremental rehash steps.
+	 *
+	 * @return the rehash step count
+	 */
+	public long getRehashStepCount() {
+		return rehashStepCount;
+	}
+
+	/**
+	 * Returns the number of <tt>contains</tt> calls that found the element.
+	 *
+	 * @return the number of hits
+	 */
+	public long getContainsHits() {
+		return containsHits;
+	}
+
+	/**
+	 * Returns the number of <tt>contains</tt> calls that did not find the element.
+	 *
+	 * @return the number of misses
+	 */
+	public long getContainsMisses() {
+		return containsMisses;
+	}
+
+	/**
+	 * Returns the share of <tt>contains</tt> calls that found the element.
+	 *
+	 * @return the hit ratio, <tt>0</tt> if there were no calls
+	 */
+	public double getContainsHitRatio() {
+		long lookups = containsHits + containsMisses;
+		return lookups == 0 ? 0 : (double) containsHits / lookups;
+	}
+
+	@Override
+	public String toString() {
+		return "HashSetStatistics{size=" + size
+				+ ", capacity=" + capacity
+				+ ", bucketSizeHistogram=" + Arrays.toString(bucketSizeHistogram)
+				+ ", maxBucketSize=" + maxBucketSize
+				+ ", treeBuckets=" + treeBuckets
+				+ ", emptyBucketRatio=" + getEmptyBucketRatio()
+				+ ", resizeCount=" + resizeCount
+				+ ", rehashStepCount=" + rehashStepCount
+				+ ", containsHits=" + containsHits
+				+ ", containsMisses=" + containsMisses
+				+ '}';
+	}
+}
@@ -0,0 +1,73 @@
+package ua.omld.jpc.task01;
+
+/**
+ * Hashing helpers shared by the hash table implementations of this package.
+ *
+ * <p>All tables have power-of-two length, so a bucket index is taken by masking
+ * the low bits of a hash. Such index is only as good as the low bits are, so
+ * hash codes are spread with the MurmurHash3 finalizer before masking.
+ *
+ * @author Oleksii Kostetskyi
+ */
+final class Hashing {
+
+	private Hashing() {
+	}
+
+	/**
+	 * Spreads bits of the hash code (MurmurHash3 <tt>fmix32</tt>), so that every
+	 * bit of the result depends on every bit of the argument. Keys with poor hash
+	 * codes (sequential numbers, aligned ids) do not cluster into a few buckets.
+	 *
+	 * @param h hash code
+	 * @return mixed hash
+	 */
+	static int mix(int h) {
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h;
+	}
+
+	/**
+	 * Spreads bits of the long value (MurmurHash3 <tt>fmix64</tt>) and folds them to an int.
+	 *
+	 * @param h value
+	 * @return mixed hash
+	 */
+	static int mix(long h) {
+		return (int) mix64(h);
+	}
+
+	/**
+	 * Spreads bits of the long value (MurmurHash3 <tt>fmix64</tt>), for tables longer than 2^31.
+	 *
+	 * @param h value
+	 * @return mixed hash
+	 */
+	static long mix64(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	/**
+	 * Returns the smallest power of two which is not less than the given capacity,
+	 * but not greater than the given maximum.
+	 *
+	 * @param capacity    requested capacity, positive
+	 * @param maxCapacity maximum capacity, power of two
+	 * @return table length
+	 */
+	static int tableSizeFor(int capacity, int maxCapacity) {
+		if (capacity >= maxCapacity) {
+			return maxCapacity;
+		}
+		return capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+	}
+}
@@ -0,0 +1,50 @@
+package ua.omld.jpc.task01;
+
+/**
+ * Hash code and equivalence of elements for a {@link HashSet} constructed with a strategy:
+ * the set finds its elements by the strategy instead of their own <tt>hashCode</tt> and
+ * <tt>equals</tt>. So keys that are expensive to compare can be hashed by a part of them,
+ * arrays can be compared by their contents without wrappers, and so on.
+ *
+ * <p>The set never passes <tt>null</tt> to a strategy: the <tt>null</tt> element has hash
+ * code 0 and is equivalent only to itself. Like <tt>equals</tt>, the equivalence must be
+ * reflexive, symmetric and transitive, and equivalent elements must have equal hash codes.
+ *
+ * @param <E> the type of elements
+ * @author Oleksii Kostetskyi
+ */
+public interface HashingStrategy<E> {
+
+	/**
+	 * Elements are the same only if they are the same object, and hash by
+	 * <tt>System.identityHashCode</tt>, like in <tt>java.util.IdentityHashMap</tt>.
+	 */
+	HashingStrategy<Object> IDENTITY = new HashingStrategy<Object>() {
+		@Override
+		public int hashCode(Object element) {
+			return System.identityHashCode(element);
+		}
+
+		@Override
+		public boolean equals(Object element, Object other) {
+			return element == other;
+		}
+	};
+
+	/**
+	 * Returns the hash code of the element.
+	 *
+	 * @param element non-null element
+	 * @return hash code of the element
+	 */
+	int hashCode(E element);
+
+	/**
+	 * Returns <tt>true</tt> if the elements are equivalent.
+	 *
+	 * @param element non-null element
+	 * @param other   non-null element
+	 * @return <tt>true</tt> if the elements are equivalent
+	 */
+	boolean equals(E element, E other);
+}
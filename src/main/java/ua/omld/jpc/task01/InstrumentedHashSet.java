@@ -0,0 +1,290 @@
+package ua.omld.jpc.task01;
+
+import java.lang.management.ManagementFactory;
+import java.util.BitSet;
+import java.util.Collection;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * A {@link HashSet} that counts its resizes, incremental rehash steps and
+ * <tt>contains</tt> hits and misses, and reports them together with the bucket
+ * size histogram through {@link #statistics()} or a JMX MBean. Only the calls of
+ * <tt>contains</tt> itself are counted, not the lookups made by <tt>containsAll</tt>
+ * and <tt>equals</tt>.
+ *
+ * <p>Instrumentation is opt-in: it is a subclass, so a plain <tt>HashSet</tt> runs
+ * no counting code. The bucket sizes are not tracked by the operations; every
+ * snapshot scans the hashtable, which costs O(capacity). The MBean reuses a scan
+ * for a second, so a JMX console reading all the attributes scans the table once.
+ *
+ * <p><strong>This implementation is not tread-safe.</strong> The MBean reads the set
+ * from a JMX thread without synchronization. While the set is being modified its
+ * values may be stale, and a scan that meets a resize counts the tables only
+ * approximately, but its getters do not throw.
+ *
+ * @author Oleksii Kostetskyi
+ */
+public class InstrumentedHashSet<E> extends HashSet<E> {
+
+	/**
+	 * How long the MBean reuses a scan of the bucket sizes.
+	 */
+	private static final long SCAN_NANOS = 1_000_000_000L;
+
+	private long resizeCount;
+	private long rehashStepCount;
+	private long containsHits;
+	private long containsMisses;
+	/**
+	 * Whether <tt>containsAll</tt> is running: its lookups are not counted.
+	 */
+	private boolean bulkLookup;
+
+	/**
+	 * Constructs a new, empty set with default initial capacity (16) and load factor (0.75).
+	 */
+	public InstrumentedHashSet() {
+		super();
+	}
+
+	/**
+	 * Constructs a new, empty set with given initial capacity and default load factor (0.75).
+	 *
+	 * @param initialCapacity the initial capacity of the hashtable
+	 * @throws IllegalArgumentException if the initial capacity is less then 1 and greater then 2^30.
+	 */
+	public InstrumentedHashSet(int initialCapacity) {
+		super(initialCapacity);
+	}
+
+	/**
+	 * Constructs a new, empty set with given initial capacity and load factor.
+	 *
+	 * @param initialCapacity the initial capacity of the hashtable
+	 * @param loadFactor      the load factor of the hashtable
+	 * @throws IllegalArgumentException if the initial capacity is less then 1 and greater then 2^30,
+	 *                                  or if the load factor is not positive.
+	 */
+	public InstrumentedHashSet(int initialCapacity, float loadFactor) {
+		super(initialCapacity, loadFactor);
+	}
+
+	/**
+	 * Constructs a new, empty set with given initial capacity, load factor and rehash mode.
+	 *
+	 * @param initialCapacity   the initial capacity of the hashtable
+	 * @param loadFactor        the load factor of the hashtable
+	 * @param incrementalRehash <tt>true</tt> to move elements to the grown table
+	 *                          a few buckets per operation, <tt>false</tt> to move them at once
+	 * @throws IllegalArgumentException if the initial capacity is less then 1 and greater then 2^30,
+	 *                                  or if the load factor is not positive.
+	 */
+	public InstrumentedHashSet(int initialCapacity, float loadFactor, boolean incrementalRehash) {
+		super(initialCapacity, loadFactor, incrementalRehash);
+	}
+
+	/**
+	 * Constructs a new set containing the elements in the specified collection.
+	 *
+	 * @param c the collection whose elements are to be placed into this set
+	 */
+	public InstrumentedHashSet(Collection<E> c) {
+		super(c);
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		boolean found = super.contains(o);
+		if (bulkLookup) {
+			return found;
+		}
+		if (found) {
+			containsHits++;
+		} else {
+			containsMisses++;
+		}
+		return found;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The lookups are not counted as <tt>contains</tt> hits and misses, neither
+	 * are those of {@link #equals(Object)}, which calls this method.
+	 */
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		boolean outer = bulkLookup;
+		bulkLookup = true;
+		try {
+			return super.containsAll(c);
+		} finally {
+			bulkLookup = outer;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The lookups are not counted as <tt>contains</tt> hits and misses.
+	 */
+	@Override
+	public boolean containsAll(Object[] keys, BitSet result) {
+		boolean outer = bulkLookup;
+		bulkLookup = true;
+		try {
+			return super.containsAll(keys, result);
+		} finally {
+			bulkLookup = outer;
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the counters and of the bucket sizes. Scans the hashtable,
+	 * which costs O(capacity).
+	 *
+	 * @return new statistics snapshot
+	 */
+	public HashSetStatistics statistics() {
+		HashSetStatistics statistics = new HashSetStatistics();
+		statistics.size = size();
+		countBuckets(statistics);
+		statistics.resizeCount = resizeCount;
+		statistics.rehashStepCount = rehashStepCount;
+		statistics.containsHits = containsHits;
+		statistics.containsMisses = containsMisses;
+		return statistics;
+	}
+
+	/**
+	 * Sets the resize, rehash and <tt>contains</tt> counters to zero.
+	 */
+	public void resetCounters() {
+		resizeCount = 0;
+		rehashStepCount = 0;
+		containsHits = 0;
+		containsMisses = 0;
+	}
+
+	/**
+	 * Returns the management interface of this set.
+	 *
+	 * @return MXBean backed by this set
+	 */
+	public HashSetMXBean mxBean() {
+		return new Metrics();
+	}
+
+	/**
+	 * Registers the MXBean of this set in the platform MBean server under the name
+	 * <tt>ua.omld.jpc.task01:type=HashSet,name=<i>name</i></tt>.
+	 *
+	 * @param name name of this set, quoted if needed
+	 * @return the object name of the registered MBean, to unregister it later
+	 * @throws JMException if the name is taken or the MBean cannot be registered
+	 */
+	public ObjectName registerMBean(String name) throws JMException {
+		ObjectName objectName = new ObjectName("ua.omld.jpc.task01:type=HashSet,name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(mxBean(), objectName);
+		return objectName;
+	}
+
+	@Override
+	void afterResize() {
+		resizeCount++;
+	}
+
+	@Override
+	void afterRehashStep() {
+		rehashStepCount++;
+	}
+
+	private class Metrics implements HashSetMXBean {
+
+		private HashSetStatistics scan;
+		private long scanTime;
+
+		/**
+		 * Returns the last scan of the bucket sizes, or a new one if it is older than a second.
+		 * A scan broken by a concurrent update keeps the previous one.
+		 */
+		private synchronized HashSetStatistics scan() {
+			long now = System.nanoTime();
+			if (scan == null || now - scanTime > SCAN_NANOS) {
+				try {
+					scan = statistics();
+				} catch (RuntimeException e) {
+					if (scan == null) {
+						scan = new HashSetStatistics();
+					}
+				}
+				scanTime = now;
+			}
+			return scan;
+		}
+
+		@Override
+		public int getSize() {
+			return size();
+		}
+
+		@Override
+		public int getCapacity() {
+			return capacity();
+		}
+
+		@Override
+		public long[] getBucketSizeHistogram() {
+			return scan().getBucketSizeHistogram();
+		}
+
+		@Override
+		public int getMaxBucketSize() {
+			return scan().getMaxBucketSize();
+		}
+
+		@Override
+		public int getTreeBuckets() {
+			return scan().getTreeBuckets();
+		}
+
+		@Override
+		public double getEmptyBucketRatio() {
+			return scan().getEmptyBucketRatio();
+		}
+
+		@Override
+		public long getResizeCount() {
+			return resizeCount;
+		}
+
+		@Override
+		public long getRehashStepCount() {
+			return rehashStepCount;
+		}
+
+		@Override
+		public long getContainsHits() {
+			return containsHits;
+		}
+
+		@Override
+		public long getContainsMisses() {
+			return containsMisses;
+		}
+
+		@Override
+		public double getContainsHitRatio() {
+			long hits = containsHits;
+			long lookups = hits + containsMisses;
+			return lookups == 0 ? 0 : (double) hits / lookups;
+		}
+
+		@Override
+		public void resetCounters() {
+			InstrumentedHashSet.this.resetCounters();
+		}
+	}
+}
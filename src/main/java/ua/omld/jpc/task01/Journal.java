@@ -0,0 +1,536 @@
+package ua.omld.jpc.task01;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal of a {@link JournaledHashSet} kept in a directory of
+ * numbered files:
+ * <ul>
+ * <li><tt>journal-<i>n</i>.log</tt> segments of mutation records, appended in batches;</li>
+ * <li><tt>snapshot-<i>n</i>.bin</tt> a {@link HashSetSnapshot} with all the
+ * mutations of the segments up to <i>n</i>.</li>
+ * </ul>
+ *
+ * <p>A batch is written as a frame: int length, int CRC32 of the records and the
+ * records. A record is an operation byte followed, for an operation with a
+ * non-null element, by the element encoded like in a snapshot. A frame torn by a
+ * crash fails its length or checksum check and ends the replay of its segment.
+ *
+ * <p>Records are appended to an in-memory batch under the monitor of the journal.
+ * The batch is committed (written as a frame and, depending on the {@link FsyncPolicy},
+ * forced) by a background thread once per commit interval, by the appending thread
+ * when the batch is full and by {@link #sync()}. Committing swaps the batch with a
+ * spare buffer, so appends do not wait for the file system.
+ *
+ * <p>Compaction seals the current segment and starts a new one, then in the
+ * background replays the sealed segments over the last snapshot into a new
+ * snapshot and deletes the folded files.
+ *
+ * @author Oleksii Kostetskyi
+ */
+final class Journal<E> implements Closeable {
+
+	static final byte ADD = 1;
+	static final byte ADD_NULL = 2;
+	static final byte REMOVE = 3;
+	static final byte REMOVE_NULL = 4;
+	static final byte CLEAR = 5;
+
+	private static final int BATCH_SIZE = 1 << 20;
+	private static final int FRAME_HEADER_SIZE = 8;
+	private static final String JOURNAL_PREFIX = "journal-";
+	private static final String JOURNAL_SUFFIX = ".log";
+	private static final String SNAPSHOT_PREFIX = "snapshot-";
+	private static final String SNAPSHOT_SUFFIX = ".bin";
+	private static final String TEMPORARY_SUFFIX = ".tmp";
+
+	private final Path directory;
+	private final ElementCodec<E> codec;
+	private final int fixedSize;
+	private final FsyncPolicy fsyncPolicy;
+
+	/**
+	 * The batch being filled; guarded by the monitor of the journal.
+	 */
+	private ByteBuffer batch = ByteBuffer.allocate(BATCH_SIZE);
+	/**
+	 * The buffer the next commit swaps with the batch; guarded by {@link #commitLock}.
+	 */
+	private ByteBuffer spare = ByteBuffer.allocate(BATCH_SIZE);
+	private final ReentrantLock commitLock = new ReentrantLock();
+	private final CRC32 crc = new CRC32();
+	private FileChannel segment;
+	private long segmentNumber;
+	private long segmentBytes;
+	private long compactionThreshold = Long.MAX_VALUE;
+	private Future<?> compaction;
+	private volatile IOException failure;
+	/**
+	 * Set by the first {@link #close()}; guarded by the monitor of the journal.
+	 */
+	private boolean closed;
+
+	private final ScheduledExecutorService committer;
+	private final ExecutorService compactor;
+
+	private Journal(Path directory, ElementCodec<E> codec, FsyncPolicy fsyncPolicy) {
+		this.directory = directory;
+		this.codec = codec;
+		this.fixedSize = codec.fixedSize();
+		this.fsyncPolicy = fsyncPolicy;
+		this.committer = Executors.newSingleThreadScheduledExecutor(daemon("journal-commit"));
+		this.compactor = Executors.newSingleThreadExecutor(daemon("journal-compaction"));
+	}
+
+	/**
+	 * Recovers the set from the directory and opens the journal for new mutations.
+	 *
+	 * @param set empty set to recover the elements into
+	 */
+	static <E> Journal<E> open(Path directory, ElementCodec<E> codec, FsyncPolicy fsyncPolicy,
+							   long commitIntervalMillis, HashSet<E> set) throws IOException {
+		if (commitIntervalMillis <= 0) {
+			throw new IllegalArgumentException("Illegal commit interval: " + commitIntervalMillis);
+		}
+		Files.createDirectories(directory);
+		Journal<E> journal = new Journal<>(directory, codec, fsyncPolicy);
+		long last = journal.recover(set);
+		journal.openSegment(last + 1);
+		if (fsyncPolicy != FsyncPolicy.ALWAYS) {
+			final Journal<E> committing = journal;
+			journal.committer.scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					committing.backgroundCommit();
+				}
+			}, commitIntervalMillis, commitIntervalMillis, TimeUnit.MILLISECONDS);
+		}
+		return journal;
+	}
+
+	/**
+	 * Sets the size the current segment may reach before compaction starts by itself.
+	 */
+	synchronized void setCompactionThreshold(long bytes) {
+		compactionThreshold = bytes;
+	}
+
+	/**
+	 * Appends the record of the mutation to the current batch.
+	 *
+	 * @throws IllegalStateException if the journal failed to write an earlier batch or is closed
+	 */
+	void append(byte operation, E element) {
+		if (failure != null) {
+			throw new IllegalStateException("Journal failed", failure);
+		}
+		int size = element == null ? 0 : fixedSize >= 0 ? fixedSize : codec.encodedSize(element);
+		int recordSize = element == null ? 1 : fixedSize >= 0 ? 1 + size : 5 + size;
+		boolean appended;
+		synchronized (this) {
+			appended = put(operation, element, size, recordSize);
+		}
+		if (!appended) {
+			commitOrFail(recordSize);
+			synchronized (this) {
+				appended = put(operation, element, size, recordSize);
+			}
+			if (!appended) {
+				throw new IllegalStateException("Record does not fit in the batch: " + recordSize);
+			}
+		}
+		if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+			commitOrFail(0);
+			try {
+				compactIfNeeded();
+			} catch (IOException e) {
+				failure = e;
+				throw new IllegalStateException("Journal failed", e);
+			}
+		}
+	}
+
+	private boolean put(byte operation, E element, int size, int recordSize) {
+		if (batch.remaining() < recordSize) {
+			return false;
+		}
+		if (element == null) {
+			batch.put(operation == ADD ? ADD_NULL : operation == REMOVE ? REMOVE_NULL : operation);
+			return true;
+		}
+		int start = batch.position();
+		try {
+			batch.put(operation);
+			if (fixedSize < 0) {
+				batch.putInt(size);
+			}
+			codec.encode(element, batch);
+		} catch (RuntimeException e) {
+			// a partial record would break the replay of the records after it
+			batch.position(start);
+			throw e;
+		}
+		if (batch.position() != start + recordSize) {
+			int written = batch.position() - start - (recordSize - size);
+			batch.position(start);
+			throw new IllegalStateException("Codec wrote " + written + " bytes instead of " + size);
+		}
+		return true;
+	}
+
+	/**
+	 * Commits the batch and forces the segment whatever the fsync policy is.
+	 */
+	void sync() throws IOException {
+		commit(0, true);
+	}
+
+	/**
+	 * Starts the compaction unless one is running.
+	 *
+	 * @return the future of the running compaction
+	 */
+	Future<?> compact() throws IOException {
+		commitLock.lock();
+		try {
+			synchronized (this) {
+				if (compaction != null && !compaction.isDone()) {
+					return compaction;
+				}
+			}
+			commit(0, true);
+			final long sealed = segmentNumber;
+			segment.close();
+			openSegment(sealed + 1);
+			Future<?> future = compactor.submit(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						fold(sealed);
+					} catch (IOException e) {
+						failure = e;
+					}
+				}
+			});
+			synchronized (this) {
+				compaction = future;
+			}
+			return future;
+		} finally {
+			commitLock.unlock();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+		}
+		committer.shutdown();
+		compactor.shutdown();
+		try {
+			compactor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			committer.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		commitLock.lock();
+		try {
+			commit(0, true);
+			segment.close();
+			failure = new IOException("Journal is closed");
+		} finally {
+			commitLock.unlock();
+		}
+	}
+
+	private void backgroundCommit() {
+		try {
+			commit(0, fsyncPolicy == FsyncPolicy.GROUP_COMMIT);
+			compactIfNeeded();
+		} catch (IOException e) {
+			failure = e;
+		}
+	}
+
+	private void compactIfNeeded() throws IOException {
+		boolean compact;
+		synchronized (this) {
+			compact = segmentBytes > compactionThreshold && (compaction == null || compaction.isDone());
+		}
+		if (compact) {
+			compact();
+		}
+	}
+
+	private void commitOrFail(int room) {
+		try {
+			commit(room, fsyncPolicy != FsyncPolicy.NEVER);
+		} catch (IOException e) {
+			failure = e;
+			throw new IllegalStateException("Journal failed", e);
+		}
+	}
+
+	/**
+	 * Writes the batch as a frame to the current segment.
+	 *
+	 * @param room  the size of the record that must fit in the next batch
+	 * @param force whether to force the segment to the device
+	 */
+	private void commit(int room, boolean force) throws IOException {
+		commitLock.lock();
+		try {
+			ByteBuffer full;
+			synchronized (this) {
+				full = batch;
+				if (spare.capacity() < room + FRAME_HEADER_SIZE) {
+					spare = ByteBuffer.allocate(room + FRAME_HEADER_SIZE);
+				}
+				batch = spare;
+			}
+			spare = full;
+			if (full.position() > 0) {
+				writeFrame(full);
+			}
+			full.clear();
+			if (force) {
+				segment.force(false);
+			}
+		} finally {
+			commitLock.unlock();
+		}
+	}
+
+	private void writeFrame(ByteBuffer records) throws IOException {
+		records.flip();
+		crc.reset();
+		crc.update(records.array(), 0, records.limit());
+		ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+		header.putInt(records.limit()).putInt((int) crc.getValue()).flip();
+		ByteBuffer[] frame = {header, records};
+		long written = 0;
+		while (records.hasRemaining()) {
+			written += segment.write(frame);
+		}
+		synchronized (this) {
+			segmentBytes += written;
+		}
+	}
+
+	private void openSegment(long number) throws IOException {
+		segment = FileChannel.open(journalFile(number), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		synchronized (this) {
+			segmentNumber = number;
+			segmentBytes = 0;
+		}
+	}
+
+	/**
+	 * Loads the last snapshot and replays the following segments into the set,
+	 * deleting the files left behind by an interrupted compaction.
+	 *
+	 * @return the number of the last segment or snapshot
+	 */
+	private long recover(HashSet<E> set) throws IOException {
+		List<Long> snapshots = list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+		List<Long> segments = list(JOURNAL_PREFIX, JOURNAL_SUFFIX);
+		long base = snapshots.isEmpty() ? 0 : snapshots.get(snapshots.size() - 1);
+		if (base > 0) {
+			HashSetSnapshot.readInto(snapshotFile(base), codec, set);
+		}
+		long last = base;
+		for (long number : segments) {
+			if (number > base) {
+				replay(journalFile(number), set);
+			}
+			last = Math.max(last, number);
+		}
+		deleteFolded(base);
+		return last;
+	}
+
+	/**
+	 * Replays the sealed segments up to the given one over the last snapshot
+	 * into a new snapshot, then deletes the folded files.
+	 */
+	private void fold(long sealed) throws IOException {
+		List<Long> snapshots = list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+		long base = snapshots.isEmpty() ? 0 : snapshots.get(snapshots.size() - 1);
+		HashSet<E> set = new HashSet<>();
+		if (base > 0) {
+			HashSetSnapshot.readInto(snapshotFile(base), codec, set);
+		}
+		for (long number : list(JOURNAL_PREFIX, JOURNAL_SUFFIX)) {
+			if (number > base && number <= sealed) {
+				replay(journalFile(number), set);
+			}
+		}
+		Path snapshot = snapshotFile(sealed);
+		Path temporary = directory.resolve(snapshot.getFileName() + TEMPORARY_SUFFIX);
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			HashSetSnapshot.write(set, codec, channel);
+			channel.force(true);
+		}
+		Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE);
+		deleteFolded(sealed);
+	}
+
+	/**
+	 * Deletes the segments folded into the snapshot of the given number, the older
+	 * snapshots and the unfinished ones.
+	 */
+	private void deleteFolded(long base) throws IOException {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				long snapshot = parse(name, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+				long segment = parse(name, JOURNAL_PREFIX, JOURNAL_SUFFIX);
+				if (name.endsWith(TEMPORARY_SUFFIX) || snapshot > 0 && snapshot < base || segment > 0 && segment <= base) {
+					Files.deleteIfExists(file);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads the segment frame by frame and applies its records to the set.
+	 * The replay stops at the first frame that is incomplete or fails its checksum.
+	 */
+	private void replay(Path file, HashSet<E> set) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+			ByteBuffer records = ByteBuffer.allocate(BATCH_SIZE);
+			CRC32 checksum = new CRC32();
+			while (readFully(channel, header)) {
+				header.flip();
+				int length = header.getInt();
+				int expected = header.getInt();
+				header.clear();
+				if (length <= 0 || length > channel.size() - channel.position()) {
+					return;
+				}
+				if (records.capacity() < length) {
+					records = ByteBuffer.allocate(length);
+				}
+				records.clear().limit(length);
+				if (!readFully(channel, records)) {
+					return;
+				}
+				checksum.reset();
+				checksum.update(records.array(), 0, length);
+				if ((int) checksum.getValue() != expected) {
+					return;
+				}
+				records.flip();
+				apply(records, set);
+			}
+		}
+	}
+
+	private void apply(ByteBuffer records, HashSet<E> set) throws IOException {
+		while (records.hasRemaining()) {
+			byte operation = records.get();
+			switch (operation) {
+				case ADD:
+					set.add(decode(records));
+					break;
+				case REMOVE:
+					set.remove(decode(records));
+					break;
+				case ADD_NULL:
+					set.add(null);
+					break;
+				case REMOVE_NULL:
+					set.remove(null);
+					break;
+				case CLEAR:
+					set.clear();
+					break;
+				default:
+					throw new IOException("Corrupted journal record: " + operation);
+			}
+		}
+	}
+
+	private E decode(ByteBuffer records) {
+		int size = fixedSize >= 0 ? fixedSize : records.getInt();
+		return codec.decode(records, size);
+	}
+
+	private static boolean readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private List<Long> list(String prefix, String suffix) throws IOException {
+		List<Long> numbers = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+			for (Path file : files) {
+				long number = parse(file.getFileName().toString(), prefix, suffix);
+				if (number > 0) {
+					numbers.add(number);
+				}
+			}
+		}
+		Collections.sort(numbers);
+		return numbers;
+	}
+
+	private static long parse(String name, String prefix, String suffix) {
+		if (!name.startsWith(prefix) || !name.endsWith(suffix)) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+		} catch (NumberFormatException unused) {
+			return -1;
+		}
+	}
+
+	private Path journalFile(long number) {
+		return directory.resolve(String.format("%s%016d%s", JOURNAL_PREFIX, number, JOURNAL_SUFFIX));
+	}
+
+	private Path snapshotFile(long number) {
+		return directory.resolve(String.format("%s%016d%s", SNAPSHOT_PREFIX, number, SNAPSHOT_SUFFIX));
+	}
+
+	private static ThreadFactory daemon(final String name) {
+		return new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, name);
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+}
@@ -0,0 +1,227 @@
+package ua.omld.jpc.task01;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+/**
+ * A {@link HashSet} that survives restarts: it records its mutations in a write-ahead
+ * journal in a directory and recovers from it when constructed again.
+ *
+ * <p>Successful <tt>add</tt>, <tt>remove</tt> and <tt>clear</tt> calls (and removals
+ * through the iterator) are appended to an in-memory batch, which a background thread
+ * writes to the journal once per commit interval (group commit); the {@link FsyncPolicy}
+ * decides whether the batches are forced to the device. So a mutation costs the encoding
+ * of its element into a buffer, not a system call. {@link #sync()} commits and forces
+ * the journal at once. A mutation is recorded before it is applied, so a mutation the
+ * journal fails to record throws and leaves the set unchanged.
+ *
+ * <p>The journal grows with every mutation, so it is folded into a fresh
+ * {@link HashSetSnapshot} by {@link #compact()}, or by itself once the journal
+ * segment grows past the compaction threshold. The folding runs in the background
+ * over the files, not over the live set, and needs memory for a copy of the set.
+ *
+ * <p>Recovery loads the last snapshot and replays the journal written after it with
+ * sequential reads. A batch torn by a crash is detected by its checksum and dropped.
+ *
+ * <p><strong>This implementation is not tread-safe.</strong> The journal's own
+ * threads never touch the set.
+ *
+ * @author Oleksii Kostetskyi
+ */
+public class JournaledHashSet<E> extends HashSet<E> implements Closeable {
+
+	private static final long DEFAULT_COMMIT_INTERVAL_MILLIS = 10;
+
+	private final Journal<E> journal;
+
+	/**
+	 * Opens the set journaled in the directory with group commit every 10 milliseconds.
+	 *
+	 * @param directory directory of the journal, created if absent
+	 * @param codec     codec of the elements
+	 * @throws IOException if the journal cannot be read or created
+	 */
+	public JournaledHashSet(Path directory, ElementCodec<E> codec) throws IOException {
+		this(directory, codec, FsyncPolicy.GROUP_COMMIT, DEFAULT_COMMIT_INTERVAL_MILLIS);
+	}
+
+	/**
+	 * Opens the set journaled in the directory, recovering the elements written before.
+	 *
+	 * @param directory            directory of the journal, created if absent
+	 * @param codec                codec of the elements
+	 * @param fsyncPolicy          when the journal is forced to the device
+	 * @param commitIntervalMillis how often the collected mutations are written to the journal
+	 * @throws IOException              if the journal cannot be read or created
+	 * @throws IllegalArgumentException if the commit interval is not positive
+	 */
+	public JournaledHashSet(Path directory, ElementCodec<E> codec, FsyncPolicy fsyncPolicy,
+							long commitIntervalMillis) throws IOException {
+		super();
+		journal = Journal.open(directory, codec, fsyncPolicy, commitIntervalMillis, this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>A new element is recorded in the journal before the set changes.
+	 *
+	 * @throws IllegalStateException if the journal failed
+	 */
+	@Override
+	public boolean add(E e) {
+		if (journal != null && getEntry(e) == null) {
+			journal.append(Journal.ADD, e);
+		}
+		return super.add(e);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>A new element is recorded in the journal before the set changes.
+	 *
+	 * @throws IllegalStateException if the journal failed
+	 */
+	@Override
+	public E intern(E e) {
+		if (journal != null && getEntry(e) == null) {
+			journal.append(Journal.ADD, e);
+		}
+		return super.intern(e);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The journal records the removed element before the set changes, so the
+	 * specified object itself need not be encodable by the codec of the set.
+	 *
+	 * @throws IllegalStateException if the journal failed
+	 */
+	@Override
+	public boolean remove(Object o) {
+		if (journal == null) {
+			return super.remove(o);
+		}
+		Entry<E> entry = getEntry(o);
+		if (entry == null) {
+			return false;
+		}
+		journal.append(Journal.REMOVE, entry.value);
+		return super.remove(o);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The journal records the clearing before the set changes.
+	 *
+	 * @throws IllegalStateException if the journal failed
+	 */
+	@Override
+	public void clear() {
+		if (journal != null) {
+			journal.append(Journal.CLEAR, null);
+		}
+		super.clear();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>Removes the elements through the iterator, so that the journal records them.
+	 *
+	 * @throws IllegalStateException if the journal failed
+	 */
+	@Override
+	public boolean removeIf(Predicate<? super E> filter) {
+		boolean removed = false;
+		for (Iterator<E> iterator = iterator(); iterator.hasNext(); ) {
+			if (filter.test(iterator.next())) {
+				iterator.remove();
+				removed = true;
+			}
+		}
+		return removed;
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		final Iterator<E> iterator = super.iterator();
+		return new Iterator<E>() {
+			private E current;
+			private boolean canRemove;
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public E next() {
+				current = iterator.next();
+				canRemove = true;
+				return current;
+			}
+
+			@Override
+			public void remove() {
+				// checked here, so the journal never records a removal the iterator refuses
+				if (!canRemove) {
+					throw new IllegalStateException("First call next().");
+				}
+				if (journal != null) {
+					journal.append(Journal.REMOVE, current);
+				}
+				iterator.remove();
+				canRemove = false;
+			}
+		};
+	}
+
+	/**
+	 * Writes the collected mutations to the journal and forces it to the device,
+	 * whatever the fsync policy is.
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void sync() throws IOException {
+		journal.sync();
+	}
+
+	/**
+	 * Starts folding the journal into a new snapshot in the background.
+	 * Mutations made after the call go to a new journal segment.
+	 *
+	 * @return the future completed when the snapshot is written and the folded journal deleted
+	 * @throws IOException if an I/O error occurs
+	 */
+	public Future<?> compact() throws IOException {
+		return journal.compact();
+	}
+
+	/**
+	 * Sets the size the current journal segment may reach before it is compacted by itself.
+	 *
+	 * @param bytes the segment size in bytes; {@link Long#MAX_VALUE} turns automatic compaction off (default)
+	 */
+	public void setCompactionThreshold(long bytes) {
+		journal.setCompactionThreshold(bytes);
+	}
+
+	/**
+	 * Writes the collected mutations, waits for a running compaction and closes the journal.
+	 * The set stays usable in memory, but its further mutations fail.
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	@Override
+	public void close() throws IOException {
+		journal.close();
+	}
+}
@@ -0,0 +1,323 @@
+package ua.omld.jpc.task01;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * A {@link HashSet} with a predictable iteration order. A doubly-linked list runs
+ * through the entries of the hashtable in insertion order (by default) or in access
+ * order, so iteration, <tt>toArray</tt> and <tt>retainAll</tt> cost O(size) whatever
+ * the capacity of the hashtable.
+ *
+ * <p>In the insertion order re-adding an element does not move it. In the access
+ * order both <tt>add</tt> and <tt>contains</tt> of a present element move it to the end
+ * of the list, so the least recently used element comes first. Together with
+ * {@link #removeEldest(Object)} this makes a bounded LRU set:
+ *
+ * <pre>
+ *     Set&lt;E&gt; recent = new LinkedHashSet&lt;E&gt;(16, 0.75f, true) {
+ *         protected boolean removeEldest(E eldest) {
+ *             return size() &gt; MAX_ENTRIES;
+ *         }
+ *     };
+ * </pre>
+ *
+ * <p><strong>This implementation is not tread-safe.</strong> In the access order
+ * <tt>contains</tt> changes the iteration order, so it must not be called during
+ * iteration.
+ *
+ * <p>The iterators returned by this class's <tt>iterator</tt> method are
+ * <i>not fail-fast</i>.
+ *
+ * @author Oleksii Kostetskyi
+ */
+public class LinkedHashSet<E> extends HashSet<E> {
+
+	private final boolean accessOrder;
+	/**
+	 * The eldest entry.
+	 */
+	private LinkedEntry<E> head;
+	/**
+	 * The youngest entry.
+	 */
+	private LinkedEntry<E> tail;
+
+	/**
+	 * Constructs a new, empty insertion-ordered set with default initial capacity (16)
+	 * and load factor (0.75).
+	 */
+	public LinkedHashSet() {
+		super();
+		accessOrder = false;
+	}
+
+	/**
+	 * Constructs a new, empty insertion-ordered set with given initial capacity
+	 * and default load factor (0.75).
+	 *
+	 * @param initialCapacity the initial capacity of the hashtable
+	 * @throws IllegalArgumentException if the initial capacity is less then 1 and greater then 2^30.
+	 */
+	public LinkedHashSet(int initialCapacity) {
+		super(initialCapacity);
+		accessOrder = false;
+	}
+
+	/**
+	 * Constructs a new, empty insertion-ordered set with given initial capacity and load factor.
+	 *
+	 * @param initialCapacity the initial capacity of the hashtable
+	 * @param loadFactor      the load factor of the hashtable
+	 * @throws IllegalArgumentException if the initial capacity is less then 1 and greater then 2^30,
+	 *                                  or if the load factor is not positive.
+	 */
+	public LinkedHashSet(int initialCapacity, float loadFactor) {
+		super(initialCapacity, loadFactor);
+		accessOrder = false;
+	}
+
+	/**
+	 * Constructs a new, empty set with given initial capacity, load factor and ordering mode.
+	 *
+	 * @param initialCapacity the initial capacity of the hashtable
+	 * @param loadFactor      the load factor of the hashtable
+	 * @param accessOrder     <tt>true</tt> for access order, <tt>false</tt> for insertion order
+	 * @throws IllegalArgumentException if the initial capacity is less then 1 and greater then 2^30,
+	 *                                  or if the load factor is not positive.
+	 */
+	public LinkedHashSet(int initialCapacity, float loadFactor, boolean accessOrder) {
+		super(initialCapacity, loadFactor);
+		this.accessOrder = accessOrder;
+	}
+
+	/**
+	 * Constructs a new insertion-ordered set containing the elements in the specified
+	 * collection, in the order they are returned by its iterator.
+	 *
+	 * @param c the collection whose elements are to be placed into this set
+	 */
+	public LinkedHashSet(Collection<E> c) {
+		super(c);
+		accessOrder = false;
+	}
+
+	/**
+	 * Returns <tt>true</tt> if this set contains the specified element.
+	 * In the access order the element becomes the youngest one.
+	 *
+	 * @param o element whose presence in this set is to be tested
+	 * @return <tt>true</tt> if this set contains the specified element
+	 */
+	@Override
+	public boolean contains(Object o) {
+		Entry<E> entry = getEntry(o);
+		if (entry == null) {
+			return false;
+		}
+		afterEntryAccess(entry);
+		return true;
+	}
+
+	/**
+	 * Adds the specified element to this set if it is not already present,
+	 * then asks {@link #removeEldest(Object)} whether to remove the eldest element.
+	 *
+	 * @param e element to be added to this set
+	 * @return <tt>true</tt> if this set did not already contain the specified element
+	 */
+	@Override
+	public boolean add(E e) {
+		if (!super.add(e)) {
+			return false;
+		}
+		checkEldest();
+		return true;
+	}
+
+	/**
+	 * Interns the specified element like {@link HashSet#intern(Object)}. If the element
+	 * is added, asks {@link #removeEldest(Object)} whether to remove the eldest element.
+	 *
+	 * @param e element to be interned
+	 * @return the element of this set equal to <tt>e</tt>, or <tt>e</tt> if it has just been added
+	 */
+	@Override
+	public E intern(E e) {
+		int oldSize = size();
+		E canonical = super.intern(e);
+		if (size() > oldSize) {
+			checkEldest();
+		}
+		return canonical;
+	}
+
+	private void checkEldest() {
+		LinkedEntry<E> eldest = head;
+		if (eldest != null && removeEldest(eldest.value)) {
+			remove(eldest.value);
+		}
+	}
+
+	/**
+	 * Returns <tt>true</tt> if this set should remove its eldest element. Called by
+	 * <tt>add</tt> after a new element is added; the element passed is the least recently
+	 * inserted one or, in the access order, the least recently used one.
+	 *
+	 * <p>This implementation returns <tt>false</tt>, so the set grows without bound.
+	 * Override it to bound the set, e.g. with <tt>return size() &gt; max;</tt>.
+	 *
+	 * @param eldest the eldest element of the set
+	 * @return <tt>true</tt> if the eldest element should be removed
+	 */
+	protected boolean removeEldest(E eldest) {
+		return false;
+	}
+
+	/**
+	 * Returns the eldest element: the least recently inserted or, in the access order,
+	 * the least recently used one.
+	 *
+	 * @return the eldest element
+	 * @throws NoSuchElementException if this set is empty
+	 */
+	public E eldest() {
+		if (head == null) {
+			throw new NoSuchElementException();
+		}
+		return head.value;
+	}
+
+	/**
+	 * Returns <tt>true</tt> if this set is ordered by access, <tt>false</tt> if by insertion.
+	 *
+	 * @return the ordering mode
+	 */
+	public boolean isAccessOrder() {
+		return accessOrder;
+	}
+
+	/**
+	 * Returns an iterator over the elements in this set from the eldest to the youngest.
+	 *
+	 * @return an iterator over the elements in this set
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return new LinkedIterator();
+	}
+
+	/**
+	 * Returns an ordered spliterator over the elements, from the eldest to the youngest.
+	 *
+	 * @return a spliterator over the elements in this set
+	 */
+	@Override
+	public Spliterator<E> spliterator() {
+		return Spliterators.spliterator(this, Spliterator.ORDERED | Spliterator.DISTINCT);
+	}
+
+	/**
+	 * Performs the action for each element from the eldest to the youngest.
+	 *
+	 * @param action the action to be performed for each element
+	 * @throws NullPointerException if the specified action is null
+	 */
+	@Override
+	public void forEach(Consumer<? super E> action) {
+		Objects.requireNonNull(action);
+		for (LinkedEntry<E> entry = head; entry != null; entry = entry.after) {
+			action.accept(entry.value);
+		}
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		head = tail = null;
+	}
+
+	@Override
+	Entry<E> createEntry() {
+		return new LinkedEntry<>();
+	}
+
+	@Override
+	void afterEntryInsertion(Entry<E> entry) {
+		LinkedEntry<E> linked = (LinkedEntry<E>) entry;
+		linked.before = tail;
+		if (tail == null) {
+			head = linked;
+		} else {
+			tail.after = linked;
+		}
+		tail = linked;
+	}
+
+	@Override
+	void afterEntryAccess(Entry<E> entry) {
+		if (accessOrder && entry != tail) {
+			unlink((LinkedEntry<E>) entry);
+			afterEntryInsertion(entry);
+		}
+	}
+
+	@Override
+	void afterEntryRemoval(Entry<E> entry) {
+		unlink((LinkedEntry<E>) entry);
+	}
+
+	private void unlink(LinkedEntry<E> entry) {
+		if (entry.before == null) {
+			head = entry.after;
+		} else {
+			entry.before.after = entry.after;
+		}
+		if (entry.after == null) {
+			tail = entry.before;
+		} else {
+			entry.after.before = entry.before;
+		}
+		entry.before = entry.after = null;
+	}
+
+	private static final class LinkedEntry<E> extends Entry<E> {
+		LinkedEntry<E> before;
+		LinkedEntry<E> after;
+	}
+
+	private class LinkedIterator implements Iterator<E> {
+
+		private LinkedEntry<E> next = head;
+		private LinkedEntry<E> current;
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public E next() {
+			if (next == null) {
+				throw new NoSuchElementException();
+			}
+			current = next;
+			next = next.after;
+			return current.value;
+		}
+
+		@Override
+		public void remove() {
+			if (current == null) {
+				throw new IllegalStateException("First call next().");
+			}
+			LinkedHashSet.this.remove(current.value);
+			current = null;
+		}
+	}
+}
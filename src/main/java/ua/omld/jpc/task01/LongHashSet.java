@@ -0,0 +1,404 @@
+package ua.omld.jpc.task01;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of primitive <tt>long</tt> values backed by an open-addressing hash table.
+ * Values are stored directly in an <tt>long[]</tt> of power-of-two length and
+ * collisions are resolved by linear probing, so neither values nor entries are
+ * boxed: <tt>add</tt>, <tt>contains</tt> and <tt>remove</tt> allocate nothing
+ * unless the table grows.
+ *
+ * <p>Zero marks an empty slot, so the zero value itself is tracked by a flag.
+ * Removal uses backward-shift deletion, so the table never contains tombstones.
+ *
+ * <p><strong>This implementation is not tread-safe.</strong>
+ *
+ * @author Oleksii Kostetskyi
+ */
+public class LongHashSet {
+
+	private static final int MAX_CAPACITY = 1 << 30;
+	private static final int DEFAULT_CAPACITY = 1 << 4;
+	private static final float DEFAULT_LOAD_FACTOR = 0.5f;
+
+	private final float loadFactor;
+
+	private long[] slots;
+	private int mask;
+	private int threshold;
+	private boolean containsZero;
+	private int size;
+
+	/**
+	 * Constructs a new, empty set; the table has default initial capacity (16)
+	 * and default load factor (0.5).
+	 */
+	public LongHashSet() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a new, empty set; the table has given initial capacity
+	 * (rounded up to a power of two) and default load factor (0.5).
+	 *
+	 * @param initialCapacity the initial capacity of the table
+	 * @throws IllegalArgumentException if the initial capacity is less then 1 and greater then 2^30.
+	 */
+	public LongHashSet(int initialCapacity) {
+		this(initialCapacity, DEFAULT_LOAD_FACTOR);
+	}
+
+	/**
+	 * Constructs a new, empty set; the table has given initial capacity
+	 * (rounded up to a power of two) and given load factor.
+	 *
+	 * @param initialCapacity the initial capacity of the table
+	 * @param loadFactor      the load factor of the table
+	 * @throws IllegalArgumentException if the initial capacity is less then 1 and greater then 2^30,
+	 *                                  or if the load factor is not between 0 and 1 (exclusive).
+	 */
+	public LongHashSet(int initialCapacity, float loadFactor) {
+		if (initialCapacity < 1 || initialCapacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("Capacity is out of bounds: " + initialCapacity);
+		}
+		if (!(loadFactor > 0 && loadFactor < 1)) {
+			throw new IllegalArgumentException("Illegal load factor: " + loadFactor);
+		}
+		this.loadFactor = loadFactor;
+		allocate(Math.max(2, Hashing.tableSizeFor(initialCapacity, MAX_CAPACITY)));
+	}
+
+	/**
+	 * Returns the number of values in this set.
+	 *
+	 * @return the number of values in this set
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns <tt>true</tt> if this set contains no values.
+	 *
+	 * @return <tt>true</tt> if this set contains no values
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns <tt>true</tt> if this set contains the specified value.
+	 *
+	 * @param value value whose presence in this set is to be tested
+	 * @return <tt>true</tt> if this set contains the specified value
+	 */
+	public boolean contains(long value) {
+		if (value == 0) {
+			return containsZero;
+		}
+		return indexOf(value) >= 0;
+	}
+
+	/**
+	 * Adds the specified value to this set if it is not already present.
+	 *
+	 * @param value value to be added to this set
+	 * @return <tt>true</tt> if this set did not already contain the specified value
+	 */
+	public boolean add(long value) {
+		if (value == 0) {
+			if (containsZero) {
+				return false;
+			}
+			containsZero = true;
+			size++;
+			return true;
+		}
+		int index = hashFunction(value);
+		long slot;
+		while ((slot = slots[index]) != 0) {
+			if (slot == value) {
+				return false;
+			}
+			index = (index + 1) & mask;
+		}
+		if (size == threshold && slots.length == MAX_CAPACITY) {
+			// the last free slot ends the probe sequences of absent values
+			throw new IllegalStateException("Set is full");
+		}
+		slots[index] = value;
+		if (++size > threshold) {
+			resize();
+		}
+		return true;
+	}
+
+	/**
+	 * Adds all of the specified values to this set if they're not already present.
+	 * The table is grown at once for as many values as the set or the array holds,
+	 * whichever is more, so duplicates and present values do not make it too large;
+	 * more new values grow it step by step.
+	 *
+	 * @param values values to be added to this set
+	 * @return <tt>true</tt> if this set changed as a result of the call
+	 * @throws NullPointerException if the specified array is null
+	 */
+	public boolean addAll(long[] values) {
+		ensureCapacity(Math.max(size, values.length));
+		boolean modified = false;
+		for (long value : values) {
+			modified |= add(value);
+		}
+		return modified;
+	}
+
+	/**
+	 * Removes the specified value from this set if it is present.
+	 *
+	 * @param value value to be removed from this set, if present
+	 * @return <tt>true</tt> if this set contained the specified value
+	 */
+	public boolean remove(long value) {
+		if (value == 0) {
+			if (!containsZero) {
+				return false;
+			}
+			containsZero = false;
+			size--;
+			return true;
+		}
+		int index = indexOf(value);
+		if (index < 0) {
+			return false;
+		}
+		shiftBack(index);
+		size--;
+		return true;
+	}
+
+	/**
+	 * Removes all of the values from this set.
+	 * The set will be empty after this call returns.
+	 */
+	public void clear() {
+		Arrays.fill(slots, 0);
+		containsZero = false;
+		size = 0;
+	}
+
+	/**
+	 * Returns an array containing all of the values in this set.
+	 *
+	 * @return an array containing all the values in this set
+	 */
+	public long[] toArray() {
+		long[] array = new long[size];
+		int i = containsZero ? 1 : 0;
+		for (long slot : slots) {
+			if (slot != 0) {
+				array[i++] = slot;
+			}
+		}
+		return array;
+	}
+
+	/**
+	 * Returns a cursor over the values in this set. The values are returned
+	 * in no particular order. The set must not be modified while the cursor is in use.
+	 *
+	 * @return a cursor positioned before the first value
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * Compares the specified object with this set for equality. Returns <tt>true</tt>
+	 * if the specified object is also an <tt>LongHashSet</tt> with the same values.
+	 *
+	 * @param o object to be compared for equality with this set
+	 * @return <tt>true</tt> if the specified object is equal to this set
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+		if (!(o instanceof LongHashSet)) {
+			return false;
+		}
+		LongHashSet other = (LongHashSet) o;
+		if (other.size != size || other.containsZero != containsZero) {
+			return false;
+		}
+		for (long slot : other.slots) {
+			if (slot != 0 && indexOf(slot) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the hash code value for this set: the sum of hash codes of the values,
+	 * the same as for a <tt>Set&lt;Long&gt;</tt> with these values.
+	 *
+	 * @return the hash code value for this set
+	 */
+	@Override
+	public int hashCode() {
+		int h = 0;
+		for (long slot : slots) {
+			h += (int) (slot ^ (slot >>> 32));
+		}
+		return h;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		Cursor cursor = cursor();
+		while (cursor.advance()) {
+			if (sb.length() > 1) {
+				sb.append(", ");
+			}
+			sb.append(cursor.value());
+		}
+		return sb.append(']').toString();
+	}
+
+	private int hashFunction(long value) {
+		return Hashing.mix(value) & mask;
+	}
+
+	private void allocate(int capacity) {
+		slots = new long[capacity];
+		mask = capacity - 1;
+		threshold = capacity == MAX_CAPACITY ? MAX_CAPACITY - 1 : (int) (capacity * loadFactor);
+	}
+
+	/**
+	 * Returns the length of the table.
+	 */
+	int capacity() {
+		return slots.length;
+	}
+
+	private void ensureCapacity(long expectedSize) {
+		if (expectedSize > threshold && slots.length < MAX_CAPACITY) {
+			int capacity = Hashing.tableSizeFor((int) Math.min(MAX_CAPACITY, (long) (expectedSize / loadFactor) + 1), MAX_CAPACITY);
+			if (capacity > slots.length) {
+				rehash(capacity);
+			}
+		}
+	}
+
+	/**
+	 * Returns the slot index of the specified non-zero value or <tt>-1</tt> if it is absent.
+	 */
+	private int indexOf(long value) {
+		int index = hashFunction(value);
+		long slot;
+		while ((slot = slots[index]) != 0) {
+			if (slot == value) {
+				return index;
+			}
+			index = (index + 1) & mask;
+		}
+		return -1;
+	}
+
+	private void resize() {
+		rehash(slots.length << 1);
+	}
+
+	private void rehash(int capacity) {
+		long[] oldSlots = slots;
+		allocate(capacity);
+		for (long slot : oldSlots) {
+			if (slot != 0) {
+				int index = hashFunction(slot);
+				while (slots[index] != 0) {
+					index = (index + 1) & mask;
+				}
+				slots[index] = slot;
+			}
+		}
+	}
+
+	/**
+	 * Empties the slot at the given index and moves back the following values
+	 * of the probe sequence, so every value stays reachable from its home slot.
+	 */
+	private void shiftBack(int gap) {
+		int index = gap;
+		long slot;
+		while ((slot = slots[index = (index + 1) & mask]) != 0) {
+			int home = hashFunction(slot);
+			// the value may fill the gap only if its home slot is not in (gap, index]
+			if (((index - home) & mask) >= ((index - gap) & mask)) {
+				slots[gap] = slot;
+				gap = index;
+			}
+		}
+		slots[gap] = 0;
+	}
+
+	/**
+	 * Cursor over the values of the set. Unlike an <tt>Iterator&lt;Long&gt;</tt>
+	 * it returns primitive values, so a full iteration allocates nothing but the cursor.
+	 *
+	 * <pre>
+	 * LongHashSet.Cursor cursor = set.cursor();
+	 * while (cursor.advance()) {
+	 *     consume(cursor.value());
+	 * }
+	 * </pre>
+	 */
+	public final class Cursor {
+
+		/**
+		 * Index of the current slot; <tt>slots.length</tt> stands for the zero value.
+		 */
+		private int index = -1;
+		private long value;
+
+		private Cursor() {
+		}
+
+		/**
+		 * Moves the cursor to the next value.
+		 *
+		 * @return <tt>true</tt> if there is a next value, <tt>false</tt> if the cursor is exhausted
+		 */
+		public boolean advance() {
+			while (++index < slots.length) {
+				if (slots[index] != 0) {
+					value = slots[index];
+					return true;
+				}
+			}
+			if (index == slots.length && containsZero) {
+				value = 0;
+				return true;
+			}
+			index = slots.length + 1;
+			return false;
+		}
+
+		/**
+		 * Returns the value the cursor is positioned at.
+		 *
+		 * @return the current value
+		 * @throws NoSuchElementException if {@link #advance()} has not returned <tt>true</tt>
+		 */
+		public long value() {
+			if (index < 0 || index > slots.length) {
+				throw new NoSuchElementException();
+			}
+			return value;
+		}
+	}
+}
@@ -0,0 +1,569 @@
+package ua.omld.jpc.task01;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of primitive <tt>long</tt> values whose hash table lives outside the Java heap,
+ * either in direct byte buffers or in a file mapped to memory. The set creates no Java
+ * objects per value, so however large it is, it adds nothing to GC work.
+ *
+ * <p>The table is an open-addressing table with linear probing and backward-shift
+ * deletion, the same as in {@link LongHashSet}. It is split into segments of up to
+ * 1 GiB, so it may hold more values than fit into a single buffer. The load factor is 0.5.
+ *
+ * <p>A file-backed set keeps the whole table in the file. Reopening the file maps the
+ * table as it is, with no loading or rehashing, so a set larger than the heap is available
+ * right away. Changes reach the file when the OS writes the mapped pages back;
+ * {@link #force()} writes them synchronously.
+ *
+ * <p>Memory and file mappings are released by {@link #close()}; the set cannot be used
+ * after that.
+ *
+ * <p><strong>This implementation is not tread-safe.</strong>
+ *
+ * @author Oleksii Kostetskyi
+ */
+public class OffHeapLongHashSet implements Closeable {
+
+	private static final long MAX_CAPACITY = 1L << 34;
+	private static final long DEFAULT_CAPACITY = 1L << 4;
+	private static final int SEGMENT_SHIFT = 27;
+	private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+	private static final long MAGIC = 0x4f4d4c44_4c534554L;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 64;
+	private static final int MAGIC_OFFSET = 0;
+	private static final int VERSION_OFFSET = 8;
+	private static final int FLAGS_OFFSET = 12;
+	private static final int CAPACITY_OFFSET = 16;
+	private static final int SIZE_OFFSET = 24;
+	private static final int CONTAINS_ZERO_FLAG = 1;
+
+	private final Path file;
+
+	private ByteBuffer header;
+	private ByteBuffer[] segments;
+	private FileChannel channel;
+	private long mask;
+	private long threshold;
+	private boolean containsZero;
+	private long size;
+
+	/**
+	 * Constructs a new, empty set in direct memory; the table has default initial capacity (16).
+	 */
+	public OffHeapLongHashSet() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a new, empty set in direct memory; the table has given initial capacity
+	 * (rounded up to a power of two).
+	 *
+	 * @param initialCapacity the initial capacity of the table
+	 * @throws IllegalArgumentException if the initial capacity is less then 1 and greater then 2^34.
+	 */
+	public OffHeapLongHashSet(long initialCapacity) {
+		checkCapacity(initialCapacity);
+		this.file = null;
+		try {
+			allocate(tableSizeFor(initialCapacity), null);
+		} catch (IOException e) {
+			// direct memory does no I/O
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Opens the set stored in the given file, or creates a new, empty set there if the file
+	 * does not exist or is empty. The initial capacity (rounded up to a power of two) is used
+	 * only for a new set.
+	 *
+	 * @param file            the file holding the table
+	 * @param initialCapacity the initial capacity of a new table
+	 * @throws IllegalArgumentException if the initial capacity is less then 1 and greater then 2^34,
+	 *                                  or if the file does not hold a set.
+	 * @throws IOException              if the file cannot be opened or mapped
+	 */
+	public OffHeapLongHashSet(Path file, long initialCapacity) throws IOException {
+		checkCapacity(initialCapacity);
+		this.file = file;
+		FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			if (fileChannel.size() == 0) {
+				allocate(tableSizeFor(initialCapacity), fileChannel);
+			} else {
+				open(fileChannel);
+			}
+		} catch (IOException | RuntimeException e) {
+			fileChannel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the number of values in this set.
+	 *
+	 * @return the number of values in this set
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Returns <tt>true</tt> if this set contains no values.
+	 *
+	 * @return <tt>true</tt> if this set contains no values
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns <tt>true</tt> if this set contains the specified value.
+	 *
+	 * @param value value whose presence in this set is to be tested
+	 * @return <tt>true</tt> if this set contains the specified value
+	 * @throws IllegalStateException if the set is closed
+	 */
+	public boolean contains(long value) {
+		ensureOpen();
+		if (value == 0) {
+			return containsZero;
+		}
+		return indexOf(value) >= 0;
+	}
+
+	/**
+	 * Adds the specified value to this set if it is not already present.
+	 *
+	 * @param value value to be added to this set
+	 * @return <tt>true</tt> if this set did not already contain the specified value
+	 * @throws IllegalStateException if the set is closed, or if the file-backed table cannot grow
+	 */
+	public boolean add(long value) {
+		ensureOpen();
+		if (value == 0) {
+			if (containsZero) {
+				return false;
+			}
+			containsZero = true;
+			setSize(size + 1);
+			return true;
+		}
+		long index = hashFunction(value);
+		long slot;
+		while ((slot = get(index)) != 0) {
+			if (slot == value) {
+				return false;
+			}
+			index = (index + 1) & mask;
+		}
+		if (size == threshold && mask + 1 == MAX_CAPACITY) {
+			// the last free slot ends the probe sequences of absent values
+			throw new IllegalStateException("Set is full");
+		}
+		put(index, value);
+		setSize(size + 1);
+		if (size > threshold) {
+			resize();
+		}
+		return true;
+	}
+
+	/**
+	 * Removes the specified value from this set if it is present.
+	 *
+	 * @param value value to be removed from this set, if present
+	 * @return <tt>true</tt> if this set contained the specified value
+	 * @throws IllegalStateException if the set is closed
+	 */
+	public boolean remove(long value) {
+		ensureOpen();
+		if (value == 0) {
+			if (!containsZero) {
+				return false;
+			}
+			containsZero = false;
+			setSize(size - 1);
+			return true;
+		}
+		long index = indexOf(value);
+		if (index < 0) {
+			return false;
+		}
+		shiftBack(index);
+		setSize(size - 1);
+		return true;
+	}
+
+	/**
+	 * Removes all of the values from this set.
+	 * The set will be empty after this call returns.
+	 *
+	 * @throws IllegalStateException if the set is closed
+	 */
+	public void clear() {
+		ensureOpen();
+		byte[] zeros = new byte[1 << 16];
+		for (ByteBuffer segment : segments) {
+			for (int position = 0; position < segment.capacity(); position += zeros.length) {
+				ByteBuffer view = segment.duplicate();
+				view.position(position);
+				view.put(zeros, 0, Math.min(zeros.length, segment.capacity() - position));
+			}
+		}
+		containsZero = false;
+		setSize(0);
+	}
+
+	/**
+	 * Returns a cursor over the values in this set. The values are returned
+	 * in no particular order. The set must not be modified while the cursor is in use.
+	 *
+	 * @return a cursor positioned before the first value
+	 * @throws IllegalStateException if the set is closed
+	 */
+	public Cursor cursor() {
+		ensureOpen();
+		return new Cursor();
+	}
+
+	/**
+	 * Writes changes of the file-backed table to the storage device.
+	 * Does nothing for a set in direct memory.
+	 *
+	 * @throws IllegalStateException if the set is closed
+	 */
+	public void force() {
+		ensureOpen();
+		if (channel != null) {
+			for (ByteBuffer segment : segments) {
+				((java.nio.MappedByteBuffer) segment).force();
+			}
+			((java.nio.MappedByteBuffer) header).force();
+		}
+	}
+
+	/**
+	 * Releases the memory of the table and unmaps the file, if any.
+	 * Closing an already closed set has no effect.
+	 *
+	 * @throws IOException if the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		if (segments == null) {
+			return;
+		}
+		FileChannel fileChannel = channel;
+		release();
+		if (fileChannel != null) {
+			fileChannel.close();
+		}
+	}
+
+	private static void checkCapacity(long initialCapacity) {
+		if (initialCapacity < 1 || initialCapacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("Capacity is out of bounds: " + initialCapacity);
+		}
+	}
+
+	private static long tableSizeFor(long capacity) {
+		return capacity <= 2 ? 2 : Long.highestOneBit(capacity - 1) << 1;
+	}
+
+	private void ensureOpen() {
+		if (segments == null) {
+			throw new IllegalStateException("Set is closed");
+		}
+	}
+
+	/**
+	 * Creates an empty table in direct memory or, if the channel is given, in its file.
+	 */
+	private void allocate(long capacity, FileChannel fileChannel) throws IOException {
+		ByteBuffer newHeader = newHeader(capacity, fileChannel);
+		setTable(newHeader, newSegments(capacity, fileChannel), fileChannel, capacity);
+		containsZero = false;
+		setSize(0);
+	}
+
+	private static ByteBuffer newHeader(long capacity, FileChannel fileChannel) throws IOException {
+		ByteBuffer newHeader = fileChannel == null
+				? ByteBuffer.allocateDirect(HEADER_SIZE)
+				: fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+		newHeader.order(ByteOrder.LITTLE_ENDIAN);
+		newHeader.putLong(MAGIC_OFFSET, MAGIC);
+		newHeader.putInt(VERSION_OFFSET, VERSION);
+		newHeader.putLong(CAPACITY_OFFSET, capacity);
+		return newHeader;
+	}
+
+	/**
+	 * Creates zeroed segments of the table. Segments mapped before a failure are released.
+	 */
+	private static ByteBuffer[] newSegments(long capacity, FileChannel fileChannel) throws IOException {
+		int segmentCount = (int) ((capacity + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+		int segmentBytes = (int) (Math.min(capacity, 1L << SEGMENT_SHIFT) << 3);
+		ByteBuffer[] newSegments = new ByteBuffer[segmentCount];
+		try {
+			for (int i = 0; i < segmentCount; i++) {
+				newSegments[i] = (fileChannel == null
+						? ByteBuffer.allocateDirect(segmentBytes)
+						: fileChannel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + (long) i * segmentBytes, segmentBytes))
+						.order(ByteOrder.LITTLE_ENDIAN);
+			}
+		} catch (IOException | RuntimeException | Error e) {
+			free(null, newSegments);
+			throw e;
+		}
+		return newSegments;
+	}
+
+	/**
+	 * Maps the table already stored in the channel's file.
+	 */
+	private void open(FileChannel fileChannel) throws IOException {
+		if (fileChannel.size() < HEADER_SIZE) {
+			throw new IllegalArgumentException("Not a set file: " + file);
+		}
+		ByteBuffer fileHeader = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		long capacity = fileHeader.getLong(CAPACITY_OFFSET);
+		if (fileHeader.getLong(MAGIC_OFFSET) != MAGIC || fileHeader.getInt(VERSION_OFFSET) != VERSION
+				|| capacity < 2 || capacity > MAX_CAPACITY || Long.bitCount(capacity) != 1
+				|| fileChannel.size() < HEADER_SIZE + (capacity << 3)) {
+			DirectBuffers.free(fileHeader);
+			throw new IllegalArgumentException("Not a set file: " + file);
+		}
+		int segmentCount = (int) ((capacity + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+		int segmentBytes = (int) (Math.min(capacity, 1L << SEGMENT_SHIFT) << 3);
+		ByteBuffer[] fileSegments = new ByteBuffer[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			fileSegments[i] = fileChannel.map(FileChannel.MapMode.READ_WRITE,
+					HEADER_SIZE + (long) i * segmentBytes, segmentBytes).order(ByteOrder.LITTLE_ENDIAN);
+		}
+		setTable(fileHeader, fileSegments, fileChannel, capacity);
+		containsZero = (fileHeader.getInt(FLAGS_OFFSET) & CONTAINS_ZERO_FLAG) != 0;
+		size = fileHeader.getLong(SIZE_OFFSET);
+	}
+
+	private void setTable(ByteBuffer newHeader, ByteBuffer[] newSegments, FileChannel fileChannel, long capacity) {
+		header = newHeader;
+		segments = newSegments;
+		channel = fileChannel;
+		mask = capacity - 1;
+		threshold = capacity == MAX_CAPACITY ? MAX_CAPACITY - 1 : capacity >>> 1;
+	}
+
+	private void release() {
+		free(header, segments);
+		header = null;
+		segments = null;
+		channel = null;
+	}
+
+	private static void free(ByteBuffer buffer, ByteBuffer[] buffers) {
+		DirectBuffers.free(buffer);
+		for (ByteBuffer segment : buffers) {
+			DirectBuffers.free(segment);
+		}
+	}
+
+	/**
+	 * Stores the size and the zero flag in the header, so a reopened file sees them.
+	 */
+	private void setSize(long newSize) {
+		size = newSize;
+		header.putLong(SIZE_OFFSET, newSize);
+		header.putInt(FLAGS_OFFSET, containsZero ? CONTAINS_ZERO_FLAG : 0);
+	}
+
+	private long get(long index) {
+		return segments[(int) (index >>> SEGMENT_SHIFT)].getLong((int) (index & SEGMENT_MASK) << 3);
+	}
+
+	private void put(long index, long value) {
+		segments[(int) (index >>> SEGMENT_SHIFT)].putLong((int) (index & SEGMENT_MASK) << 3, value);
+	}
+
+	private long hashFunction(long value) {
+		return Hashing.mix64(value) & mask;
+	}
+
+	/**
+	 * Returns the slot index of the specified non-zero value or <tt>-1</tt> if it is absent.
+	 */
+	private long indexOf(long value) {
+		long index = hashFunction(value);
+		long slot;
+		while ((slot = get(index)) != 0) {
+			if (slot == value) {
+				return index;
+			}
+			index = (index + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Doubles the table. A file-backed table is rebuilt in a sibling file,
+	 * which then replaces the original one. The new table is swapped in only
+	 * when it is complete, so on failure the set keeps the old one.
+	 */
+	private void resize() {
+		long capacity = (mask + 1) << 1;
+		long newMask = capacity - 1;
+		Path resized = null;
+		FileChannel newChannel = null;
+		ByteBuffer newHeader = null;
+		ByteBuffer[] newSegments = new ByteBuffer[0];
+		try {
+			if (channel != null) {
+				resized = file.resolveSibling(file.getFileName() + ".resize");
+				newChannel = FileChannel.open(resized, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+						StandardOpenOption.READ, StandardOpenOption.WRITE);
+			}
+			newHeader = newHeader(capacity, newChannel);
+			newSegments = newSegments(capacity, newChannel);
+			for (ByteBuffer segment : segments) {
+				for (int position = 0; position < segment.capacity(); position += 8) {
+					long slot = segment.getLong(position);
+					if (slot != 0) {
+						long index = Hashing.mix64(slot) & newMask;
+						while (newSegments[(int) (index >>> SEGMENT_SHIFT)].getLong((int) (index & SEGMENT_MASK) << 3) != 0) {
+							index = (index + 1) & newMask;
+						}
+						newSegments[(int) (index >>> SEGMENT_SHIFT)].putLong((int) (index & SEGMENT_MASK) << 3, slot);
+					}
+				}
+			}
+			newHeader.putLong(SIZE_OFFSET, size);
+			newHeader.putInt(FLAGS_OFFSET, containsZero ? CONTAINS_ZERO_FLAG : 0);
+			if (newChannel != null) {
+				Files.move(resized, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+		} catch (IOException e) {
+			discard(newHeader, newSegments, newChannel, resized, e);
+			throw new IllegalStateException("Cannot grow set file " + file, e);
+		} catch (RuntimeException | Error e) {
+			discard(newHeader, newSegments, newChannel, resized, e);
+			throw e;
+		}
+		FileChannel oldChannel = channel;
+		free(header, segments);
+		setTable(newHeader, newSegments, newChannel, capacity);
+		if (oldChannel != null) {
+			try {
+				oldChannel.close();
+			} catch (IOException e) {
+				throw new IllegalStateException("Cannot close replaced set file " + file, e);
+			}
+		}
+	}
+
+	/**
+	 * Releases the table of a failed resize and deletes its file, if any.
+	 */
+	private static void discard(ByteBuffer newHeader, ByteBuffer[] newSegments, FileChannel newChannel,
+			Path resized, Throwable failure) {
+		free(newHeader, newSegments);
+		if (newChannel != null) {
+			try {
+				newChannel.close();
+				Files.deleteIfExists(resized);
+			} catch (IOException e) {
+				failure.addSuppressed(e);
+			}
+		}
+	}
+
+	/**
+	 * Empties the slot at the given index and moves back the following values
+	 * of the probe sequence, so every value stays reachable from its home slot.
+	 */
+	private void shiftBack(long gap) {
+		long index = gap;
+		long slot;
+		while ((slot = get(index = (index + 1) & mask)) != 0) {
+			long home = hashFunction(slot);
+			// the value may fill the gap only if its home slot is not in (gap, index]
+			if (((index - home) & mask) >= ((index - gap) & mask)) {
+				put(gap, slot);
+				gap = index;
+			}
+		}
+		put(gap, 0);
+	}
+
+	/**
+	 * Cursor over the values of the set.
+	 *
+	 * <pre>
+	 * OffHeapLongHashSet.Cursor cursor = set.cursor();
+	 * while (cursor.advance()) {
+	 *     consume(cursor.value());
+	 * }
+	 * </pre>
+	 */
+	public final class Cursor {
+
+		/**
+		 * Index of the current slot; the table capacity stands for the zero value.
+		 */
+		private long index = -1;
+		private long value;
+
+		private Cursor() {
+		}
+
+		/**
+		 * Moves the cursor to the next value.
+		 *
+		 * @return <tt>true</tt> if there is a next value, <tt>false</tt> if the cursor is exhausted
+		 * @throws IllegalStateException if the set is closed
+		 */
+		public boolean advance() {
+			ensureOpen();
+			long capacity = mask + 1;
+			while (++index < capacity) {
+				long slot = get(index);
+				if (slot != 0) {
+					value = slot;
+					return true;
+				}
+			}
+			if (index == capacity && containsZero) {
+				value = 0;
+				return true;
+			}
+			index = capacity + 1;
+			return false;
+		}
+
+		/**
+		 * Returns the value the cursor is positioned at.
+		 *
+		 * @return the current value
+		 * @throws NoSuchElementException if {@link #advance()} has not returned <tt>true</tt>
+		 */
+		public long value() {
+			if (index < 0 || index > mask + 1) {
+				throw new NoSuchElementException();
+			}
+			return value;
+		}
+	}
+}
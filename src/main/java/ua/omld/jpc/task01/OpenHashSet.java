@@ -0,0 +1,501 @@
+package ua.omld.jpc.task01;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * This class is an implementation of the <tt>Set</tt> interface backed by
+ * an open-addressing hash table. It is an alternative to {@link HashSet}
+ * with the same contract: it makes no guarantees as to the iteration order
+ * of the set and permits the <tt>null</tt> element.
+ *
+ * <p>Elements are stored directly in a flat array of power-of-two length and
+ * collisions are resolved by linear probing, so a lookup scans neighbouring
+ * slots instead of following links between entries. Removal uses backward-shift
+ * deletion, so the table never contains tombstones.
+ *
+ * <p><strong>This implementation is not tread-safe.</strong>
+ *
+ * <p>The iterators returned by this class's <tt>iterator</tt> method are
+ * <i>not fail-fast</i>.
+ *
+ * @author Oleksii Kostetskyi
+ */
+public class OpenHashSet<E> implements Set<E> {
+
+	private static final int MAX_CAPACITY = 1 << 30;
+	private static final int DEFAULT_CAPACITY = 1 << 4;
+	private static final float DEFAULT_LOAD_FACTOR = 0.5f;
+	/**
+	 * Stands for the <tt>null</tt> element in the table, where <tt>null</tt> means an empty slot.
+	 */
+	private static final Object NULL_ELEMENT = new Object();
+
+	private final float loadFactor;
+
+	private Object[] slots;
+	private int mask;
+	private int threshold;
+	private int size;
+
+	/**
+	 * Constructs a new, empty set; the table has default initial capacity (16)
+	 * and default load factor (0.5).
+	 */
+	public OpenHashSet() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a new, empty set; the table has given initial capacity
+	 * (rounded up to a power of two) and default load factor (0.5).
+	 *
+	 * @param initialCapacity the initial capacity of the table
+	 * @throws IllegalArgumentException if the initial capacity is less then 1 and greater then 2^30.
+	 */
+	public OpenHashSet(int initialCapacity) {
+		this(initialCapacity, DEFAULT_LOAD_FACTOR);
+	}
+
+	/**
+	 * Constructs a new, empty set; the table has given initial capacity
+	 * (rounded up to a power of two) and given load factor.
+	 *
+	 * @param initialCapacity the initial capacity of the table
+	 * @param loadFactor      the load factor of the table
+	 * @throws IllegalArgumentException if the initial capacity is less then 1 and greater then 2^30,
+	 *                                  or if the load factor is not between 0 and 1 (exclusive).
+	 */
+	public OpenHashSet(int initialCapacity, float loadFactor) {
+		if (initialCapacity < 1 || initialCapacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("Capacity is out of bounds: " + initialCapacity);
+		}
+		if (!(loadFactor > 0 && loadFactor < 1)) {
+			throw new IllegalArgumentException("Illegal load factor: " + loadFactor);
+		}
+		this.loadFactor = loadFactor;
+		allocate(Math.max(2, Hashing.tableSizeFor(initialCapacity, MAX_CAPACITY)));
+	}
+
+	/**
+	 * Constructs a new set containing the elements in the specified collection.
+	 * The table has default load factor (0.5) and capacity sufficient
+	 * to hold the elements of the collection.
+	 *
+	 * @param c the collection whose elements are to be placed into this set
+	 */
+	public OpenHashSet(Collection<E> c) {
+		this((int) Math.min(MAX_CAPACITY, Math.max(DEFAULT_CAPACITY, (long) (c.size() / DEFAULT_LOAD_FACTOR) + 1)));
+		addAll(c);
+	}
+
+	/**
+	 * Returns the number of elements in this set (its cardinality).
+	 *
+	 * @return the number of elements in this set (its cardinality)
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns <tt>true</tt> if this set contains no elements.
+	 *
+	 * @return <tt>true</tt> if this set contains no elements
+	 */
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns <tt>true</tt> if this set contains the specified element.
+	 *
+	 * @param o element whose presence in this set is to be tested
+	 * @return <tt>true</tt> if this set contains the specified element
+	 */
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(o) >= 0;
+	}
+
+	/**
+	 * Returns an iterator over the elements in this set.  The elements are
+	 * returned in no particular order.
+	 *
+	 * @return an iterator over the elements in this set
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return new OpenHashSetIterator();
+	}
+
+	/**
+	 * Returns an array containing all of the elements in this set.
+	 *
+	 * @return an array containing all the elements in this set
+	 */
+	@Override
+	public Object[] toArray() {
+		Object[] array = new Object[size];
+		int i = 0;
+		for (Object slot : slots) {
+			if (slot != null) {
+				array[i++] = unmask(slot);
+			}
+		}
+		return array;
+	}
+
+	/**
+	 * Returns an array containing all of the elements in this set; the
+	 * runtime type of the returned array is that of the specified array.
+	 *
+	 * @param a the array into which the elements of this set are to be
+	 *          stored, if it is big enough; otherwise, a new array of the same
+	 *          runtime type is allocated for this purpose.
+	 * @return an array containing all the elements in this set
+	 * @throws ArrayStoreException  if the runtime type of the specified array
+	 *                              is not a supertype of the runtime type of every element in this
+	 *                              set
+	 * @throws NullPointerException if the specified array is null
+	 */
+	@Override
+	public <T> T[] toArray(T[] a) {
+		T[] r = a.length >= size ? a :
+				(T[]) java.lang.reflect.Array
+						.newInstance(a.getClass().getComponentType(), size);
+
+		int i = 0;
+		for (Object slot : slots) {
+			if (slot != null) {
+				r[i++] = (T) unmask(slot);
+			}
+		}
+		while (i < r.length) {
+			r[i++] = null;
+		}
+		return r;
+	}
+
+	/**
+	 * Adds the specified element to this set if it is not already present.
+	 *
+	 * @param e element to be added to this set
+	 * @return <tt>true</tt> if this set did not already contain the specified
+	 * element
+	 */
+	@Override
+	public boolean add(E e) {
+		Object key = mask(e);
+		int index = hashFunction(key);
+		Object slot;
+		while ((slot = slots[index]) != null) {
+			if (slot == key || slot.equals(key)) {
+				return false;
+			}
+			index = (index + 1) & mask;
+		}
+		if (size == threshold && slots.length == MAX_CAPACITY) {
+			// the last free slot ends the probe sequences of absent elements
+			throw new IllegalStateException("Set is full");
+		}
+		slots[index] = key;
+		if (++size > threshold) {
+			resize();
+		}
+		return true;
+	}
+
+	/**
+	 * Removes the specified element from this set if it is present.
+	 *
+	 * @param o object to be removed from this set, if present
+	 * @return <tt>true</tt> if this set contained the specified element
+	 */
+	@Override
+	public boolean remove(Object o) {
+		int index = indexOf(o);
+		if (index < 0) {
+			return false;
+		}
+		shiftBack(index);
+		size--;
+		return true;
+	}
+
+	/**
+	 * Returns <tt>true</tt> if this set contains all of the elements of the
+	 * specified collection.
+	 *
+	 * @param c collection to be checked for containment in this set
+	 * @return <tt>true</tt> if this set contains all of the elements of the
+	 * specified collection
+	 * @throws NullPointerException if the specified collection is null
+	 */
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		for (Object o : c) {
+			if (!contains(o)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Adds all of the elements in the specified collection to this set if
+	 * they're not already present.
+	 *
+	 * @param c collection containing elements to be added to this set
+	 * @return <tt>true</tt> if this set changed as a result of the call
+	 * @throws NullPointerException if the specified collection is null
+	 */
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		boolean modified = false;
+		for (E e : c) {
+			modified |= add(e);
+		}
+		return modified;
+	}
+
+	/**
+	 * Retains only the elements in this set that are contained in the
+	 * specified collection.
+	 *
+	 * @param c collection containing elements to be retained in this set
+	 * @return <tt>true</tt> if this set changed as a result of the call
+	 * @throws NullPointerException if the specified collection is null
+	 */
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		boolean modified = false;
+		Iterator<E> it = iterator();
+		while (it.hasNext()) {
+			if (!c.contains(it.next())) {
+				it.remove();
+				modified = true;
+			}
+		}
+		return modified;
+	}
+
+	/**
+	 * Removes from this set all of its elements that are contained in the
+	 * specified collection.
+	 *
+	 * @param c collection containing elements to be removed from this set
+	 * @return <tt>true</tt> if this set changed as a result of the call
+	 * @throws NullPointerException if the specified collection is null
+	 */
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		boolean modified = false;
+		for (Object e : c) {
+			modified |= remove(e);
+		}
+		return modified;
+	}
+
+	/**
+	 * Removes all of the elements from this set.
+	 * The set will be empty after this call returns.
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(slots, null);
+		size = 0;
+	}
+
+	/**
+	 * Compares the specified object with this set for equality.  Returns
+	 * <tt>true</tt> if the specified object is also a set, the two sets
+	 * have the same size, and every member of the specified set is
+	 * contained in this set.
+	 *
+	 * @param o object to be compared for equality with this set
+	 * @return <tt>true</tt> if the specified object is equal to this set
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+		if (!(o instanceof Set)) {
+			return false;
+		}
+		Collection<?> c = (Collection<?>) o;
+		if (c.size() != size()) {
+			return false;
+		}
+		try {
+			return containsAll(c);
+		} catch (ClassCastException | NullPointerException unused) {
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the hash code value for this set.  The hash code of a set is
+	 * defined to be the sum of the hash codes of the elements in the set.
+	 *
+	 * @return the hash code value for this set
+	 */
+	@Override
+	public int hashCode() {
+		int h = 0;
+		for (Object slot : slots) {
+			if (slot != null && slot != NULL_ELEMENT) {
+				h += slot.hashCode();
+			}
+		}
+		return h;
+	}
+
+	private static Object mask(Object o) {
+		return o == null ? NULL_ELEMENT : o;
+	}
+
+	private static Object unmask(Object slot) {
+		return slot == NULL_ELEMENT ? null : slot;
+	}
+
+	private int hashFunction(Object key) {
+		return Hashing.mix(key.hashCode()) & mask;
+	}
+
+	private void allocate(int capacity) {
+		slots = new Object[capacity];
+		mask = capacity - 1;
+		threshold = capacity == MAX_CAPACITY ? MAX_CAPACITY - 1 : (int) (capacity * loadFactor);
+	}
+
+	/**
+	 * Returns the slot index of the specified element or <tt>-1</tt> if it is absent.
+	 */
+	private int indexOf(Object o) {
+		Object key = mask(o);
+		int index = hashFunction(key);
+		Object slot;
+		while ((slot = slots[index]) != null) {
+			if (slot == key || slot.equals(key)) {
+				return index;
+			}
+			index = (index + 1) & mask;
+		}
+		return -1;
+	}
+
+	private void resize() {
+		Object[] oldSlots = slots;
+		allocate(slots.length << 1);
+		for (Object slot : oldSlots) {
+			if (slot != null) {
+				int index = hashFunction(slot);
+				while (slots[index] != null) {
+					index = (index + 1) & mask;
+				}
+				slots[index] = slot;
+			}
+		}
+	}
+
+	/**
+	 * Empties the slot at the given index and moves back the following elements
+	 * of the probe sequence, so every element stays reachable from its home slot.
+	 *
+	 * @param gap    index of the slot to empty
+	 * @param moved  receives elements moved from the beginning of the table to its end,
+	 *               may be <tt>null</tt>
+	 */
+	private void shiftBack(int gap, List<Object> moved) {
+		int index = gap;
+		Object slot;
+		while ((slot = slots[index = (index + 1) & mask]) != null) {
+			int home = hashFunction(slot);
+			// the element may fill the gap only if its home slot is not in (gap, index]
+			if (((index - home) & mask) >= ((index - gap) & mask)) {
+				if (moved != null && index < gap) {
+					moved.add(slot);
+				}
+				slots[gap] = slot;
+				gap = index;
+			}
+		}
+		slots[gap] = null;
+	}
+
+	private void shiftBack(int gap) {
+		shiftBack(gap, null);
+	}
+
+	/**
+	 * Iterates the table from its end to its beginning. Backward shift moves elements
+	 * to lower indices, so removal through the iterator can only move already returned
+	 * elements, except the ones wrapped around from the beginning of the table to its end:
+	 * these are collected and returned after the table is scanned.
+	 */
+	private class OpenHashSetIterator implements Iterator<E> {
+
+		private int nextIndex;
+		private int currentIndex;
+		private Object current;
+		private List<Object> wrapped;
+		private int wrappedIndex;
+		private boolean canRemove;
+
+		OpenHashSetIterator() {
+			nextIndex = slots.length;
+			currentIndex = -1;
+			canRemove = false;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (nextIndex > 0 && slots[nextIndex - 1] == null) {
+				nextIndex--;
+			}
+			return nextIndex > 0 || (wrapped != null && wrappedIndex < wrapped.size());
+		}
+
+		@Override
+		public E next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			if (nextIndex > 0) {
+				currentIndex = --nextIndex;
+				current = slots[currentIndex];
+			} else {
+				currentIndex = -1;
+				current = wrapped.get(wrappedIndex++);
+			}
+			canRemove = true;
+			return (E) unmask(current);
+		}
+
+		@Override
+		public void remove() {
+			if (!canRemove) {
+				throw new IllegalStateException("First call next().");
+			}
+			if (currentIndex >= 0) {
+				if (wrapped == null) {
+					wrapped = new ArrayList<>();
+				}
+				shiftBack(currentIndex, wrapped);
+				size--;
+			} else {
+				OpenHashSet.this.remove(unmask(current));
+			}
+			canRemove = false;
+		}
+	}
+}
@@ -0,0 +1,685 @@
+package ua.omld.jpc.task01;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A <tt>Set</tt> on a hash array mapped trie (HAMT) with constant-time {@link #snapshot()}.
+ * This class permits the <tt>null</tt> element.
+ *
+ * <p>The trie consumes the (mixed) hash code of an element five bits per level: a node
+ * holds a 32-bit bitmap of its occupied branches and a compact array of just those
+ * branches, each an element or a child node. Elements with identical hash codes share
+ * a collision node. Lookups and updates take O(log<sub>32</sub> n) steps.
+ *
+ * <p>A snapshot shares the whole trie with the set, so it costs O(1) time and memory.
+ * After a snapshot the set copies the path from the root to a changed node instead of
+ * changing the shared nodes (path copying); the copies belong to the set, so the
+ * following updates change them in place until the next snapshot. Thus any number of
+ * versions share the unchanged parts of the trie, and a snapshot never changes.
+ *
+ * <p>Snapshots are read-only sets: their mutating methods throw
+ * <tt>UnsupportedOperationException</tt>. Readers of a snapshot need no locks, but
+ * the snapshot must be handed over to other threads safely, e.g. through a volatile
+ * field or a concurrent queue. A new writable set sharing the trie of a snapshot
+ * is made by {@link #PersistentHashSet(Collection)} in O(1).
+ *
+ * <p><strong>This implementation is not tread-safe.</strong> The set is meant
+ * for one writer; concurrent readers use snapshots.
+ *
+ * <p>The iterator walks the trie as it is when the iterator is created, and the first
+ * update after that copies the changed paths as if a snapshot had been taken. So the
+ * iterator never fails because of modifications, and iterating without updates costs
+ * no copies; its <tt>remove</tt> removes the element from the set.
+ *
+ * @author Oleksii Kostetskyi
+ */
+public class PersistentHashSet<E> implements Set<E> {
+
+	private static final int BITS = 5;
+	private static final int MASK = (1 << BITS) - 1;
+	private static final int MAX_DEPTH = (Integer.SIZE + BITS - 1) / BITS;
+
+	private BitmapNode root;
+	private boolean containsNull;
+	private int size;
+	private int hashSum;
+	/**
+	 * Owner token of the nodes this set may change in place; <tt>null</tt> for a snapshot.
+	 */
+	private Object edit;
+	/**
+	 * Whether an iterator may walk the nodes of the current token, so they must not change in place.
+	 */
+	private boolean iterated;
+	private final Change change = new Change();
+
+	/**
+	 * Constructs a new, empty set.
+	 */
+	public PersistentHashSet() {
+		edit = new Object();
+	}
+
+	/**
+	 * Constructs a new set containing the elements in the specified collection.
+	 * If the collection is a <tt>PersistentHashSet</tt>, the new set shares its
+	 * trie and takes O(1) time.
+	 *
+	 * @param c the collection whose elements are to be placed into this set
+	 */
+	public PersistentHashSet(Collection<? extends E> c) {
+		this();
+		if (c instanceof PersistentHashSet) {
+			PersistentHashSet<? extends E> other = ((PersistentHashSet<? extends E>) c).snapshot();
+			root = other.root;
+			containsNull = other.containsNull;
+			size = other.size;
+			hashSum = other.hashSum;
+		} else {
+			addAll(c);
+		}
+	}
+
+	private PersistentHashSet(BitmapNode root, boolean containsNull, int size, int hashSum) {
+		this.root = root;
+		this.containsNull = containsNull;
+		this.size = size;
+		this.hashSum = hashSum;
+	}
+
+	/**
+	 * Returns a read-only set of the current elements. Later changes of this set do
+	 * not affect the snapshot. Takes O(1) time and memory.
+	 *
+	 * @return immutable snapshot of this set
+	 */
+	public PersistentHashSet<E> snapshot() {
+		if (edit == null) {
+			return this;
+		}
+		// nodes of the current token become shared: from now on they are copied, not changed
+		edit = new Object();
+		return new PersistentHashSet<>(root, containsNull, size, hashSum);
+	}
+
+	/**
+	 * Returns <tt>true</tt> if this set is a read-only snapshot.
+	 *
+	 * @return <tt>true</tt> if this set is a snapshot
+	 */
+	public boolean isSnapshot() {
+		return edit == null;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		if (o == null) {
+			return containsNull;
+		}
+		int hash = hash(o);
+		Node node = root;
+		int shift = 0;
+		while (node instanceof BitmapNode) {
+			BitmapNode bitmapNode = (BitmapNode) node;
+			int bit = bitpos(hash, shift);
+			if ((bitmapNode.bitmap & bit) == 0) {
+				return false;
+			}
+			Object x = bitmapNode.array[bitmapNode.index(bit)];
+			if (!(x instanceof Node)) {
+				return o.equals(x);
+			}
+			node = (Node) x;
+			shift += BITS;
+		}
+		return node != null && ((CollisionNode) node).indexOf(hash, o) >= 0;
+	}
+
+	/**
+	 * Returns an iterator over the elements of this set as they are now. The elements
+	 * are returned in no particular order. Updates of the set do not affect the iterator.
+	 *
+	 * @return an iterator over the elements in this set
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		iterated = true;
+		return new TrieIterator(root, containsNull);
+	}
+
+	@Override
+	public Object[] toArray() {
+		Object[] array = new Object[size];
+		int i = 0;
+		// no update happens during the walk, so the nodes need not be detached
+		for (Iterator<E> iterator = new TrieIterator(root, containsNull); iterator.hasNext(); ) {
+			array[i++] = iterator.next();
+		}
+		return array;
+	}
+
+	@Override
+	public <T> T[] toArray(T[] a) {
+		T[] r = a.length >= size ? a :
+				(T[]) java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), size);
+		int i = 0;
+		for (Iterator<E> iterator = new TrieIterator(root, containsNull); iterator.hasNext(); ) {
+			r[i++] = (T) iterator.next();
+		}
+		while (i < r.length) {
+			r[i++] = null;
+		}
+		return r;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws UnsupportedOperationException if this set is a snapshot
+	 */
+	@Override
+	public boolean add(E e) {
+		checkWritable();
+		detachIterators();
+		if (e == null) {
+			if (containsNull) {
+				return false;
+			}
+			containsNull = true;
+			size++;
+			return true;
+		}
+		int hashCode = e.hashCode();
+		int hash = Hashing.mix(hashCode);
+		if (root == null) {
+			root = new BitmapNode(edit, bitpos(hash, 0), new Object[]{e});
+		} else {
+			change.changed = false;
+			root = (BitmapNode) root.add(edit, 0, hash, e, change);
+			if (!change.changed) {
+				return false;
+			}
+		}
+		size++;
+		hashSum += hashCode;
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws UnsupportedOperationException if this set is a snapshot
+	 */
+	@Override
+	public boolean remove(Object o) {
+		checkWritable();
+		detachIterators();
+		if (o == null) {
+			if (!containsNull) {
+				return false;
+			}
+			containsNull = false;
+			size--;
+			return true;
+		}
+		if (root == null) {
+			return false;
+		}
+		int hashCode = o.hashCode();
+		change.changed = false;
+		root = (BitmapNode) root.remove(edit, 0, Hashing.mix(hashCode), o, change);
+		if (!change.changed) {
+			return false;
+		}
+		size--;
+		hashSum -= hashCode;
+		return true;
+	}
+
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		for (Object o : c) {
+			if (!contains(o)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws UnsupportedOperationException if this set is a snapshot
+	 */
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		checkWritable();
+		boolean modified = false;
+		for (E e : c) {
+			modified |= add(e);
+		}
+		return modified;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws UnsupportedOperationException if this set is a snapshot
+	 */
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		checkWritable();
+		boolean modified = false;
+		for (E e : this) {
+			if (!c.contains(e)) {
+				modified |= remove(e);
+			}
+		}
+		return modified;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws UnsupportedOperationException if this set is a snapshot
+	 */
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		checkWritable();
+		boolean modified = false;
+		for (Object o : c) {
+			modified |= remove(o);
+		}
+		return modified;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws UnsupportedOperationException if this set is a snapshot
+	 */
+	@Override
+	public void clear() {
+		checkWritable();
+		root = null;
+		containsNull = false;
+		size = 0;
+		hashSum = 0;
+	}
+
+	/**
+	 * Compares the specified object with this set for equality. Returns <tt>true</tt>
+	 * if the specified object is also a set of the same size containing the same elements.
+	 *
+	 * @param o object to be compared for equality with this set
+	 * @return <tt>true</tt> if the specified object is equal to this set
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+		if (!(o instanceof Set)) {
+			return false;
+		}
+		Collection<?> c = (Collection<?>) o;
+		if (c.size() != size) {
+			return false;
+		}
+		if (o instanceof PersistentHashSet) {
+			PersistentHashSet<?> other = (PersistentHashSet<?>) o;
+			if (other.hashSum != hashSum) {
+				return false;
+			}
+			if (other.root == root) {
+				return other.containsNull == containsNull;
+			}
+		}
+		try {
+			return containsAll(c);
+		} catch (ClassCastException | NullPointerException unused) {
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the sum of the hash codes of the elements, maintained by the mutating operations.
+	 *
+	 * @return the hash code value for this set
+	 */
+	@Override
+	public int hashCode() {
+		return hashSum;
+	}
+
+	private void checkWritable() {
+		if (edit == null) {
+			throw new UnsupportedOperationException("Snapshot is read-only");
+		}
+	}
+
+	/**
+	 * Rotates the edit token if an iterator may walk the current nodes, so they are copied, not changed.
+	 */
+	private void detachIterators() {
+		if (iterated) {
+			iterated = false;
+			edit = new Object();
+		}
+	}
+
+	private static int hash(Object o) {
+		return Hashing.mix(o.hashCode());
+	}
+
+	private static int bitpos(int hash, int shift) {
+		return 1 << ((hash >>> shift) & MASK);
+	}
+
+	/**
+	 * Makes a node of two elements with different hash codes, or a collision node
+	 * if the hash codes are equal.
+	 */
+	private static Node pair(Object edit, int shift, Object e1, int hash1, Object e2, int hash2) {
+		if (hash1 == hash2) {
+			return new CollisionNode(edit, hash1, new Object[]{e1, e2});
+		}
+		int branch1 = (hash1 >>> shift) & MASK;
+		int branch2 = (hash2 >>> shift) & MASK;
+		if (branch1 == branch2) {
+			return new BitmapNode(edit, 1 << branch1, new Object[]{pair(edit, shift + BITS, e1, hash1, e2, hash2)});
+		}
+		return new BitmapNode(edit, 1 << branch1 | 1 << branch2,
+				branch1 < branch2 ? new Object[]{e1, e2} : new Object[]{e2, e1});
+	}
+
+	/**
+	 * Whether the last update changed the set.
+	 */
+	private static final class Change {
+		boolean changed;
+	}
+
+	private abstract static class Node {
+
+		/**
+		 * Owner token: the set with the same token may change this node in place.
+		 */
+		final Object edit;
+
+		Node(Object edit) {
+			this.edit = edit;
+		}
+
+		abstract Node add(Object edit, int shift, int hash, Object e, Change change);
+
+		/**
+		 * Returns the node without the element: this node if it was absent, <tt>null</tt> if the node got empty.
+		 */
+		abstract Node remove(Object edit, int shift, int hash, Object o, Change change);
+	}
+
+	private static final class BitmapNode extends Node {
+
+		int bitmap;
+		/**
+		 * Branches in the order of the bits of the bitmap: elements or child nodes.
+		 */
+		Object[] array;
+
+		BitmapNode(Object edit, int bitmap, Object[] array) {
+			super(edit);
+			this.bitmap = bitmap;
+			this.array = array;
+		}
+
+		int index(int bit) {
+			return Integer.bitCount(bitmap & (bit - 1));
+		}
+
+		@Override
+		Node add(Object edit, int shift, int hash, Object e, Change change) {
+			int bit = bitpos(hash, shift);
+			int index = index(bit);
+			if ((bitmap & bit) != 0) {
+				Object x = array[index];
+				if (x instanceof Node) {
+					Node child = (Node) x;
+					Node added = child.add(edit, shift + BITS, hash, e, change);
+					return added == child ? this : withBranch(edit, index, added);
+				}
+				if (e.equals(x)) {
+					return this;
+				}
+				change.changed = true;
+				return withBranch(edit, index, pair(edit, shift + BITS, x, hash(x), e, hash));
+			}
+			change.changed = true;
+			Object[] grown = new Object[array.length + 1];
+			System.arraycopy(array, 0, grown, 0, index);
+			grown[index] = e;
+			System.arraycopy(array, index, grown, index + 1, array.length - index);
+			if (this.edit == edit) {
+				array = grown;
+				bitmap |= bit;
+				return this;
+			}
+			return new BitmapNode(edit, bitmap | bit, grown);
+		}
+
+		@Override
+		Node remove(Object edit, int shift, int hash, Object o, Change change) {
+			int bit = bitpos(hash, shift);
+			if ((bitmap & bit) == 0) {
+				return this;
+			}
+			int index = index(bit);
+			Object x = array[index];
+			if (x instanceof Node) {
+				Node child = (Node) x;
+				Node removed = child.remove(edit, shift + BITS, hash, o, change);
+				if (removed == child) {
+					return this;
+				}
+				if (removed == null) {
+					return without(edit, bit, index);
+				}
+				// a child left with one element is replaced by the element
+				Object single = removed instanceof BitmapNode && ((BitmapNode) removed).array.length == 1
+						&& !(((BitmapNode) removed).array[0] instanceof Node) ? ((BitmapNode) removed).array[0] : removed;
+				return withBranch(edit, index, single);
+			}
+			if (!o.equals(x)) {
+				return this;
+			}
+			change.changed = true;
+			return without(edit, bit, index);
+		}
+
+		private BitmapNode withBranch(Object edit, int index, Object branch) {
+			if (this.edit == edit) {
+				array[index] = branch;
+				return this;
+			}
+			Object[] copy = array.clone();
+			copy[index] = branch;
+			return new BitmapNode(edit, bitmap, copy);
+		}
+
+		private BitmapNode without(Object edit, int bit, int index) {
+			if (bitmap == bit) {
+				return null;
+			}
+			Object[] shrunk = new Object[array.length - 1];
+			System.arraycopy(array, 0, shrunk, 0, index);
+			System.arraycopy(array, index + 1, shrunk, index, shrunk.length - index);
+			if (this.edit == edit) {
+				array = shrunk;
+				bitmap ^= bit;
+				return this;
+			}
+			return new BitmapNode(edit, bitmap ^ bit, shrunk);
+		}
+	}
+
+	/**
+	 * Elements with the same hash code.
+	 */
+	private static final class CollisionNode extends Node {
+
+		final int hash;
+		Object[] array;
+
+		CollisionNode(Object edit, int hash, Object[] array) {
+			super(edit);
+			this.hash = hash;
+			this.array = array;
+		}
+
+		int indexOf(int hash, Object o) {
+			if (hash == this.hash) {
+				for (int i = 0; i < array.length; i++) {
+					if (o.equals(array[i])) {
+						return i;
+					}
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		Node add(Object edit, int shift, int hash, Object e, Change change) {
+			if (hash != this.hash) {
+				// the new element goes beside this node in a new bitmap node
+				return new BitmapNode(edit, bitpos(this.hash, shift), new Object[]{this})
+						.add(edit, shift, hash, e, change);
+			}
+			if (indexOf(hash, e) >= 0) {
+				return this;
+			}
+			change.changed = true;
+			Object[] grown = new Object[array.length + 1];
+			System.arraycopy(array, 0, grown, 0, array.length);
+			grown[array.length] = e;
+			if (this.edit == edit) {
+				array = grown;
+				return this;
+			}
+			return new CollisionNode(edit, hash, grown);
+		}
+
+		@Override
+		Node remove(Object edit, int shift, int hash, Object o, Change change) {
+			int index = indexOf(hash, o);
+			if (index < 0) {
+				return this;
+			}
+			change.changed = true;
+			if (array.length == 2) {
+				// the parent replaces a node of one element by the element
+				return new BitmapNode(edit, bitpos(hash, shift), new Object[]{array[1 - index]});
+			}
+			Object[] shrunk = new Object[array.length - 1];
+			System.arraycopy(array, 0, shrunk, 0, index);
+			System.arraycopy(array, index + 1, shrunk, index, shrunk.length - index);
+			if (this.edit == edit) {
+				array = shrunk;
+				return this;
+			}
+			return new CollisionNode(edit, hash, shrunk);
+		}
+	}
+
+	/**
+	 * Depth-first walk over the arrays of the trie the set had when the walk started.
+	 */
+	private class TrieIterator implements Iterator<E> {
+
+		private final Object[][] arrays = new Object[MAX_DEPTH + 1][];
+		private final int[] positions = new int[MAX_DEPTH + 1];
+		private int depth;
+		private boolean nullPending;
+		private Object next;
+		private boolean hasNext;
+		private Object current;
+		private boolean canRemove;
+
+		TrieIterator(BitmapNode root, boolean containsNull) {
+			nullPending = containsNull;
+			depth = -1;
+			if (root != null) {
+				depth = 0;
+				arrays[0] = root.array;
+			}
+			advance();
+		}
+
+		private void advance() {
+			if (nullPending) {
+				nullPending = false;
+				next = null;
+				hasNext = true;
+				return;
+			}
+			while (depth >= 0) {
+				Object[] array = arrays[depth];
+				if (positions[depth] == array.length) {
+					depth--;
+					continue;
+				}
+				Object x = array[positions[depth]++];
+				if (x instanceof BitmapNode) {
+					arrays[++depth] = ((BitmapNode) x).array;
+					positions[depth] = 0;
+				} else if (x instanceof CollisionNode) {
+					arrays[++depth] = ((CollisionNode) x).array;
+					positions[depth] = 0;
+				} else {
+					next = x;
+					hasNext = true;
+					return;
+				}
+			}
+			hasNext = false;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return hasNext;
+		}
+
+		@Override
+		public E next() {
+			if (!hasNext) {
+				throw new NoSuchElementException();
+			}
+			current = next;
+			canRemove = true;
+			advance();
+			return (E) current;
+		}
+
+		@Override
+		public void remove() {
+			if (!canRemove) {
+				throw new IllegalStateException("First call next().");
+			}
+			PersistentHashSet.this.remove(current);
+			canRemove = false;
+		}
+	}
+}
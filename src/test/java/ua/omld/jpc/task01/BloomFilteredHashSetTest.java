@@ -0,0 +1,116 @@
+package ua.omld.jpc.task01;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the {@link SetContractTest} suite against {@link BloomFilteredHashSet}.
+ *
+ * @author Oleksii Kostetskyi
+ */
+@DisplayName("A BloomFilteredHashSet ")
+class BloomFilteredHashSetTest extends SetContractTest {
+
+	@Override
+	Set<Integer> newSet() {
+		return new BloomFilteredHashSet<>();
+	}
+
+	@Override
+	Set<Integer> newSet(int initialCapacity) {
+		return new BloomFilteredHashSet<>(initialCapacity);
+	}
+
+	@Override
+	Set<Integer> newSet(Collection<Integer> c) {
+		return new BloomFilteredHashSet<>(c);
+	}
+
+	@Override
+	Set<CollidingKey> newCollidingSet() {
+		return new BloomFilteredHashSet<>();
+	}
+
+	@Nested
+	@DisplayName("when filtering")
+	class WhenFiltering {
+
+		static final int COUNT = 100_000;
+
+		BloomFilteredHashSet<Integer> filtered;
+
+		@BeforeEach
+		void fillSet() {
+			filtered = new BloomFilteredHashSet<>(1, 0.75f, true);
+			for (int i = 0; i < COUNT; i++) {
+				filtered.add(i * 2);
+			}
+		}
+
+		@Test
+		void rejectsMostMisses() {
+			for (int i = 0; i < COUNT; i++) {
+				assertTrue(filtered.contains(i * 2), "Set must contain " + i * 2);
+				assertFalse(filtered.contains(i * 2 + 1), "Set must not contain " + (i * 2 + 1));
+			}
+			assertEquals(COUNT, filtered.getRejectedCount() + filtered.getFalsePositiveCount());
+			assertTrue(filtered.getFalsePositiveRate() < 0.05, "False positive rate " + filtered.getFalsePositiveRate());
+			filtered.resetCounters();
+			assertEquals(0, filtered.getRejectedCount());
+			assertEquals(0, filtered.getFalsePositiveRate());
+		}
+
+		@Test
+		void removedElementsAreNotFound() {
+			for (Iterator<Integer> iterator = filtered.iterator(); iterator.hasNext(); ) {
+				if (iterator.next() % 4 == 0) {
+					iterator.remove();
+				}
+			}
+			for (int i = 0; i < COUNT; i++) {
+				assertEquals(i % 2 != 0, filtered.contains(i * 2), "Wrong presence of " + i * 2);
+			}
+		}
+
+		@Test
+		void churnKeepsFalsePositiveRateLow() {
+			for (int i = 0; i < COUNT * 10; i++) {
+				filtered.remove(i * 2);
+				filtered.add((i + COUNT) * 2);
+			}
+			assertEquals(COUNT, filtered.size());
+			for (int i = 0; i < COUNT; i++) {
+				assertFalse(filtered.contains(i * 2 + 1));
+			}
+			assertTrue(filtered.getFalsePositiveRate() < 0.05, "False positive rate " + filtered.getFalsePositiveRate());
+		}
+
+		@Test
+		void clearEmptiesFilter() {
+			filtered.clear();
+			filtered.add(-2);
+			for (int i = 0; i < COUNT; i++) {
+				assertFalse(filtered.contains(i * 2));
+			}
+			assertTrue(filtered.contains(-2));
+			assertTrue(filtered.getFalsePositiveRate() < 0.01, "False positive rate " + filtered.getFalsePositiveRate());
+		}
+
+		@Test
+		void nullIsFiltered() {
+			assertFalse(filtered.contains(null));
+			filtered.add(null);
+			assertTrue(filtered.contains(null));
+		}
+	}
+}
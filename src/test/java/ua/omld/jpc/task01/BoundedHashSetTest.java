@@ -0,0 +1,231 @@
+package ua.omld.jpc.task01;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the {@link SetContractTest} suite against an unbounded {@link BoundedHashSet}.
+ *
+ * @author Oleksii Kostetskyi
+ */
+@DisplayName("A BoundedHashSet ")
+class BoundedHashSetTest extends SetContractTest {
+
+	@Override
+	Set<Integer> newSet() {
+		return new BoundedHashSet<>(Integer.MAX_VALUE);
+	}
+
+	@Override
+	Set<Integer> newSet(int initialCapacity) {
+		return new BoundedHashSet<>(Integer.MAX_VALUE);
+	}
+
+	@Override
+	Set<Integer> newSet(Collection<Integer> c) {
+		Set<Integer> set = new BoundedHashSet<>(Integer.MAX_VALUE);
+		set.addAll(c);
+		return set;
+	}
+
+	@Override
+	Set<CollidingKey> newCollidingSet() {
+		return new BoundedHashSet<>(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Time moved by hand.
+	 */
+	static final class ManualTicker implements BoundedHashSet.Ticker {
+
+		long nanos = -1_000_000;
+
+		@Override
+		public long read() {
+			return nanos;
+		}
+
+		void advance(long time, TimeUnit unit) {
+			nanos += unit.toNanos(time);
+		}
+	}
+
+	@Nested
+	@DisplayName("when bounded by size")
+	class WhenBoundedBySize {
+
+		@Test
+		void illegalMaximumSizeThrowsIllegalArgumentException() {
+			assertThrows(IllegalArgumentException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					new BoundedHashSet<Integer>(0);
+				}
+			});
+		}
+
+		@Test
+		void sizeNeverExceedsMaximum() {
+			BoundedHashSet<Integer> bounded = new BoundedHashSet<>(100);
+			for (int i = 0; i < 10_000; i++) {
+				assertTrue(bounded.add(i));
+				assertTrue(bounded.size() <= 100);
+			}
+			assertEquals(100, bounded.size());
+			assertEquals(9_900, bounded.getEvictionCount());
+			assertTrue(bounded.contains(9_999), "The youngest element must stay.");
+			bounded.resetCounters();
+			assertEquals(0, bounded.getEvictionCount());
+		}
+
+		@Test
+		void referencedElementsGetSecondChance() {
+			BoundedHashSet<Integer> bounded = new BoundedHashSet<>(4);
+			for (int i = 0; i < 4; i++) {
+				bounded.add(i);
+			}
+			bounded.add(4);
+			// the first pass clears all the bits and evicts the eldest
+			assertFalse(bounded.contains(0));
+			assertTrue(bounded.contains(1));
+			bounded.add(5);
+			assertTrue(bounded.contains(1), "Referenced element must be spared.");
+			assertFalse(bounded.contains(2));
+			// the hand passed 1 and moved it behind 5
+			List<Integer> elements = new ArrayList<>(bounded);
+			assertEquals(Arrays.asList(3, 4, 5, 1), elements);
+		}
+
+		@Test
+		void clearEmptiesRing() {
+			BoundedHashSet<Integer> bounded = new BoundedHashSet<>(2);
+			bounded.add(1);
+			bounded.add(2);
+			bounded.clear();
+			bounded.add(3);
+			bounded.add(4);
+			bounded.add(5);
+			assertEquals(2, bounded.size());
+			assertEquals(1, bounded.getEvictionCount());
+		}
+	}
+
+	@Nested
+	@DisplayName("when expiring")
+	class WhenExpiring {
+
+		ManualTicker ticker;
+		BoundedHashSet<Integer> expiring;
+
+		@BeforeEach
+		void createSet() {
+			ticker = new ManualTicker();
+			expiring = new BoundedHashSet<>(Integer.MAX_VALUE, 1, TimeUnit.SECONDS, ticker);
+		}
+
+		@Test
+		void elementExpiresAfterTimeToLive() {
+			expiring.add(1);
+			ticker.advance(999, TimeUnit.MILLISECONDS);
+			assertTrue(expiring.contains(1));
+			ticker.advance(1, TimeUnit.MILLISECONDS);
+			assertFalse(expiring.contains(1));
+			assertTrue(expiring.add(1), "Expired element must be added again.");
+			assertEquals(1, expiring.getExpirationCount());
+		}
+
+		@Test
+		void expiredElementIsNotRemoved() {
+			expiring.add(1);
+			ticker.advance(1, TimeUnit.SECONDS);
+			assertFalse(expiring.remove(1), "Expired element must not be reported as removed.");
+			assertEquals(0, expiring.size());
+			assertEquals(1, expiring.getExpirationCount());
+		}
+
+		@Test
+		void internRenewsTimeToLiveAndGetSkipsExpired() {
+			BoundedHashSet<String> strings = new BoundedHashSet<>(Integer.MAX_VALUE, 1, TimeUnit.SECONDS, ticker);
+			String canonical = new String("value");
+			assertSame(canonical, strings.intern(canonical));
+			ticker.advance(600, TimeUnit.MILLISECONDS);
+			assertSame(canonical, strings.intern(new String("value")));
+			ticker.advance(600, TimeUnit.MILLISECONDS);
+			assertSame(canonical, strings.get("value"));
+			ticker.advance(400, TimeUnit.MILLISECONDS);
+			assertNull(strings.get("value"));
+			String other = new String("value");
+			assertSame(other, strings.intern(other));
+			assertEquals(1, strings.getExpirationCount());
+		}
+
+		@Test
+		void addRenewsTimeToLive() {
+			expiring.add(1);
+			ticker.advance(600, TimeUnit.MILLISECONDS);
+			assertFalse(expiring.add(1));
+			ticker.advance(600, TimeUnit.MILLISECONDS);
+			assertTrue(expiring.contains(1));
+			ticker.advance(400, TimeUnit.MILLISECONDS);
+			assertFalse(expiring.contains(1));
+		}
+
+		@Test
+		void wheelRemovesExpiredElementsWithoutLookups() {
+			for (int i = 0; i < 1000; i++) {
+				expiring.add(i);
+				ticker.advance(1, TimeUnit.MILLISECONDS);
+			}
+			ticker.advance(500, TimeUnit.MILLISECONDS);
+			expiring.add(-1);
+			int size = expiring.size();
+			assertTrue(size >= 500 && size <= 520, "Wrong size after half of the elements expired: " + size);
+			ticker.advance(1, TimeUnit.HOURS);
+			expiring.add(-2);
+			assertEquals(1, expiring.size());
+			assertEquals(1001, expiring.getExpirationCount());
+		}
+
+		@Test
+		void hugeTimeToLiveKeepsTicksLong() {
+			BoundedHashSet<Integer> lasting = new BoundedHashSet<>(Integer.MAX_VALUE, Long.MAX_VALUE, TimeUnit.DAYS, ticker);
+			assertEquals(Long.MAX_VALUE / 64 + 1, lasting.tickNanos(), "Saturated time-to-live must not overflow.");
+			lasting.add(1);
+			ticker.advance(1000, TimeUnit.DAYS);
+			assertTrue(lasting.contains(1));
+			assertEquals(0, lasting.getExpirationCount());
+		}
+
+		@Test
+		void sizeAndTimeToLiveTogether() {
+			BoundedHashSet<Integer> bounded = new BoundedHashSet<>(10, 1, TimeUnit.SECONDS, ticker);
+			for (int i = 0; i < 100; i++) {
+				bounded.add(i);
+			}
+			assertEquals(10, bounded.size());
+			assertEquals(90, bounded.getEvictionCount());
+			ticker.advance(2, TimeUnit.SECONDS);
+			bounded.add(100);
+			assertEquals(1, bounded.size());
+			assertEquals(10, bounded.getExpirationCount());
+			assertEquals(Arrays.asList(100), new ArrayList<>(bounded));
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package ua.omld.jpc.task01;
+
+/**
+ * Key with the same hash code for all instances.
+ *
+ * @author Oleksii Kostetskyi
+ */
+class CollidingKey {
+
+	final int id;
+
+	CollidingKey(int id) {
+		this.id = id;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o != null && o.getClass() == getClass() && ((CollidingKey) o).id == id;
+	}
+
+	@Override
+	public int hashCode() {
+		return 42;
+	}
+}
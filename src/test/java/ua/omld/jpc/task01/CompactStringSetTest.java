@@ -0,0 +1,272 @@
+package ua.omld.jpc.task01;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Oleksii Kostetskyi
+ */
+@DisplayName("A CompactStringSet ")
+class CompactStringSetTest {
+
+	/**
+	 * Strings of one, two, three and four UTF-8 bytes per code point.
+	 */
+	static final String[] SAMPLES = {"", "plain", "Ünïcödé", "Київ", "日本語", "emoji 😀", "𐀀"};
+
+	CompactStringSet set;
+
+	static String value(int i) {
+		return "value-" + i + (i % 3 == 0 ? "-ї" : "");
+	}
+
+	static byte[] utf8(String s) {
+		return s.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Nested
+	@DisplayName(" when new")
+	class WhenNew {
+
+		@BeforeEach
+		void createSet() {
+			set = new CompactStringSet();
+		}
+
+		@Test
+		void setIsEmpty() {
+			assertTrue(set.isEmpty(), "New set must be empty.");
+			assertEquals(0, set.size(), "New Set size must be 0.");
+			assertEquals(0, set.arenaBytes(), "New set must have no bytes.");
+		}
+
+		@Test
+		void addEmptyStringTwiceReturnsFalse() {
+			assertTrue(set.add(""), "Empty string must be added.");
+			assertFalse(set.add(""), "Only one empty string can be added.");
+			assertTrue(set.contains(""));
+			assertTrue(set.contains(new byte[0], 0, 0));
+			assertEquals(1, set.size());
+		}
+
+		@Test
+		void cursorIsExhausted() {
+			final CompactStringSet.Cursor cursor = set.cursor();
+			assertFalse(cursor.advance(), "Empty Set does not have next value.");
+			assertThrows(NoSuchElementException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					cursor.value();
+				}
+			}, "Exhausted cursor has no value.");
+		}
+
+		@Test
+		void illegalLoadFactorThrowsIllegalArgumentException() {
+			assertThrows(IllegalArgumentException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					new CompactStringSet(16, 1f);
+				}
+			}, "Load factor must be less then 1.");
+		}
+
+		@Test
+		void unpairedSurrogateThrowsIllegalArgumentException() {
+			assertThrows(IllegalArgumentException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					set.add("broken \uD83D");
+				}
+			}, "Unpaired surrogate has no UTF-8 form.");
+			assertFalse(set.contains("\uDE00"));
+			assertTrue(set.isEmpty());
+		}
+
+		@Test
+		void malformedBytesAreRejected() {
+			final byte[][] malformed = {
+					{(byte) 0xC0, (byte) 0xAF}, // overlong '/'
+					{(byte) 0xED, (byte) 0xA0, (byte) 0x80}, // surrogate
+					{(byte) 0xF4, (byte) 0x90, (byte) 0x80, (byte) 0x80}, // over U+10FFFF
+					{'a', (byte) 0xE2, (byte) 0x82}, // truncated
+					{(byte) 0x80} // stray continuation
+			};
+			for (final byte[] bytes : malformed) {
+				assertFalse(set.contains(bytes, 0, bytes.length), "Malformed bytes must not be contained.");
+				assertThrows(IllegalArgumentException.class, new Executable() {
+					@Override
+					public void execute() throws Throwable {
+						set.add(bytes, 0, bytes.length);
+					}
+				}, "Malformed bytes must not be added.");
+			}
+			assertTrue(set.isEmpty());
+		}
+
+		@Test
+		void rangeOutOfArrayThrowsIndexOutOfBoundsException() {
+			assertThrows(IndexOutOfBoundsException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					set.contains(new byte[4], 2, 3);
+				}
+			});
+		}
+	}
+
+	@Nested
+	@DisplayName("when holding non-ASCII strings")
+	class WhenHoldingNonAscii {
+
+		@BeforeEach
+		void createSetAndAddSamples() {
+			set = new CompactStringSet();
+			for (String s : SAMPLES) {
+				assertTrue(set.add(s), "Must add " + s);
+			}
+		}
+
+		@Test
+		void containsSamplesByAnyKey() {
+			for (String s : SAMPLES) {
+				byte[] bytes = utf8(s);
+				byte[] padded = new byte[bytes.length + 2];
+				System.arraycopy(bytes, 0, padded, 1, bytes.length);
+				assertTrue(set.contains(s), "Set must contain " + s);
+				assertTrue(set.contains(new StringBuilder(s)), "Set must contain builder " + s);
+				assertTrue(set.contains(CharBuffer.wrap(s)), "Set must contain buffer " + s);
+				assertTrue(set.contains(padded, 1, bytes.length), "Set must contain bytes of " + s);
+				assertFalse(set.add(padded, 1, bytes.length), "Bytes of " + s + " must be a duplicate.");
+			}
+			assertEquals(SAMPLES.length, set.size());
+			assertFalse(set.contains("Kиїв"));
+			assertFalse(set.contains("日本"));
+			assertFalse(set.contains(utf8("emoji"), 0, 5));
+		}
+
+		@Test
+		void hashCodeIsOfSetOfStrings() {
+			Set<String> strings = new java.util.HashSet<>(Arrays.asList(SAMPLES));
+			assertEquals(strings.hashCode(), set.hashCode());
+			assertEquals(strings, new java.util.HashSet<>(Arrays.asList(set.toArray())));
+		}
+
+		@Test
+		void addedBytesAreDecoded() {
+			CompactStringSet other = new CompactStringSet();
+			for (String s : SAMPLES) {
+				byte[] bytes = utf8(s);
+				other.add(bytes, 0, bytes.length);
+			}
+			assertEquals(set, other);
+			assertEquals(set.hashCode(), other.hashCode());
+			String[] values = other.toArray();
+			String[] samples = SAMPLES.clone();
+			Arrays.sort(values);
+			Arrays.sort(samples);
+			assertArrayEquals(samples, values);
+		}
+	}
+
+	@Nested
+	@DisplayName("when adding many strings")
+	class WhenAddingMany {
+
+		static final int COUNT = 10_000;
+
+		@BeforeEach
+		void createSetAndAddStrings() {
+			set = new CompactStringSet(1);
+			for (int i = 0; i < COUNT; i++) {
+				set.add(value(i));
+			}
+		}
+
+		@Test
+		void containsAddedStrings() {
+			assertEquals(COUNT, set.size());
+			for (int i = 0; i < COUNT; i++) {
+				assertTrue(set.contains(value(i)), "Set must contain " + value(i));
+				assertFalse(set.contains(value(i) + "!"), "Set must not contain " + value(i) + "!");
+			}
+		}
+
+		@Test
+		void removeKeepsOtherStringsReachable() {
+			for (int i = 0; i < COUNT; i += 2) {
+				assertTrue(set.remove(value(i)));
+			}
+			assertEquals(COUNT / 2, set.size());
+			for (int i = 0; i < COUNT; i++) {
+				assertEquals(i % 2 != 0, set.contains(value(i)), "Wrong presence of " + value(i));
+			}
+		}
+
+		@Test
+		void removingMostStringsCompactsArenas() {
+			long bytes = set.arenaBytes();
+			for (int i = 0; i < COUNT; i++) {
+				if (i % 10 != 0) {
+					set.remove(new StringBuilder(value(i)));
+				}
+			}
+			assertTrue(set.arenaBytes() < bytes / 2, "Bytes of removed strings must be reclaimed.");
+			assertEquals(COUNT / 10, set.size());
+			for (int i = 0; i < COUNT; i += 10) {
+				byte[] encoded = utf8(value(i));
+				assertTrue(set.contains(encoded, 0, encoded.length), "Set must contain " + value(i));
+			}
+		}
+
+		@Test
+		void cursorReturnsEachStringOnce() {
+			Set<String> values = new java.util.HashSet<>();
+			CompactStringSet.Cursor cursor = set.cursor();
+			while (cursor.advance()) {
+				assertTrue(values.add(cursor.value()), "Cursor must return a string once.");
+			}
+			assertEquals(COUNT, values.size());
+			for (int i = 0; i < COUNT; i++) {
+				assertTrue(values.contains(value(i)));
+			}
+		}
+
+		@Test
+		void equalsToSetWithSameStrings() {
+			CompactStringSet other = new CompactStringSet();
+			String[] values = set.toArray();
+			for (String value : values) {
+				other.add(value);
+			}
+			assertEquals(set, other);
+			assertEquals(set.hashCode(), other.hashCode());
+			other.remove(values[0]);
+			assertFalse(set.equals(other));
+		}
+
+		@Test
+		void clearRemovesAllStrings() {
+			set.clear();
+			assertTrue(set.isEmpty());
+			assertFalse(set.contains(value(0)));
+			assertEquals(0, set.arenaBytes());
+			assertArrayEquals(new String[0], set.toArray());
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package ua.omld.jpc.task01;
+
+/**
+ * Colliding key ordered by its id, so tree buckets can search it.
+ *
+ * @author Oleksii Kostetskyi
+ */
+class ComparableCollidingKey extends CollidingKey implements Comparable<ComparableCollidingKey> {
+
+	ComparableCollidingKey(int id) {
+		super(id);
+	}
+
+	@Override
+	public int compareTo(ComparableCollidingKey other) {
+		return Integer.compare(id, other.id);
+	}
+}
@@ -0,0 +1,159 @@
+package ua.omld.jpc.task01;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the {@link SetContractTest} suite against {@link ConcurrentHashSet}
+ * and checks the set under contention.
+ *
+ * @author Oleksii Kostetskyi
+ */
+@DisplayName("A ConcurrentHashSet ")
+class ConcurrentHashSetTest extends SetContractTest {
+
+	static final int THREADS = 32;
+	static final int PER_THREAD = 20_000;
+
+	@Override
+	Set<Integer> newSet() {
+		return new ConcurrentHashSet<>();
+	}
+
+	@Override
+	Set<Integer> newSet(int initialCapacity) {
+		return new ConcurrentHashSet<>(initialCapacity);
+	}
+
+	@Override
+	Set<Integer> newSet(Collection<Integer> c) {
+		return new ConcurrentHashSet<>(c);
+	}
+
+	@Override
+	Set<CollidingKey> newCollidingSet() {
+		return new ConcurrentHashSet<>();
+	}
+
+	/**
+	 * Runs the tasks at once in separate threads and returns their results.
+	 */
+	static List<Integer> runConcurrently(List<Callable<Integer>> tasks) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+		try {
+			final CountDownLatch start = new CountDownLatch(1);
+			List<Future<Integer>> futures = new ArrayList<>();
+			for (final Callable<Integer> task : tasks) {
+				futures.add(executor.submit(new Callable<Integer>() {
+					@Override
+					public Integer call() throws Exception {
+						start.await();
+						return task.call();
+					}
+				}));
+			}
+			start.countDown();
+			List<Integer> results = new ArrayList<>();
+			for (Future<Integer> future : futures) {
+				results.add(future.get());
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Nested
+	@DisplayName("under contention")
+	class UnderContention {
+
+		@Test
+		void concurrentAddsAreNotLost() throws Exception {
+			final Set<Integer> concurrentSet = new ConcurrentHashSet<>(1);
+			List<Callable<Integer>> tasks = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				final int thread = t;
+				tasks.add(new Callable<Integer>() {
+					@Override
+					public Integer call() {
+						int added = 0;
+						for (int i = 0; i < PER_THREAD; i++) {
+							assertTrue(concurrentSet.add(thread * PER_THREAD + i));
+							// every thread competes for the shared keys
+							if (concurrentSet.add(-i - 1)) {
+								added++;
+							}
+						}
+						return added;
+					}
+				});
+			}
+			int sharedAdded = 0;
+			for (Integer added : runConcurrently(tasks)) {
+				sharedAdded += added;
+			}
+			assertEquals(PER_THREAD, sharedAdded, "Each shared key must be added exactly once.");
+			assertEquals((THREADS + 1) * PER_THREAD, concurrentSet.size());
+			for (int i = -PER_THREAD; i < THREADS * PER_THREAD; i++) {
+				assertTrue(concurrentSet.contains(i), "Set must contain " + i);
+			}
+		}
+
+		@Test
+		void concurrentRemovesAndReadsKeepSizeCorrect() throws Exception {
+			final Set<Integer> concurrentSet = new ConcurrentHashSet<>();
+			for (int i = 0; i < THREADS * PER_THREAD; i++) {
+				concurrentSet.add(i);
+			}
+			List<Callable<Integer>> tasks = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				final int thread = t;
+				tasks.add(new Callable<Integer>() {
+					@Override
+					public Integer call() {
+						if (thread % 4 == 0) {
+							// readers: elements which are never removed must always be seen
+							int seen = 0;
+							for (Integer element : concurrentSet) {
+								if (element % 2 != 0) {
+									seen++;
+								}
+							}
+							assertEquals(THREADS * PER_THREAD / 2, seen);
+							return 0;
+						}
+						int removed = 0;
+						for (int i = 0; i < THREADS * PER_THREAD; i += 2) {
+							if (concurrentSet.remove(i)) {
+								removed++;
+							}
+						}
+						return removed;
+					}
+				});
+			}
+			int removed = 0;
+			for (Integer count : runConcurrently(tasks)) {
+				removed += count;
+			}
+			assertEquals(THREADS * PER_THREAD / 2, removed, "Each even element must be removed exactly once.");
+			assertEquals(THREADS * PER_THREAD / 2, concurrentSet.size());
+			assertFalse(concurrentSet.contains(0));
+		}
+	}
+}
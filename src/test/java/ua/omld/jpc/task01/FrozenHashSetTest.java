@@ -0,0 +1,186 @@
+package ua.omld.jpc.task01;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Oleksii Kostetskyi
+ */
+@DisplayName("A FrozenHashSet ")
+class FrozenHashSetTest {
+
+	static final int COUNT = 100_000;
+
+	@Nested
+	@DisplayName("when frozen from a HashSet")
+	class WhenFrozen {
+
+		HashSet<Integer> source;
+		FrozenHashSet<Integer> set;
+
+		@BeforeEach
+		void freezeSet() {
+			source = new HashSet<>();
+			for (int i = 0; i < COUNT; i++) {
+				source.add(i * 31);
+			}
+			source.add(null);
+			set = source.freeze();
+		}
+
+		@Test
+		void containsAllElements() {
+			assertEquals(COUNT + 1, set.size());
+			for (int i = 0; i < COUNT; i++) {
+				assertTrue(set.contains(i * 31), "Set must contain " + i * 31);
+				assertFalse(set.contains(i * 31 + 1), "Set must not contain " + (i * 31 + 1));
+			}
+			assertTrue(set.contains(null));
+			assertFalse(set.contains("0"));
+		}
+
+		@Test
+		void equalsSource() {
+			assertEquals(source, set);
+			assertEquals(set, source);
+			assertEquals(source.hashCode(), set.hashCode());
+			assertEquals(new java.util.HashSet<>(source), set);
+		}
+
+		@Test
+		void iteratorReturnsEachElementOnce() {
+			Set<Integer> seen = new java.util.HashSet<>();
+			for (Integer element : set) {
+				assertTrue(seen.add(element), "Element returned twice: " + element);
+			}
+			assertEquals(source, seen);
+			assertEquals(COUNT + 1, set.toArray().length);
+			assertEquals(COUNT + 1, set.toArray(new Integer[0]).length);
+		}
+
+		@Test
+		void isNotAffectedBySource() {
+			source.add(-1);
+			source.remove(0);
+			assertFalse(set.contains(-1));
+			assertTrue(set.contains(0));
+		}
+
+		@Test
+		void mutationThrowsUnsupportedOperationException() {
+			assertThrows(UnsupportedOperationException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					set.add(1);
+				}
+			}, "Frozen set must not be modified.");
+			assertThrows(UnsupportedOperationException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					set.remove(0);
+				}
+			}, "Frozen set must not be modified.");
+			assertThrows(UnsupportedOperationException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					set.clear();
+				}
+			}, "Frozen set must not be modified.");
+			assertThrows(UnsupportedOperationException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					set.retainAll(Collections.emptySet());
+				}
+			}, "Frozen set must not be modified.");
+			final Iterator<Integer> iterator = set.iterator();
+			iterator.next();
+			assertThrows(UnsupportedOperationException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					iterator.remove();
+				}
+			}, "Frozen set must not be modified.");
+		}
+	}
+
+	@Nested
+	@DisplayName("when built from a collection")
+	class WhenBuilt {
+
+		@Test
+		void emptySetContainsNothing() {
+			final FrozenHashSet<Integer> set = new FrozenHashSet<>(Collections.<Integer>emptyList());
+			assertTrue(set.isEmpty());
+			assertFalse(set.contains(0));
+			assertFalse(set.contains(null));
+			assertThrows(NoSuchElementException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					set.iterator().next();
+				}
+			}, "Empty set does not have next element.");
+		}
+
+		@Test
+		void duplicatesAreDropped() {
+			FrozenHashSet<String> set = new FrozenHashSet<>(Arrays.asList("a", "b", "a", null, null, "Aa", "BB", "Aa"));
+			assertEquals(new java.util.HashSet<>(Arrays.asList("a", "b", null, "Aa", "BB")), set);
+			assertEquals(5, set.size());
+		}
+
+		@Test
+		void equalElementsOfIdentitySetAreDropped() {
+			HashSet<String> identity = new HashSet<>(HashingStrategy.IDENTITY);
+			identity.add(new String("a"));
+			identity.add(new String("a"));
+			identity.add("b");
+			FrozenHashSet<String> set = new FrozenHashSet<>(identity);
+			assertEquals(2, set.size());
+			assertEquals(new java.util.HashSet<>(Arrays.asList("a", "b")), set);
+			assertFalse(set.equals(identity), "Identity set holds three elements.");
+		}
+
+		@Test
+		void equalsToSetWithHashingStrategy() {
+			HashSet<String> identity = new HashSet<>(HashingStrategy.IDENTITY);
+			identity.add("a");
+			identity.add("b");
+			FrozenHashSet<String> set = new FrozenHashSet<>(Arrays.asList("a", "b"));
+			assertTrue(set.equals(identity), "Sets with equal elements are equal.");
+		}
+
+		@Test
+		void collidingElementsShareSlot() {
+			java.util.List<CollidingKey> keys = new java.util.ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				keys.add(new CollidingKey(i));
+			}
+			keys.add(new ComparableCollidingKey(0));
+			FrozenHashSet<CollidingKey> set = new FrozenHashSet<>(keys);
+			assertEquals(101, set.size());
+			for (CollidingKey key : keys) {
+				assertTrue(set.contains(key));
+			}
+			assertFalse(set.contains(new CollidingKey(100)));
+			int count = 0;
+			for (CollidingKey ignored : set) {
+				count++;
+			}
+			assertEquals(101, count);
+		}
+	}
+}
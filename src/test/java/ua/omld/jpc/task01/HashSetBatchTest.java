@@ -0,0 +1,130 @@
+package ua.omld.jpc.task01;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Oleksii Kostetskyi
+ */
+@DisplayName("A HashSet ")
+class HashSetBatchTest {
+
+	@Nested
+	@DisplayName("with batch operations")
+	class WithBatchOperations {
+
+		static final int COUNT = 10_000;
+
+		HashSet<Integer> batched;
+		Integer[] keys;
+
+		@BeforeEach
+		void createSet() {
+			batched = new HashSet<>(16, 0.75f, true);
+			keys = new Integer[COUNT];
+			for (int i = 0; i < COUNT; i++) {
+				keys[i] = i * 7;
+			}
+		}
+
+		@Test
+		void addAllAddsEachElementOnce() {
+			assertTrue(batched.addAll(keys));
+			assertFalse(batched.addAll(keys));
+			assertEquals(COUNT, batched.size());
+			for (Integer key : keys) {
+				assertTrue(batched.contains(key), "Set must contain " + key);
+			}
+			assertEquals(new java.util.HashSet<>(Arrays.asList(keys)).hashCode(), batched.hashCode());
+		}
+
+		@Test
+		void containsAllMarksPresentKeys() {
+			for (int i = 0; i < COUNT; i += 3) {
+				batched.add(keys[i]);
+			}
+			batched.add(null);
+			Object[] candidates = Arrays.copyOf(keys, COUNT + 2, Object[].class);
+			candidates[COUNT] = null;
+			candidates[COUNT + 1] = "not an integer";
+			BitSet result = new BitSet();
+			result.set(COUNT + 1);
+
+			assertFalse(batched.containsAll(candidates, result));
+			for (int i = 0; i < COUNT; i++) {
+				assertEquals(i % 3 == 0, result.get(i), "Wrong bit of " + keys[i]);
+			}
+			assertTrue(result.get(COUNT), "Null is in the set.");
+			assertFalse(result.get(COUNT + 1), "Bits of absent keys must be cleared.");
+		}
+
+		@Test
+		void containsAllOfPresentKeysReturnsTrue() {
+			batched.addAll(keys);
+			BitSet result = new BitSet();
+			assertTrue(batched.containsAll(keys, result));
+			assertEquals(COUNT, result.cardinality());
+			assertTrue(batched.containsAll(new Object[0], result));
+		}
+
+		@Test
+		void removeAllRemovesGivenKeys() {
+			batched.addAll(keys);
+			Object[] odd = new Object[COUNT / 2];
+			for (int i = 0; i < odd.length; i++) {
+				odd[i] = keys[i * 2 + 1];
+			}
+			assertTrue(batched.removeAll(odd));
+			assertFalse(batched.removeAll(odd));
+			assertEquals(COUNT / 2, batched.size());
+			for (int i = 0; i < COUNT; i++) {
+				assertEquals(i % 2 == 0, batched.contains(keys[i]), "Wrong presence of " + keys[i]);
+			}
+		}
+
+		@Test
+		void largeTableReadsBucketsAhead() {
+			batched = new HashSet<>(1 << 20);
+			batched.add(null);
+			assertTrue(batched.addAll(keys));
+			Object[] candidates = Arrays.copyOf(keys, COUNT * 2, Object[].class);
+			for (int i = COUNT; i < COUNT * 2; i++) {
+				candidates[i] = i * 7 + 1;
+			}
+			candidates[COUNT * 2 - 1] = null;
+			BitSet result = new BitSet();
+			assertFalse(batched.containsAll(candidates, result));
+			assertEquals(COUNT + 1, result.cardinality());
+			assertTrue(result.get(COUNT * 2 - 1));
+			assertTrue(batched.removeAll(keys));
+			assertEquals(1, batched.size());
+		}
+
+		@Test
+		void collidingElementsInTrees() {
+			HashSet<CollidingKey> colliding = new HashSet<>();
+			CollidingKey[] collidingKeys = new CollidingKey[100];
+			for (int i = 0; i < collidingKeys.length; i++) {
+				collidingKeys[i] = i % 2 == 0 ? new CollidingKey(i) : new ComparableCollidingKey(i);
+			}
+			assertTrue(colliding.addAll(collidingKeys));
+			BitSet result = new BitSet();
+			assertTrue(colliding.containsAll(collidingKeys, result));
+			assertTrue(colliding.removeAll(Arrays.copyOf(collidingKeys, 90, Object[].class)));
+			assertEquals(10, colliding.size());
+			assertFalse(colliding.containsAll(collidingKeys, result));
+			assertEquals(10, result.cardinality());
+			assertEquals(90, result.nextSetBit(0));
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package ua.omld.jpc.task01;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Oleksii Kostetskyi
+ */
+@DisplayName("A HashSet ")
+class HashSetEntryPoolTest {
+
+	@Nested
+	@DisplayName("with entry pool")
+	class WithEntryPool {
+
+		static final int COUNT = 10_000;
+
+		HashSet<Integer> pooled;
+
+		@BeforeEach
+		void createSet() {
+			pooled = new HashSet<>(16, 0.75f, true);
+			pooled.setEntryPoolCapacity(64);
+		}
+
+		@Test
+		void negativeCapacityThrowsIllegalArgumentException() {
+			assertThrows(IllegalArgumentException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					pooled.setEntryPoolCapacity(-1);
+				}
+			});
+		}
+
+		@Test
+		void churnKeepsElements() {
+			Set<Integer> expected = new java.util.HashSet<>();
+			for (int i = 0; i < COUNT; i++) {
+				assertEquals(expected.add(i % 1000), pooled.add(i % 1000));
+				if (i % 3 == 0) {
+					assertEquals(expected.remove(i % 997), pooled.remove(i % 997));
+				}
+			}
+			for (int i = 0; i < COUNT / 2; i++) {
+				assertEquals(expected.remove(i * 7 % 1000), pooled.remove(i * 7 % 1000));
+				assertEquals(expected.add(i * 11 % 1000), pooled.add(i * 11 % 1000));
+			}
+			assertEquals(expected, pooled);
+			assertEquals(expected.hashCode(), pooled.hashCode());
+		}
+
+		@Test
+		void reusedEntriesDoNotBringBackRemovedElements() {
+			for (int i = 0; i < 100; i++) {
+				pooled.add(i);
+			}
+			for (int i = 0; i < 100; i++) {
+				pooled.remove(i);
+			}
+			pooled.setEntryPoolCapacity(10);
+			for (int i = 100; i < 200; i++) {
+				pooled.add(i);
+			}
+			assertEquals(100, pooled.size());
+			for (int i = 0; i < 200; i++) {
+				assertEquals(i >= 100, pooled.contains(i), "Wrong presence of " + i);
+			}
+			int count = 0;
+			for (Integer element : pooled) {
+				assertTrue(element >= 100, "Removed element returned: " + element);
+				count++;
+			}
+			assertEquals(100, count);
+		}
+	}
+}
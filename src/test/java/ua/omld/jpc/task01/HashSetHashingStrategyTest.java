@@ -0,0 +1,158 @@
+package ua.omld.jpc.task01;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Oleksii Kostetskyi
+ */
+@DisplayName("A HashSet ")
+class HashSetHashingStrategyTest {
+
+	@Nested
+	@DisplayName("with hashing strategy")
+	class WithHashingStrategy {
+
+		final HashingStrategy<String> ignoringCase = new HashingStrategy<String>() {
+			@Override
+			public int hashCode(String element) {
+				return element.toLowerCase().hashCode();
+			}
+
+			@Override
+			public boolean equals(String element, String other) {
+				return element.equalsIgnoreCase(other);
+			}
+		};
+
+		@Test
+		void identityKeepsEqualDistinctObjects() {
+			String first = new String("key");
+			String second = new String("key");
+			HashSet<String> identity = new HashSet<>(HashingStrategy.IDENTITY);
+			assertTrue(identity.add(first));
+			assertTrue(identity.add(second));
+			assertFalse(identity.add(first));
+			assertFalse(identity.contains("key"));
+			assertTrue(identity.contains(second));
+			assertTrue(identity.remove(first));
+			assertFalse(identity.remove(first));
+			assertEquals(1, identity.size());
+			assertEquals(System.identityHashCode(second), identity.hashCode());
+		}
+
+		@Test
+		void customStrategyFindsEquivalentElements() {
+			HashSet<String> names = new HashSet<>(16, 0.75f, true, ignoringCase);
+			for (int i = 0; i < 1000; i++) {
+				assertTrue(names.add("Name" + i));
+			}
+			for (int i = 0; i < 1000; i++) {
+				assertFalse(names.add("NAME" + i), "Equivalent element must not be added.");
+				assertTrue(names.contains("name" + i));
+			}
+			assertEquals(1000, names.size());
+			assertTrue(names.remove("nAmE7"));
+			assertFalse(names.contains("Name7"));
+			assertEquals(999, names.size());
+		}
+
+		@Test
+		void arraysComparedByContents() {
+			HashSet<int[]> arrays = new HashSet<>(new HashingStrategy<int[]>() {
+				@Override
+				public int hashCode(int[] element) {
+					return Arrays.hashCode(element);
+				}
+
+				@Override
+				public boolean equals(int[] element, int[] other) {
+					return Arrays.equals(element, other);
+				}
+			});
+			assertTrue(arrays.add(new int[]{1, 2, 3}));
+			assertFalse(arrays.add(new int[]{1, 2, 3}));
+			assertTrue(arrays.contains(new int[]{1, 2, 3}));
+			assertFalse(arrays.contains(new int[]{3, 2, 1}));
+		}
+
+		@Test
+		void treeBucketsIgnoreCompareTo() {
+			HashSet<String> colliding = new HashSet<>(64, 0.75f, false, new HashingStrategy<String>() {
+				@Override
+				public int hashCode(String element) {
+					return 42;
+				}
+
+				@Override
+				public boolean equals(String element, String other) {
+					return element.equalsIgnoreCase(other);
+				}
+			});
+			for (int i = 0; i < 100; i++) {
+				assertTrue(colliding.add("key" + i));
+			}
+			for (int i = 0; i < 100; i++) {
+				assertTrue(colliding.contains("KEY" + i), "Set must contain key" + i);
+				assertFalse(colliding.add("Key" + i));
+			}
+			for (int i = 0; i < 95; i++) {
+				assertTrue(colliding.remove("KEY" + i));
+			}
+			assertEquals(5, colliding.size());
+			assertTrue(colliding.contains("kEy99"));
+		}
+
+		@Test
+		void nullIsNotPassedToStrategy() {
+			HashSet<String> names = new HashSet<>(ignoringCase);
+			assertTrue(names.add(null));
+			assertTrue(names.add("name"));
+			assertFalse(names.add(null));
+			assertTrue(names.contains(null));
+			assertTrue(names.remove(null));
+			assertFalse(names.contains(null));
+		}
+
+		@Test
+		void cachedHashesSkipEquals() {
+			final int[] equalsCalls = new int[1];
+			HashSet<Integer> counted = new HashSet<>(new HashingStrategy<Integer>() {
+				@Override
+				public int hashCode(Integer element) {
+					return element;
+				}
+
+				@Override
+				public boolean equals(Integer element, Integer other) {
+					equalsCalls[0]++;
+					return element.equals(other);
+				}
+			});
+			for (int i = 0; i < 10_000; i++) {
+				counted.add(i * 3);
+			}
+			for (int i = 0; i < 10_000; i++) {
+				assertFalse(counted.contains(i * 3 + 1));
+			}
+			assertEquals(0, equalsCalls[0], "Different hashes must not be compared by equals.");
+			assertTrue(counted.contains(300));
+			assertEquals(1, equalsCalls[0]);
+		}
+
+		@Test
+		void freezeThrowsUnsupportedOperationException() {
+			final HashSet<String> identity = new HashSet<>(HashingStrategy.IDENTITY);
+			assertThrows(UnsupportedOperationException.class, () -> identity.freeze());
+		}
+	}
+}
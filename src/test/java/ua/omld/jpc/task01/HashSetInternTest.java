@@ -0,0 +1,90 @@
+package ua.omld.jpc.task01;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Oleksii Kostetskyi
+ */
+@DisplayName("A HashSet ")
+class HashSetInternTest {
+
+	@Nested
+	@DisplayName("when interning")
+	class WhenInterning {
+
+		HashSet<String> strings;
+
+		@BeforeEach
+		void createSet() {
+			strings = new HashSet<>();
+		}
+
+		@Test
+		void internReturnsCanonicalInstance() {
+			String first = new String("value");
+			String second = new String("value");
+			assertSame(first, strings.intern(first));
+			assertSame(first, strings.intern(second));
+			assertSame(first, strings.intern(first));
+			assertEquals(1, strings.size());
+			assertEquals("value".hashCode(), strings.hashCode());
+		}
+
+		@Test
+		void getReturnsPresentElement() {
+			String first = new String("value");
+			strings.add(first);
+			assertSame(first, strings.get(new String("value")));
+			assertNull(strings.get("other"));
+			assertNull(strings.get(42));
+		}
+
+		@Test
+		void internAndGetNull() {
+			assertNull(strings.intern(null));
+			assertTrue(strings.contains(null));
+			assertNull(strings.get(null));
+			assertEquals(1, strings.size());
+		}
+
+		@Test
+		void internDeduplicatesManyElements() {
+			String[] canonical = new String[1000];
+			for (int round = 0; round < 5; round++) {
+				for (int i = 0; i < canonical.length; i++) {
+					String interned = strings.intern(String.valueOf(i));
+					if (round == 0) {
+						canonical[i] = interned;
+					} else {
+						assertSame(canonical[i], interned);
+					}
+				}
+			}
+			assertEquals(canonical.length, strings.size());
+		}
+
+		@Test
+		void internInTreeBuckets() {
+			HashSet<CollidingKey> keys = new HashSet<>();
+			CollidingKey[] canonical = new CollidingKey[64];
+			for (int i = 0; i < canonical.length; i++) {
+				canonical[i] = i % 2 == 0 ? new CollidingKey(i) : new ComparableCollidingKey(i);
+				assertSame(canonical[i], keys.intern(canonical[i]));
+			}
+			for (int i = 0; i < canonical.length; i++) {
+				CollidingKey copy = i % 2 == 0 ? new CollidingKey(i) : new ComparableCollidingKey(i);
+				assertSame(canonical[i], keys.intern(copy));
+				assertSame(canonical[i], keys.get(copy));
+			}
+			assertEquals(canonical.length, keys.size());
+		}
+	}
+}
@@ -0,0 +1,146 @@
+package ua.omld.jpc.task01;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Oleksii Kostetskyi
+ */
+@DisplayName("A HashSet ")
+class HashSetParallelLoadTest {
+
+	@Nested
+	@DisplayName("when loaded in parallel")
+	class WhenLoadedInParallel {
+
+		static final int COUNT = 200_000;
+
+		ForkJoinPool pool;
+
+		@BeforeEach
+		void createPool() {
+			pool = new ForkJoinPool(4);
+		}
+
+		@AfterEach
+		void shutdownPool() {
+			pool.shutdown();
+		}
+
+		@Test
+		void duplicatesAndNullAreAddedOnce() {
+			List<Integer> elements = new ArrayList<>();
+			for (int i = 0; i < COUNT; i++) {
+				elements.add(i % (COUNT * 3 / 4));
+			}
+			elements.add(null);
+			elements.add(null);
+			HashSet<Integer> loaded = new HashSet<>();
+			loaded.parallelLoad(elements, pool);
+
+			Set<Integer> expected = new java.util.HashSet<>(elements);
+			assertEquals(expected.size(), loaded.size());
+			assertEquals(expected.hashCode(), loaded.hashCode());
+			assertEquals(expected, loaded);
+			assertEquals(loaded, expected);
+			assertEquals(expected.size(), loaded.stream().count());
+		}
+
+		@Test
+		void loadedSetWorksAsUsual() {
+			List<Integer> elements = new ArrayList<>();
+			for (int i = 0; i < COUNT; i++) {
+				elements.add(i);
+			}
+			HashSet<Integer> loaded = new HashSet<>();
+			loaded.parallelLoad(elements, pool);
+			for (int i = 0; i < COUNT; i += 2) {
+				assertTrue(loaded.remove(i));
+			}
+			for (int i = COUNT; i < COUNT * 2; i++) {
+				assertTrue(loaded.add(i));
+			}
+			assertEquals(COUNT * 3 / 2, loaded.size());
+			for (int i = 0; i < COUNT * 2; i++) {
+				assertEquals(i >= COUNT || i % 2 != 0, loaded.contains(i), "Wrong presence of " + i);
+			}
+		}
+
+		@Test
+		void smallInputDuringIncrementalRehash() {
+			HashSet<Integer> loaded = new HashSet<>(16, 0.75f, true);
+			for (int i = 0; i < 13; i++) {
+				loaded.add(i);
+			}
+			for (int i = 0; i < 13; i++) {
+				loaded.remove(i);
+			}
+			loaded.parallelLoad(Arrays.asList(1, 2, 3, 2, 1), pool);
+			assertEquals(3, loaded.size());
+			for (int i = 4; i < 1000; i++) {
+				loaded.add(i);
+			}
+			assertEquals(999, loaded.size());
+			assertTrue(loaded.contains(1));
+		}
+
+		@Test
+		void collidingElementsGoToTrees() {
+			List<CollidingKey> keys = new ArrayList<>();
+			for (int i = 0; i < 400; i++) {
+				keys.add(i % 2 == 0 ? new CollidingKey(i % 300) : new ComparableCollidingKey(i % 300));
+			}
+			HashSet<CollidingKey> loaded = new HashSet<>();
+			loaded.parallelLoad(keys, pool);
+			assertEquals(new java.util.HashSet<>(keys), loaded);
+			for (int i = 0; i < 300; i++) {
+				assertTrue(loaded.remove(i % 2 == 0 ? new CollidingKey(i) : new ComparableCollidingKey(i)));
+			}
+			assertTrue(loaded.isEmpty());
+		}
+
+		@Test
+		void throwingElementLeavesSetEmpty() {
+			final List<Object> elements = new ArrayList<>();
+			for (int i = 0; i < COUNT; i++) {
+				elements.add(i);
+			}
+			elements.add(new Object() {
+				@Override
+				public int hashCode() {
+					throw new IllegalStateException();
+				}
+			});
+			final HashSet<Object> loaded = new HashSet<>();
+			assertThrows(IllegalStateException.class, () -> loaded.parallelLoad(elements, pool));
+			assertTrue(loaded.isEmpty());
+			assertFalse(loaded.contains(0));
+			assertTrue(loaded.add(0));
+		}
+
+		@Test
+		void copyConstructorOfLargeCollection() {
+			List<Integer> elements = new ArrayList<>();
+			for (int i = 0; i < COUNT; i++) {
+				elements.add(i / 2);
+			}
+			Set<Integer> copy = new HashSet<>(elements);
+			assertEquals(new java.util.HashSet<>(elements), copy);
+			assertEquals(COUNT / 2, copy.size());
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package ua.omld.jpc.task01;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Oleksii Kostetskyi
+ */
+@DisplayName("A HashSetSnapshot ")
+class HashSetSnapshotTest {
+
+	static final int COUNT = 10_000;
+
+	@TempDir
+	Path directory;
+
+	static HashSet<Long> longs() {
+		HashSet<Long> set = new HashSet<>();
+		for (long i = 0; i < COUNT; i++) {
+			set.add(i * 1_000_003);
+		}
+		return set;
+	}
+
+	static HashSet<String> strings() {
+		HashSet<String> set = new HashSet<>();
+		for (int i = 0; i < COUNT; i++) {
+			set.add("element-" + i + (i % 7 == 0 ? "-дія" : "") + (i % 11 == 0 ? "😀" : ""));
+		}
+		set.add("");
+		set.add(null);
+		return set;
+	}
+
+	@Nested
+	@DisplayName("in a file")
+	class InFile {
+
+		@Test
+		void readsFixedSizeElements() throws IOException {
+			HashSet<Long> set = longs();
+			Path file = directory.resolve("longs.snapshot");
+			HashSetSnapshot.write(set, ElementCodecs.LONG, file);
+			assertEquals(24 + COUNT * 8, Files.size(file));
+
+			HashSet<Long> read = HashSetSnapshot.read(file, ElementCodecs.LONG);
+			assertEquals(set, read);
+			assertEquals(set.hashCode(), read.hashCode());
+		}
+
+		@Test
+		void readsElementsAcrossMappedRegions() throws IOException {
+			HashSet<String> set = strings();
+			Path file = directory.resolve("strings.snapshot");
+			HashSetSnapshot.write(set, ElementCodecs.STRING, file);
+
+			assertEquals(set, HashSetSnapshot.read(file, ElementCodecs.STRING, 1000));
+			assertEquals(set, HashSetSnapshot.read(file, ElementCodecs.STRING));
+		}
+
+		@Test
+		void readSetIsModifiable() throws IOException {
+			Path file = directory.resolve("longs.snapshot");
+			HashSetSnapshot.write(longs(), ElementCodecs.LONG, file);
+			HashSet<Long> read = HashSetSnapshot.read(file, ElementCodecs.LONG);
+			for (long i = 0; i < COUNT; i++) {
+				assertTrue(read.add(-i - 1));
+			}
+			assertEquals(COUNT * 2, read.size());
+		}
+	}
+
+	@Nested
+	@DisplayName("in a stream")
+	class InStream {
+
+		@Test
+		void readsVariableSizeElementsAndNull() throws IOException {
+			HashSet<String> set = strings();
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			HashSetSnapshot.write(set, ElementCodecs.STRING, Channels.newChannel(out));
+
+			HashSet<String> read = HashSetSnapshot.read(
+					Channels.newChannel(new ByteArrayInputStream(out.toByteArray())), ElementCodecs.STRING);
+			assertEquals(set, read);
+			assertTrue(read.contains(null));
+		}
+
+		@Test
+		void readsFromBuffer() throws IOException {
+			HashSet<Integer> set = new HashSet<>(Arrays.asList(1, 2, 3, -4));
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			HashSetSnapshot.write(set, ElementCodecs.INTEGER, Channels.newChannel(out));
+
+			assertEquals(set, HashSetSnapshot.read(ByteBuffer.wrap(out.toByteArray()), ElementCodecs.INTEGER));
+		}
+
+		@Test
+		void truncatedSnapshotThrowsEOFException() throws IOException {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			HashSetSnapshot.write(longs(), ElementCodecs.LONG, Channels.newChannel(out));
+			final byte[] truncated = Arrays.copyOf(out.toByteArray(), out.size() - 1);
+			assertThrows(EOFException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					HashSetSnapshot.read(Channels.newChannel(new ByteArrayInputStream(truncated)), ElementCodecs.LONG);
+				}
+			}, "Snapshot is truncated.");
+		}
+
+		@Test
+		void wrongCodecThrowsIOException() throws IOException {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			HashSetSnapshot.write(longs(), ElementCodecs.LONG, Channels.newChannel(out));
+			final byte[] bytes = out.toByteArray();
+			assertThrows(IOException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					HashSetSnapshot.read(ByteBuffer.wrap(bytes), ElementCodecs.INTEGER);
+				}
+			}, "Element size does not match.");
+		}
+
+		@Test
+		void notSnapshotThrowsIOException() {
+			assertThrows(IOException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					HashSetSnapshot.read(ByteBuffer.wrap(new byte[64]), ElementCodecs.LONG);
+				}
+			}, "Magic number does not match.");
+		}
+	}
+}
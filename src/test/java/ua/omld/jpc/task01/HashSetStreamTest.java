@@ -0,0 +1,146 @@
+package ua.omld.jpc.task01;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Oleksii Kostetskyi
+ */
+@DisplayName("A HashSet ")
+class HashSetStreamTest {
+
+	HashSet<Integer> set;
+
+	@Nested
+	@DisplayName("when streaming")
+	class WhenStreaming {
+
+		static final int COUNT = 100_000;
+
+		@BeforeEach
+		void fillSet() {
+			set = new HashSet<>();
+			for (int i = 0; i < COUNT; i++) {
+				set.add(i);
+			}
+		}
+
+		@Test
+		void spliteratorIsSizedAndDistinct() {
+			Spliterator<Integer> spliterator = set.spliterator();
+			assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.DISTINCT));
+			assertEquals(COUNT, spliterator.getExactSizeIfKnown());
+		}
+
+		@Test
+		void splitPartsCoverEachElementOnce() {
+			List<Spliterator<Integer>> parts = new ArrayList<>();
+			parts.add(set.spliterator());
+			for (int round = 0; round < 6; round++) {
+				List<Spliterator<Integer>> split = new ArrayList<>();
+				for (Spliterator<Integer> part : parts) {
+					Spliterator<Integer> prefix = part.trySplit();
+					if (prefix != null) {
+						split.add(prefix);
+					}
+					split.add(part);
+				}
+				parts = split;
+			}
+			final boolean[] visited = new boolean[COUNT];
+			Consumer<Integer> visit = new Consumer<Integer>() {
+				@Override
+				public void accept(Integer element) {
+					assertFalse(visited[element], "Element visited twice: " + element);
+					visited[element] = true;
+				}
+			};
+			for (Spliterator<Integer> part : parts) {
+				part.tryAdvance(visit);
+				part.forEachRemaining(visit);
+				assertFalse(part.tryAdvance(visit));
+			}
+			for (int i = 0; i < COUNT; i++) {
+				assertTrue(visited[i], "Element not visited: " + i);
+			}
+		}
+
+		@Test
+		void parallelStreamCountsAllElements() {
+			assertEquals(COUNT / 2, set.parallelStream().filter(i -> i % 2 == 0).count());
+			assertEquals((long) COUNT * (COUNT - 1) / 2, set.parallelStream().mapToLong(Integer::longValue).sum());
+			assertEquals(COUNT, set.stream().count());
+		}
+
+		@Test
+		void forEachVisitsEachElementOnce() {
+			final boolean[] visited = new boolean[COUNT];
+			set.forEach(element -> {
+				assertFalse(visited[element], "Element visited twice: " + element);
+				visited[element] = true;
+			});
+			for (int i = 0; i < COUNT; i++) {
+				assertTrue(visited[i], "Element not visited: " + i);
+			}
+		}
+
+		@Test
+		void removeIfRemovesMatchingElements() {
+			assertTrue(set.removeIf(i -> i % 3 != 0));
+			assertFalse(set.removeIf(i -> i % 3 != 0));
+			assertEquals((COUNT + 2) / 3, set.size());
+			for (int i = 0; i < COUNT; i++) {
+				assertEquals(i % 3 == 0, set.contains(i), "Wrong presence of " + i);
+			}
+			Set<Integer> expected = new java.util.HashSet<>(set);
+			assertEquals(expected.hashCode(), set.hashCode());
+		}
+
+		@Test
+		void removeIfDuringIncrementalRehash() {
+			set = new HashSet<>(16, 0.75f, true);
+			for (int i = 0; i < 13; i++) {
+				set.add(i);
+			}
+			assertTrue(set.removeIf(i -> i % 2 == 0));
+			assertEquals(6, set.size());
+			for (int i = 0; i < 13; i++) {
+				assertEquals(i % 2 != 0, set.contains(i));
+			}
+			assertEquals(6, set.stream().count());
+		}
+
+		@Test
+		void collidingElementsInTrees() {
+			Set<CollidingKey> keys = new HashSet<>();
+			for (int i = 0; i < 200; i++) {
+				keys.add(i % 2 == 0 ? new CollidingKey(i) : new ComparableCollidingKey(i));
+			}
+			assertEquals(200, keys.parallelStream().count());
+			final int[] visits = new int[1];
+			keys.forEach(key -> visits[0]++);
+			assertEquals(200, visits[0]);
+			assertTrue(keys.removeIf(key -> key.id % 4 != 0));
+			assertEquals(50, keys.size());
+			for (int i = 0; i < 200; i++) {
+				CollidingKey key = i % 2 == 0 ? new CollidingKey(i) : new ComparableCollidingKey(i);
+				assertEquals(i % 4 == 0, keys.contains(key), "Wrong presence of " + i);
+			}
+			assertTrue(keys.removeIf(key -> key.id % 8 != 0));
+			assertEquals(25, keys.size());
+			assertEquals(25, keys.stream().count());
+		}
+	}
+}
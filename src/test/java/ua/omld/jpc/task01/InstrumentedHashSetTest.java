@@ -0,0 +1,179 @@
+package ua.omld.jpc.task01;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the {@link SetContractTest} suite against {@link InstrumentedHashSet} and checks its statistics.
+ *
+ * @author Oleksii Kostetskyi
+ */
+@DisplayName("An InstrumentedHashSet ")
+class InstrumentedHashSetTest extends SetContractTest {
+
+	@Override
+	Set<Integer> newSet() {
+		return new InstrumentedHashSet<>();
+	}
+
+	@Override
+	Set<Integer> newSet(int initialCapacity) {
+		return new InstrumentedHashSet<>(initialCapacity);
+	}
+
+	@Override
+	Set<Integer> newSet(Collection<Integer> c) {
+		return new InstrumentedHashSet<>(c);
+	}
+
+	@Override
+	Set<CollidingKey> newCollidingSet() {
+		return new InstrumentedHashSet<>();
+	}
+
+	@Nested
+	@DisplayName("when instrumented")
+	class WhenInstrumented {
+
+		static final int COUNT = 1000;
+
+		InstrumentedHashSet<Integer> instrumented;
+
+		@BeforeEach
+		void createSet() {
+			instrumented = new InstrumentedHashSet<>(16, 0.75f, true);
+			for (int i = 0; i < COUNT; i++) {
+				instrumented.add(i);
+			}
+		}
+
+		@Test
+		void newSetHasOnlyEmptyBuckets() {
+			HashSetStatistics statistics = new InstrumentedHashSet<Integer>().statistics();
+			assertEquals(0, statistics.getSize());
+			assertEquals(16, statistics.getCapacity());
+			assertEquals(1.0, statistics.getEmptyBucketRatio());
+			assertEquals(0, statistics.getMaxBucketSize());
+			assertEquals(0, statistics.getResizeCount());
+		}
+
+		@Test
+		void countsContainsHitsAndMisses() {
+			for (int i = 0; i < COUNT * 2; i++) {
+				instrumented.contains(i);
+			}
+			HashSetStatistics statistics = instrumented.statistics();
+			assertEquals(COUNT, statistics.getContainsHits());
+			assertEquals(COUNT, statistics.getContainsMisses());
+			assertEquals(0.5, statistics.getContainsHitRatio());
+			instrumented.resetCounters();
+			assertEquals(0, instrumented.statistics().getContainsHits());
+		}
+
+		@Test
+		void bulkLookupsAreNotCounted() {
+			java.util.HashSet<Integer> copy = new java.util.HashSet<>(instrumented);
+			assertTrue(instrumented.containsAll(copy));
+			assertTrue(instrumented.equals(copy));
+			assertTrue(instrumented.containsAll(copy.toArray(), new BitSet()));
+			HashSetStatistics statistics = instrumented.statistics();
+			assertEquals(0, statistics.getContainsHits());
+			assertEquals(0, statistics.getContainsMisses());
+		}
+
+		@Test
+		void countsResizesAndRehashSteps() {
+			HashSetStatistics statistics = instrumented.statistics();
+			assertEquals(7, statistics.getResizeCount(), "16 buckets must be doubled 7 times to hold 1000 elements.");
+			assertTrue(statistics.getRehashStepCount() > 0, "Incremental rehash must make steps.");
+		}
+
+		@Test
+		void histogramCountsEveryBucketAndElement() {
+			HashSetStatistics statistics = instrumented.statistics();
+			long[] histogram = statistics.getBucketSizeHistogram();
+			assertEquals(HashSetStatistics.HISTOGRAM_SIZE, histogram.length);
+			long buckets = 0;
+			long elements = 0;
+			for (int i = 0; i < histogram.length; i++) {
+				buckets += histogram[i];
+				elements += i * histogram[i];
+			}
+			assertTrue(buckets >= statistics.getCapacity(), "Every bucket must be counted.");
+			assertEquals(COUNT, elements);
+			assertEquals(COUNT, statistics.getSize());
+			assertEquals((double) histogram[0] / buckets, statistics.getEmptyBucketRatio());
+		}
+
+		@Test
+		void collidingElementsMakeTreeBucket() {
+			InstrumentedHashSet<CollidingKey> keys = new InstrumentedHashSet<>(64);
+			for (int i = 0; i < 20; i++) {
+				keys.add(new CollidingKey(i));
+			}
+			HashSetStatistics statistics = keys.statistics();
+			assertEquals(1, statistics.getTreeBuckets());
+			assertEquals(20, statistics.getMaxBucketSize());
+			assertEquals(1, statistics.getBucketSizeHistogram()[HashSetStatistics.HISTOGRAM_SIZE - 1]);
+		}
+
+		@Test
+		void scanDuringResizesDoesNotThrow() throws InterruptedException {
+			final InstrumentedHashSet<Integer> growing = new InstrumentedHashSet<>(1, 0.75f, true);
+			final AtomicBoolean done = new AtomicBoolean();
+			final AtomicReference<Throwable> failure = new AtomicReference<>();
+			Thread reader = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						while (!done.get()) {
+							growing.statistics();
+						}
+					} catch (Throwable e) {
+						failure.set(e);
+					}
+				}
+			});
+			reader.start();
+			for (int i = 0; i < COUNT * 200; i++) {
+				growing.add(i);
+			}
+			done.set(true);
+			reader.join();
+			assertNull(failure.get(), "Scan must not fail while the set grows.");
+		}
+
+		@Test
+		void mbeanIsRegistered() throws Exception {
+			ObjectName name = instrumented.registerMBean("test");
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			try {
+				instrumented.contains(0);
+				assertEquals(COUNT, server.getAttribute(name, "Size"));
+				assertEquals(instrumented.statistics().getCapacity(), server.getAttribute(name, "Capacity"));
+				assertEquals(instrumented.statistics().getMaxBucketSize(), server.getAttribute(name, "MaxBucketSize"));
+				assertEquals(1L, server.getAttribute(name, "ContainsHits"));
+				server.invoke(name, "resetCounters", new Object[0], new String[0]);
+				assertEquals(0L, instrumented.statistics().getContainsHits());
+			} finally {
+				server.unregisterMBean(name);
+			}
+		}
+	}
+}
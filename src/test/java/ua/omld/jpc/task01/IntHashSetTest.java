@@ -0,0 +1,154 @@
+package ua.omld.jpc.task01;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Oleksii Kostetskyi
+ */
+@DisplayName("An IntHashSet ")
+class IntHashSetTest {
+
+	IntHashSet set;
+
+	@Nested
+	@DisplayName(" when new")
+	class WhenNew {
+
+		@BeforeEach
+		void createSet() {
+			set = new IntHashSet();
+		}
+
+		@Test
+		void setIsEmpty() {
+			assertTrue(set.isEmpty(), "New set must be empty.");
+			assertEquals(0, set.size(), "New Set size must be 0.");
+		}
+
+		@Test
+		void addZeroTwiceReturnsFalse() {
+			assertTrue(set.add(0), "Zero must be added.");
+			assertFalse(set.add(0), "Only one zero can be added.");
+			assertTrue(set.contains(0));
+			assertEquals(1, set.size());
+		}
+
+		@Test
+		void cursorIsExhausted() {
+			final IntHashSet.Cursor cursor = set.cursor();
+			assertFalse(cursor.advance(), "Empty Set does not have next value.");
+			assertThrows(NoSuchElementException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					cursor.value();
+				}
+			}, "Exhausted cursor has no value.");
+		}
+
+		@Test
+		void illegalLoadFactorThrowsIllegalArgumentException() {
+			assertThrows(IllegalArgumentException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					new IntHashSet(16, 1f);
+				}
+			}, "Load factor must be less then 1.");
+		}
+	}
+
+	@Nested
+	@DisplayName("when adding many values")
+	class WhenAddingMany {
+
+		static final int COUNT = 10_000;
+
+		@BeforeEach
+		void createSetAndAddValues() {
+			set = new IntHashSet(1);
+			for (int i = -COUNT / 2; i < COUNT / 2; i++) {
+				set.add(i * 7);
+			}
+		}
+
+		@Test
+		void containsAddedValues() {
+			assertEquals(COUNT, set.size());
+			for (int i = -COUNT / 2; i < COUNT / 2; i++) {
+				assertTrue(set.contains(i * 7), "Set must contain " + i * 7);
+				assertFalse(set.contains(i * 7 + 1), "Set must not contain " + (i * 7 + 1));
+			}
+		}
+
+		@Test
+		void removeKeepsOtherValuesReachable() {
+			for (int i = -COUNT / 2; i < COUNT / 2; i += 2) {
+				assertTrue(set.remove(i * 7));
+			}
+			assertEquals(COUNT / 2, set.size());
+			for (int i = -COUNT / 2; i < COUNT / 2; i++) {
+				assertEquals(i % 2 != 0, set.contains(i * 7), "Wrong presence of " + i * 7);
+			}
+		}
+
+		@Test
+		void cursorReturnsEachValueOnce() {
+			int[] values = new int[COUNT];
+			int n = 0;
+			IntHashSet.Cursor cursor = set.cursor();
+			while (cursor.advance()) {
+				values[n++] = cursor.value();
+			}
+			assertEquals(COUNT, n);
+			Arrays.sort(values);
+			for (int i = 0; i < COUNT; i++) {
+				assertEquals((i - COUNT / 2) * 7, values[i]);
+			}
+		}
+
+		@Test
+		void addAllAddsOnlyNewValues() {
+			assertTrue(set.addAll(new int[]{7, 1, 2, 1}));
+			assertFalse(set.addAll(new int[]{7, 1, 2}));
+			assertEquals(COUNT + 2, set.size());
+		}
+
+		@Test
+		void addAllOfPresentValuesDoesNotGrowTable() {
+			int capacity = set.capacity();
+			assertFalse(set.addAll(set.toArray()));
+			assertEquals(capacity, set.capacity());
+		}
+
+		@Test
+		void equalsToSetWithSameValues() {
+			IntHashSet other = new IntHashSet();
+			int[] values = set.toArray();
+			other.addAll(values);
+			assertEquals(set, other);
+			assertEquals(set.hashCode(), other.hashCode());
+			other.remove(values[0]);
+			assertFalse(set.equals(other));
+		}
+
+		@Test
+		void clearRemovesAllValues() {
+			set.clear();
+			assertTrue(set.isEmpty());
+			assertFalse(set.contains(0));
+			assertArrayEquals(new int[0], set.toArray());
+		}
+	}
+}
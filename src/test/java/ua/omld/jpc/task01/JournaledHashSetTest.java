@@ -0,0 +1,304 @@
+package ua.omld.jpc.task01;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Oleksii Kostetskyi
+ */
+@DisplayName("A JournaledHashSet ")
+class JournaledHashSetTest {
+
+	static final int COUNT = 10_000;
+
+	/**
+	 * Writes a part of <tt>"broken"</tt> and fails, like a codec with a bug.
+	 */
+	static final ElementCodec<String> FAILING = new ElementCodec<String>() {
+		@Override
+		public int fixedSize() {
+			return -1;
+		}
+
+		@Override
+		public int encodedSize(String element) {
+			return ElementCodecs.STRING.encodedSize(element);
+		}
+
+		@Override
+		public void encode(String element, ByteBuffer buffer) {
+			if (element.equals("broken")) {
+				buffer.put((byte) 'b');
+				throw new IllegalArgumentException("Cannot encode " + element);
+			}
+			ElementCodecs.STRING.encode(element, buffer);
+		}
+
+		@Override
+		public String decode(ByteBuffer buffer, int size) {
+			return ElementCodecs.STRING.decode(buffer, size);
+		}
+	};
+
+	@TempDir
+	Path directory;
+
+	static List<String> files(Path directory) throws IOException {
+		List<String> names = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+			for (Path file : files) {
+				names.add(file.getFileName().toString());
+			}
+		}
+		Collections.sort(names);
+		return names;
+	}
+
+	@Nested
+	@DisplayName("when reopened")
+	class WhenReopened {
+
+		@Test
+		void recoversMutations() throws IOException {
+			java.util.HashSet<Long> expected = new java.util.HashSet<>();
+			try (JournaledHashSet<Long> set = new JournaledHashSet<>(directory, ElementCodecs.LONG)) {
+				for (long i = 0; i < COUNT; i++) {
+					set.add(i);
+				}
+				for (long i = 0; i < COUNT; i += 3) {
+					set.remove(i);
+				}
+				Iterator<Long> iterator = set.iterator();
+				while (iterator.hasNext()) {
+					if (iterator.next() % 5 == 0) {
+						iterator.remove();
+					}
+				}
+				set.add(null);
+				expected.addAll(set);
+			}
+			try (JournaledHashSet<Long> set = new JournaledHashSet<>(directory, ElementCodecs.LONG)) {
+				assertEquals(expected, set);
+				assertTrue(set.contains(null));
+			}
+		}
+
+		@Test
+		void recoversRemoveIf() throws IOException {
+			try (JournaledHashSet<Long> set = new JournaledHashSet<>(directory, ElementCodecs.LONG)) {
+				for (long i = 0; i < COUNT; i++) {
+					set.add(i);
+				}
+				assertTrue(set.removeIf(i -> i % 2 == 0));
+			}
+			try (JournaledHashSet<Long> set = new JournaledHashSet<>(directory, ElementCodecs.LONG)) {
+				assertEquals(COUNT / 2, set.size());
+				assertFalse(set.contains(0L));
+				assertTrue(set.contains(1L));
+			}
+		}
+
+		@Test
+		void recoversInternedElements() throws IOException {
+			try (JournaledHashSet<String> set = new JournaledHashSet<>(directory, ElementCodecs.STRING)) {
+				set.intern("one");
+				set.intern(new String("one"));
+				set.intern("two");
+			}
+			try (JournaledHashSet<String> set = new JournaledHashSet<>(directory, ElementCodecs.STRING)) {
+				assertEquals(new java.util.HashSet<>(Arrays.asList("one", "two")), set);
+			}
+		}
+
+		@Test
+		void recoversClear() throws IOException {
+			try (JournaledHashSet<String> set = new JournaledHashSet<>(directory, ElementCodecs.STRING,
+					FsyncPolicy.ALWAYS, 1)) {
+				set.add("one");
+				set.clear();
+				set.add("two");
+				set.add("three");
+				set.remove("three");
+			}
+			try (JournaledHashSet<String> set = new JournaledHashSet<>(directory, ElementCodecs.STRING)) {
+				assertEquals(Collections.singleton("two"), set);
+			}
+		}
+
+		@Test
+		void ignoresTornBatch() throws IOException {
+			try (JournaledHashSet<Long> set = new JournaledHashSet<>(directory, ElementCodecs.LONG,
+					FsyncPolicy.NEVER, 1000)) {
+				set.add(1L);
+				set.add(2L);
+			}
+			List<String> names = files(directory);
+			Files.write(directory.resolve(names.get(names.size() - 1)), new byte[]{0, 0, 0, 9, 1, 2, 3},
+					StandardOpenOption.APPEND);
+			try (JournaledHashSet<Long> set = new JournaledHashSet<>(directory, ElementCodecs.LONG)) {
+				assertEquals(2, set.size());
+				set.add(3L);
+			}
+			try (JournaledHashSet<Long> set = new JournaledHashSet<>(directory, ElementCodecs.LONG)) {
+				assertEquals(3, set.size(), "Segments after the torn one must be replayed.");
+			}
+		}
+
+		@Test
+		void mutationAfterCloseThrowsIllegalStateException() throws IOException {
+			final JournaledHashSet<Long> set = new JournaledHashSet<>(directory, ElementCodecs.LONG);
+			set.close();
+			assertThrows(IllegalStateException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					set.add(1L);
+				}
+			}, "Journal is closed.");
+		}
+
+		@Test
+		void unrecordedMutationLeavesSetUnchanged() throws IOException {
+			try (final JournaledHashSet<String> set = new JournaledHashSet<>(directory, FAILING)) {
+				set.add("a");
+				assertThrows(IllegalArgumentException.class, new Executable() {
+					@Override
+					public void execute() throws Throwable {
+						set.add("broken");
+					}
+				}, "Element the codec fails on must not be added.");
+				assertThrows(IllegalArgumentException.class, new Executable() {
+					@Override
+					public void execute() throws Throwable {
+						set.intern("broken");
+					}
+				}, "Element the codec fails on must not be interned.");
+				assertEquals(Collections.singleton("a"), set);
+				set.add("b");
+			}
+			try (JournaledHashSet<String> set = new JournaledHashSet<>(directory, FAILING)) {
+				assertEquals(new java.util.HashSet<>(Arrays.asList("a", "b")), set);
+			}
+		}
+
+		@Test
+		void iteratorRemoveWithoutNextIsNotRecorded() throws IOException {
+			try (JournaledHashSet<Long> set = new JournaledHashSet<>(directory, ElementCodecs.LONG)) {
+				set.add(1L);
+				set.add(2L);
+				final Iterator<Long> iterator = set.iterator();
+				final Long first = iterator.next();
+				iterator.remove();
+				assertThrows(IllegalStateException.class, new Executable() {
+					@Override
+					public void execute() throws Throwable {
+						iterator.remove();
+					}
+				}, "Second remove must be refused.");
+				assertEquals(1, set.size());
+				assertFalse(set.contains(first));
+			}
+			try (JournaledHashSet<Long> set = new JournaledHashSet<>(directory, ElementCodecs.LONG)) {
+				assertEquals(1, set.size());
+			}
+		}
+
+		@Test
+		void refusedMutationLeavesSetUnchanged() throws IOException {
+			final JournaledHashSet<Long> set = new JournaledHashSet<>(directory, ElementCodecs.LONG);
+			set.add(1L);
+			assertFalse(set.remove("1"), "Object of other type is not in the set.");
+			set.close();
+			set.close();
+			assertThrows(IllegalStateException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					set.remove(1L);
+				}
+			}, "Journal is closed.");
+			assertThrows(IllegalStateException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					set.add(2L);
+				}
+			}, "Journal is closed.");
+			assertEquals(Collections.singleton(1L), set);
+		}
+	}
+
+	@Nested
+	@DisplayName("when compacted")
+	class WhenCompacted {
+
+		@Test
+		void foldsJournalIntoSnapshot() throws Exception {
+			try (JournaledHashSet<Long> set = new JournaledHashSet<>(directory, ElementCodecs.LONG)) {
+				for (long i = 0; i < COUNT; i++) {
+					set.add(i);
+				}
+				set.compact().get();
+				for (long i = 0; i < COUNT; i += 2) {
+					set.remove(i);
+				}
+			}
+			List<String> names = files(directory);
+			assertEquals(2, names.size(), "One snapshot and one segment must be left: " + names);
+			assertTrue(names.get(1).startsWith("snapshot-"));
+			try (JournaledHashSet<Long> set = new JournaledHashSet<>(directory, ElementCodecs.LONG)) {
+				assertEquals(COUNT / 2, set.size());
+				for (long i = 0; i < COUNT; i++) {
+					assertEquals(i % 2 != 0, set.contains(i));
+				}
+			}
+		}
+
+		@Test
+		void compactsByThreshold() throws Exception {
+			try (JournaledHashSet<Long> set = new JournaledHashSet<>(directory, ElementCodecs.LONG,
+					FsyncPolicy.GROUP_COMMIT, 1)) {
+				set.setCompactionThreshold(1000);
+				for (long i = 0; i < COUNT; i++) {
+					set.add(i);
+				}
+				set.sync();
+				long deadline = System.currentTimeMillis() + 10_000;
+				while (!hasSnapshot() && System.currentTimeMillis() < deadline) {
+					Thread.sleep(10);
+				}
+				assertTrue(hasSnapshot(), "Journal must be compacted.");
+			}
+			try (JournaledHashSet<Long> set = new JournaledHashSet<>(directory, ElementCodecs.LONG)) {
+				assertEquals(COUNT, set.size());
+				assertFalse(set.contains((long) COUNT));
+			}
+		}
+
+		boolean hasSnapshot() throws IOException {
+			for (String name : files(directory)) {
+				if (name.startsWith("snapshot-") && name.endsWith(".bin")) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
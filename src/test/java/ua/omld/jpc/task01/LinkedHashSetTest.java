@@ -0,0 +1,219 @@
+package ua.omld.jpc.task01;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the {@link SetContractTest} suite against {@link LinkedHashSet}.
+ *
+ * @author Oleksii Kostetskyi
+ */
+@DisplayName("A LinkedHashSet ")
+class LinkedHashSetTest extends SetContractTest {
+
+	@Override
+	Set<Integer> newSet() {
+		return new LinkedHashSet<>();
+	}
+
+	@Override
+	Set<Integer> newSet(int initialCapacity) {
+		return new LinkedHashSet<>(initialCapacity);
+	}
+
+	@Override
+	Set<Integer> newSet(Collection<Integer> c) {
+		return new LinkedHashSet<>(c);
+	}
+
+	@Override
+	Set<CollidingKey> newCollidingSet() {
+		return new LinkedHashSet<>();
+	}
+
+	private static <E> List<E> listOf(Set<E> set) {
+		List<E> list = new ArrayList<>();
+		for (E element : set) {
+			list.add(element);
+		}
+		return list;
+	}
+
+	@Nested
+	@DisplayName("in insertion order")
+	class InInsertionOrder {
+
+		static final int COUNT = 10_000;
+
+		@Test
+		void iteratesInInsertionOrderAfterGrowing() {
+			LinkedHashSet<Integer> linked = new LinkedHashSet<>(1);
+			List<Integer> expected = new ArrayList<>();
+			for (int i = 0; i < COUNT; i++) {
+				int element = i * 7919 % COUNT;
+				linked.add(element);
+				expected.add(element);
+			}
+			assertFalse(linked.add(expected.get(0)), "Same element must not be added.");
+			assertEquals(expected, listOf(linked));
+			assertArrayEquals(expected.toArray(), linked.toArray());
+			assertEquals(expected.get(0), linked.eldest());
+		}
+
+		@Test
+		void removalKeepsOrderOfTheRest() {
+			LinkedHashSet<Integer> linked = new LinkedHashSet<>();
+			for (int i = 0; i < 100; i++) {
+				linked.add(99 - i);
+			}
+			for (int i = 0; i < 100; i += 3) {
+				assertTrue(linked.remove(i));
+			}
+			for (Iterator<Integer> iterator = linked.iterator(); iterator.hasNext(); ) {
+				if (iterator.next() % 3 == 1) {
+					iterator.remove();
+				}
+			}
+			List<Integer> expected = new ArrayList<>();
+			for (int i = 99; i >= 0; i--) {
+				if (i % 3 == 2) {
+					expected.add(i);
+				}
+			}
+			assertEquals(expected, listOf(linked));
+			assertEquals(expected.size(), linked.size());
+		}
+
+		@Test
+		void treeBucketsKeepOrder() {
+			LinkedHashSet<CollidingKey> keys = new LinkedHashSet<>(64);
+			List<CollidingKey> expected = new ArrayList<>();
+			for (int i = 0; i < 64; i++) {
+				CollidingKey key = i % 2 == 0 ? new CollidingKey(i) : new ComparableCollidingKey(i);
+				keys.add(key);
+				expected.add(key);
+			}
+			for (int i = 0; i < 60; i += 2) {
+				assertTrue(keys.remove(expected.get(i)));
+			}
+			List<CollidingKey> rest = new ArrayList<>();
+			for (int i = 0; i < 64; i++) {
+				if (i % 2 != 0 || i >= 60) {
+					rest.add(expected.get(i));
+				}
+			}
+			assertEquals(rest, listOf(keys));
+		}
+
+		@Test
+		void pooledEntriesKeepOrder() {
+			LinkedHashSet<Integer> linked = new LinkedHashSet<>();
+			linked.setEntryPoolCapacity(16);
+			for (int i = 0; i < COUNT; i++) {
+				linked.add(i);
+				if (i >= 10) {
+					linked.remove(i - 10);
+				}
+			}
+			assertEquals(Arrays.asList(9990, 9991, 9992, 9993, 9994, 9995, 9996, 9997, 9998, 9999), listOf(linked));
+		}
+
+		@Test
+		void clearEmptiesList() {
+			final LinkedHashSet<Integer> linked = new LinkedHashSet<>(Arrays.asList(3, 1, 2));
+			linked.clear();
+			assertFalse(linked.iterator().hasNext());
+			assertThrows(NoSuchElementException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					linked.eldest();
+				}
+			});
+			linked.add(5);
+			assertEquals(Arrays.asList(5), listOf(linked));
+		}
+	}
+
+	@Nested
+	@DisplayName("in access order")
+	class InAccessOrder {
+
+		@Test
+		void accessMovesElementToTheEnd() {
+			LinkedHashSet<Integer> linked = new LinkedHashSet<>(16, 0.75f, true);
+			for (int i = 0; i < 5; i++) {
+				linked.add(i);
+			}
+			assertTrue(linked.contains(1));
+			assertFalse(linked.add(3));
+			assertFalse(linked.contains(7));
+			assertEquals(Arrays.asList(0, 2, 4, 1, 3), listOf(linked));
+			assertTrue(linked.isAccessOrder());
+		}
+
+		@Test
+		void batchLookupIsAccess() {
+			LinkedHashSet<Integer> linked = new LinkedHashSet<>(16, 0.75f, true);
+			linked.addAll(new Integer[]{0, 1, 2, 3, 4});
+			BitSet result = new BitSet();
+			assertFalse(linked.containsAll(new Object[]{3, 7, 1}, result));
+			assertEquals(Arrays.asList(0, 2, 4, 3, 1), listOf(linked));
+			assertTrue(result.get(0) && !result.get(1) && result.get(2));
+		}
+
+		@Test
+		void removeEldestBoundsTheSet() {
+			LinkedHashSet<Integer> lru = new LinkedHashSet<Integer>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldest(Integer eldest) {
+					return size() > 3;
+				}
+			};
+			lru.add(1);
+			lru.add(2);
+			lru.add(3);
+			lru.contains(1);
+			lru.add(4);
+			assertEquals(Arrays.asList(3, 1, 4), listOf(lru));
+			lru.add(5);
+			assertEquals(Arrays.asList(1, 4, 5), listOf(lru));
+			assertEquals(3, lru.size());
+			assertFalse(lru.contains(2));
+		}
+
+		@Test
+		void internAndGetAreAccesses() {
+			LinkedHashSet<Integer> lru = new LinkedHashSet<Integer>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldest(Integer eldest) {
+					return size() > 3;
+				}
+			};
+			lru.intern(1);
+			lru.intern(2);
+			lru.intern(3);
+			assertEquals(Integer.valueOf(1), lru.get(1));
+			assertEquals(Integer.valueOf(2), lru.intern(2));
+			assertEquals(Arrays.asList(3, 1, 2), listOf(lru));
+			lru.intern(4);
+			assertEquals(Arrays.asList(1, 2, 4), listOf(lru));
+		}
+	}
+}
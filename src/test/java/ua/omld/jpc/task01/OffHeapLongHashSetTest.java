@@ -0,0 +1,182 @@
+package ua.omld.jpc.task01;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Oleksii Kostetskyi
+ */
+@DisplayName("An OffHeapLongHashSet ")
+class OffHeapLongHashSetTest {
+
+	static final int COUNT = 10_000;
+
+	OffHeapLongHashSet set;
+
+	static long key(int i) {
+		return (long) i * 7 << 32;
+	}
+
+	@AfterEach
+	void closeSet() throws IOException {
+		if (set != null) {
+			set.close();
+		}
+	}
+
+	@Nested
+	@DisplayName("in direct memory")
+	class InDirectMemory {
+
+		@BeforeEach
+		void createSet() {
+			set = new OffHeapLongHashSet(1);
+		}
+
+		@Test
+		void containsAddedValues() {
+			for (int i = -COUNT / 2; i < COUNT / 2; i++) {
+				assertTrue(set.add(key(i)));
+				assertFalse(set.add(key(i)), "Same value must not be added.");
+			}
+			assertEquals(COUNT, set.size());
+			for (int i = -COUNT / 2; i < COUNT / 2; i++) {
+				assertTrue(set.contains(key(i)), "Set must contain " + key(i));
+				assertFalse(set.contains(key(i) + 1), "Set must not contain " + (key(i) + 1));
+			}
+		}
+
+		@Test
+		void removeKeepsOtherValuesReachable() {
+			for (int i = 0; i < COUNT; i++) {
+				set.add(key(i));
+			}
+			for (int i = 0; i < COUNT; i += 2) {
+				assertTrue(set.remove(key(i)));
+			}
+			assertEquals(COUNT / 2, set.size());
+			for (int i = 0; i < COUNT; i++) {
+				assertEquals(i % 2 != 0, set.contains(key(i)), "Wrong presence of " + key(i));
+			}
+		}
+
+		@Test
+		void cursorReturnsEachValueOnce() {
+			for (int i = 0; i < COUNT; i++) {
+				set.add(i);
+			}
+			LongHashSet seen = new LongHashSet();
+			OffHeapLongHashSet.Cursor cursor = set.cursor();
+			while (cursor.advance()) {
+				assertTrue(seen.add(cursor.value()), "Value returned twice: " + cursor.value());
+			}
+			assertEquals(COUNT, seen.size());
+		}
+
+		@Test
+		void clearRemovesAllValues() {
+			set.add(0);
+			set.add(42);
+			set.clear();
+			assertTrue(set.isEmpty());
+			assertFalse(set.contains(0));
+			assertFalse(set.contains(42));
+		}
+
+		@Test
+		void closedSetThrowsIllegalStateException() throws IOException {
+			set.close();
+			assertThrows(IllegalStateException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					set.add(1);
+				}
+			}, "Closed set must not be used.");
+		}
+	}
+
+	@Nested
+	@DisplayName("in a mapped file")
+	class InMappedFile {
+
+		@TempDir
+		Path directory;
+
+		Path file;
+
+		@BeforeEach
+		void createSet() throws IOException {
+			file = directory.resolve("set.bin");
+			set = new OffHeapLongHashSet(file, 4);
+		}
+
+		@Test
+		void reopenedSetContainsAddedValues() throws IOException {
+			for (int i = 1; i <= COUNT; i++) {
+				set.add(key(i));
+			}
+			set.add(0);
+			set.remove(key(1));
+			set.close();
+
+			set = new OffHeapLongHashSet(file, 1);
+			assertEquals(COUNT, set.size());
+			assertTrue(set.contains(0));
+			assertFalse(set.contains(key(1)));
+			for (int i = 2; i <= COUNT; i++) {
+				assertTrue(set.contains(key(i)), "Set must contain " + key(i));
+			}
+		}
+
+		@Test
+		void failedGrowthKeepsTable() throws IOException {
+			Path resized = directory.resolve("set.bin.resize");
+			Files.createDirectory(resized);
+			set.add(key(1));
+			set.add(key(2));
+			assertThrows(IllegalStateException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					set.add(key(3));
+				}
+			}, "Table must not grow without its new file.");
+			Files.delete(resized);
+			for (int i = 4; i <= COUNT; i++) {
+				set.add(key(i));
+			}
+			set.close();
+
+			set = new OffHeapLongHashSet(file, 1);
+			assertEquals(COUNT, set.size());
+			for (int i = 1; i <= COUNT; i++) {
+				assertTrue(set.contains(key(i)), "Set must contain " + key(i));
+			}
+		}
+
+		@Test
+		void notSetFileThrowsIllegalArgumentException() throws IOException {
+			final Path other = directory.resolve("other.bin");
+			Files.write(other, new byte[100]);
+			assertThrows(IllegalArgumentException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					new OffHeapLongHashSet(other, 16);
+				}
+			}, "File without set header must be rejected.");
+		}
+	}
+}
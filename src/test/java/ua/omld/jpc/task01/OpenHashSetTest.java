@@ -0,0 +1,96 @@
+package ua.omld.jpc.task01;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the {@link SetContractTest} suite against {@link OpenHashSet}.
+ *
+ * @author Oleksii Kostetskyi
+ */
+@DisplayName("An OpenHashSet ")
+class OpenHashSetTest extends SetContractTest {
+
+	@Override
+	Set<Integer> newSet() {
+		return new OpenHashSet<>();
+	}
+
+	@Override
+	Set<Integer> newSet(int initialCapacity) {
+		return new OpenHashSet<>(initialCapacity);
+	}
+
+	@Override
+	Set<Integer> newSet(Collection<Integer> c) {
+		return new OpenHashSet<>(c);
+	}
+
+	@Override
+	Set<CollidingKey> newCollidingSet() {
+		return new OpenHashSet<>();
+	}
+
+	@Nested
+	@DisplayName("when probing")
+	class WhenProbing {
+
+		@Test
+		void illegalLoadFactorThrowsIllegalArgumentException() {
+			assertThrows(IllegalArgumentException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					new OpenHashSet<Integer>(16, 1f);
+				}
+			}, "Load factor must be less then 1.");
+		}
+
+		@Test
+		void removeKeepsCollidingElementsReachable() {
+			set = new OpenHashSet<>(16, 0.9f);
+			for (int i = 0; i < 14; i++) {
+				set.add(i * 16);
+			}
+			for (int i = 0; i < 14; i += 2) {
+				assertTrue(set.remove(i * 16));
+			}
+			for (int i = 0; i < 14; i++) {
+				assertEquals(i % 2 != 0, set.contains(i * 16), "Wrong presence of " + i * 16);
+			}
+		}
+
+		@Test
+		void iteratorRemoveVisitsEachElementOnce() {
+			set = new OpenHashSet<>(64, 0.9f);
+			for (int i = 0; i < 57; i++) {
+				set.add(i);
+			}
+			boolean[] visited = new boolean[57];
+			Iterator<Integer> iterator = set.iterator();
+			while (iterator.hasNext()) {
+				Integer element = iterator.next();
+				assertFalse(visited[element], "Element visited twice: " + element);
+				visited[element] = true;
+				if (element % 2 == 0) {
+					iterator.remove();
+				}
+			}
+			for (int i = 0; i < visited.length; i++) {
+				assertTrue(visited[i], "Element not visited: " + i);
+				assertEquals(i % 2 != 0, set.contains(i));
+			}
+			assertEquals(28, set.size());
+		}
+	}
+}
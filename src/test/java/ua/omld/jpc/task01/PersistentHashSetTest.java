@@ -0,0 +1,177 @@
+package ua.omld.jpc.task01;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the {@link SetContractTest} suite against {@link PersistentHashSet}.
+ *
+ * @author Oleksii Kostetskyi
+ */
+@DisplayName("A PersistentHashSet ")
+class PersistentHashSetTest extends SetContractTest {
+
+	@Override
+	Set<Integer> newSet() {
+		return new PersistentHashSet<>();
+	}
+
+	@Override
+	Set<Integer> newSet(int initialCapacity) {
+		return new PersistentHashSet<>();
+	}
+
+	@Override
+	Set<Integer> newSet(Collection<Integer> c) {
+		return new PersistentHashSet<>(c);
+	}
+
+	@Override
+	Set<CollidingKey> newCollidingSet() {
+		return new PersistentHashSet<>();
+	}
+
+	@Nested
+	@DisplayName("when snapshotted")
+	class WhenSnapshotted {
+
+		static final int COUNT = 10_000;
+
+		PersistentHashSet<Integer> writer;
+		PersistentHashSet<Integer> snapshot;
+
+		@BeforeEach
+		void takeSnapshot() {
+			writer = new PersistentHashSet<>();
+			for (int i = 0; i < COUNT; i++) {
+				writer.add(i);
+			}
+			writer.add(null);
+			snapshot = writer.snapshot();
+		}
+
+		@Test
+		void snapshotIsNotAffectedByWriter() {
+			for (int i = 0; i < COUNT; i += 2) {
+				writer.remove(i);
+			}
+			writer.remove(null);
+			writer.add(-1);
+			assertEquals(COUNT + 1, snapshot.size());
+			for (int i = 0; i < COUNT; i++) {
+				assertTrue(snapshot.contains(i), "Snapshot must contain " + i);
+				assertEquals(i % 2 != 0, writer.contains(i), "Wrong presence of " + i);
+			}
+			assertTrue(snapshot.contains(null));
+			assertFalse(snapshot.contains(-1));
+			assertEquals(COUNT / 2 + 1, writer.size());
+		}
+
+		@Test
+		void snapshotIsReadOnly() {
+			assertTrue(snapshot.isSnapshot());
+			assertFalse(writer.isSnapshot());
+			assertSame(snapshot, snapshot.snapshot());
+			assertThrows(UnsupportedOperationException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					snapshot.add(-1);
+				}
+			});
+			assertThrows(UnsupportedOperationException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					snapshot.clear();
+				}
+			});
+			final Iterator<Integer> iterator = snapshot.iterator();
+			iterator.next();
+			assertThrows(UnsupportedOperationException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					iterator.remove();
+				}
+			});
+			assertEquals(COUNT + 1, snapshot.size());
+		}
+
+		@Test
+		void snapshotEqualsWriterUntilWritten() {
+			assertEquals(writer, snapshot);
+			assertEquals(writer.hashCode(), snapshot.hashCode());
+			writer.add(-1);
+			assertNotEquals(writer, snapshot);
+			writer.remove(-1);
+			assertEquals(writer, snapshot);
+		}
+
+		@Test
+		void forkSharesSnapshotAndDiverges() {
+			PersistentHashSet<Integer> fork = new PersistentHashSet<>(snapshot);
+			fork.remove(0);
+			writer.remove(1);
+			assertFalse(fork.contains(0));
+			assertTrue(fork.contains(1));
+			assertTrue(writer.contains(0));
+			assertFalse(writer.contains(1));
+			assertTrue(snapshot.contains(0));
+			assertTrue(snapshot.contains(1));
+		}
+
+		@Test
+		void manyVersionsKeepTheirElements() {
+			List<PersistentHashSet<Integer>> versions = new ArrayList<>();
+			for (int i = 0; i < COUNT; i++) {
+				writer.remove(i);
+				versions.add(writer.snapshot());
+			}
+			for (int i = 0; i < COUNT; i += 97) {
+				PersistentHashSet<Integer> version = versions.get(i);
+				assertEquals(COUNT - i, version.size());
+				assertFalse(version.contains(i), "Version " + i + " must not contain " + i);
+				assertTrue(version.contains(i + 1) || i + 1 == COUNT, "Version " + i + " must contain " + (i + 1));
+			}
+		}
+
+		@Test
+		void iteratorIsNotAffectedByRemoval() {
+			int count = 0;
+			for (Iterator<Integer> iterator = writer.iterator(); iterator.hasNext(); count++) {
+				iterator.next();
+				iterator.remove();
+			}
+			assertEquals(COUNT + 1, count);
+			assertTrue(writer.isEmpty());
+			assertEquals(COUNT + 1, snapshot.size());
+		}
+
+		@Test
+		void iteratorIsNotAffectedByAddition() {
+			writer.add(-1);
+			int count = 0;
+			for (Iterator<Integer> iterator = writer.iterator(); iterator.hasNext(); count++) {
+				Integer element = iterator.next();
+				assertTrue(element == null || element < COUNT, "Iterator must not see added " + element);
+				writer.add(COUNT + count);
+			}
+			assertEquals(COUNT + 2, count);
+			assertEquals(2 * COUNT + 4, writer.size());
+		}
+	}
+}
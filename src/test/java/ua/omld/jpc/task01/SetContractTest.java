@@ -0,0 +1,587 @@
+package ua.omld.jpc.task01;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ua.omld.jpc.task01.HashSetTestData.i1;
+import static ua.omld.jpc.task01.HashSetTestData.i2;
+import static ua.omld.jpc.task01.HashSetTestData.i3;
+import static ua.omld.jpc.task01.HashSetTestData.i4;
+import static ua.omld.jpc.task01.HashSetTestData.i5;
+import static ua.omld.jpc.task01.HashSetTestData.setIntersection;
+import static ua.omld.jpc.task01.HashSetTestData.setSubtraction;
+import static ua.omld.jpc.task01.HashSetTestData.setUnion;
+
+/**
+ * Behaviour every {@link Set} of this project shares with {@link java.util.HashSet}.
+ * A subclass per implementation runs the suite through the factory methods.
+ *
+ * @author Oleksii Kostetskyi
+ */
+abstract class SetContractTest {
+
+	/**
+	 * For catching Exceptions there is used Java 1.7 style with anonymous classes, according to task.
+	 */
+
+	Set<Integer> set;
+
+	/**
+	 * Creates an empty set under test.
+	 */
+	abstract Set<Integer> newSet();
+
+	abstract Set<Integer> newSet(int initialCapacity);
+
+	abstract Set<Integer> newSet(Collection<Integer> c);
+
+	abstract Set<CollidingKey> newCollidingSet();
+
+	@Nested
+	@DisplayName(" when new")
+	class WhenNew {
+
+		@BeforeEach
+		void createHash() {
+			set = newSet();
+		}
+
+		@Test
+		void sizeIsZero() {
+			assertEquals(0, set.size(), "New Set size must be 0.");
+		}
+
+		@Test
+		void setIsEmpty() {
+			assertTrue(set.isEmpty(), "New set must be empty.");
+		}
+
+		@Test
+		void addReturnsTrue() {
+			assertTrue(set.add(i1));
+		}
+
+		@Test
+		void addNullReturnsTrue() {
+			assertTrue(set.add(null), "Null must be added.");
+		}
+
+		@Test
+		void addNullTwiceReturnsFalse() {
+			set.add(null);
+			assertFalse(set.add(null), "Only one null can be added.");
+		}
+
+		@Test
+		void removeElementReturnsFalse() {
+			assertFalse(set.remove(i1), "No elements in Set - nothing to remove.");
+		}
+
+		@Test
+		void removeNullReturnsFalse() {
+			assertFalse(set.remove(null), "Nulls are permitted, but there are no elements in the set.");
+		}
+
+		@Test
+		void afterAddNullRemoveNullReturnsTrue() {
+			set.add(null);
+			assertTrue(set.remove(null), "Null must be removed.");
+		}
+
+		@Test
+		void iteratorDoesNotGiveNextElement() {
+			Iterator<Integer> iterator = set.iterator();
+			assertNotNull(iterator, "Iterator always present.");
+			assertFalse(iterator.hasNext(), "Empty Set does not have next element.");
+		}
+
+		@Test
+		void toArrayReturnsEmptyArray() {
+			assertTrue(Arrays.deepEquals(new Integer[0], set.toArray()));
+		}
+
+		@Test
+		void toArrayWithGivenArrayReturnsEmptiedArray() {
+			assertTrue(Arrays.deepEquals(new Object[5], set.toArray(new Object[]{1, 2, 3, 4, 5})));
+		}
+
+		@Test
+		void addAllReturnsTrue() {
+			assertTrue(set.addAll(Arrays.asList(i1, i2, i3, i4, i5)), "All elements must be added.");
+		}
+
+		@Test
+		void addAllWithNullReturnsTrue() {
+			assertTrue(set.addAll(Arrays.asList(i1, null)), "Collection with null must be added.");
+		}
+
+		@Test
+		void removeAllReturnsFalse() {
+			assertFalse(set.removeAll(Arrays.asList(i1, i2, i3, i4, i5)), "There are no elements in new Set.");
+		}
+
+		@Test
+		void removeAllWithNullReturnsFalse() {
+			assertFalse(set.removeAll(Arrays.asList(i1, null)), "Collection with null must be removed.");
+		}
+	}
+
+	@Nested
+	@DisplayName("when adding an element")
+	class WhenAddingOne {
+
+		@BeforeEach
+		void createSetAndAddElement() {
+			set = newSet();
+			set.add(i1);
+		}
+
+		@Test
+		void sizeIsOne() {
+			assertEquals(1, set.size(), "Set size must be 1.");
+		}
+
+		@Test
+		void setIsNotEmpty() {
+			assertFalse(set.isEmpty(), "Set with elements can`t be empty.");
+		}
+
+		@Test
+		void removeElementReturnsTrue() {
+			assertTrue(set.remove(i1));
+		}
+
+		@Test
+		void afterRemoveElementSetIsEmpty() {
+			set.remove(i1);
+			assertTrue(set.isEmpty(), "Set must be empty.");
+		}
+
+		@Test
+		void setContainsElement() {
+			assertTrue(set.contains(i1), "Set must contain " + i1);
+		}
+
+		@Test
+		void containsAllReturnsFalse() {
+			assertFalse(set.containsAll(Arrays.asList(i2, i3, i4)));
+		}
+
+
+		@Test
+		void afterClearSetIsEmpty() {
+			set.clear();
+			assertTrue(set.isEmpty(), "After clear Set must be empty.");
+		}
+
+		@Test
+		void addSameElementReturnsFalse() {
+			assertFalse(set.add(i1), "Same element must not be added.");
+		}
+
+		@Test
+		void toArrayWithGivenWrongTypeArrayThrowsArrayStoreException() {
+			assertThrows(ArrayStoreException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					set.toArray(new String[]{"1", "2", "3", "4", "5"});
+				}
+			}, "Wrong array type not permitted.");
+		}
+	}
+
+	@Nested
+	@DisplayName("when adding few elements")
+	class WhenAddingFive {
+
+		@BeforeEach
+		void createSetAndAddFiveElements() {
+			set = newSet();
+			set.add(i1);
+			set.add(i2);
+			set.add(i3);
+			set.add(i4);
+			set.add(i5);
+		}
+
+		@Test
+		void sizeIsFive() {
+			assertEquals(5, set.size(), "Set size must be 5.");
+		}
+
+		@Test
+		void removeTwoElementsSizeIsThree() {
+			set.remove(i2);
+			set.remove(i4);
+			assertEquals(3, set.size(), "Set size must be 3.");
+		}
+
+		@Test
+		void containsAddedElements() {
+			assertTrue(set.contains(i1), "Set must contain " + i1);
+			assertTrue(set.contains(i2), "Set must contain " + i2);
+			assertTrue(set.contains(i3), "Set must contain " + i3);
+			assertTrue(set.contains(i4), "Set must contain " + i4);
+			assertTrue(set.contains(i5), "Set must contain " + i5);
+		}
+
+		@Test
+		void iteratorReturnsFiveElements() {
+			Iterator<Integer> iterator = set.iterator();
+			for (int i = 0; i < 5; i++) {
+				assertTrue(iterator.hasNext());
+				assertNotNull(iterator.next());
+			}
+			assertFalse(iterator.hasNext());
+		}
+
+		@Test
+		void removeOnIteratorWithoutNextThrowsIllegalStateException() {
+			final Iterator<Integer> iterator = set.iterator();
+			assertThrows(IllegalStateException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					iterator.remove();
+				}
+			}, "Remove() without next() not permitted.");
+		}
+
+		@Test
+		void doubleRemoveOnIteratorThrowsIllegalStateException() {
+			final Iterator<Integer> iterator = set.iterator();
+			iterator.next();
+			iterator.remove();
+			assertThrows(IllegalStateException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					iterator.remove();
+				}
+			}, "Double Remove() not permitted.");
+		}
+
+		@Test
+		void containsAllWithSubSetReturnsTrue() {
+			assertTrue(set.containsAll(Arrays.asList(i2, i3, i4)), "Set must contain its sub-set.");
+		}
+
+		@Test
+		void containsAllWithNullElementReturnsFalse() {
+			assertFalse(set.containsAll(Arrays.asList(i2, null, i4)), "Nulls are permitted, but there is not in the set.");
+		}
+
+		@Test
+		void andAddNullContainsAllWithNullElementReturnsTrue() {
+			set.add(null);
+			assertTrue(set.containsAll(Arrays.asList(i2, null, i4)), "All elements must be in the Set.");
+		}
+	}
+
+	@Nested
+	@DisplayName("basic math operations")
+	class MathOperationsWithTwoSets {
+
+		Set<Integer> setA;
+		Set<Integer> setB;
+
+		@BeforeEach
+		void setUp() {
+			setA = newSet(HashSetTestData.set1);
+			setB = newSet(HashSetTestData.set2);
+		}
+
+		@Test
+		void whenAddAllGetUnion() {
+			assertTrue(setA.addAll(setB));
+			assertEquals(setUnion, setA, "Union must contain all elements.");
+		}
+
+		@Test
+		void whenRetainAllGetIntersection() {
+			assertTrue(setA.retainAll(setB));
+			assertEquals(setIntersection, setA, "Intersection must contain only common elements.");
+		}
+
+		@Test
+		void whenRemoveAllGetSubtraction() {
+			assertTrue(setA.removeAll(setB));
+			assertEquals(setSubtraction, setA, "Subtraction must contain only different elements.");
+		}
+	}
+
+	@Nested
+	@DisplayName("when growing")
+	class WhenGrowing {
+
+		static final int COUNT = 10_000;
+
+		@Test
+		void containsAllAddedElements() {
+			set = newSet(1);
+			for (int i = 0; i < COUNT; i++) {
+				assertTrue(set.add(i));
+			}
+			assertEquals(COUNT, set.size());
+			for (int i = 0; i < COUNT; i++) {
+				assertTrue(set.contains(i), "Set must contain " + i);
+			}
+			assertFalse(set.contains(COUNT));
+		}
+
+		@Test
+		void copyConstructorKeepsAllElements() {
+			Set<Integer> source = new java.util.HashSet<>();
+			for (int i = 0; i < COUNT; i++) {
+				source.add(i * 31);
+			}
+			set = newSet(source);
+			assertEquals(source, set);
+		}
+	}
+
+	@Nested
+	@DisplayName("with poor hash codes")
+	class WithPoorHashCodes {
+
+		@BeforeEach
+		void createHash() {
+			set = newSet();
+		}
+
+		@Test
+		void minValueHashCodeIsPermitted() {
+			assertTrue(set.add(Integer.MIN_VALUE));
+			assertTrue(set.contains(Integer.MIN_VALUE), "Set must contain " + Integer.MIN_VALUE);
+			assertTrue(set.remove(Integer.MIN_VALUE));
+		}
+
+		@Test
+		void containsAlignedElements() {
+			for (int i = 0; i < 1000; i++) {
+				assertTrue(set.add(i << 16));
+			}
+			for (int i = 0; i < 1000; i++) {
+				assertTrue(set.contains(i << 16), "Set must contain " + (i << 16));
+			}
+			assertFalse(set.contains(1));
+		}
+	}
+
+	@Nested
+	@DisplayName("when comparing")
+	class WhenComparing {
+
+		Set<Integer> expected;
+
+		@BeforeEach
+		void createSets() {
+			set = newSet();
+			expected = new java.util.HashSet<>();
+			for (int i = -50; i < 50; i++) {
+				set.add(i * 37);
+				expected.add(i * 37);
+			}
+			set.add(null);
+			expected.add(null);
+		}
+
+		@Test
+		void hashCodeFollowsAddAndRemove() {
+			assertEquals(expected.hashCode(), set.hashCode());
+			set.add(1);
+			set.add(1);
+			set.remove(37);
+			set.remove(2);
+			expected.add(1);
+			expected.remove(37);
+			assertEquals(expected.hashCode(), set.hashCode());
+		}
+
+		@Test
+		void hashCodeFollowsIteratorRemoveAndClear() {
+			Iterator<Integer> iterator = set.iterator();
+			while (iterator.hasNext()) {
+				Integer element = iterator.next();
+				if (element != null && element % 2 == 0) {
+					iterator.remove();
+					expected.remove(element);
+				}
+			}
+			assertEquals(expected.hashCode(), set.hashCode());
+			set.clear();
+			assertEquals(0, set.hashCode());
+		}
+
+		@Test
+		void equalsComparesElements() {
+			Set<Integer> other = newSet(expected);
+			assertTrue(set.equals(other));
+			assertTrue(set.equals(expected));
+			assertEquals(set.hashCode(), other.hashCode());
+			other.remove(0);
+			other.add(1);
+			assertFalse(set.equals(other), "Sets of same size with different elements are not equal.");
+			assertFalse(other.equals(set), "Sets of same size with different elements are not equal.");
+		}
+	}
+
+	@Nested
+	@DisplayName("with colliding hash codes")
+	class WithCollidingHashCodes {
+
+		static final int COUNT = 2_000;
+
+		Set<CollidingKey> keys;
+
+		@BeforeEach
+		void createSet() {
+			keys = newCollidingSet();
+		}
+
+		@Test
+		void containsComparableElements() {
+			for (int i = 0; i < COUNT; i++) {
+				assertTrue(keys.add(new ComparableCollidingKey(i)));
+				assertFalse(keys.add(new ComparableCollidingKey(i)), "Same element must not be added.");
+			}
+			assertEquals(COUNT, keys.size());
+			for (int i = 0; i < COUNT; i++) {
+				assertTrue(keys.contains(new ComparableCollidingKey(i)), "Set must contain " + i);
+			}
+			assertFalse(keys.contains(new ComparableCollidingKey(COUNT)));
+			assertFalse(keys.contains(new CollidingKey(0)), "Keys of other class are not equal.");
+		}
+
+		@Test
+		void containsNotComparableElements() {
+			for (int i = 0; i < COUNT; i++) {
+				assertTrue(keys.add(new CollidingKey(i)));
+			}
+			assertEquals(COUNT, keys.size());
+			for (int i = 0; i < COUNT; i++) {
+				assertTrue(keys.contains(new CollidingKey(i)), "Set must contain " + i);
+			}
+			assertFalse(keys.contains(new CollidingKey(COUNT)));
+		}
+
+		@Test
+		void containsMixedElementsAndNull() {
+			for (int i = 0; i < COUNT; i++) {
+				keys.add(i % 2 == 0 ? new ComparableCollidingKey(i) : new CollidingKey(i));
+			}
+			assertTrue(keys.add(null));
+			for (int i = 0; i < COUNT; i++) {
+				assertTrue(keys.contains(i % 2 == 0 ? new ComparableCollidingKey(i) : new CollidingKey(i)),
+						"Set must contain " + i);
+			}
+			assertTrue(keys.contains(null));
+			assertEquals(COUNT + 1, keys.size());
+		}
+
+		@Test
+		void removeKeepsOtherElements() {
+			for (int i = 0; i < COUNT; i++) {
+				keys.add(new ComparableCollidingKey(i));
+			}
+			for (int i = 0; i < COUNT; i++) {
+				if (i % 10 != 0) {
+					assertTrue(keys.remove(new ComparableCollidingKey(i)), "Set must contain " + i);
+				}
+			}
+			assertEquals(COUNT / 10, keys.size());
+			for (int i = 0; i < COUNT; i++) {
+				assertEquals(i % 10 == 0, keys.contains(new ComparableCollidingKey(i)));
+			}
+		}
+
+		@Test
+		void iteratorRemovesAllElements() {
+			for (int i = 0; i < COUNT; i++) {
+				keys.add(new ComparableCollidingKey(i));
+			}
+			boolean[] visited = new boolean[COUNT];
+			Iterator<CollidingKey> iterator = keys.iterator();
+			while (iterator.hasNext()) {
+				CollidingKey key = iterator.next();
+				assertFalse(visited[key.id], "Element visited twice: " + key.id);
+				visited[key.id] = true;
+				iterator.remove();
+			}
+			for (int i = 0; i < COUNT; i++) {
+				assertTrue(visited[i], "Element not visited: " + i);
+			}
+			assertTrue(keys.isEmpty());
+			assertFalse(keys.iterator().hasNext(), "Empty Set does not have next element.");
+		}
+	}
+
+	@Nested
+	@DisplayName("when sparse")
+	class WhenSparse {
+
+		static final int COUNT = 100_000;
+
+		@BeforeEach
+		void createSetAndRemoveMostElements() {
+			set = newSet(COUNT * 4);
+			for (int i = 0; i < COUNT; i++) {
+				set.add(i);
+			}
+			Iterator<Integer> iterator = set.iterator();
+			while (iterator.hasNext()) {
+				if (iterator.next() % 1000 != 0) {
+					iterator.remove();
+				}
+			}
+		}
+
+		@Test
+		void iteratorReturnsRemainingElements() {
+			Iterator<Integer> iterator = set.iterator();
+			int count = 0;
+			while (iterator.hasNext()) {
+				assertTrue(iterator.hasNext(), "Repeated hasNext() must not advance.");
+				assertEquals(0, iterator.next() % 1000);
+				count++;
+			}
+			assertEquals(COUNT / 1000, count);
+			assertEquals(COUNT / 1000, set.size());
+		}
+
+		@Test
+		void nextAfterLastElementThrowsNoSuchElementException() {
+			final Iterator<Integer> iterator = set.iterator();
+			while (iterator.hasNext()) {
+				iterator.next();
+			}
+			assertThrows(NoSuchElementException.class, new Executable() {
+				@Override
+				public void execute() throws Throwable {
+					iterator.next();
+				}
+			}, "No elements left.");
+		}
+
+		@Test
+		void afterClearSetIsReusable() {
+			set.clear();
+			assertTrue(set.isEmpty());
+			assertFalse(set.iterator().hasNext(), "Cleared Set does not have next element.");
+			assertTrue(set.add(7));
+			assertEquals(Arrays.asList(7), Arrays.asList(set.toArray()));
+		}
+	}
+}